@@ -50,6 +50,8 @@ public enum Group
     INDEX_SAMPLING( "IndexSampling" ),
     /** Background index update applier, for eventually consistent indexes. */
     INDEX_UPDATING( "IndexUpdating", ExecutorServiceFactory.singleThread() ), // Single-threaded to serialise updates with opening/closing/flushing of indexes.
+    /** Writes the records changed by recovered transactions to the store in parallel. */
+    RECOVERY( "Recovery" ),
     /** Thread pool for anyone who want some help doing file IO in parallel. */
     FILE_IO_HELPER( "FileIOHelper" ),
     NATIVE_SECURITY( "NativeSecurity" ),
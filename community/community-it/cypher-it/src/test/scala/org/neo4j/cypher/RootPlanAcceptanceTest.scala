@@ -24,6 +24,8 @@ import org.neo4j.cypher.internal.planner.v3_5.spi.CostBasedPlannerName
 import org.neo4j.graphdb.ExecutionPlanDescription
 import org.neo4j.cypher.internal.v3_5.frontend.PlannerName
 
+import scala.collection.JavaConverters._
+
 class RootPlanAcceptanceTest extends ExecutionEngineFunSuite {
 
   test("cost should be default planner in 3.5") {
@@ -115,12 +117,31 @@ class RootPlanAcceptanceTest extends ExecutionEngineFunSuite {
       .planDescription.getArguments.get("Rows") should equal(0)
   }
 
+  test("SpilledBytes should be reported for operators that spilled over the memory budget") {
+    execute("UNWIND range(1, 1000) AS i CREATE ({prop: i, name: 'node ' + i})")
+
+    val result = executeOfficial(
+      "CYPHER runtime=interpreted memoryBudget=16k PROFILE MATCH (n) RETURN n.name AS name ORDER BY n.prop DESC")
+    val names = result.columnAs[String]("name").asScala.toList
+    val description = result.getExecutionPlanDescription
+
+    names should equal((1 to 1000).reverse.map(i => s"node $i"))
+    description.getArguments.get("memory-budget") should equal(16 * 1024)
+    val sort = find(description, "Sort")
+    sort.getArguments.get("SpilledBytes").asInstanceOf[Long] should be > 0L
+    find(description, "AllNodesScan").getArguments.containsKey("SpilledBytes") should be(false)
+  }
+
   test("EstimatedRows should be properly formatted") {
     given("match (n) return n").planDescription.getArguments.get("EstimatedRows") should equal(1) // on missing statistics, we fake cardinality to one
   }
 
   def given(query: String) = TestQuery(query)
 
+  private def find(description: ExecutionPlanDescription, name: String): ExecutionPlanDescription =
+    if (description.getName == name) description
+    else description.getChildren.asScala.map(find(_, name)).find(_ != null).orNull
+
   case class TestQuery(query: String,
                        cypherVersion: Option[CypherVersion] = None,
                        planner: Option[PlannerName] = None,
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5
+
+import java.time.Clock
+
+import org.neo4j.cypher._
+import org.neo4j.cypher.internal.compatibility.InterpretedRuntime.InterpretedExecutionPlan
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.compiled.CompiledCommandExpression
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan.{ExecutionPlan, InterpretedExecutionResultBuilderFactory}
+import org.neo4j.cypher.internal.compatibility.{CommunityRuntimeContextCreator, CypherCurrentCompiler, CypherRuntime, InterpretedRuntime, RuntimeContext}
+import org.neo4j.cypher.internal.compiler.v3_5.phases.LogicalPlanState
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{FilterPipe, Pipe}
+import org.neo4j.cypher.internal.v3_5.frontend.phases.CompilationPhaseTracer
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.cypher.internal.{CypherConfiguration, PreParser}
+import org.neo4j.kernel.configuration.Config
+import org.neo4j.kernel.impl.util.ValueUtils
+import org.neo4j.logging.NullLog
+
+import scala.collection.JavaConverters._
+
+class CompiledExpressionAcceptanceTest extends CypherFunSuite with GraphDatabaseTestSupport {
+
+  private val query = "MATCH (n) WHERE n.prop + 1 > 2 RETURN n.prop * 2 AS double"
+
+  test("should build pipes that evaluate compiled expressions with expressionEngine=compiled") {
+    val pipe = buildPipe(s"CYPHER expressionEngine=compiled $query")
+
+    containsCompiledExpression(filterOf(pipe).predicate) should be(true)
+  }
+
+  test("should build pipes that evaluate interpreted expressions by default") {
+    val pipe = buildPipe(query)
+
+    containsCompiledExpression(filterOf(pipe).predicate) should be(false)
+  }
+
+  test("should return the same results with compiled and interpreted expressions") {
+    createNode("prop" -> 1)
+    createNode("prop" -> 2)
+    createNode("prop" -> 3)
+    createNode()
+
+    results(s"CYPHER expressionEngine=compiled $query") should equal(results(query))
+    results(query) should equal(Set(4L, 6L))
+  }
+
+  private def results(queryText: String): Set[Long] =
+    graph.execute(queryText).columnAs[Number]("double").asScala.map(_.longValue()).toSet
+
+  private def buildPipe(queryText: String): Pipe = {
+    val runtime = new RecordingRuntime
+    val config = Config.defaults()
+    val plannerConfig = CypherConfiguration.fromConfig(config).toCypherPlannerConfiguration(config)
+    val planner = Cypher35Planner(plannerConfig,
+      Clock.systemUTC(),
+      kernelMonitors,
+      NullLog.getInstance,
+      CypherPlannerOption.default,
+      CypherUpdateStrategy.default,
+      () => 1)
+    val compiler = CypherCurrentCompiler(planner, runtime, CommunityRuntimeContextCreator(plannerConfig, NullLog.getInstance), kernelMonitors)
+    val preParser = new PreParser(CypherVersion.default, CypherPlannerOption.default, CypherRuntimeOption.default,
+      CypherExpressionEngineOption.default, 1)
+
+    graph.withTx { _ =>
+      val context = graph.transactionalContext(query = queryText -> Map.empty)
+      compiler.compile(preParser.preParseQuery(queryText), CompilationPhaseTracer.NO_TRACING, Set.empty, context,
+        ValueUtils.asParameterMapValue(Map.empty[String, AnyRef].asJava))
+      context.close(true)
+    }
+
+    runtime.plan.asInstanceOf[InterpretedExecutionPlan].resultBuilderFactory
+      .asInstanceOf[InterpretedExecutionResultBuilderFactory].pipe
+  }
+
+  private def filterOf(pipe: Pipe): FilterPipe = pipe match {
+    case filter: FilterPipe => filter
+    case other: Product => other.productIterator.collectFirst { case source: Pipe => filterOf(source) }
+      .getOrElse(fail(s"No filter in $pipe"))
+    case _ => fail(s"No filter in $pipe")
+  }
+
+  private def containsCompiledExpression(expression: Expression): Boolean = expression match {
+    case _: CompiledCommandExpression => true
+    case other => other.arguments.exists(containsCompiledExpression)
+  }
+
+  private class RecordingRuntime extends CypherRuntime[RuntimeContext] {
+    var plan: ExecutionPlan = _
+
+    override def compileToExecutable(state: LogicalPlanState, context: RuntimeContext): ExecutionPlan = {
+      plan = InterpretedRuntime.compileToExecutable(state, context)
+      plan
+    }
+  }
+}
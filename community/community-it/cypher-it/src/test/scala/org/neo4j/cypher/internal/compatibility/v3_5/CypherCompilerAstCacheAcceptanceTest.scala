@@ -58,7 +58,8 @@ class CypherCompilerAstCacheAcceptanceTest extends CypherFunSuite with GraphData
       csvBufferSize = CSVResources.DEFAULT_BUFFER_SIZE,
       nonIndexedLabelWarningThreshold = 10000L,
       planWithMinimumCardinalityEstimates = true,
-      lenientCreateRelationship = false
+      lenientCreateRelationship = false,
+      queryMemoryBudget = 0
     )
   }
 
@@ -71,15 +72,15 @@ class CypherCompilerAstCacheAcceptanceTest extends CypherFunSuite with GraphData
       cypher.CypherPlannerOption.default,
       CypherUpdateStrategy.default,
       () => 1)
-    createCompiler(planner, config)
+    createCompiler(planner, config, log)
   }
 
-  private def createCompiler(planner: CypherPlanner, config: CypherPlannerConfiguration):
+  private def createCompiler(planner: CypherPlanner, config: CypherPlannerConfiguration, log: Log = NullLog.getInstance):
   CypherCurrentCompiler[RuntimeContext] = {
     CypherCurrentCompiler(
       planner,
       CommunityRuntimeFactory.getRuntime(CypherRuntimeOption.default, disallowFallback = true),
-      CommunityRuntimeContextCreator(config),
+      CommunityRuntimeContextCreator(config, log),
       kernelMonitors)
 
   }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5
+
+import org.neo4j.cypher.ExecutionEngineFunSuite
+import org.neo4j.cypher.internal.RewindableExecutionResult
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.{InterpretedRuntimeName, RuntimeName, SlottedRuntimeName}
+import org.neo4j.graphdb.{Node, Relationship}
+
+import scala.collection.JavaConverters._
+
+class SlottedRuntimeAcceptanceTest extends ExecutionEngineFunSuite {
+
+  override protected def initTest(): Unit = {
+    super.initTest()
+    val nodes = (0 until 10).map(i => createLabeledNode(Map("name" -> s"person $i", "age" -> (20 + i)), if (i % 2 == 0) "Even" else "Odd"))
+    nodes.sliding(2).foreach {
+      case Seq(a, b) => relate(a, b, "KNOWS", Map("since" -> a.getId))
+    }
+    relate(nodes.head, nodes.last, "LIKES", Map("since" -> 0L))
+    // Lots of nodes without relationships, so that scanning the few relationships by type is the cheapest plan
+    (0 until 100).foreach(_ => createNode())
+  }
+
+  test("should scan all nodes") {
+    assertSameResults("MATCH (n) RETURN n", SlottedRuntimeName)
+  }
+
+  test("should scan nodes by label") {
+    assertSameResults("MATCH (n:Even) RETURN n, n.name AS name", SlottedRuntimeName)
+  }
+
+  test("should expand") {
+    assertSameResults("MATCH (a:Odd)-[r]->(b) RETURN a, r, b", SlottedRuntimeName)
+    assertSameResults("MATCH (a:Odd)<-[r]-(b) RETURN a.name AS a, type(r) AS type, b.name AS b", SlottedRuntimeName)
+    assertSameResults("MATCH (a:Even)-[r1]->(b)-[r2]->(c) RETURN a, r1, b, r2, c", SlottedRuntimeName)
+  }
+
+  test("should filter") {
+    assertSameResults("MATCH (n:Even) WHERE n.age > 22 AND n.name STARTS WITH 'person' RETURN n.name AS name", SlottedRuntimeName)
+    assertSameResults("MATCH (a:Even)-[r]->(b) WHERE r.since > 2 RETURN a, b", SlottedRuntimeName)
+  }
+
+  test("should project") {
+    assertSameResults("MATCH (n:Odd) WITH n, n.age * 2 AS double RETURN n.name AS name, double, double + 1 AS next", SlottedRuntimeName)
+  }
+
+  test("should skip and limit") {
+    assertSameResults("MATCH (n:Even) RETURN n.name AS name SKIP 1 LIMIT 2", SlottedRuntimeName, ordered = true)
+    assertSameResults("MATCH (n) WHERE exists(n.name) RETURN n SKIP $skip LIMIT $limit", SlottedRuntimeName, ordered = true,
+                      Map("skip" -> 3, "limit" -> 4))
+  }
+
+  test("should fall back to the interpreted runtime for apply") {
+    assertSameResults("MATCH (a:Even) OPTIONAL MATCH (a)-[r:LIKES]->(b) RETURN a.name AS a, b.name AS b", InterpretedRuntimeName)
+  }
+
+  test("should fall back to the interpreted runtime for a scan of relationships by type") {
+    val query = "MATCH (a)-[r:LIKES]->(b) RETURN a, r, b"
+
+    assertSameResults(query, InterpretedRuntimeName)
+    operators(profile(s"CYPHER runtime=slotted $query")) should contain("DirectedRelationshipTypeScan")
+  }
+
+  test("should fall back to the interpreted runtime for comprehensions") {
+    assertSameResults("MATCH (n:Odd) RETURN [x IN range(1, n.age) WHERE x % 7 = 0 | x * 2] AS multiples", InterpretedRuntimeName)
+  }
+
+  test("should materialize nodes and relationships when producing results, also when nested in lists and maps") {
+    val result = execute(
+      "CYPHER runtime=slotted MATCH (a:Even)-[r:KNOWS]->(b) WHERE a.age = 20 RETURN a, r, [a, b] AS list, {rel: r, node: b} AS map")
+
+    val row = result.single
+    graph.inTx {
+      val a = row("a").asInstanceOf[Node]
+      val r = row("r").asInstanceOf[Relationship]
+      a.getProperty("name") should equal("person 0")
+      a.getLabels.asScala.map(_.name()).toList should equal(List("Even"))
+      r.getType.name() should equal("KNOWS")
+      r.getStartNode should equal(a)
+      r.getProperty("since") should equal(a.getId)
+      val list = row("list").asInstanceOf[Seq[Node]]
+      list.map(_.getProperty("name")) should equal(Seq("person 0", "person 1"))
+      val map = row("map").asInstanceOf[Map[String, AnyRef]]
+      map("rel") should equal(r)
+      map("node").asInstanceOf[Node].getProperty("age") should equal(21)
+    }
+  }
+
+  test("should report the runtime in PROFILE") {
+    runtimeOf("CYPHER runtime=slotted PROFILE MATCH (n:Odd)-->(m) RETURN m.name AS name") should equal(SlottedRuntimeName)
+    runtimeOf("CYPHER runtime=slotted PROFILE MATCH (n) RETURN n.name AS name ORDER BY name") should equal(InterpretedRuntimeName)
+    runtimeOf("PROFILE MATCH (n) RETURN n") should equal(InterpretedRuntimeName)
+  }
+
+  test("should count rows and db hits when profiled") {
+    val result = profile("CYPHER runtime=slotted MATCH (n:Even) RETURN n.name AS name")
+
+    result.toList should have size 5
+    val description = result.executionPlanDescription()
+    description.find("NodeByLabelScan").head.totalDbHits should not be empty
+    description.find("ProduceResults").head.totalDbHits should not be empty
+  }
+
+  private def assertSameResults(query: String,
+                                expectedRuntime: RuntimeName,
+                                ordered: Boolean = false,
+                                params: Map[String, Any] = Map.empty): Unit = {
+    val slotted = execute(s"CYPHER runtime=slotted $query", params)
+    val interpreted = execute(s"CYPHER runtime=interpreted $query", params)
+
+    slotted.columns should equal(interpreted.columns)
+    if (ordered) slotted.toList should equal(interpreted.toList)
+    else slotted.toList should contain theSameElementsAs interpreted.toList
+    interpreted.toList should not be empty
+    runtimeOf(s"CYPHER runtime=slotted PROFILE $query", params.toSeq: _*) should equal(expectedRuntime)
+  }
+
+  private def runtimeOf(query: String, params: (String, Any)*): RuntimeName = {
+    val result = executeOfficial(query, params: _*)
+    result.resultAsString()
+    val arguments = result.getExecutionPlanDescription.getArguments
+    arguments.get("runtime-impl") should equal(arguments.get("runtime"))
+    RuntimeName(arguments.get("runtime").toString)
+  }
+
+  private def operators(result: RewindableExecutionResult): Seq[String] =
+    result.executionPlanDescription().flatten.map(_.name)
+}
@@ -33,6 +33,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
@@ -51,6 +52,7 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.TransactionFailureException;
 import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
 import org.neo4j.graphdb.factory.GraphDatabaseBuilder.DatabaseCreator;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.graphdb.factory.module.PlatformModule;
 import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
 import org.neo4j.helpers.collection.BoundedIterable;
@@ -471,6 +473,123 @@ public class RecoveryIT
         }
     }
 
+    @Test
+    public void shouldRecoverToTheSameRecordsInParallelAsSerially() throws Exception
+    {
+        // given
+        EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+        GraphDatabaseService db = new TestGraphDatabaseFactory().setFileSystem( fs ).newImpermanentDatabase( directory.databaseDir() );
+        produceRandomGraphUpdates( db, 100 );
+        checkPoint( db );
+        produceRandomGraphUpdates( db, 100 );
+        try ( Transaction tx = db.beginTx() )
+        {
+            // A transaction large enough to have its records written by several threads
+            Node previous = db.createNode( randomLabel() );
+            for ( int i = 0; i < 1_000; i++ )
+            {
+                Node node = db.createNode( randomLabel() );
+                node.setProperty( randomKey(), createLongString() );
+                previous.createRelationshipTo( node, randomRelationshipType() ).setProperty( randomKey(), i );
+                previous = node;
+            }
+            tx.success();
+        }
+        produceRandomGraphUpdates( db, 100 );
+        flush( db );
+        EphemeralFileSystemAbstraction serialFs = fs.snapshot();
+        EphemeralFileSystemAbstraction parallelFs = fs.snapshot();
+        db.shutdown();
+        fs.close();
+
+        // when
+        new TestGraphDatabaseFactory().setFileSystem( serialFs ).newImpermanentDatabase( directory.databaseDir() ).shutdown();
+        new TestGraphDatabaseFactory().setFileSystem( parallelFs ).newImpermanentDatabaseBuilder( directory.databaseDir() )
+                .setConfig( GraphDatabaseSettings.recovery_parallelism, "4" )
+                .newGraphDatabase().shutdown();
+
+        // then
+        try
+        {
+            assertSameStoreContents( serialFs, parallelFs, directory.databaseLayout() );
+        }
+        finally
+        {
+            serialFs.close();
+            parallelFs.close();
+        }
+    }
+
+    @Test
+    public void shouldRecoverFromPreallocatedAndRecycledLogFiles() throws Exception
+    {
+        // given
+        EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+        GraphDatabaseService db = preallocatingAndRecyclingDatabase( fs, new Monitors() );
+        int nodes = 0;
+        for ( int i = 0; i < 4; i++ )
+        {
+            // Each round rotates the log, and the check point prunes, and so recycles, the log files before it
+            createNodesWithLongStrings( db, 200 );
+            nodes += 200;
+            checkPoint( db );
+        }
+        // The log file these end up in is zero-filled beyond them
+        createNodesWithLongStrings( db, 50 );
+        nodes += 50;
+        EphemeralFileSystemAbstraction crashedFs = fs.snapshot();
+        db.shutdown();
+        fs.close();
+
+        // when
+        Monitors monitors = new Monitors();
+        AtomicInteger recoveredTransactions = new AtomicInteger();
+        monitors.addMonitorListener( new RecoveryMonitor()
+        {
+            @Override
+            public void transactionRecovered( long txId )
+            {
+                recoveredTransactions.incrementAndGet();
+            }
+        } );
+        GraphDatabaseService recoveredDb = preallocatingAndRecyclingDatabase( crashedFs, monitors );
+
+        // then
+        try ( Transaction ignored = recoveredDb.beginTx() )
+        {
+            assertEquals( 50, recoveredTransactions.get() );
+            assertEquals( nodes, count( recoveredDb.getAllNodes() ) );
+        }
+        finally
+        {
+            recoveredDb.shutdown();
+            crashedFs.close();
+        }
+    }
+
+    private GraphDatabaseService preallocatingAndRecyclingDatabase( EphemeralFileSystemAbstraction fs, Monitors monitors )
+    {
+        return new TestGraphDatabaseFactory().setFileSystem( fs ).setMonitors( monitors )
+                .newImpermanentDatabaseBuilder( directory.databaseDir() )
+                .setConfig( GraphDatabaseSettings.preallocate_logical_logs, "true" )
+                .setConfig( GraphDatabaseSettings.recycle_logical_logs, "true" )
+                .setConfig( GraphDatabaseSettings.logical_log_rotation_threshold, "1M" )
+                .setConfig( GraphDatabaseSettings.keep_logical_logs, "1 files" )
+                .newGraphDatabase();
+    }
+
+    private static void createNodesWithLongStrings( GraphDatabaseService db, int count )
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                db.createNode().setProperty( "key", createLongString() );
+                tx.success();
+            }
+        }
+    }
+
     private static long lastCommittedTxId( GraphDatabaseService db )
     {
         return ((GraphDatabaseAPI)db).getDependencyResolver().resolveDependency( TransactionIdStore.class ).getLastClosedTransactionId();
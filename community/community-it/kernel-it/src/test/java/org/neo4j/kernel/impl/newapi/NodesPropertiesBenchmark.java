@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.Args;
+import org.neo4j.internal.kernel.api.CursorFactory;
+import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.PropertyCursor;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+/**
+ * Measures how many nodes per second can have a few of their properties read by {@link Read#nodesProperties}, compared
+ * with reading the nodes one at a time, in the order of the batch, like the Cypher projection pipes do. Every batch
+ * consists of random nodes from the whole store, which is where visiting them in the order of their records pays off.
+ * <p>
+ * Not run as part of the build. Run it from the IDE, with for example:
+ * <pre>
+ * --nodes 1000000 --properties 8 --read 2 --batch 1000 --pagecache 64m --duration 10s
+ * </pre>
+ * A page cache smaller than the store makes the order of the page accesses matter more.
+ */
+public class NodesPropertiesBenchmark
+{
+    private NodesPropertiesBenchmark()
+    {
+    }
+
+    public static void main( String[] arguments ) throws Exception
+    {
+        Args args = Args.parse( arguments );
+        int nodeCount = args.getNumber( "nodes", 1_000_000 ).intValue();
+        int propertyCount = args.getNumber( "properties", 8 ).intValue();
+        int readCount = args.getNumber( "read", 2 ).intValue();
+        int batchSize = args.getNumber( "batch", 1000 ).intValue();
+        String pageCacheMemory = args.get( "pagecache", "64m" );
+        long durationMillis = args.getDuration( "duration", TimeUnit.SECONDS.toMillis( 10 ) );
+
+        File directory = Files.createTempDirectory( "nodes-properties-benchmark" ).toFile();
+        GraphDatabaseAPI db = (GraphDatabaseAPI) new GraphDatabaseFactory().newEmbeddedDatabaseBuilder( directory )
+                .setConfig( GraphDatabaseSettings.pagecache_memory, pageCacheMemory )
+                .newGraphDatabase();
+        try
+        {
+            createNodes( db, nodeCount, propertyCount );
+            ThreadToStatementContextBridge bridge = db.getDependencyResolver().resolveDependency( ThreadToStatementContextBridge.class );
+            try ( Transaction ignored = db.beginTx() )
+            {
+                KernelTransaction ktx = bridge.getKernelTransactionBoundToThisThread( true );
+                int[] propertyKeys = new int[readCount];
+                for ( int k = 0; k < readCount; k++ )
+                {
+                    // Read the last properties, which are the furthest down the property chains
+                    propertyKeys[k] = ktx.tokenRead().propertyKey( "p" + (propertyCount - readCount + k) );
+                }
+                for ( boolean batched : new boolean[]{false, true} )
+                {
+                    // The first run warms up the JIT compiler.
+                    run( ktx, batched, nodeCount, propertyKeys, batchSize, durationMillis / 2 );
+                    long nodes = run( ktx, batched, nodeCount, propertyKeys, batchSize, durationMillis );
+                    System.out.printf( "%s: %d nodes/s in batches of %d%n", batched ? "nodesProperties" : "per node",
+                            nodes * 1000 / durationMillis, batchSize );
+                }
+            }
+        }
+        finally
+        {
+            db.shutdown();
+            FileUtils.deleteRecursively( directory );
+        }
+    }
+
+    private static void createNodes( GraphDatabaseService db, int nodeCount, int propertyCount )
+    {
+        int created = 0;
+        while ( created < nodeCount )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < 10_000 && created < nodeCount; i++, created++ )
+                {
+                    Node node = db.createNode();
+                    for ( int p = 0; p < propertyCount; p++ )
+                    {
+                        node.setProperty( "p" + p, (long) created * propertyCount + p );
+                    }
+                }
+                tx.success();
+            }
+        }
+    }
+
+    private static long run( KernelTransaction ktx, boolean batched, int nodeCount, int[] propertyKeys, int batchSize,
+            long durationMillis )
+    {
+        Read read = ktx.dataRead();
+        CursorFactory cursors = ktx.cursors();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] nodes = new long[batchSize];
+        Value[][] columns = new Value[propertyKeys.length][batchSize];
+        long checksum = 0;
+        long count = 0;
+        long end = System.currentTimeMillis() + durationMillis;
+        try ( NodeCursor nodeCursor = cursors.allocateNodeCursor(); PropertyCursor propertyCursor = cursors.allocatePropertyCursor() )
+        {
+            while ( System.currentTimeMillis() < end )
+            {
+                for ( int i = 0; i < batchSize; i++ )
+                {
+                    nodes[i] = random.nextInt( nodeCount );
+                }
+                if ( batched )
+                {
+                    read.nodesProperties( nodes, propertyKeys, nodeCursor, propertyCursor, columns );
+                }
+                else
+                {
+                    readOneByOne( read, nodes, propertyKeys, nodeCursor, propertyCursor, columns );
+                }
+                for ( Value[] column : columns )
+                {
+                    checksum += column[0].hashCode();
+                }
+                count += batchSize;
+            }
+        }
+        if ( checksum == 42 )
+        {
+            // Keeps the JIT compiler from eliminating the reads
+            System.out.println( "Lucky checksum" );
+        }
+        return count;
+    }
+
+    private static void readOneByOne( Read read, long[] nodes, int[] propertyKeys, NodeCursor nodeCursor,
+            PropertyCursor propertyCursor, Value[][] columns )
+    {
+        for ( int i = 0; i < nodes.length; i++ )
+        {
+            for ( Value[] column : columns )
+            {
+                column[i] = Values.NO_VALUE;
+            }
+            read.singleNode( nodes[i], nodeCursor );
+            if ( !nodeCursor.next() )
+            {
+                continue;
+            }
+            nodeCursor.properties( propertyCursor );
+            int remaining = propertyKeys.length;
+            while ( remaining > 0 && propertyCursor.next() )
+            {
+                for ( int k = 0; k < propertyKeys.length; k++ )
+                {
+                    if ( propertyKeys[k] == propertyCursor.propertyKey() )
+                    {
+                        columns[k][i] = propertyCursor.propertyValue();
+                        remaining--;
+                    }
+                }
+            }
+        }
+    }
+}
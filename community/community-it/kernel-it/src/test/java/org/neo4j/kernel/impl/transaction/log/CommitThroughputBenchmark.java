@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.Args;
+import org.neo4j.io.fs.FileUtils;
+
+/**
+ * Measures how many small write transactions per second can be committed through the {@link BatchingTransactionAppender},
+ * and how long each commit takes, with 1 up to 64 concurrent writers. Every transaction creates a node with a single
+ * property, so the time is spent in committing, rather than in building the transaction state.
+ * <p>
+ * Not run as part of the build. Run it from the IDE, with for example:
+ * <pre>
+ * --max-writers 64 --group 1 --duration 10s
+ * </pre>
+ * {@code --group} is the value of {@link GraphDatabaseSettings#group_commit_max_transactions}, so running with
+ * {@code --group 1} and {@code --group 64} compares committing one by one with group commit. The transaction log is
+ * forced on every append, so the results depend a lot on the disk the temporary directory is on.
+ */
+public class CommitThroughputBenchmark
+{
+    private CommitThroughputBenchmark()
+    {
+    }
+
+    public static void main( String[] arguments ) throws Exception
+    {
+        Args args = Args.parse( arguments );
+        int maxWriters = args.getNumber( "max-writers", 64 ).intValue();
+        int groupSize = args.getNumber( "group", 1 ).intValue();
+        long durationMillis = args.getDuration( "duration", TimeUnit.SECONDS.toMillis( 10 ) );
+
+        File directory = Files.createTempDirectory( "commit-throughput-benchmark" ).toFile();
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabaseBuilder( directory )
+                .setConfig( GraphDatabaseSettings.group_commit_max_transactions, String.valueOf( groupSize ) )
+                .newGraphDatabase();
+        try
+        {
+            // The first run warms up the JIT compiler.
+            run( db, maxWriters, durationMillis / 2, new LongAdder() );
+            for ( int writers = 1; writers <= maxWriters; writers *= 2 )
+            {
+                LongAdder commitNanos = new LongAdder();
+                long transactions = run( db, writers, durationMillis, commitNanos );
+                System.out.printf( "%d writers: %d transactions/s, %d us mean commit latency, group commit of %d%n",
+                        writers, transactions * 1000 / durationMillis,
+                        transactions == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros( commitNanos.sum() / transactions ), groupSize );
+            }
+        }
+        finally
+        {
+            db.shutdown();
+            FileUtils.deleteRecursively( directory );
+        }
+    }
+
+    private static long run( GraphDatabaseService db, int writerCount, long durationMillis, LongAdder commitNanos )
+            throws InterruptedException
+    {
+        AtomicBoolean end = new AtomicBoolean();
+        LongAdder transactions = new LongAdder();
+        CountDownLatch start = new CountDownLatch( 1 );
+        Thread[] writers = new Thread[writerCount];
+        for ( int i = 0; i < writerCount; i++ )
+        {
+            writers[i] = new Thread( () ->
+            {
+                awaitUninterruptibly( start );
+                long value = 0;
+                while ( !end.get() )
+                {
+                    Transaction tx = db.beginTx();
+                    Node node = db.createNode();
+                    node.setProperty( "value", value++ );
+                    tx.success();
+                    long startNanos = System.nanoTime();
+                    tx.close();
+                    commitNanos.add( System.nanoTime() - startNanos );
+                    transactions.increment();
+                }
+            } );
+            writers[i].start();
+        }
+        start.countDown();
+        Thread.sleep( durationMillis );
+        end.set( true );
+        for ( Thread writer : writers )
+        {
+            writer.join();
+        }
+        return transactions.sum();
+    }
+
+    private static void awaitUninterruptibly( CountDownLatch latch )
+    {
+        try
+        {
+            latch.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
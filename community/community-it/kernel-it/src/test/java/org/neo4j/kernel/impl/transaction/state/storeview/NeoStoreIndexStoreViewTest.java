@@ -101,6 +101,7 @@ public class NeoStoreIndexStoreViewTest
     private Relationship aKnowsS;
     private Relationship sKnowsA;
     private StorageReader reader;
+    private final Set<EntityUpdates> knowsUpdates = new HashSet<>();
 
     @Before
     public void before() throws KernelException
@@ -172,6 +173,47 @@ public class NeoStoreIndexStoreViewTest
                 add( sKnowsA.getId(), relPropertyKeyId, "lengthy", new long[]{relTypeId} ) ), visitor.getUpdates() );
     }
 
+    @Test
+    public void shouldScanExistingNodesForALabelInParallel() throws Exception
+    {
+        // given
+        Set<EntityUpdates> expected = createPeopleWhoKnowEachOther( 500 );
+        expected.add( add( alistair.getId(), propertyKeyId, "Alistair", new long[] { labelId } ) );
+        expected.add( add( stefan.getId(), propertyKeyId, "Stefan", new long[] { labelId } ) );
+        EntityUpdateCollectingVisitor visitor = new EntityUpdateCollectingVisitor();
+        StoreScan<Exception> storeScan = storeView.visitNodes( new int[]{labelId}, id -> id == propertyKeyId, visitor, null, false );
+        // Small ranges, so that the scan threads claim several ranges each
+        ((PropertyAwareEntityStoreScan<?,?>) storeScan).setRangeSize( 10 );
+        storeScan.setParallelism( 4 );
+
+        // when
+        storeScan.run();
+
+        // then
+        assertEquals( expected, visitor.getUpdates() );
+        assertEquals( 502, storeScan.getProgress().getCompleted() );
+    }
+
+    @Test
+    public void shouldScanExistingRelationshipsForARelationshiptypeInParallel() throws Exception
+    {
+        // given
+        createPeopleWhoKnowEachOther( 500 );
+        Set<EntityUpdates> expected = new HashSet<>( knowsUpdates );
+        expected.add( add( aKnowsS.getId(), relPropertyKeyId, "long", new long[]{relTypeId} ) );
+        expected.add( add( sKnowsA.getId(), relPropertyKeyId, "lengthy", new long[]{relTypeId} ) );
+        EntityUpdateCollectingVisitor visitor = new EntityUpdateCollectingVisitor();
+        StoreScan<Exception> storeScan = storeView.visitRelationships( new int[]{relTypeId}, id -> id == relPropertyKeyId, visitor );
+        ((PropertyAwareEntityStoreScan<?,?>) storeScan).setRangeSize( 10 );
+        storeScan.setParallelism( 4 );
+
+        // when
+        storeScan.run();
+
+        // then
+        assertEquals( expected, visitor.getUpdates() );
+    }
+
     @Test
     public void shouldIgnoreDeletedNodesDuringScan() throws Exception
     {
@@ -351,6 +393,35 @@ public class NeoStoreIndexStoreViewTest
         }
     }
 
+    /**
+     * Creates a chain of people who know the next one, and remembers the updates of the relationships in {@link #knowsUpdates}.
+     *
+     * @return the updates that a scan should see for the people.
+     */
+    private Set<EntityUpdates> createPeopleWhoKnowEachOther( int count )
+    {
+        Set<EntityUpdates> updates = new HashSet<>();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            Node previous = null;
+            for ( int i = 0; i < count; i++ )
+            {
+                Node person = graphDb.createNode( label );
+                person.setProperty( "name", "Person " + i );
+                updates.add( add( person.getId(), propertyKeyId, "Person " + i, new long[]{labelId} ) );
+                if ( previous != null )
+                {
+                    Relationship knows = previous.createRelationshipTo( person, relationshipType );
+                    knows.setProperty( "duration", "since " + i );
+                    knowsUpdates.add( add( knows.getId(), relPropertyKeyId, "since " + i, new long[]{relTypeId} ) );
+                }
+                previous = person;
+            }
+            tx.success();
+        }
+        return updates;
+    }
+
     private void deleteAlistairAndStefanNodes()
     {
         try ( Transaction tx = graphDb.beginTx() )
@@ -402,7 +473,7 @@ public class NeoStoreIndexStoreViewTest
         private final Set<EntityUpdates> updates = new HashSet<>();
 
         @Override
-        public boolean visit( EntityUpdates propertyUpdates )
+        public synchronized boolean visit( EntityUpdates propertyUpdates )
         {
             updates.add( propertyUpdates );
             return false;
@@ -133,4 +133,58 @@ public class Futures
         future.completeExceptionally( ex );
         return future;
     }
+
+    /**
+     * Waits for the task of the given future to complete, also when the calling thread is interrupted, for when the task
+     * uses resources that are released afterwards. The interrupt status of the calling thread is restored before returning.
+     *
+     * @param future the future to wait for.
+     * @return the failure of the task, or {@code null} if it completed normally.
+     */
+    public static Throwable awaitCompletion( Future<?> future )
+    {
+        return awaitCompletion( future, () ->
+        {
+        } );
+    }
+
+    /**
+     * Waits for the task of the given future to complete, also when the calling thread is interrupted, for when the task
+     * uses resources that are released afterwards. The interrupt status of the calling thread is restored before returning.
+     *
+     * @param future the future to wait for.
+     * @param onInterrupt called every time the calling thread is interrupted while waiting, e.g. to ask the task to stop early.
+     * @return the failure of the task, or {@code null} if it completed normally.
+     */
+    public static Throwable awaitCompletion( Future<?> future, Runnable onInterrupt )
+    {
+        boolean interrupted = false;
+        try
+        {
+            while ( true )
+            {
+                try
+                {
+                    future.get();
+                    return null;
+                }
+                catch ( ExecutionException e )
+                {
+                    return e.getCause();
+                }
+                catch ( InterruptedException e )
+                {
+                    onInterrupt.run();
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
@@ -22,14 +22,20 @@ package org.neo4j.util.concurrent;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FuturesTest
 {
@@ -56,4 +62,37 @@ class FuturesTest
         List<String> result = combined.get();
         assertThat( result, contains( "1", "2", "3" ) );
     }
+
+    @Test
+    void awaitCompletionShouldReturnTheFailureOfTheTask()
+    {
+        IllegalStateException failure = new IllegalStateException( "failed" );
+        FutureTask<Void> task = new FutureTask<>( () ->
+        {
+            throw failure;
+        } );
+        task.run();
+
+        assertSame( failure, Futures.awaitCompletion( task ) );
+        assertNull( Futures.awaitCompletion( CompletableFuture.completedFuture( "done" ) ) );
+    }
+
+    @Test
+    void awaitCompletionShouldKeepWaitingWhenInterrupted()
+    {
+        FutureTask<String> task = new FutureTask<>( NOOP, "done" );
+        AtomicInteger interrupts = new AtomicInteger();
+
+        Thread.currentThread().interrupt();
+        Throwable failure = Futures.awaitCompletion( task, () ->
+        {
+            interrupts.incrementAndGet();
+            task.run();
+        } );
+
+        assertNull( failure );
+        assertTrue( task.isDone() );
+        assertEquals( 1, interrupts.get() );
+        assertTrue( Thread.interrupted() );
+    }
 }
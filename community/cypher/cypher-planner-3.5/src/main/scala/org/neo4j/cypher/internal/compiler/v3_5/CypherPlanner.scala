@@ -113,4 +113,5 @@ case class CypherPlannerConfiguration(queryCacheSize: Int,
                                       csvBufferSize: Int,
                                       nonIndexedLabelWarningThreshold: Long,
                                       planWithMinimumCardinalityEstimates: Boolean,
-                                      lenientCreateRelationship: Boolean)
+                                      lenientCreateRelationship: Boolean,
+                                      queryMemoryBudget: Long)
@@ -64,7 +64,9 @@ case class CardinalityCostModel(config: CypherPlannerConfiguration) extends Cost
     => 1.2
 
     case _: Expand |
-         _: VarExpand
+         _: VarExpand |
+         _: DirectedRelationshipTypeScan |
+         _: UndirectedRelationshipTypeScan
     => 1.5
 
     case _: NodeUniqueIndexSeek |
@@ -108,7 +110,8 @@ case class CardinalityCostModel(config: CypherPlannerConfiguration) extends Cost
   }
 
   private def minimumCardinalityEstimateForPlan(plan: LogicalPlan): Cardinality = plan match {
-    case _: AllNodesScan | _: NodeByLabelScan | _: NodeIndexScan =>
+    case _: AllNodesScan | _: NodeByLabelScan | _: NodeIndexScan |
+         _: DirectedRelationshipTypeScan | _: UndirectedRelationshipTypeScan =>
       Cardinality(10)
     case _: NodeIndexContainsScan | _: NodeIndexEndsWithScan =>
       Cardinality(5)
@@ -124,6 +124,36 @@ case class LogicalPlanProducer(cardinalityModel: CardinalityModel, planningAttri
     annotate(UndirectedRelationshipByIdSeek(idName, relIds, leftNode, rightNode, argumentIds), solved, ProvidedOrder.empty, context)
   }
 
+  def planDirectedRelationshipTypeScan(idName: String,
+                                       startNode: String,
+                                       typ: RelTypeName,
+                                       endNode: String,
+                                       pattern: PatternRelationship,
+                                       argumentIds: Set[String],
+                                       context: LogicalPlanningContext): LogicalPlan = {
+    val solved = RegularPlannerQuery(queryGraph = QueryGraph.empty
+      .addPatternRelationship(pattern)
+      .addArgumentIds(argumentIds.toIndexedSeq)
+    )
+    // Is this ordered by relationship id?
+    annotate(DirectedRelationshipTypeScan(idName, startNode, typ, endNode, argumentIds), solved, ProvidedOrder.empty, context)
+  }
+
+  def planUndirectedRelationshipTypeScan(idName: String,
+                                         leftNode: String,
+                                         typ: RelTypeName,
+                                         rightNode: String,
+                                         pattern: PatternRelationship,
+                                         argumentIds: Set[String],
+                                         context: LogicalPlanningContext): LogicalPlan = {
+    val solved = RegularPlannerQuery(queryGraph = QueryGraph.empty
+      .addPatternRelationship(pattern)
+      .addArgumentIds(argumentIds.toIndexedSeq)
+    )
+    // Is this ordered by relationship id?
+    annotate(UndirectedRelationshipTypeScan(idName, leftNode, typ, rightNode, argumentIds), solved, ProvidedOrder.empty, context)
+  }
+
   def planSimpleExpand(left: LogicalPlan,
                        from: String,
                        dir: SemanticDirection,
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_5.planner.logical.steps
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.{LeafPlanner, LogicalPlanningContext}
+import org.neo4j.cypher.internal.ir.v3_5.{InterestingOrder, PatternRelationship, QueryGraph, SimplePatternLength}
+import org.neo4j.cypher.internal.v3_5.logical.plans.LogicalPlan
+import org.neo4j.cypher.internal.v3_5.expressions.SemanticDirection.{BOTH, INCOMING, OUTGOING}
+
+/*
+ * Plans a scan of the relationship type index for every pattern relationship with a single type and a length of one,
+ * between two different nodes that are not arguments. The scan produces the relationship together with both of its
+ * end nodes, so no expand is needed.
+ */
+object relationshipTypeScanLeafPlanner extends LeafPlanner {
+
+  override def apply(queryGraph: QueryGraph, interestingOrder: InterestingOrder, context: LogicalPlanningContext): Seq[LogicalPlan] =
+    queryGraph.patternRelationships.toIndexedSeq.collect {
+      case relationship@PatternRelationship(name, (left, right), _, Seq(_), SimplePatternLength)
+        if left != right && !queryGraph.argumentIds(name) && !queryGraph.argumentIds(left) && !queryGraph.argumentIds(right) =>
+        planRelationshipTypeScan(relationship, queryGraph.argumentIds, context)
+    }
+
+  private def planRelationshipTypeScan(relationship: PatternRelationship, argumentIds: Set[String], context: LogicalPlanningContext): LogicalPlan = {
+    val (left, right) = relationship.nodes
+    val name = relationship.name
+    val typ = relationship.types.head
+    relationship.dir match {
+      case BOTH     => context.logicalPlanProducer.planUndirectedRelationshipTypeScan(name, left, typ, right, relationship, argumentIds, context)
+      case INCOMING => context.logicalPlanProducer.planDirectedRelationshipTypeScan(name, right, typ, left, relationship, argumentIds, context)
+      case OUTGOING => context.logicalPlanProducer.planDirectedRelationshipTypeScan(name, left, typ, right, relationship, argumentIds, context)
+    }
+  }
+}
@@ -236,7 +236,8 @@ trait LogicalPlanningTestSupport extends CypherTestSupport with AstConstructionT
     csvBufferSize = Configuration.DEFAULT_BUFFER_SIZE_4MB,
     nonIndexedLabelWarningThreshold = 10000,
     planWithMinimumCardinalityEstimates = true,
-    lenientCreateRelationship = false
+    lenientCreateRelationship = false,
+    queryMemoryBudget = 0
   )
 
   def buildPlannerQuery(query: String, lookup: Option[QualifiedName => ProcedureSignature] = None) = {
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_5.planner.logical.plans
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner._
+import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.ExpressionEvaluator
+import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.steps.relationshipTypeScanLeafPlanner
+import org.neo4j.cypher.internal.ir.v3_5._
+import org.neo4j.cypher.internal.v3_5.logical.plans.{DirectedRelationshipTypeScan, UndirectedRelationshipTypeScan}
+import org.neo4j.cypher.internal.v3_5.ast.semantics.SemanticTable
+import org.neo4j.cypher.internal.v3_5.expressions._
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+
+class RelationshipTypeScanLeafPlannerTest extends CypherFunSuite with LogicalPlanningTestSupport {
+
+  private val statistics = hardcodedStatistics
+
+  private def context = newMockedLogicalPlanningContext(planContext = newMockedPlanContext,
+    metrics = newMockedMetricsFactory.newMetrics(statistics, mock[ExpressionEvaluator], config), semanticTable = new SemanticTable())
+
+  private def relType(name: String) = RelTypeName(name)(pos)
+
+  private def queryGraph(relationship: PatternRelationship, argumentIds: Set[String] = Set.empty) = QueryGraph(
+    patternNodes = Set(relationship.left, relationship.right),
+    patternRelationships = Set(relationship),
+    argumentIds = argumentIds)
+
+  test("plans a directed relationship type scan for an outgoing relationship with a single type") {
+    val qg = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.OUTGOING, Seq(relType("T")), SimplePatternLength))
+
+    relationshipTypeScanLeafPlanner(qg, InterestingOrder.empty, context) should equal(
+      Seq(DirectedRelationshipTypeScan("r", "a", relType("T"), "b", Set.empty)))
+  }
+
+  test("plans a directed relationship type scan from the right node for an incoming relationship") {
+    val qg = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.INCOMING, Seq(relType("T")), SimplePatternLength))
+
+    relationshipTypeScanLeafPlanner(qg, InterestingOrder.empty, context) should equal(
+      Seq(DirectedRelationshipTypeScan("r", "b", relType("T"), "a", Set.empty)))
+  }
+
+  test("plans an undirected relationship type scan for a relationship without direction") {
+    val qg = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.BOTH, Seq(relType("T")), SimplePatternLength))
+
+    relationshipTypeScanLeafPlanner(qg, InterestingOrder.empty, context) should equal(
+      Seq(UndirectedRelationshipTypeScan("r", "a", relType("T"), "b", Set.empty)))
+  }
+
+  test("does not plan a relationship type scan for relationships without exactly one type") {
+    val noTypes = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.OUTGOING, Seq.empty, SimplePatternLength))
+    val twoTypes = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.OUTGOING, Seq(relType("T"), relType("S")),
+      SimplePatternLength))
+
+    relationshipTypeScanLeafPlanner(noTypes, InterestingOrder.empty, context) shouldBe empty
+    relationshipTypeScanLeafPlanner(twoTypes, InterestingOrder.empty, context) shouldBe empty
+  }
+
+  test("does not plan a relationship type scan for var length relationships, loops or bound nodes") {
+    val varLength = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.OUTGOING, Seq(relType("T")),
+      VarPatternLength(1, None)))
+    val loop = queryGraph(PatternRelationship("r", ("a", "a"), SemanticDirection.OUTGOING, Seq(relType("T")), SimplePatternLength))
+    val bound = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.OUTGOING, Seq(relType("T")), SimplePatternLength),
+      argumentIds = Set("a"))
+
+    relationshipTypeScanLeafPlanner(varLength, InterestingOrder.empty, context) shouldBe empty
+    relationshipTypeScanLeafPlanner(loop, InterestingOrder.empty, context) shouldBe empty
+    relationshipTypeScanLeafPlanner(bound, InterestingOrder.empty, context) shouldBe empty
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime.compiled;
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext;
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression;
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState;
+import org.neo4j.values.AnyValue;
+
+/**
+ * Base class of the classes that the {@link ExpressionCompiler} generates. The generated {@link #evaluate} method
+ * contains the operators of the expression, and evaluates the parts of the expression that could not be compiled, the
+ * leaves, through the interpreted expressions they were built from.
+ */
+public abstract class CompiledExpression
+{
+    private final Expression[] leaves;
+    private final AnyValue[] constants;
+
+    protected CompiledExpression( Expression[] leaves, AnyValue[] constants )
+    {
+        this.leaves = leaves;
+        this.constants = constants;
+    }
+
+    public abstract AnyValue evaluate( ExecutionContext context, QueryState state );
+
+    public final AnyValue leaf( int leaf, ExecutionContext context, QueryState state )
+    {
+        return leaves[leaf].apply( context, state );
+    }
+
+    public final AnyValue constant( int constant )
+    {
+        return constants[constant];
+    }
+}
@@ -25,12 +25,18 @@ import org.neo4j.cypher.internal.compatibility._
 object CommunityRuntimeFactory {
 
   val interpreted = new FallbackRuntime[RuntimeContext](List(InterpretedRuntime), CypherRuntimeOption.interpreted)
+  val slotted = new FallbackRuntime[RuntimeContext](List(SlottedRuntime, InterpretedRuntime), CypherRuntimeOption.slotted)
+  val slottedWithoutFallback = new FallbackRuntime[RuntimeContext](List(SlottedRuntime), CypherRuntimeOption.slotted)
   val default = new FallbackRuntime[RuntimeContext](List(InterpretedRuntime), CypherRuntimeOption.default)
 
   def getRuntime(cypherRuntime: CypherRuntimeOption, disallowFallback: Boolean): CypherRuntime[RuntimeContext] =
     cypherRuntime match {
       case CypherRuntimeOption.interpreted => interpreted
 
+      case CypherRuntimeOption.slotted if disallowFallback => slottedWithoutFallback
+
+      case CypherRuntimeOption.slotted => slotted
+
       case CypherRuntimeOption.default => default
 
       case unsupported if disallowFallback =>
@@ -50,6 +50,7 @@ object CypherConfiguration {
       config.get(GraphDatabaseSettings.cypher_plan_with_minimum_cardinality_estimates),
       CypherExpressionEngineOption(config.get(GraphDatabaseSettings.cypher_expression_engine)),
       config.get(GraphDatabaseSettings.cypher_lenient_create_relationship),
+      config.get(GraphDatabaseSettings.cypher_query_memory_budget),
       config.get(GraphDatabaseSettings.cypher_worker_count),
       config.get(GraphDatabaseSettings.cypher_morsel_size),
       config.get(GraphDatabaseSettings.enable_morsel_runtime_trace),
@@ -87,6 +88,7 @@ case class CypherConfiguration(version: CypherVersion,
                                planWithMinimumCardinalityEstimates: Boolean,
                                expressionEngineOption: CypherExpressionEngineOption,
                                lenientCreateRelationship: Boolean,
+                               queryMemoryBudget: Long,
                                workers: Int,
                                morselSize: Int,
                                doSchedulerTracing: Boolean,
@@ -114,6 +116,7 @@ case class CypherConfiguration(version: CypherVersion,
       csvBufferSize = csvBufferSize,
       nonIndexedLabelWarningThreshold = config.get(GraphDatabaseSettings.query_non_indexed_label_warning_threshold).longValue(),
       planWithMinimumCardinalityEstimates = planWithMinimumCardinalityEstimates,
-      lenientCreateRelationship = lenientCreateRelationship
+      lenientCreateRelationship = lenientCreateRelationship,
+      queryMemoryBudget = queryMemoryBudget
     )
 }
@@ -41,7 +41,7 @@ case object CypherPreParser extends org.parboiled.scala.Parser with Base {
   def Cypher: Rule1[ConfigurationOptions] = rule("CYPHER options") {
     keyword("CYPHER") ~~
       optional(VersionNumber) ~~
-      zeroOrMore(PlannerOption | RuntimeOption | ExpressionEngineOption | StrategyOption | DebugFlag, WS) ~~> ConfigurationOptions
+      zeroOrMore(PlannerOption | RuntimeOption | ExpressionEngineOption | StrategyOption | DebugFlag | MemoryBudgetFlag, WS) ~~> ConfigurationOptions
   }
 
   def PlannerOption: Rule1[PreParserOption] = rule("planner option") (
@@ -71,6 +71,10 @@ case object CypherPreParser extends org.parboiled.scala.Parser with Base {
     keyword("debug") ~~ "=" ~~ SymbolicNameString ~~> DebugOption
   }
 
+  def MemoryBudgetFlag: Rule1[MemoryBudgetOption] = rule("memory budget option") {
+    keyword("memoryBudget") ~~ "=" ~~ group(Digits ~ zeroOrMore(("a" - "z") | ("A" - "Z"))) ~> MemoryBudgetOption
+  }
+
   def ExpressionEngineOption: Rule1[ExpressionEnginePreParserOption] = rule("expression engine option") (
     option("expressionEngine", "interpreted") ~ push(InterpretedExpressionOption)
       | option("expressionEngine", "compiled") ~ push(CompiledExpressionOption)
@@ -36,7 +36,8 @@ case class PreParsedQuery(statement: String,
                           updateStrategy: CypherUpdateStrategy,
                           expressionEngine: CypherExpressionEngineOption,
                           debugOptions: Set[String],
-                          recompilationLimitReached: Boolean = false) {
+                          recompilationLimitReached: Boolean = false,
+                          memoryBudget: Option[Long] = None) {
 
   val statementWithVersionAndPlanner: String = {
     val plannerInfo = planner match {
@@ -57,9 +58,11 @@ case class PreParsedQuery(statement: String,
       case _ => s"expressionEngine=${expressionEngine.name}"
     }
 
+    val memoryBudgetInfo = memoryBudget.map(budget => s"memoryBudget=$budget").getOrElse("")
+
     val debugFlags = debugOptions.map(flag => s"debug=$flag").mkString(" ")
 
-    s"CYPHER ${version.name} $plannerInfo $runtimeInfo $updateStrategyInfo $expressionEngineInfo $debugFlags $statement"
+    s"CYPHER ${version.name} $plannerInfo $runtimeInfo $updateStrategyInfo $expressionEngineInfo $memoryBudgetInfo $debugFlags $statement"
   }
 
   def useCompiledExpressions: Boolean = expressionEngine == CypherExpressionEngineOption.compiled ||
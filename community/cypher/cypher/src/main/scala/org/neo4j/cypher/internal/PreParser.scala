@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal
 
 import org.neo4j.cypher._
 import org.neo4j.cypher.internal.compatibility.LFUCache
+import org.neo4j.io.ByteUnit
 
 import scala.util.matching.Regex
 
@@ -49,7 +50,7 @@ class PreParser(configuredVersion: CypherVersion,
   private final val ILLEGAL_PLANNER_RUNTIME_COMBINATIONS: Set[(CypherPlannerOption, CypherRuntimeOption)] = Set((CypherPlannerOption.rule, CypherRuntimeOption.compiled), (CypherPlannerOption.rule, CypherRuntimeOption.slotted))
   private final val ILLEGAL_PLANNER_VERSION_COMBINATIONS: Set[(CypherPlannerOption, CypherVersion)] = Set((CypherPlannerOption.rule, CypherVersion.v3_4), (CypherPlannerOption.rule, CypherVersion.v3_5))
   private final val ILLEGAL_EXPRESSION_ENGINE_RUNTIME_COMBINATIONS: Set[(CypherExpressionEngineOption, CypherRuntimeOption)] =
-    Set((CypherExpressionEngineOption.compiled, CypherRuntimeOption.compiled), (CypherExpressionEngineOption.compiled, CypherRuntimeOption.interpreted))
+    Set((CypherExpressionEngineOption.compiled, CypherRuntimeOption.compiled))
 
   private val preParsedQueries = new LFUCache[String, PreParsedQuery](planCacheSize)
 
@@ -87,6 +88,7 @@ class PreParser(configuredVersion: CypherVersion,
     val expressionEngine: PPOption[CypherExpressionEngineOption] = new PPOption(configuredExpressionEngine)
     val updateStrategy: PPOption[CypherUpdateStrategy] = new PPOption(CypherUpdateStrategy.default)
     var debugOptions: Set[String] = Set()
+    val memoryBudget: PPOption[Option[Long]] = new PPOption(None)
 
     def parseOptions(options: Seq[PreParserOption]): Unit =
       for (option <- options) {
@@ -105,6 +107,8 @@ class PreParser(configuredVersion: CypherVersion,
             updateStrategy.selectOrThrow( CypherUpdateStrategy(u.name), "Can't specify multiple conflicting update strategies")
           case DebugOption(debug) =>
             debugOptions = debugOptions + debug.toLowerCase()
+          case MemoryBudgetOption(budget) =>
+            memoryBudget.selectOrThrow(Some(parseMemoryBudget(budget)), "Can't specify multiple conflicting memory budgets")
           case engine: ExpressionEnginePreParserOption =>
             expressionEngine.selectOrThrow(CypherExpressionEngineOption(engine.name), "Can't specify multiple conflicting expression engines")
 
@@ -139,9 +143,18 @@ class PreParser(configuredVersion: CypherVersion,
                    runtime.pick,
                    updateStrategy.pick,
                    expressionEngine.pick,
-                   debugOptions)
+                   debugOptions,
+                   memoryBudget = memoryBudget.pick)
   }
 
+  private def parseMemoryBudget(budget: String): Long =
+    try {
+      ByteUnit.parse(budget)
+    } catch {
+      case _: IllegalArgumentException =>
+        throw new InvalidPreparserOption(s"Invalid memory budget '$budget', expected a number of bytes like 512m or 2g")
+    }
+
   private class PPOption[T](val default: T) {
     var selected: Option[T] = None
 
@@ -24,23 +24,26 @@ import java.time.Clock
 import org.neo4j.cypher.internal.compiler.v3_5.CypherPlannerConfiguration
 import org.neo4j.cypher.internal.planner.v3_5.spi.TokenContext
 import org.neo4j.cypher.internal.v3_5.frontend.phases.InternalNotificationLogger
+import org.neo4j.logging.Log
 
 /**
   * The regular community runtime context.
   */
 case class CommunityRuntimeContext(tokenContext: TokenContext,
                                    readOnly: Boolean,
-                                   config: CypherPlannerConfiguration) extends RuntimeContext {
+                                   config: CypherPlannerConfiguration,
+                                   compileExpressions: Boolean,
+                                   queryMemoryBudget: Long,
+                                   log: Log) extends RuntimeContext
 
-  override def compileExpressions: Boolean = false
-}
-
-case class CommunityRuntimeContextCreator(config: CypherPlannerConfiguration) extends RuntimeContextCreator[RuntimeContext] {
+case class CommunityRuntimeContextCreator(config: CypherPlannerConfiguration, log: Log) extends RuntimeContextCreator[RuntimeContext] {
   override def create(tokenContext: TokenContext,
                       clock: Clock,
                       debugOptions: Set[String],
                       readOnly: Boolean,
-                      ignore: Boolean
+                      compileExpressions: Boolean,
+                      memoryBudget: Option[Long]
                      ): RuntimeContext =
-    CommunityRuntimeContext(tokenContext, readOnly, config)
+    CommunityRuntimeContext(tokenContext, readOnly, config, compileExpressions,
+                            memoryBudget.getOrElse(config.queryMemoryBudget), log)
 }
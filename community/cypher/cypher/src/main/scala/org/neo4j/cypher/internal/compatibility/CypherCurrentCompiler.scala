@@ -90,7 +90,8 @@ case class CypherCurrentCompiler[CONTEXT <: RuntimeContext](planner: CypherPlann
                                                logicalPlanResult.plannerContext.clock,
                                                logicalPlanResult.plannerContext.debugOptions,
                                                queryType == READ_ONLY,
-                                               preParsedQuery.useCompiledExpressions)
+                                               preParsedQuery.useCompiledExpressions,
+                                               preParsedQuery.memoryBudget)
 
     val executionPlan3_5: ExecutionPlan_v3_5 = runtime.compileToExecutable(planState, runtimeContext)
 
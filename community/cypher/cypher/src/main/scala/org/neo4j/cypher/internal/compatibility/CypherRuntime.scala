@@ -31,6 +31,7 @@ import org.neo4j.cypher.internal.runtime.QueryContext
 import org.neo4j.cypher.internal.runtime.planDescription.Argument
 import org.neo4j.cypher.result.RuntimeResult
 import org.neo4j.cypher.{CypherRuntimeOption, InvalidArgumentException, exceptionHandler}
+import org.neo4j.logging.Log
 import org.neo4j.values.virtual.MapValue
 import org.neo4j.cypher.internal.v3_5.frontend.phases.{InternalNotificationLogger, RecordingNotificationLogger}
 import org.neo4j.cypher.internal.v3_5.util.InternalNotification
@@ -64,6 +65,8 @@ abstract class RuntimeContext {
   def readOnly: Boolean
   def config: CypherPlannerConfiguration
   def compileExpressions: Boolean
+  def queryMemoryBudget: Long
+  def log: Log
 }
 
 /**
@@ -76,7 +79,8 @@ trait RuntimeContextCreator[CONTEXT <: RuntimeContext] {
              clock: Clock,
              debugOptions: Set[String],
              readOnly: Boolean,
-             compileExpressions: Boolean
+             compileExpressions: Boolean,
+             memoryBudget: Option[Long]
             ): CONTEXT
 }
 
@@ -20,14 +20,16 @@
 package org.neo4j.cypher.internal.compatibility
 
 import org.neo4j.cypher.internal.compatibility.v3_5.runtime._
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.compiled.CompiledExpressionConverter
 import org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan._
 import org.neo4j.cypher.internal.compatibility.v3_5.runtime.profiler.{InterpretedProfileInformation, Profiler}
 import org.neo4j.cypher.internal.compiler.v3_5.phases.LogicalPlanState
 import org.neo4j.cypher.internal.runtime.QueryContext
 import org.neo4j.cypher.internal.runtime.interpreted.UpdateCountingQueryContext
-import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.CommunityExpressionConverter
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeExecutionBuilderContext
 import org.neo4j.cypher.internal.runtime.planDescription.Argument
+import org.neo4j.cypher.internal.runtime.planDescription.InternalPlanDescription.Arguments.MemoryBudget
 import org.neo4j.cypher.result.RuntimeResult
 import org.neo4j.values.virtual.MapValue
 import org.neo4j.cypher.internal.v3_5.frontend.phases.InternalNotificationLogger
@@ -37,7 +39,8 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
   override def compileToExecutable(state: LogicalPlanState, context: RuntimeContext): ExecutionPlan = {
     val cardinalities = state.planningAttributes.cardinalities
     val logicalPlan = state.logicalPlan
-    val converters = new ExpressionConverters(CommunityExpressionConverter(context.tokenContext))
+    val converters = CompiledExpressionConverter.converters(context.compileExpressions, context.log,
+                                                            CommunityExpressionConverter(context.tokenContext))
     val executionPlanBuilder = new PipeExecutionPlanBuilder(
       expressionConverters = converters,
       pipeBuilderFactory = InterpretedPipeBuilderFactory)
@@ -49,12 +52,14 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
                                                                         context.readOnly,
                                                                         columns,
                                                                         logicalPlan,
-                                                                        context.config.lenientCreateRelationship)
+                                                                        context.config.lenientCreateRelationship,
+                                                                        context.queryMemoryBudget)
 
     new InterpretedExecutionPlan(periodicCommitInfo,
                                  resultBuilderFactory,
                                  InterpretedRuntimeName,
-                                 context.readOnly)
+                                 context.readOnly,
+                                 context.queryMemoryBudget)
   }
 
   /**
@@ -62,9 +67,10 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
     * or other resources in here.
     */
   class InterpretedExecutionPlan(periodicCommit: Option[PeriodicCommitInfo],
-                                 resultBuilderFactory: ExecutionResultBuilderFactory,
+                                 val resultBuilderFactory: ExecutionResultBuilderFactory,
                                  override val runtimeName: RuntimeName,
-                                 readOnly: Boolean) extends ExecutionPlan {
+                                 readOnly: Boolean,
+                                 queryMemoryBudget: Long) extends ExecutionPlan {
 
     override def run(queryContext: QueryContext, doProfile: Boolean, params: MapValue): RuntimeResult = {
       val builderContext = if (!readOnly || doProfile) new UpdateCountingQueryContext(queryContext) else queryContext
@@ -86,7 +92,8 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
                     profileInformation)
     }
 
-    override def metadata: Seq[Argument] = Nil
+    override def metadata: Seq[Argument] =
+      if (queryMemoryBudget > 0) Seq(MemoryBudget(queryMemoryBudget)) else Nil
 
     override def notifications: Set[InternalNotification] = Set.empty
   }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility
+
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime._
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.compiled.CompiledExpressionConverter
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan._
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.slotted.{SlotAllocation, SlottedPipeBuilder}
+import org.neo4j.cypher.internal.compiler.v3_5.phases.LogicalPlanState
+import org.neo4j.cypher.internal.compiler.v3_5.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.CommunityExpressionConverter
+import org.neo4j.cypher.internal.runtime.interpreted.slotted.SlottedExpressionConverter
+import org.neo4j.cypher.internal.v3_5.logical.plans.LogicalPlans
+
+/**
+  * Runs linear read-only queries on rows of slots, rather than on rows of named values. Variables are resolved to
+  * offsets when the pipes are built, and nodes and relationships are kept as ids until the results are produced.
+  * Queries that are not supported throw a [[CantCompileQueryException]] and fall back to the [[InterpretedRuntime]].
+  */
+object SlottedRuntime extends CypherRuntime[RuntimeContext] {
+  override def compileToExecutable(state: LogicalPlanState, context: RuntimeContext): ExecutionPlan = {
+    if (!context.readOnly || state.periodicCommit.isDefined)
+      throw new CantCompileQueryException("The slotted runtime only supports read-only queries")
+
+    val logicalPlan = state.logicalPlan
+    val slots = SlotAllocation.allocateSlots(logicalPlan)
+    val converters = CompiledExpressionConverter.converters(context.compileExpressions, context.log,
+                                                            SlottedExpressionConverter(slots),
+                                                            CommunityExpressionConverter(context.tokenContext))
+    val pipeBuilder = SlottedPipeBuilder(converters, slots, context.tokenContext)(state.semanticTable())
+    val pipe = LogicalPlans.map(logicalPlan, pipeBuilder)
+    val columns = state.statement().returnColumns
+    val resultBuilderFactory = InterpretedExecutionResultBuilderFactory(pipe,
+                                                                        context.readOnly,
+                                                                        columns,
+                                                                        logicalPlan,
+                                                                        context.config.lenientCreateRelationship,
+                                                                        queryMemoryBudget = 0)
+
+    // None of the slotted pipes hold on to rows, so there is no memory budget to enforce
+    new InterpretedRuntime.InterpretedExecutionPlan(None,
+                                                    resultBuilderFactory,
+                                                    SlottedRuntimeName,
+                                                    context.readOnly,
+                                                    queryMemoryBudget = 0)
+  }
+}
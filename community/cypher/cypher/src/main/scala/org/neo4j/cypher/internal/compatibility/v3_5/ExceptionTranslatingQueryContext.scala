@@ -115,6 +115,9 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
   override def getNodesByLabelPrimitive(id: Int): LongIterator =
     translateException(inner.getNodesByLabelPrimitive(id))
 
+  override def getRelationshipsByType(id: Int): Iterator[RelationshipValue] =
+    translateException(inner.getRelationshipsByType(id))
+
 
   override def nodeAsMap(id: Long): MapValue = translateException(inner.nodeAsMap(id))
 
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime.compiled
+
+import java.lang.reflect.Constructor
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * An expression that is evaluated by a class generated by the [[ExpressionCompiler]].
+  *
+  * The generated class only depends on the operators of the original expression, so it is instantiated with the
+  * interpreted leaves and the constants of the expression. Rewriting the expression instantiates the same class with
+  * the rewritten leaves, unless the rewrite changes the operators, in which case the rewritten expression is
+  * interpreted.
+  *
+  * @param original the interpreted expression, which this expression evaluates to the same values as
+  */
+case class CompiledCommandExpression(original: Expression)
+                                    (constructor: Constructor[_ <: CompiledExpression],
+                                     leaves: Array[Expression],
+                                     constants: Array[AnyValue]) extends Expression {
+
+  private val compiled: CompiledExpression = constructor.newInstance(leaves, constants)
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = compiled.evaluate(ctx, state)
+
+  override def rewrite(f: Expression => Expression): Expression = {
+    val rewritten = original.rewrite(f)
+    val rewrittenLeaves = new ArrayBuffer[Expression]
+    val rewrittenConstants = new ArrayBuffer[AnyValue]
+    if (ExpressionCompiler.rebind(original, rewritten, rewrittenLeaves, rewrittenConstants))
+      f(CompiledCommandExpression(rewritten)(constructor, rewrittenLeaves.toArray, rewrittenConstants.toArray))
+    else
+      rewritten
+  }
+
+  override def arguments: Seq[Expression] = leaves
+
+  override def symbolTableDependencies: Set[String] = original.symbolTableDependencies
+
+  override def toString: String = s"Compiled($original)"
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime.compiled
+
+import org.neo4j.cypher.internal.runtime.interpreted.CommandProjection
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{ExpressionConverter, ExpressionConverters}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression => CommandExpression}
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.cypher.internal.v3_5.{expressions => ast}
+import org.neo4j.logging.Log
+
+/**
+  * Converts expressions with the given interpreted converters, and compiles the operators of the result.
+  * Projections are left to the following converters, which convert the projected expressions through this one.
+  */
+case class CompiledExpressionConverter(compiler: ExpressionCompiler, interpreted: ExpressionConverters)
+  extends ExpressionConverter {
+
+  override def toCommandExpression(id: Id, expression: ast.Expression,
+                                   self: ExpressionConverters): Option[CommandExpression] =
+    Some(compiler.compile(interpreted.toCommandExpression(id, expression)))
+
+  override def toCommandProjection(id: Id, projections: Map[String, ast.Expression],
+                                   self: ExpressionConverters): Option[CommandProjection] = None
+}
+
+object CompiledExpressionConverter {
+
+  /**
+    * @return the given converters, preceded by a compiling converter if expressions should be compiled.
+    */
+  def converters(compileExpressions: Boolean, log: Log, converters: ExpressionConverter*): ExpressionConverters = {
+    val interpreted = new ExpressionConverters(converters: _*)
+    if (compileExpressions)
+      new ExpressionConverters(CompiledExpressionConverter(new ExpressionCompiler(log), interpreted) +: converters: _*)
+    else
+      interpreted
+  }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime.compiled
+
+import java.lang.reflect.Constructor
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.Consumer
+
+import org.neo4j.codegen.Expression.{constant, equal, getStatic, invoke, invokeSuper, notEqual, pop}
+import org.neo4j.codegen.FieldReference.staticField
+import org.neo4j.codegen.MethodReference.methodReference
+import org.neo4j.codegen.Parameter.param
+import org.neo4j.codegen.TypeReference.typeReference
+import org.neo4j.codegen.bytecode.ByteCode
+import org.neo4j.codegen.{CodeBlock, CodeGenerator, MethodReference, Expression => CodeExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions._
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates._
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.operations.{CypherBoolean, CypherMath}
+import org.neo4j.logging.Log
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{BooleanValue, Value, Values}
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.control.NonFatal
+
+/**
+  * Compiles interpreted expressions into classes that evaluate the operators of the expression - boolean logic,
+  * comparisons and arithmetic - as straight-line bytecode, instead of through a virtual call per operator. The
+  * generated code calls the same operations as the interpreted expressions do, so the results are identical.
+  *
+  * Anything else in the expression, like variables, properties and function calls, is kept as an interpreted leaf and
+  * evaluated from the generated code. Expressions whose root is not an operator are not worth compiling, and are
+  * returned as they are. So are expressions that can't be generated for any other reason, which is logged.
+  *
+  * All classes generated by one compiler share a class loader, so the compiler should live as long as the plan whose
+  * expressions it compiles.
+  */
+class ExpressionCompiler(log: Log) {
+
+  import ExpressionCompiler._
+
+  private lazy val generator: CodeGenerator = CodeGenerator.generateCode(getClass.getClassLoader, ByteCode.BYTECODE)
+
+  def compile(expression: Expression): Expression =
+    if (!isOperator(expression)) expression
+    else try {
+      val leaves = new ArrayBuffer[Expression]
+      val constants = new ArrayBuffer[AnyValue]
+      val constructor = generate(expression, leaves, constants)
+      CompiledCommandExpression(expression)(constructor, leaves.toArray, constants.toArray)
+    } catch {
+      case NonFatal(e) =>
+        log.warn(s"Failed to compile the expression $expression, it will be interpreted instead", e)
+        expression
+    }
+
+  private def generate(expression: Expression,
+                       leaves: ArrayBuffer[Expression],
+                       constants: ArrayBuffer[AnyValue]): Constructor[_ <: CompiledExpression] = {
+    val clazz = generator.generateClass(typeReference(classOf[CompiledExpression]), PACKAGE,
+                                        s"Expression${classCounter.incrementAndGet()}")
+    val handle = try {
+      using(clazz.generateConstructor(param(classOf[Array[Expression]], "leaves"),
+                                      param(classOf[Array[AnyValue]], "constants"))) { body =>
+        body.expression(invokeSuper(typeReference(classOf[CompiledExpression]), body.load("leaves"), body.load("constants")))
+      }
+      using(clazz.generateMethod(classOf[AnyValue], "evaluate",
+                                 param(classOf[ExecutionContext], "context"), param(classOf[QueryState], "state"))) { body =>
+        body.returns(new MethodGenerator(leaves, constants).emit(expression, body))
+      }
+      clazz.handle()
+    } finally {
+      clazz.close()
+    }
+    handle.loadClass().asSubclass(classOf[CompiledExpression])
+      .getConstructor(classOf[Array[Expression]], classOf[Array[AnyValue]])
+  }
+
+  /**
+    * Emits the code of a single expression. Every intermediate value is stored in a local variable of type
+    * [[AnyValue]], so the evaluation order is exactly that of the interpreted expressions.
+    */
+  private class MethodGenerator(leaves: ArrayBuffer[Expression], constants: ArrayBuffer[AnyValue]) {
+
+    private var locals = 0
+
+    def emit(expression: Expression, block: CodeBlock): CodeExpression = expression match {
+      case literal: Literal =>
+        constants += literal.anyVal
+        invoke(block.self(), CONSTANT, constant(constants.size - 1))
+
+      case True() =>
+        anyValue(TRUE)
+
+      case Not(a) =>
+        val value = evaluate(a, block)
+        unlessNull(block, Seq(value), invoke(NOT, value))
+
+      case Xor(a, b) =>
+        val lhs = evaluate(a, block)
+        val rhs = evaluate(b, block)
+        unlessNull(block, Seq(lhs, rhs), invoke(XOR, lhs, rhs))
+
+      case IsNull(a) =>
+        val value = evaluate(a, block)
+        val result = local(block, anyValue(FALSE))
+        using(block.ifStatement(equal(value, NO_VALUE))) { isNull =>
+          isNull.assign(isNull.local(result), anyValue(TRUE))
+        }
+        block.load(result)
+
+      case Equals(a, b) =>
+        val lhs = evaluate(a, block)
+        val rhs = evaluate(b, block)
+        anyValue(invoke(EQUALS, lhs, rhs))
+
+      case p: ComparablePredicate =>
+        val lhs = evaluate(p.left, block)
+        val rhs = evaluate(p.right, block)
+        unlessNull(block, Seq(lhs, rhs), invoke(comparison(p), lhs, rhs))
+
+      case Ands(predicates) => composite(predicates.toIndexedSeq, shouldExitWhen = false, block)
+      case Ors(predicates) => composite(predicates.toIndexedSeq, shouldExitWhen = true, block)
+      case Or(a, b) => composite(Seq(a, b), shouldExitWhen = true, block)
+
+      case Add(a, b) => arithmetic(ADD, a, b, block)
+      case Subtract(a, b) => arithmetic(SUBTRACT, a, b, block)
+      case Multiply(a, b) => arithmetic(MULTIPLY, a, b, block)
+      case Modulo(a, b) => arithmetic(MODULO, a, b, block)
+      case Pow(a, b) => arithmetic(POW, a, b, block)
+      case Divide(a, b) =>
+        val lhs = evaluate(a, block)
+        val rhs = evaluate(b, block)
+        block.expression(pop(invoke(DIVIDE_CHECK_FOR_NULL, lhs, rhs)))
+        unlessNull(block, Seq(lhs, rhs), invoke(DIVIDE, lhs, rhs))
+
+      case _ =>
+        leaves += expression
+        invoke(block.self(), LEAF, constant(leaves.size - 1), block.load("context"), block.load("state"))
+    }
+
+    private def evaluate(expression: Expression, block: CodeBlock): CodeExpression =
+      block.load(local(block, emit(expression, block)))
+
+    private def arithmetic(operation: MethodReference, a: Expression, b: Expression, block: CodeBlock): CodeExpression = {
+      val lhs = evaluate(a, block)
+      val rhs = evaluate(b, block)
+      unlessNull(block, Seq(lhs, rhs), invoke(operation, lhs, rhs))
+    }
+
+    /**
+      * @return the value of the given operation, or NO_VALUE without performing the operation if any of the operands
+      *         are NO_VALUE.
+      */
+    private def unlessNull(block: CodeBlock, operands: Seq[CodeExpression], operation: CodeExpression): CodeExpression = {
+      val result = local(block, anyValue(NO_VALUE))
+      def check(block: CodeBlock, remaining: Seq[CodeExpression]): Unit = remaining match {
+        case Seq() => block.assign(block.local(result), anyValue(operation))
+        case operand +: rest => using(block.ifStatement(notEqual(operand, NO_VALUE)))(check(_, rest))
+      }
+      check(block, operands)
+      block.load(result)
+    }
+
+    /**
+      * Short-circuiting AND or OR, with the same semantics as [[CompositeBooleanPredicate]]: once a predicate evaluates
+      * to the exit value the result is decided, and failures are only thrown if the result is not decided by a later
+      * predicate.
+      */
+    private def composite(predicates: Seq[Predicate], shouldExitWhen: Boolean, block: CodeBlock): CodeExpression = {
+      val exit = if (shouldExitWhen) TRUE else FALSE
+      val result = local(block, anyValue(if (shouldExitWhen) FALSE else TRUE))
+      val error = nextName()
+      block.assign(typeReference(classOf[Exception]), error, CodeExpression.NULL)
+      predicates.foreach { predicate =>
+        using(block.ifStatement(notEqual(block.load(result), exit))) { undecided =>
+          undecided.tryCatch(
+            new Consumer[CodeBlock] {
+              override def accept(body: CodeBlock): Unit = {
+                val value = evaluate(predicate, body)
+                using(body.ifStatement(equal(value, exit))) { exits =>
+                  exits.assign(exits.local(result), anyValue(exit))
+                  exits.assign(exits.local(error), CodeExpression.NULL)
+                }
+                using(body.ifStatement(equal(value, NO_VALUE))) { isNull =>
+                  using(isNull.ifStatement(CodeExpression.isNull(isNull.load(error)))) { succeeded =>
+                    succeeded.assign(succeeded.local(result), anyValue(NO_VALUE))
+                  }
+                }
+              }
+            },
+            new Consumer[CodeBlock] {
+              override def accept(handler: CodeBlock): Unit =
+                using(handler.ifStatement(CodeExpression.isNull(handler.load(error)))) { first =>
+                  first.assign(first.local(error), first.load(s"${error}Caught"))
+                }
+            },
+            param(classOf[Exception], s"${error}Caught"))
+        }
+      }
+      using(block.ifStatement(CodeExpression.notNull(block.load(error)))) { failed =>
+        failed.throwException(failed.load(error))
+      }
+      block.load(result)
+    }
+
+    private def local(block: CodeBlock, value: CodeExpression): String = {
+      val name = nextName()
+      block.assign(typeReference(classOf[AnyValue]), name, value)
+      name
+    }
+
+    private def nextName(): String = {
+      locals += 1
+      s"v$locals"
+    }
+  }
+}
+
+object ExpressionCompiler {
+
+  private val PACKAGE = "org.neo4j.cypher.internal.compatibility.v3_5.runtime.compiled.generated"
+  private val classCounter = new AtomicLong()
+
+  private val NO_VALUE = getStatic(staticField(classOf[Values], classOf[Value], "NO_VALUE"))
+  private val TRUE = getStatic(staticField(classOf[Values], classOf[BooleanValue], "TRUE"))
+  private val FALSE = getStatic(staticField(classOf[Values], classOf[BooleanValue], "FALSE"))
+
+  private val LEAF = methodReference(classOf[CompiledExpression], classOf[AnyValue], "leaf",
+                                     classOf[Int], classOf[ExecutionContext], classOf[QueryState])
+  private val CONSTANT = methodReference(classOf[CompiledExpression], classOf[AnyValue], "constant", classOf[Int])
+
+  private val NOT = booleanOperation("not", classOf[AnyValue])
+  private val XOR = booleanOperation("xor", classOf[AnyValue], classOf[AnyValue])
+  private val EQUALS = booleanOperation("equals", classOf[AnyValue], classOf[AnyValue])
+  private val LESS_THAN = booleanOperation("lessThan", classOf[AnyValue], classOf[AnyValue])
+  private val LESS_THAN_OR_EQUAL = booleanOperation("lessThanOrEqual", classOf[AnyValue], classOf[AnyValue])
+  private val GREATER_THAN = booleanOperation("greaterThan", classOf[AnyValue], classOf[AnyValue])
+  private val GREATER_THAN_OR_EQUAL = booleanOperation("greaterThanOrEqual", classOf[AnyValue], classOf[AnyValue])
+
+  private val ADD = mathOperation("add")
+  private val SUBTRACT = mathOperation("subtract")
+  private val MULTIPLY = mathOperation("multiply")
+  private val DIVIDE = mathOperation("divide")
+  private val MODULO = mathOperation("modulo")
+  private val POW = mathOperation("pow")
+  private val DIVIDE_CHECK_FOR_NULL = methodReference(classOf[CypherMath], classOf[Boolean], "divideCheckForNull",
+                                                      classOf[AnyValue], classOf[AnyValue])
+
+  private def booleanOperation(name: String, parameters: Class[_]*) =
+    methodReference(classOf[CypherBoolean], classOf[Value], name, parameters: _*)
+
+  private def mathOperation(name: String) =
+    methodReference(classOf[CypherMath], classOf[AnyValue], name, classOf[AnyValue], classOf[AnyValue])
+
+  private def comparison(predicate: ComparablePredicate) = predicate match {
+    case _: LessThan => LESS_THAN
+    case _: LessThanOrEqual => LESS_THAN_OR_EQUAL
+    case _: GreaterThan => GREATER_THAN
+    case _: GreaterThanOrEqual => GREATER_THAN_OR_EQUAL
+  }
+
+  /**
+    * Locals all have the static type [[AnyValue]], so the types of the values stored in them never have to be merged.
+    */
+  private def anyValue(value: CodeExpression): CodeExpression = CodeExpression.cast(classOf[AnyValue], value)
+
+  private def isOperator(expression: Expression): Boolean = expression match {
+    case _: Not | _: Xor | _: IsNull | _: Equals | _: ComparablePredicate | _: Ands | _: Ors | _: Or |
+         _: Add | _: Subtract | _: Multiply | _: Divide | _: Modulo | _: Pow => true
+    case _ => false
+  }
+
+  /**
+    * @return the operands of an expression that the generated code evaluates itself, in the order that it evaluates
+    *         them, or None if the generated code evaluates the expression as a leaf.
+    */
+  private def operands(expression: Expression): Option[Seq[Expression]] = expression match {
+    case True() => Some(Seq.empty)
+    case Not(a) => Some(Seq(a))
+    case IsNull(a) => Some(Seq(a))
+    case Xor(a, b) => Some(Seq(a, b))
+    case Equals(a, b) => Some(Seq(a, b))
+    case p: ComparablePredicate => Some(Seq(p.left, p.right))
+    case Ands(predicates) => Some(predicates.toIndexedSeq)
+    case Ors(predicates) => Some(predicates.toIndexedSeq)
+    case Or(a, b) => Some(Seq(a, b))
+    case Add(a, b) => Some(Seq(a, b))
+    case Subtract(a, b) => Some(Seq(a, b))
+    case Multiply(a, b) => Some(Seq(a, b))
+    case Divide(a, b) => Some(Seq(a, b))
+    case Modulo(a, b) => Some(Seq(a, b))
+    case Pow(a, b) => Some(Seq(a, b))
+    case _ => None
+  }
+
+  /**
+    * Collects the leaves and constants of a rewritten expression, in the order that the code generated for the
+    * compiled expression refers to them, so the generated class can be instantiated for the rewritten expression.
+    *
+    * @return false if the rewritten expression has different operators or literals where the compiled one has them,
+    *         in which case the generated class does not evaluate the rewritten expression.
+    */
+  private[compiled] def rebind(compiled: Expression,
+                               rewritten: Expression,
+                               leaves: ArrayBuffer[Expression],
+                               constants: ArrayBuffer[AnyValue]): Boolean = compiled match {
+    case _: Literal => rewritten match {
+      case literal: Literal =>
+        constants += literal.anyVal
+        true
+      case _ => false
+    }
+
+    case _ => operands(compiled) match {
+      case None =>
+        leaves += rewritten
+        true
+      case Some(compiledOperands) =>
+        rewritten.getClass == compiled.getClass && {
+          val rewrittenOperands = operands(rewritten).get
+          rewrittenOperands.size == compiledOperands.size &&
+            compiledOperands.zip(rewrittenOperands).forall {
+              case (c, r) => rebind(c, r, leaves, constants)
+            }
+        }
+    }
+  }
+
+  private def using[T <: AutoCloseable](resource: T)(f: T => Unit): Unit =
+    try {
+      f(resource)
+    } finally {
+      resource.close()
+    }
+}
@@ -75,7 +75,8 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                                                     readOnly: Boolean,
                                                     columns: List[String],
                                                     logicalPlan: LogicalPlan,
-                                                    lenientCreateRelationship: Boolean)
+                                                    lenientCreateRelationship: Boolean,
+                                                    queryMemoryBudget: Long)
   extends BaseExecutionResultBuilderFactory(pipe, readOnly, columns, logicalPlan) {
 
   override def create(queryContext: QueryContext): ExecutionResultBuilder = InterpretedExecutionWorkflowBuilder(queryContext: QueryContext)
@@ -88,7 +89,8 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                      pipeDecorator,
                      triadicState = mutable.Map.empty,
                      repeatableReads = mutable.Map.empty,
-                     lenientCreateRelationship = lenientCreateRelationship)
+                     lenientCreateRelationship = lenientCreateRelationship,
+                     memoryTracker = QueryMemoryTracker(queryMemoryBudget))
     }
 
     override def buildResultIterator(results: Iterator[ExecutionContext], readOnly: Boolean): IteratorBasedResult = {
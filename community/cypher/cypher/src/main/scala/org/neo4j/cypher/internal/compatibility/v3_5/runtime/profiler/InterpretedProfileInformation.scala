@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.compatibility.v3_5.runtime.profiler
 
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryMemoryTracker
 import org.neo4j.cypher.result.{OperatorProfile, QueryProfile}
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 
@@ -29,7 +30,8 @@ class InterpretedProfileInformation extends QueryProfile {
   case class OperatorData(override val dbHits: Long,
                           override val rows: Long,
                           override val pageCacheHits: Long,
-                          override val pageCacheMisses: Long) extends OperatorProfile {
+                          override val pageCacheMisses: Long,
+                          override val spilledBytes: Long) extends OperatorProfile {
 
     override def time: Long = OperatorProfile.NO_DATA
   }
@@ -37,6 +39,7 @@ class InterpretedProfileInformation extends QueryProfile {
   val pageCacheMap: mutable.Map[Id, PageCacheStats] = mutable.Map.empty
   val dbHitsMap: mutable.Map[Id, ProfilingPipeQueryContext] = mutable.Map.empty
   val rowMap: mutable.Map[Id, ProfilingIterator] = mutable.Map.empty
+  var memoryTracker: QueryMemoryTracker = QueryMemoryTracker.UNLIMITED
 
   def operatorProfile(operatorId: Int): OperatorProfile = {
     val id = Id(operatorId)
@@ -44,7 +47,9 @@ class InterpretedProfileInformation extends QueryProfile {
     val dbHits = dbHitsMap.get(id).map(_.count).getOrElse(0L)
     val pageCacheStats = pageCacheMap.getOrElse(id, PageCacheStats(0L, 0L))
 
-    OperatorData(dbHits, rows, pageCacheStats.hits, pageCacheStats.misses)
+    val spilledBytes = memoryTracker.spilledBytes(id).getOrElse(OperatorProfile.NO_DATA)
+
+    OperatorData(dbHits, rows, pageCacheStats.hits, pageCacheStats.misses, spilledBytes)
   }
 }
 
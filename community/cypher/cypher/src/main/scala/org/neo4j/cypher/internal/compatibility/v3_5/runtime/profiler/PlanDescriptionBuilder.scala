@@ -59,6 +59,7 @@ class PlanDescriptionBuilder(logicalPlan: LogicalPlan,
           .addArgument(Arguments.PageCacheHits, data.pageCacheHits)
           .addArgument(Arguments.PageCacheMisses, data.pageCacheMisses)
           .addArgument(Arguments.PageCacheHitRatio, data.pageCacheHitRatio())
+          .addArgument(Arguments.SpilledBytes, data.spilledBytes)
           .addArgument(Arguments.Time, data.time())
         .plan
     }
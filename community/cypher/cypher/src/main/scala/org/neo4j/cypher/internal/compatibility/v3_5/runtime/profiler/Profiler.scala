@@ -61,6 +61,7 @@ class Profiler(databaseInfo: DatabaseInfo,
       val statisticProvider = decoratedContext.transactionalContext.kernelStatisticProvider
       stats.pageCacheMap(pipe.id) = PageCacheStats(statisticProvider.getPageCacheHits, statisticProvider.getPageCacheMisses)
     }
+    stats.memoryTracker = state.memoryTracker
     state.withQueryContext(decoratedContext)
   }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime.slotted
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.runtime.interpreted.slotted.{LongSlot, SlotConfiguration}
+import org.neo4j.cypher.internal.v3_5.expressions._
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.neo4j.cypher.internal.v3_5.util.symbols.{CTAny, CTNode, CTRelationship}
+
+/**
+  * Allocates the slots of a logical plan. Only linear, read-only plans made up of scans, expands, filters, projections,
+  * skip and limit are supported, since all of their rows can share a single slot configuration. For any other plan a
+  * [[CantCompileQueryException]] is thrown, so the query falls back to the interpreted runtime.
+  */
+object SlotAllocation {
+
+  def allocateSlots(plan: LogicalPlan): SlotConfiguration = {
+    val slots = new SlotConfiguration
+    allocate(plan, slots)
+    slots
+  }
+
+  private def allocate(plan: LogicalPlan, slots: SlotConfiguration): Unit = plan match {
+    case AllNodesScan(node, arguments) if arguments.isEmpty =>
+      slots.newLong(node, CTNode)
+
+    case NodeByLabelScan(node, _, arguments) if arguments.isEmpty =>
+      slots.newLong(node, CTNode)
+
+    case Expand(source, from, _, _, to, relName, ExpandAll) =>
+      allocate(source, slots)
+      slots.get(from) match {
+        case Some(slot: LongSlot) if slot.isNode =>
+        case _ => cantCompile(s"`$from` is not a node in a long slot")
+      }
+      if (slots.get(relName).isDefined || slots.get(to).isDefined)
+        cantCompile(s"`$relName` or `$to` is already bound")
+      slots.newLong(relName, CTRelationship)
+      slots.newLong(to, CTNode)
+
+    case Selection(predicate, source) =>
+      allocate(source, slots)
+      checkExpression(predicate, slots)
+
+    case Limit(source, count, DoNotIncludeTies) =>
+      allocate(source, slots)
+      checkExpression(count, slots)
+
+    case Skip(source, count) =>
+      allocate(source, slots)
+      checkExpression(count, slots)
+
+    case Projection(source, expressions) =>
+      allocate(source, slots)
+      // All expressions are evaluated against the incoming row, so check them before any of the new slots exist
+      expressions.values.foreach(checkExpression(_, slots))
+      expressions.foreach {
+        case (key, expression) if isIdentityProjection(key, expression) =>
+        case (key, _) => slots.get(key) match {
+          case Some(_: LongSlot) => cantCompile(s"`$key` would replace a node or a relationship")
+          case _ => slots.newReference(key, CTAny)
+        }
+      }
+
+    case ProduceResult(source, columns) =>
+      allocate(source, slots)
+      columns.foreach(column => if (slots.get(column).isEmpty) cantCompile(s"There is no slot for the column `$column`"))
+
+    case _ =>
+      cantCompile(s"${plan.getClass.getSimpleName} is not supported")
+  }
+
+  /**
+    * Projecting a variable onto itself keeps it in the slot it already has.
+    */
+  def isIdentityProjection(key: String, expression: Expression): Boolean = expression match {
+    case Variable(name) => name == key
+    case _ => false
+  }
+
+  /**
+    * Expressions that introduce variables of their own, or that need more than the current row to be evaluated, are
+    * not supported. Every variable must have a slot.
+    */
+  private def checkExpression(expression: Expression, slots: SlotConfiguration): Unit = {
+    val unsupported = expression.treeExists {
+      case _: NestedPlanExpression |
+           _: CachedNodeProperty |
+           _: PathExpression |
+           _: PatternExpression |
+           _: PatternComprehension |
+           _: ShortestPathExpression => true
+    }
+    if (unsupported)
+      cantCompile(s"$expression is not supported")
+    expression.findByAllClass[Variable].foreach {
+      variable => if (slots.get(variable.name).isEmpty) cantCompile(s"There is no slot for `${variable.name}`")
+    }
+  }
+
+  private def cantCompile(reason: String): Nothing =
+    throw new CantCompileQueryException(s"The slotted runtime cannot compile this query: $reason")
+}
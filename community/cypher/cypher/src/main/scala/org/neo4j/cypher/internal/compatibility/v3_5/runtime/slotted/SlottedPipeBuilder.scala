@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime.slotted
+
+import org.neo4j.cypher.internal.codegen.CompiledMaterializeValueMapper
+import org.neo4j.cypher.internal.planner.v3_5.spi.TokenContext
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.KeyTokenResolver
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression => CommandExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{FilterPipe, LazyLabel, LazyTypes, LimitPipe, Pipe, PipeBuilder, ProjectionPipe, SkipPipe}
+import org.neo4j.cypher.internal.runtime.interpreted.slotted.pipes.{AllNodesScanSlottedPipe, ExpandAllSlottedPipe, NodesByLabelScanSlottedPipe, ProduceResultsSlottedPipe}
+import org.neo4j.cypher.internal.runtime.interpreted.slotted.{SlotConfiguration, SlottedCommandProjection}
+import org.neo4j.cypher.internal.v3_5.ast.semantics.SemanticTable
+import org.neo4j.cypher.internal.v3_5.expressions.{RelTypeName, Expression => ASTExpression}
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.values.AnyValue
+
+/**
+  * Turns a logical plan, whose slots have been allocated by [[SlotAllocation]], into slotted pipes. Pipes that only
+  * evaluate expressions are shared with the interpreted runtime, since the slotted rows and expressions take care of
+  * reading by offset.
+  */
+case class SlottedPipeBuilder(expressionConverters: ExpressionConverters,
+                              slots: SlotConfiguration,
+                              tokenContext: TokenContext)
+                             (implicit semanticTable: SemanticTable) extends PipeBuilder {
+
+  private def buildExpression(id: Id)(expression: ASTExpression): CommandExpression =
+    expressionConverters.toCommandExpression(id, expression).rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext))
+
+  override def onLeaf(plan: LogicalPlan): Pipe = plan match {
+    case AllNodesScan(ident, _) =>
+      AllNodesScanSlottedPipe(ident, slots)(plan.id)
+
+    case NodeByLabelScan(ident, label, _) =>
+      NodesByLabelScanSlottedPipe(ident, LazyLabel(label), slots)(plan.id)
+
+    case _ =>
+      throw new InternalException(s"Slots were allocated for an unsupported plan: $plan")
+  }
+
+  override def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = {
+    val id = plan.id
+    plan match {
+      case Expand(_, fromName, dir, types: Seq[RelTypeName], toName, relName, ExpandAll) =>
+        ExpandAllSlottedPipe(source, fromName, relName, toName, dir, LazyTypes(types.toArray), slots)(id)
+
+      case Selection(predicate, _) =>
+        val predicateExpression =
+          if (predicate.exprs.size == 1) buildExpression(id)(predicate.exprs.head) else buildExpression(id)(predicate)
+        FilterPipe(source, predicateExpression)(id = id)
+
+      case Limit(_, count, DoNotIncludeTies) =>
+        LimitPipe(source, buildExpression(id)(count))(id = id)
+
+      case Skip(_, count) =>
+        SkipPipe(source, buildExpression(id)(count))(id = id)
+
+      case Projection(_, expressions) =>
+        val introducedExpressions = expressions.collect {
+          case (key, expression) if !SlotAllocation.isIdentityProjection(key, expression) =>
+            slots.getReferenceOffsetFor(key) -> buildExpression(id)(expression)
+        }
+        ProjectionPipe(source, SlottedCommandProjection(introducedExpressions))(id = id)
+
+      case ProduceResult(_, columns) =>
+        ProduceResultsSlottedPipe(source, columns, slots, SlottedPipeBuilder.materialize)(id)
+
+      case _ =>
+        throw new InternalException(s"Slots were allocated for an unsupported plan: $plan")
+    }
+  }
+
+  override def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe =
+    throw new InternalException(s"Slots were allocated for an unsupported plan: $plan")
+}
+
+object SlottedPipeBuilder {
+
+  /**
+    * Replaces all node and relationship references in a value, however deeply nested, with full node and relationship
+    * values, since the results are read after the rows have been produced.
+    */
+  val materialize: (QueryContext, AnyValue) => AnyValue =
+    (query, value) => CompiledMaterializeValueMapper.mapAnyValue(query.entityAccessor, value)
+}
@@ -81,4 +81,16 @@ class PreParserTest extends CypherFunSuite {
       preParser.preParseQuery(query).isPeriodicCommit should be(false)
     }
   }
+
+  test("should parse memory budgets with and without units") {
+    preParser.preParseQuery("CYPHER memoryBudget=1024 RETURN 42").memoryBudget should equal(Some(1024L))
+    preParser.preParseQuery("CYPHER memoryBudget=2k RETURN 42").memoryBudget should equal(Some(2048L))
+    preParser.preParseQuery("CYPHER runtime=interpreted memoryBudget=512m RETURN 42").memoryBudget should equal(Some(512L * 1024 * 1024))
+    preParser.preParseQuery("RETURN 42").memoryBudget should equal(None)
+  }
+
+  test("should not allow invalid or inconsistent memory budgets") {
+    intercept[InvalidArgumentException](preParser.preParseQuery("CYPHER memoryBudget=12q RETURN 42"))
+    intercept[InvalidArgumentException](preParser.preParseQuery("CYPHER memoryBudget=1k memoryBudget=2k RETURN 42"))
+  }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime.compiled
+
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions._
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates._
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.cypher.internal.v3_5.util.{ArithmeticException, CypherTypeException, NonEmptyList}
+import org.neo4j.logging.NullLog
+import org.neo4j.values.storable.Values.{FALSE, NO_VALUE, TRUE, longValue, stringValue}
+
+class ExpressionCompilerTest extends CypherFunSuite {
+
+  private val compiler = new ExpressionCompiler(NullLog.getInstance)
+  private val state = QueryStateHelper.empty
+  private val ctx = ExecutionContext.from("x" -> longValue(3), "y" -> NO_VALUE, "s" -> stringValue("a"))
+
+  private val failing = CoercedPredicate(Literal("not a boolean"))
+  private val falsePredicate = Not(True())
+
+  test("should compile operators and evaluate the remaining expressions as leaves") {
+    val expression = Add(Multiply(Variable("x"), Literal(2)), Variable("x"))
+
+    val compiled = compiler.compile(expression)
+
+    compiled shouldBe a[CompiledCommandExpression]
+    compiled.arguments should equal(Seq(Variable("x"), Variable("x")))
+    compiled(ctx, state) should equal(longValue(9))
+  }
+
+  test("should not compile expressions without operators") {
+    val expression = Variable("x")
+
+    compiler.compile(expression) should be theSameInstanceAs expression
+  }
+
+  test("should stay compiled when a rewrite only changes the leaves") {
+    val compiled = compiler.compile(Add(Multiply(Variable("a"), Literal(2)), Variable("x")))
+
+    val rewritten = compiled.rewrite {
+      case Variable("a") => Variable("x")
+      case e => e
+    }
+
+    rewritten shouldBe a[CompiledCommandExpression]
+    rewritten.arguments should equal(Seq(Variable("x"), Variable("x")))
+    rewritten(ctx, state) should equal(longValue(9))
+  }
+
+  test("should stay compiled when a rewrite changes the constants") {
+    val compiled = compiler.compile(Add(Variable("x"), Literal(2)))
+
+    val rewritten = compiled.rewrite {
+      case Literal(_) => Literal(5)
+      case e => e
+    }
+
+    rewritten shouldBe a[CompiledCommandExpression]
+    rewritten(ctx, state) should equal(longValue(8))
+  }
+
+  test("should keep a rewritten predicate compiled inside the coercion the pipes wrap it in") {
+    val compiled = CoercedPredicate(compiler.compile(Equals(Variable("a"), Literal(3))))
+
+    val rewritten = compiled.rewrite {
+      case Variable("a") => Variable("x")
+      case e => e
+    }
+
+    rewritten should matchPattern { case CoercedPredicate(_: CompiledCommandExpression) => }
+    rewritten(ctx, state) should equal(TRUE)
+  }
+
+  test("should interpret the rewritten expression when a rewrite changes the operators") {
+    val compiled = compiler.compile(Add(Variable("x"), Multiply(Variable("x"), Literal(2))))
+
+    val rewritten = compiled.rewrite {
+      case Multiply(a, b) => Subtract(a, b)
+      case e => e
+    }
+
+    rewritten should equal(Add(Variable("x"), Subtract(Variable("x"), Literal(2))))
+    rewritten(ctx, state) should equal(longValue(4))
+  }
+
+  test("should propagate null like the interpreted expressions") {
+    val expressions = Seq(
+      Add(Variable("x"), Variable("y")),
+      Divide(Variable("y"), Variable("x")),
+      Pow(Variable("x"), Variable("y")),
+      Not(CoercedPredicate(Variable("y"))),
+      Xor(True(), CoercedPredicate(Variable("y"))),
+      LessThan(Variable("y"), Variable("x")),
+      Equals(Variable("x"), Variable("y")),
+      IsNull(Variable("y")),
+      IsNull(Variable("x")))
+
+    expressions.foreach { expression =>
+      compiler.compile(expression)(ctx, state) should equal(expression(ctx, state))
+    }
+  }
+
+  test("should evaluate comparisons and arithmetic like the interpreted expressions") {
+    val expressions = Seq(
+      Subtract(Variable("x"), Literal(5)),
+      Modulo(Variable("x"), Literal(2)),
+      Add(Variable("s"), Variable("x")),
+      GreaterThanOrEqual(Variable("x"), Literal(3)),
+      LessThan(Variable("s"), Literal("b")),
+      Xor(Equals(Variable("x"), Literal(3)), falsePredicate))
+
+    expressions.foreach { expression =>
+      compiler.compile(expression)(ctx, state) should equal(expression(ctx, state))
+    }
+  }
+
+  test("should throw the same exceptions as the interpreted expressions") {
+    intercept[ArithmeticException](compiler.compile(Divide(Variable("x"), Literal(0)))(ctx, state))
+    intercept[CypherTypeException](compiler.compile(Add(Variable("x"), Literal(true)))(ctx, state))
+  }
+
+  test("should short circuit ands and ors") {
+    compiler.compile(Ands(NonEmptyList(falsePredicate, failing)))(ctx, state) should equal(FALSE)
+    compiler.compile(Ors(NonEmptyList(True(), failing)))(ctx, state) should equal(TRUE)
+  }
+
+  test("should ignore errors in ands and ors when a later predicate decides the result") {
+    compiler.compile(Ands(NonEmptyList(failing, falsePredicate)))(ctx, state) should equal(FALSE)
+    compiler.compile(Ors(NonEmptyList(failing, CoercedPredicate(Variable("y")), True())))(ctx, state) should equal(TRUE)
+  }
+
+  test("should throw errors in ands and ors when the result is not decided") {
+    intercept[CypherTypeException](compiler.compile(Ands(NonEmptyList(failing, True())))(ctx, state))
+    intercept[CypherTypeException](compiler.compile(Ors(NonEmptyList(CoercedPredicate(Variable("y")), failing)))(ctx, state))
+  }
+
+  test("should return null from ands and ors when the result is not decided") {
+    val isNull = CoercedPredicate(Variable("y"))
+
+    compiler.compile(Ands(NonEmptyList(isNull, True())))(ctx, state) should equal(NO_VALUE)
+    compiler.compile(Ors(NonEmptyList(falsePredicate, isNull)))(ctx, state) should equal(NO_VALUE)
+  }
+}
@@ -61,7 +61,10 @@ class CypherPreParserTest extends CypherFunSuite with TableDrivenPropertyChecks
     ("CYPHER debug=one debug=two RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(DebugOption("one"), DebugOption("two")))), (1, 28, 27))),
     ("CYPHER runtime=slotted RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(SlottedRuntimeOption))), (1, 24, 23))),
     ("CYPHER expressionEngine=interpreted RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(InterpretedExpressionOption))), (1, 37, 36))),
-    ("CYPHER expressionEngine=compiled RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(CompiledExpressionOption))), (1, 34, 33)))
+    ("CYPHER expressionEngine=compiled RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(CompiledExpressionOption))), (1, 34, 33))),
+    ("CYPHER memoryBudget=512m RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(MemoryBudgetOption("512m")))), (1, 26, 25))),
+    ("CYPHER runtime=interpreted memoryBudget=1024 RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(
+      InterpretedRuntimeOption, MemoryBudgetOption("1024")))), (1, 46, 45)))
   )
 
   test("run the tests") {
@@ -98,6 +98,8 @@ abstract class BaseQueryContext extends QueryContext {
 
   override def getNodesByLabelPrimitive(id: Int): LongIterator = notSupported()
 
+  override def getRelationshipsByType(id: Int): Iterator[RelationshipValue] = notSupported()
+
   override def createNodeKeyConstraint(descriptor: IndexDescriptor): Boolean = notSupported()
 
   override def dropNodeKeyConstraint(descriptor: IndexDescriptor): Unit = notSupported()
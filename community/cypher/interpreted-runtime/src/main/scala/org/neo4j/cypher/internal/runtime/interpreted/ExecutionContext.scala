@@ -244,6 +244,15 @@ class MapExecutionContext(private val m: MutableMap[String, AnyValue], private v
 
   override def getCachedPropertyAt(offset: Int): Value = fail()
 
+  /**
+    * Visit the cached node properties of this context. The value is null for properties that have been invalidated.
+    */
+  def foreachCachedProperty(f: (CachedNodeProperty, Value) => Unit): Unit =
+    if (cachedProperties != null)
+      cachedProperties.foreach {
+        case (key, value) => f(key, value)
+      }
+
   override def invalidateCachedProperties(node: Long): Unit = {
     if (cachedProperties != null)
       cachedProperties.keys.filter(cnp => apply(cnp.nodeVariableName) match {
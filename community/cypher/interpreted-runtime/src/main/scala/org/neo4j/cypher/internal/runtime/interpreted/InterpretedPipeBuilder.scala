@@ -81,6 +81,12 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
       case UndirectedRelationshipByIdSeek(ident, relIdExpr, fromNode, toNode, _) =>
         UndirectedRelationshipByIdSeekPipe(ident, expressionConverters.toCommandSeekArgs(id, relIdExpr), toNode, fromNode)(id = id)
 
+      case DirectedRelationshipTypeScan(ident, fromNode, typ, toNode, _) =>
+        DirectedRelationshipTypeScanPipe(ident, fromNode, LazyTypes(Array(typ)), toNode)(id = id)
+
+      case UndirectedRelationshipTypeScan(ident, fromNode, typ, toNode, _) =>
+        UndirectedRelationshipTypeScanPipe(ident, fromNode, LazyTypes(Array(typ)), toNode)(id = id)
+
       case NodeIndexSeek(ident, label, properties, valueExpr, _, indexOrder) =>
         val indexSeekMode = IndexSeekModeFactory(unique = false, readOnly = readOnly).fromQueryExpression(valueExpr)
         NodeIndexSeekPipe(ident, label, properties.toArray, valueExpr.map(buildExpression), indexSeekMode, indexOrder)(id = id)
@@ -378,6 +378,22 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     }
   }
 
+  override def getRelationshipsByType(id: Int): Iterator[RelationshipValue] = {
+    val relCursor = allocateAndTraceRelationshipScanCursor()
+    reads().relationshipTypeScan(id, relCursor)
+    new CursorIterator[RelationshipValue] {
+      override protected def fetchNext(): RelationshipValue = {
+        if (relCursor.next())
+          fromRelationshipProxy(entityAccessor.newRelationshipProxy(relCursor.relationshipReference(),
+                                                                    relCursor.sourceNodeReference(), relCursor.`type`(),
+                                                                    relCursor.targetNodeReference()))
+        else null
+      }
+
+      override protected def close(): Unit = relCursor.close()
+    }
+  }
+
   override def nodeAsMap(id: Long): MapValue = {
     val node = allocateNodeCursor()
     val property = allocatePropertyCursor()
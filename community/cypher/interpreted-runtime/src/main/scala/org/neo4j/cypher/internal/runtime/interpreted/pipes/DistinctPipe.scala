@@ -45,21 +45,64 @@ case class DistinctPipe(source: Pipe, expressions: Map[String, Expression])
       newCtx
     })
 
-    /*
-     * The filtering is done by extracting from the context the values of all return expressions, and keeping them
-     * in a set.
-     */
-    var seen = mutable.Set[AnyValue]()
+    if (state.memoryTracker.isEnabled) {
+      distinctWithinBudget(result, state, level = 0)
+    } else {
+      /*
+       * The filtering is done by extracting from the context the values of all return expressions, and keeping them
+       * in a set.
+       */
+      var seen = mutable.Set[AnyValue]()
 
-    result.filter { ctx =>
+      result.filter { ctx =>
+        val values = VirtualValues.list(keyNames.map(ctx): _*)
+
+        if (seen.contains(values)) {
+          false
+        } else {
+          seen += values
+          true
+        }
+      }
+    }
+  }
+
+  /*
+   * Like the filtering above, but once the seen values take up too much of the memory budget, no more values are
+   * added to the set. Rows with values that have not been seen are spilled to hash partitions instead, and each
+   * partition is filtered on its own, after the set has been dropped.
+   */
+  private def distinctWithinBudget(rows: Iterator[ExecutionContext], state: QueryState, level: Int): Iterator[ExecutionContext] = {
+    val tracker = state.memoryTracker
+    val seen = mutable.Set[AnyValue]()
+    var seenBytes = 0L
+    var partitions: SpillPartitions = null
+
+    val distinct = rows.filter { ctx =>
       val values = VirtualValues.list(keyNames.map(ctx): _*)
 
       if (seen.contains(values)) {
         false
+      } else if (partitions != null) {
+        partitions.write(values, ctx)
+        false
       } else {
         seen += values
+        val size = QueryMemoryTracker.estimatedHeapUsage(values)
+        seenBytes += size
+        tracker.allocate(size)
+        if (tracker.isOverBudget && seenBytes >= tracker.minimumSpillSize && SpillPartitions.canPartition(level)) {
+          partitions = new SpillPartitions(id, state, level)
+        }
         true
       }
     }
+
+    distinct ++ {
+      seen.clear()
+      tracker.release(seenBytes)
+      if (partitions == null) Iterator.empty
+      else partitions.flatMap(partition => distinctWithinBudget(partition, state, level + 1))
+    }
   }
 }
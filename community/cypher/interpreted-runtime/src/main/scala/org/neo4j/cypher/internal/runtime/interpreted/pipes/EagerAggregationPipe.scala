@@ -115,21 +115,66 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
       ExecutionContext(newMap)
     }
 
+    if (keyNames.nonEmpty && state.memoryTracker.isEnabled) {
+      aggregateWithinBudget(input, state, level = 0, createResults)
+    } else {
+      input.foreach(ctx => {
+        val groupingValue: AnyValue = groupingFunction(ctx, state)
+        val functions = result.getOrElseUpdate(groupingValue, {
+          val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toIndexedSeq
+          aggregateFunctions
+        })
+        functions.foreach(func => func(ctx, state))
+      })
+
+      if (result.isEmpty && keyNames.isEmpty) {
+        createEmptyResult(state.params)
+      } else {
+        result.map {
+          case (key, aggregator) => createResults(key, aggregator)
+        }.toIterator
+      }
+    }
+  }
+
+  /*
+   * Aggregates the groups that fit within the memory budget. Once the groups take up too much of the budget, no more
+   * groups are created. Input rows of new groups are spilled to hash partitions instead, and each partition is
+   * aggregated on its own, after the groups in memory have been emitted.
+   */
+  private def aggregateWithinBudget(input: Iterator[ExecutionContext],
+                                    state: QueryState,
+                                    level: Int,
+                                    createResults: (AnyValue, Seq[AggregationFunction]) => ExecutionContext): Iterator[ExecutionContext] = {
+    val tracker = state.memoryTracker
+    val result = mutable.LinkedHashMap[AnyValue, Seq[AggregationFunction]]()
+    var groupBytes = 0L
+    var partitions: SpillPartitions = null
+
     input.foreach(ctx => {
       val groupingValue: AnyValue = groupingFunction(ctx, state)
-      val functions = result.getOrElseUpdate(groupingValue, {
+      val functions = result.getOrElse(groupingValue, null)
+      if (functions != null) {
+        functions.foreach(func => func(ctx, state))
+      } else if (partitions != null) {
+        partitions.write(groupingValue, ctx)
+      } else {
         val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toIndexedSeq
-        aggregateFunctions
-      })
-      functions.foreach(func => func(ctx, state))
+        result.put(groupingValue, aggregateFunctions)
+        aggregateFunctions.foreach(func => func(ctx, state))
+        val size = QueryMemoryTracker.estimatedGroupHeapUsage(groupingValue, aggregateFunctions.size)
+        groupBytes += size
+        tracker.allocate(size)
+        if (tracker.isOverBudget && groupBytes >= tracker.minimumSpillSize && SpillPartitions.canPartition(level)) {
+          partitions = new SpillPartitions(id, state, level)
+        }
+      }
     })
 
-    if (result.isEmpty && keyNames.isEmpty) {
-      createEmptyResult(state.params)
-    } else {
-      result.map {
-        case (key, aggregator) => createResults(key, aggregator)
-      }.toIterator
-    }
+    val aggregated = tracker.releaseWhenExhausted(groupBytes, result.iterator.map {
+      case (key, aggregator) => createResults(key, aggregator)
+    })
+    if (partitions == null) aggregated
+    else aggregated ++ partitions.flatMap(partition => aggregateWithinBudget(partition, state, level + 1, createResults))
   }
 }
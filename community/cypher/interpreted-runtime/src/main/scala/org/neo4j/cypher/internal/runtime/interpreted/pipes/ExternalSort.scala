@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util
+import java.util.{Comparator, PriorityQueue}
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Sorts rows within the memory budget of the query.
+  *
+  * Rows are buffered until the query is over its budget, at which point the buffered rows are sorted and written to a
+  * [[RowSpillFile]] as a run. The runs are merged when the rows are read, after first merging them down to at most
+  * [[ExternalSort.MAX_MERGE_FAN_IN]] runs. Like the in-memory sort, the sort is stable.
+  */
+object ExternalSort {
+
+  val MAX_MERGE_FAN_IN = 64
+
+  def sort(input: Iterator[ExecutionContext],
+           comparator: Comparator[ExecutionContext],
+           id: Id,
+           state: QueryState): Iterator[ExecutionContext] = {
+    val tracker = state.memoryTracker
+    val buffer = new util.ArrayList[ExecutionContext]()
+    var bufferedBytes = 0L
+    var spillFile: RowSpillFile = null
+    val runs = ArrayBuffer.empty[SpilledRun]
+
+    while (input.hasNext) {
+      val row = input.next()
+      val size = QueryMemoryTracker.estimatedHeapUsage(row)
+      buffer.add(row)
+      bufferedBytes += size
+      tracker.allocate(size)
+      if (tracker.isOverBudget && bufferedBytes >= tracker.minimumSpillSize) {
+        if (spillFile == null) {
+          spillFile = new RowSpillFile(id, state)
+        }
+        util.Collections.sort(buffer, comparator)
+        runs += spillFile.writeRun(buffer.iterator().asScala)
+        buffer.clear()
+        tracker.release(bufferedBytes)
+        bufferedBytes = 0
+      }
+    }
+
+    util.Collections.sort(buffer, comparator)
+    val inMemory = tracker.releaseWhenExhausted(bufferedBytes, buffer.iterator().asScala)
+    if (spillFile == null) {
+      inMemory
+    } else {
+      // Merge down to fewer runs than the fan-in, leaving room for the rows that are still in memory. Those were read
+      // last, so they are merged last to keep the sort stable
+      var file = spillFile
+      var pending = runs.toIndexedSeq
+      while (pending.size >= MAX_MERGE_FAN_IN) {
+        val from = file
+        val to = new RowSpillFile(id, state)
+        pending = pending.grouped(MAX_MERGE_FAN_IN).map(group => to.writeRun(merge(group.map(from.read), comparator))).toIndexedSeq
+        from.release()
+        file = to
+      }
+      val merged = merge(pending.map(file.read) :+ inMemory, comparator)
+      releaseWhenExhausted(file, merged)
+    }
+  }
+
+  /**
+    * Merge sorted runs of rows. Rows that compare as equal are returned in the order of the runs they come from.
+    */
+  def merge(runs: IndexedSeq[Iterator[ExecutionContext]], comparator: Comparator[ExecutionContext]): Iterator[ExecutionContext] =
+    new Iterator[ExecutionContext] {
+      private val heads = new PriorityQueue[(ExecutionContext, Int)](Math.max(1, runs.size), new Comparator[(ExecutionContext, Int)] {
+        override def compare(a: (ExecutionContext, Int), b: (ExecutionContext, Int)): Int = {
+          val comparison = comparator.compare(a._1, b._1)
+          if (comparison != 0) comparison else Integer.compare(a._2, b._2)
+        }
+      })
+
+      runs.indices.foreach(advance)
+
+      private def advance(run: Int): Unit =
+        if (runs(run).hasNext) {
+          heads.add((runs(run).next(), run))
+        }
+
+      override def hasNext: Boolean = !heads.isEmpty
+
+      override def next(): ExecutionContext = {
+        val (row, run) = heads.poll()
+        advance(run)
+        row
+      }
+    }
+
+  /**
+    * Delete the given spill file as soon as the rows that are read from it have all been consumed.
+    */
+  def releaseWhenExhausted(file: RowSpillFile, rows: Iterator[ExecutionContext]): Iterator[ExecutionContext] =
+    new Iterator[ExecutionContext] {
+      private var released = false
+
+      override def hasNext: Boolean = {
+        val hasNext = rows.hasNext
+        if (!hasNext && !released) {
+          released = true
+          file.release()
+        }
+        hasNext
+      }
+
+      override def next(): ExecutionContext = rows.next()
+    }
+}
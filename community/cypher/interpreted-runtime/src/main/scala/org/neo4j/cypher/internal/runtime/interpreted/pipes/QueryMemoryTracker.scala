@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{ArrayValue, TextValue, Value}
+import org.neo4j.values.virtual.{ListValue, MapValue, PathValue}
+
+import scala.collection.mutable
+
+/**
+  * Keeps track of the estimated amount of memory that the eager pipes of a query hold on to, so they can spill rows
+  * to temporary files once the memory budget of the query has been used up.
+  *
+  * The sizes are estimates, and pipes allocate and release them themselves, so the budget is a soft limit.
+  * A budget of zero or less means that the query has no budget, in which case pipes never spill.
+  */
+class QueryMemoryTracker(val budget: Long) {
+
+  private var allocated: Long = 0L
+  private val spilled = mutable.Map.empty[Id, Long]
+
+  def isEnabled: Boolean = budget > 0
+
+  def isOverBudget: Boolean = isEnabled && allocated > budget
+
+  /**
+    * The smallest amount of memory that a pipe should hold on to before it spills, so that pipes keep writing
+    * reasonably large runs when other pipes are holding on to most of the budget.
+    */
+  def minimumSpillSize: Long = budget / 16
+
+  def allocate(bytes: Long): Unit = allocated += bytes
+
+  def release(bytes: Long): Unit = allocated -= bytes
+
+  /**
+    * Release the given amount of memory once the given rows have all been consumed.
+    */
+  def releaseWhenExhausted(bytes: Long, rows: Iterator[ExecutionContext]): Iterator[ExecutionContext] =
+    if (bytes == 0) rows
+    else new Iterator[ExecutionContext] {
+      private var released = false
+
+      override def hasNext: Boolean = {
+        val hasNext = rows.hasNext
+        if (!hasNext && !released) {
+          released = true
+          release(bytes)
+        }
+        hasNext
+      }
+
+      override def next(): ExecutionContext = rows.next()
+    }
+
+  def recordSpill(id: Id, bytes: Long): Unit = spilled(id) = spilled.getOrElse(id, 0L) + bytes
+
+  /**
+    * @return the number of bytes that the pipe with the given id has written to temporary files, if any.
+    */
+  def spilledBytes(id: Id): Option[Long] = spilled.get(id)
+}
+
+object QueryMemoryTracker {
+
+  /**
+    * Tracker for queries without a memory budget. It never records anything, so it can be shared between queries.
+    */
+  val UNLIMITED = new QueryMemoryTracker(0)
+
+  def apply(budget: Long): QueryMemoryTracker = if (budget > 0) new QueryMemoryTracker(budget) else UNLIMITED
+
+  private val OBJECT_OVERHEAD = 16L
+  private val REFERENCE_SIZE = 8L
+  private val MAP_ENTRY_SIZE = 48L
+
+  /**
+    * A rough estimate of the heap used by a row and its values. Nodes and relationships are counted as references,
+    * since their properties are not held by the row.
+    */
+  def estimatedHeapUsage(row: ExecutionContext): Long = {
+    var size = 4 * OBJECT_OVERHEAD
+    row.foreach {
+      case (_, value) => size += MAP_ENTRY_SIZE + estimatedHeapUsage(value)
+    }
+    size
+  }
+
+  /**
+    * A rough estimate of the heap used by a group of an aggregation when it is created. The aggregation functions
+    * start out small, but may grow as rows are added to the group, which is not accounted for.
+    */
+  def estimatedGroupHeapUsage(key: AnyValue, aggregationCount: Int): Long =
+    MAP_ENTRY_SIZE + estimatedHeapUsage(key) + aggregationCount * 4 * OBJECT_OVERHEAD
+
+  def estimatedHeapUsage(value: AnyValue): Long = value match {
+    case text: TextValue => 2 * OBJECT_OVERHEAD + 2L * text.length()
+    case array: ArrayValue => 2 * OBJECT_OVERHEAD + REFERENCE_SIZE * array.length()
+    case _: Value => 2 * OBJECT_OVERHEAD
+    case path: PathValue => 2 * OBJECT_OVERHEAD + 3 * OBJECT_OVERHEAD * path.size()
+    case list: ListValue =>
+      var size = 2 * OBJECT_OVERHEAD + REFERENCE_SIZE * list.size()
+      val iterator = list.iterator()
+      while (iterator.hasNext) {
+        size += estimatedHeapUsage(iterator.next())
+      }
+      size
+    case map: MapValue =>
+      var size = 2 * OBJECT_OVERHEAD
+      val keys = map.keySet().iterator()
+      while (keys.hasNext) {
+        val key = keys.next()
+        size += MAP_ENTRY_SIZE + 2L * key.length + estimatedHeapUsage(map.get(key))
+      }
+      size
+    case _ => 2 * OBJECT_OVERHEAD
+  }
+}
@@ -0,0 +1,519 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.io.{EOFException, IOException}
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.StandardOpenOption.{DELETE_ON_CLOSE, READ, WRITE}
+import java.time._
+
+import org.neo4j.cypher.CypherExecutionException
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MapExecutionContext, MutableMaps}
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual._
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * A temporary file that eager pipes write rows to, once the query has used up its memory budget.
+  *
+  * Rows are written in runs, and the rows of a run are read back in the order they were written. Each run is made
+  * up of chunks of serialized rows, so several runs can be written at the same time, like the partitions of a hash
+  * aggregation. Nodes and relationships are written as ids, and are read back through the query context.
+  *
+  * The file is traced by the resources of the query, and is deleted when it is closed.
+  */
+class RowSpillFile(id: Id, state: QueryState) extends AutoCloseable {
+
+  import RowSpillFile._
+
+  private val channel = try {
+    FileChannel.open(Files.createTempFile(FILE_PREFIX, null), READ, WRITE, DELETE_ON_CLOSE)
+  } catch {
+    case e: IOException => throw new CypherExecutionException("Unable to create a temporary file to spill rows to", e)
+  }
+  private var fileSize = 0L
+
+  // Column names and cached properties are the same for most rows, so they are written as ids into these tables
+  private val keys = ArrayBuffer.empty[String]
+  private val keyIds = mutable.HashMap.empty[String, Int]
+  private val cachedProperties = ArrayBuffer.empty[CachedNodeProperty]
+  private val cachedPropertyIds = mutable.HashMap.empty[CachedNodeProperty, Int]
+
+  state.query.resources.trace(this)
+
+  def newRun(): RunWriter = new RunWriter
+
+  /**
+    * Write all the given rows as a single run.
+    */
+  def writeRun(rows: Iterator[ExecutionContext]): SpilledRun = {
+    val writer = newRun()
+    rows.foreach(writer.write)
+    writer.finish()
+  }
+
+  def read(run: SpilledRun): Iterator[ExecutionContext] = new Iterator[ExecutionContext] {
+    private val chunks = run.chunks.iterator
+    private var buffer: ByteBuffer = EMPTY
+
+    override def hasNext: Boolean = buffer.hasRemaining || chunks.hasNext
+
+    override def next(): ExecutionContext = {
+      if (!buffer.hasRemaining) {
+        buffer = readChunk(chunks.next(), buffer)
+      }
+      readRow(buffer)
+    }
+  }
+
+  /**
+    * Close and delete the file before the query ends.
+    */
+  def release(): Unit = state.query.resources.release(this)
+
+  override def close(): Unit = channel.close()
+
+  class RunWriter {
+    private val chunks = ArrayBuffer.empty[SpilledChunk]
+    private val out = new Output
+
+    def write(row: ExecutionContext): Unit = {
+      writeRow(row, out)
+      if (out.buffer.position() >= CHUNK_SIZE) {
+        flush()
+      }
+    }
+
+    def finish(): SpilledRun = {
+      flush()
+      SpilledRun(chunks.toIndexedSeq)
+    }
+
+    private def flush(): Unit = {
+      val buffer = out.buffer
+      if (buffer.position() > 0) {
+        buffer.flip()
+        val chunk = SpilledChunk(fileSize, buffer.remaining())
+        try {
+          while (buffer.hasRemaining) {
+            fileSize += channel.write(buffer, fileSize)
+          }
+        } catch {
+          case e: IOException => throw new CypherExecutionException("Unable to spill rows to a temporary file", e)
+        }
+        buffer.clear()
+        chunks += chunk
+        state.memoryTracker.recordSpill(id, chunk.length)
+      }
+    }
+  }
+
+  private def readChunk(chunk: SpilledChunk, previous: ByteBuffer): ByteBuffer = {
+    val buffer = if (previous.capacity() >= chunk.length) previous else ByteBuffer.allocate(chunk.length)
+    buffer.clear()
+    buffer.limit(chunk.length)
+    try {
+      while (buffer.hasRemaining) {
+        if (channel.read(buffer, chunk.offset + buffer.position()) < 0) {
+          throw new EOFException(s"Expected $chunk to be within the file")
+        }
+      }
+    } catch {
+      case e: IOException => throw new CypherExecutionException("Unable to read spilled rows back from a temporary file", e)
+    }
+    buffer.flip()
+    buffer
+  }
+
+  private def writeRow(row: ExecutionContext, out: Output): Unit = row match {
+    case context: MapExecutionContext =>
+      out.putInt(context.size)
+      context.foreach {
+        case (key, value) =>
+          out.putInt(keyIds.getOrElseUpdate(key, { keys += key; keys.size - 1 }))
+          writeValue(value, out)
+      }
+      val countPosition = out.buffer.position()
+      out.putInt(0)
+      var count = 0
+      context.foreachCachedProperty { (key, value) =>
+        out.putInt(cachedPropertyIds.getOrElseUpdate(key, { cachedProperties += key; cachedProperties.size - 1 }))
+        if (value == null) {
+          out.put(0)
+        } else {
+          out.put(1)
+          writeValue(value, out)
+        }
+        count += 1
+      }
+      out.buffer.putInt(countPosition, count)
+
+    case _ =>
+      throw new InternalException(s"Can't spill a ${row.getClass.getSimpleName} to disk")
+  }
+
+  private def readRow(in: ByteBuffer): ExecutionContext = {
+    val size = in.getInt()
+    val map = MutableMaps.create[String, AnyValue](size)
+    var i = 0
+    while (i < size) {
+      val key = keys(in.getInt())
+      map.put(key, readValue(in))
+      i += 1
+    }
+    val row = ExecutionContext(map)
+    val cachedCount = in.getInt()
+    i = 0
+    while (i < cachedCount) {
+      val key = cachedProperties(in.getInt())
+      val value = if (in.get() == 0) null else readValue(in).asInstanceOf[Value]
+      row.setCachedProperty(key, value)
+      i += 1
+    }
+    row
+  }
+
+  private def writeValue(value: AnyValue, out: Output): Unit = value match {
+    case v: Value =>
+      v.writeTo(out)
+
+    case node: VirtualNodeValue =>
+      out.put(NODE)
+      out.putLong(node.id())
+
+    case relationship: VirtualRelationshipValue =>
+      out.put(RELATIONSHIP)
+      out.putLong(relationship.id())
+
+    case path: PathValue =>
+      out.put(PATH)
+      val nodes = path.nodes()
+      out.putInt(nodes.length)
+      nodes.foreach(node => out.putLong(node.id()))
+      val relationships = path.relationships()
+      out.putInt(relationships.length)
+      relationships.foreach(relationship => out.putLong(relationship.id()))
+
+    case list: ListValue =>
+      out.put(LIST)
+      out.putInt(list.size())
+      val iterator = list.iterator()
+      while (iterator.hasNext) {
+        writeValue(iterator.next(), out)
+      }
+
+    case map: MapValue =>
+      out.put(MAP)
+      out.putInt(map.size())
+      val keys = map.keySet().iterator()
+      while (keys.hasNext) {
+        val key = keys.next()
+        out.putString(key)
+        writeValue(map.get(key), out)
+      }
+
+    case _ =>
+      throw new InternalException(s"Can't spill a ${value.getClass.getSimpleName} to disk")
+  }
+
+  private def readValue(in: ByteBuffer): AnyValue = in.get().toInt match {
+    case NULL => Values.NO_VALUE
+    case BOOLEAN => Values.booleanValue(in.get() != 0)
+    case BYTE => Values.byteValue(in.get())
+    case SHORT => Values.shortValue(in.getShort())
+    case INT => Values.intValue(in.getInt())
+    case LONG => Values.longValue(in.getLong())
+    case FLOAT => Values.floatValue(in.getFloat())
+    case DOUBLE => Values.doubleValue(in.getDouble())
+    case STRING => Values.stringValue(getString(in))
+    case CHAR => Values.charValue(in.getChar())
+    case BYTE_ARRAY =>
+      val bytes = new Array[Byte](in.getInt())
+      in.get(bytes)
+      Values.byteArray(bytes)
+    case ARRAY =>
+      val length = in.getInt()
+      val componentType = ARRAY_COMPONENT_TYPES(in.get())
+      val array = java.lang.reflect.Array.newInstance(componentType, length)
+      var i = 0
+      while (i < length) {
+        java.lang.reflect.Array.set(array, i, readValue(in).asInstanceOf[Value].asObjectCopy())
+        i += 1
+      }
+      Values.of(array)
+    case POINT =>
+      val crs = CoordinateReferenceSystem.get(in.getInt())
+      val coordinate = new Array[Double](in.getInt())
+      var i = 0
+      while (i < coordinate.length) {
+        coordinate(i) = in.getDouble()
+        i += 1
+      }
+      Values.pointValue(crs, coordinate: _*)
+    case DURATION => DurationValue.duration(in.getLong(), in.getLong(), in.getLong(), in.getInt())
+    case DATE => DateValue.date(LocalDate.ofEpochDay(in.getLong()))
+    case LOCAL_TIME => LocalTimeValue.localTime(LocalTime.ofNanoOfDay(in.getLong()))
+    case TIME =>
+      val time = LocalTime.ofNanoOfDay(in.getLong())
+      TimeValue.time(OffsetTime.of(time, ZoneOffset.ofTotalSeconds(in.getInt())))
+    case LOCAL_DATE_TIME => LocalDateTimeValue.localDateTime(LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC))
+    case DATE_TIME =>
+      val instant = Instant.ofEpochSecond(in.getLong(), in.getInt())
+      DateTimeValue.datetime(ZonedDateTime.ofInstant(instant, ZoneId.of(getString(in))))
+    case NODE => state.query.nodeOps.getById(in.getLong())
+    case RELATIONSHIP => state.query.relationshipOps.getById(in.getLong())
+    case PATH =>
+      val nodes = Array.fill(in.getInt())(state.query.nodeOps.getById(in.getLong()))
+      val relationships = Array.fill(in.getInt())(state.query.relationshipOps.getById(in.getLong()))
+      VirtualValues.path(nodes, relationships)
+    case LIST =>
+      VirtualValues.list(Array.fill(in.getInt())(readValue(in)): _*)
+    case MAP =>
+      val size = in.getInt()
+      val keys = new Array[String](size)
+      val values = new Array[AnyValue](size)
+      var i = 0
+      while (i < size) {
+        keys(i) = getString(in)
+        values(i) = readValue(in)
+        i += 1
+      }
+      VirtualValues.map(keys, values)
+    case tag =>
+      throw new InternalException(s"Unknown value type $tag in spilled rows")
+  }
+}
+
+object RowSpillFile {
+  private val FILE_PREFIX = "neo4j-cypher-spill"
+  private val CHUNK_SIZE = 32 * 1024
+  private val EMPTY = ByteBuffer.allocate(0)
+
+  private final val NULL = 0
+  private final val BOOLEAN = 1
+  private final val BYTE = 2
+  private final val SHORT = 3
+  private final val INT = 4
+  private final val LONG = 5
+  private final val FLOAT = 6
+  private final val DOUBLE = 7
+  private final val STRING = 8
+  private final val CHAR = 9
+  private final val BYTE_ARRAY = 10
+  private final val ARRAY = 11
+  private final val POINT = 12
+  private final val DURATION = 13
+  private final val DATE = 14
+  private final val LOCAL_TIME = 15
+  private final val TIME = 16
+  private final val LOCAL_DATE_TIME = 17
+  private final val DATE_TIME = 18
+  private final val NODE = 19
+  private final val RELATIONSHIP = 20
+  private final val PATH = 21
+  private final val LIST = 22
+  private final val MAP = 23
+
+  // The classes that the elements of each ValueWriter.ArrayType are read back into, indexed by ordinal
+  private val ARRAY_COMPONENT_TYPES: Array[Class[_]] = ValueWriter.ArrayType.values().map {
+    case ValueWriter.ArrayType.BYTE => java.lang.Byte.TYPE
+    case ValueWriter.ArrayType.SHORT => java.lang.Short.TYPE
+    case ValueWriter.ArrayType.INT => java.lang.Integer.TYPE
+    case ValueWriter.ArrayType.LONG => java.lang.Long.TYPE
+    case ValueWriter.ArrayType.FLOAT => java.lang.Float.TYPE
+    case ValueWriter.ArrayType.DOUBLE => java.lang.Double.TYPE
+    case ValueWriter.ArrayType.BOOLEAN => java.lang.Boolean.TYPE
+    case ValueWriter.ArrayType.STRING => classOf[String]
+    case ValueWriter.ArrayType.CHAR => java.lang.Character.TYPE
+    case ValueWriter.ArrayType.POINT => classOf[PointValue]
+    case ValueWriter.ArrayType.ZONED_DATE_TIME => classOf[ZonedDateTime]
+    case ValueWriter.ArrayType.LOCAL_DATE_TIME => classOf[LocalDateTime]
+    case ValueWriter.ArrayType.DATE => classOf[LocalDate]
+    case ValueWriter.ArrayType.ZONED_TIME => classOf[OffsetTime]
+    case ValueWriter.ArrayType.LOCAL_TIME => classOf[LocalTime]
+    case ValueWriter.ArrayType.DURATION => classOf[DurationValue]
+  }
+
+  private def getString(in: ByteBuffer): String = {
+    val bytes = new Array[Byte](in.getInt())
+    in.get(bytes)
+    new String(bytes, StandardCharsets.UTF_8)
+  }
+
+  /**
+    * A growing buffer of serialized rows, which storable values write themselves into.
+    */
+  private class Output extends ValueWriter[RuntimeException] {
+    var buffer: ByteBuffer = ByteBuffer.allocate(CHUNK_SIZE + CHUNK_SIZE / 2)
+
+    private def ensureCapacity(bytes: Int): Unit =
+      if (buffer.remaining() < bytes) {
+        val grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+        buffer.flip()
+        grown.put(buffer)
+        buffer = grown
+      }
+
+    def put(value: Int): Unit = {
+      ensureCapacity(1)
+      buffer.put(value.toByte)
+    }
+
+    def putInt(value: Int): Unit = {
+      ensureCapacity(4)
+      buffer.putInt(value)
+    }
+
+    def putLong(value: Long): Unit = {
+      ensureCapacity(8)
+      buffer.putLong(value)
+    }
+
+    def putString(value: String): Unit = {
+      val bytes = value.getBytes(StandardCharsets.UTF_8)
+      ensureCapacity(4 + bytes.length)
+      buffer.putInt(bytes.length)
+      buffer.put(bytes)
+    }
+
+    override def writeNull(): Unit = put(NULL)
+
+    override def writeBoolean(value: Boolean): Unit = {
+      put(BOOLEAN)
+      put(if (value) 1 else 0)
+    }
+
+    override def writeInteger(value: Byte): Unit = {
+      put(BYTE)
+      put(value)
+    }
+
+    override def writeInteger(value: Short): Unit = {
+      ensureCapacity(3)
+      buffer.put(SHORT.toByte).putShort(value)
+    }
+
+    override def writeInteger(value: Int): Unit = {
+      put(INT)
+      putInt(value)
+    }
+
+    override def writeInteger(value: Long): Unit = {
+      put(LONG)
+      putLong(value)
+    }
+
+    override def writeFloatingPoint(value: Float): Unit = {
+      ensureCapacity(5)
+      buffer.put(FLOAT.toByte).putFloat(value)
+    }
+
+    override def writeFloatingPoint(value: Double): Unit = {
+      ensureCapacity(9)
+      buffer.put(DOUBLE.toByte).putDouble(value)
+    }
+
+    override def writeString(value: String): Unit = {
+      put(STRING)
+      putString(value)
+    }
+
+    override def writeString(value: Char): Unit = {
+      ensureCapacity(3)
+      buffer.put(CHAR.toByte).putChar(value)
+    }
+
+    override def beginArray(size: Int, arrayType: ValueWriter.ArrayType): Unit = {
+      put(ARRAY)
+      putInt(size)
+      put(arrayType.ordinal())
+    }
+
+    override def endArray(): Unit = {}
+
+    override def writeByteArray(value: Array[Byte]): Unit = {
+      put(BYTE_ARRAY)
+      ensureCapacity(4 + value.length)
+      buffer.putInt(value.length)
+      buffer.put(value)
+    }
+
+    override def writePoint(crs: CoordinateReferenceSystem, coordinate: Array[Double]): Unit = {
+      put(POINT)
+      putInt(crs.getCode)
+      putInt(coordinate.length)
+      ensureCapacity(8 * coordinate.length)
+      coordinate.foreach(c => buffer.putDouble(c))
+    }
+
+    override def writeDuration(months: Long, days: Long, seconds: Long, nanos: Int): Unit = {
+      put(DURATION)
+      putLong(months)
+      putLong(days)
+      putLong(seconds)
+      putInt(nanos)
+    }
+
+    override def writeDate(localDate: LocalDate): Unit = {
+      put(DATE)
+      putLong(localDate.toEpochDay)
+    }
+
+    override def writeLocalTime(localTime: LocalTime): Unit = {
+      put(LOCAL_TIME)
+      putLong(localTime.toNanoOfDay)
+    }
+
+    override def writeTime(offsetTime: OffsetTime): Unit = {
+      put(TIME)
+      putLong(offsetTime.toLocalTime.toNanoOfDay)
+      putInt(offsetTime.getOffset.getTotalSeconds)
+    }
+
+    override def writeLocalDateTime(localDateTime: LocalDateTime): Unit = {
+      put(LOCAL_DATE_TIME)
+      putLong(localDateTime.toEpochSecond(ZoneOffset.UTC))
+      putInt(localDateTime.getNano)
+    }
+
+    override def writeDateTime(zonedDateTime: ZonedDateTime): Unit = {
+      put(DATE_TIME)
+      putLong(zonedDateTime.toEpochSecond)
+      putInt(zonedDateTime.getNano)
+      putString(zonedDateTime.getZone.getId)
+    }
+  }
+}
+
+/**
+  * A run of rows in a [[RowSpillFile]].
+  */
+case class SpilledRun(chunks: IndexedSeq[SpilledChunk])
+
+case class SpilledChunk(offset: Long, length: Int)
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.values.AnyValue
+
+import scala.util.hashing.MurmurHash3
+
+/**
+  * Hash partitions of rows in a [[RowSpillFile]], for pipes that group rows by a key, once the query is over its
+  * memory budget. All rows with the same key end up in the same partition, so each partition can be processed on its
+  * own, with the memory that is released by the groups that were kept in memory.
+  *
+  * A partition that is still too big to process within the budget is partitioned again, on the next level. Each level
+  * hashes the keys differently, so the rows of a partition are spread out over the partitions of the next level.
+  */
+class SpillPartitions(id: Id, state: QueryState, level: Int) {
+
+  import SpillPartitions._
+
+  private val file = new RowSpillFile(id, state)
+  private val partitions = Array.fill(PARTITION_COUNT)(file.newRun())
+  private val seed = MurmurHash3.stringHash(getClass.getName) + level
+
+  def write(key: AnyValue, row: ExecutionContext): Unit = {
+    val hash = MurmurHash3.finalizeHash(MurmurHash3.mix(seed, key.hashCode()), 1)
+    partitions(Math.floorMod(hash, PARTITION_COUNT)).write(row)
+  }
+
+  /**
+    * Process the rows of each partition, one partition at a time. The file is deleted once all the results have been
+    * consumed.
+    */
+  def flatMap(f: Iterator[ExecutionContext] => Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
+    val runs = partitions.map(_.finish())
+    ExternalSort.releaseWhenExhausted(file, runs.iterator.flatMap(run => f(file.read(run))))
+  }
+}
+
+object SpillPartitions {
+  val PARTITION_COUNT = 16
+
+  /**
+    * Partitions on this level are processed in memory, whatever the budget. By then the rows have been spread over
+    * so many partitions, that a partition which is still too big is most likely a single key with a lot of rows.
+    */
+  val MAX_LEVEL = 8
+
+  def canPartition(level: Int): Boolean = level < MAX_LEVEL
+}
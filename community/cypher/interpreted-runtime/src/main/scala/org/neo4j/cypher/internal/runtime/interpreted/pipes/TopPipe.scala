@@ -55,30 +55,81 @@ case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Compa
         // For count values larger than the maximum 32-bit integer we fallback on a full sort instead of allocating a huge top table
         // (Instead of throw new IllegalArgumentException(s"ORDER BY + LIMIT $longCount exceeds the maximum value of ${Int.MaxValue}"))
         // NOTE: If the _input size_ is larger than Int.MaxValue this will still fail, since an array cannot hold that many elements
-        val buffer = new mutable.ArrayBuffer[ExecutionContext](initialFallbackSortArraySize)
-        buffer += first
-        buffer ++= input
-        val array = buffer.toArray
-        java.util.Arrays.sort(array, comparator)
-        var c: Long = 0 // Counter to be used inside of stream
-        array.toStream.takeWhile { _ => c = c + 1; c <= longCount }.iterator
+        if (state.memoryTracker.isEnabled) {
+          take(ExternalSort.sort(Iterator.single(first) ++ input, comparator, id, state), longCount)
+        } else {
+          val buffer = new mutable.ArrayBuffer[ExecutionContext](initialFallbackSortArraySize)
+          buffer += first
+          buffer ++= input
+          val array = buffer.toArray
+          java.util.Arrays.sort(array, comparator)
+          var c: Long = 0 // Counter to be used inside of stream
+          array.toStream.takeWhile { _ => c = c + 1; c <= longCount }.iterator
+        }
       }
       else {
         // The main case: allocate a table of size count to hold the top rows
         val count = longCount.toInt
         val topTable = new DefaultComparatorTopTable(comparator, count)
-        topTable.add(first)
+        if (state.memoryTracker.isEnabled) {
+          topWithinBudget(first, input, topTable, count, state)
+        } else {
+          topTable.add(first)
+
+          input.foreach {
+            ctx =>
+              topTable.add(ctx)
+          }
 
-        input.foreach {
-          ctx =>
-            topTable.add(ctx)
+          topTable.sort()
+
+          topTable.iterator.asScala
         }
+      }
+    }
+  }
 
+  /*
+   * Keeps track of the memory of the table while it fills up. Once the table is full it only replaces rows, so if it
+   * fits within the budget by then, the rest of the input is handled in memory. Otherwise the table is too big for the
+   * budget, and the rows are sorted externally instead.
+   */
+  private def topWithinBudget(first: ExecutionContext,
+                              input: Iterator[ExecutionContext],
+                              topTable: DefaultComparatorTopTable[ExecutionContext],
+                              count: Int,
+                              state: QueryState): Iterator[ExecutionContext] = {
+    val tracker = state.memoryTracker
+    val rows = Iterator.single(first) ++ input
+    var rowsInTable = 0
+    var tableBytes = 0L
+    while (rowsInTable < count && rows.hasNext) {
+      val ctx = rows.next()
+      topTable.add(ctx)
+      rowsInTable += 1
+      val size = QueryMemoryTracker.estimatedHeapUsage(ctx)
+      tableBytes += size
+      tracker.allocate(size)
+      if (tracker.isOverBudget && tableBytes >= tracker.minimumSpillSize) {
         topTable.sort()
-
-        topTable.iterator.asScala
+        tracker.release(tableBytes)
+        return take(ExternalSort.sort(topTable.iterator.asScala ++ rows, comparator, id, state), count)
       }
     }
+
+    rows.foreach {
+      ctx =>
+        topTable.add(ctx)
+    }
+
+    topTable.sort()
+
+    tracker.releaseWhenExhausted(tableBytes, topTable.iterator.asScala)
+  }
+
+  private def take(rows: Iterator[ExecutionContext], count: Long): Iterator[ExecutionContext] = {
+    var c: Long = 0
+    rows.takeWhile { _ => c = c + 1; c <= count }
   }
 }
 
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+
+case class UndirectedRelationshipTypeScanPipe(ident: String, fromNode: String, typ: LazyTypes, toNode: String)
+                                             (val id: Id = Id.INVALID_ID) extends Pipe {
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    typ.types(state.query) match {
+      case Some(Array(typeId)) =>
+        val baseContext = state.newExecutionContext(executionContextFactory)
+        state.query.getRelationshipsByType(typeId).flatMap { rel =>
+          val start = rel.startNode()
+          val end = rel.endNode()
+          val forward = executionContextFactory.copyWith(baseContext, ident, rel, fromNode, start, toNode, end)
+          // A relationship that loops back to the node it starts at is only matched once
+          if (start.id() == end.id()) Iterator(forward)
+          else Iterator(forward, executionContextFactory.copyWith(baseContext, ident, rel, fromNode, end, toNode, start))
+        }
+      case _ =>
+        Iterator.empty
+    }
+  }
+}
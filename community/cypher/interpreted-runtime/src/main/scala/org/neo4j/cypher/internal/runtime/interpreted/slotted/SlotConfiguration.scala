@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted
+
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.cypher.internal.v3_5.util.symbols.{CTNode, CTRelationship, CypherType}
+
+import scala.collection.mutable
+
+sealed trait Slot {
+  def offset: Int
+  def typ: CypherType
+}
+
+/**
+  * A slot holding the id of a node or a relationship.
+  */
+case class LongSlot(offset: Int, typ: CypherType) extends Slot {
+  def isNode: Boolean = typ == CTNode
+}
+
+/**
+  * A slot holding any other value.
+  */
+case class RefSlot(offset: Int, typ: CypherType) extends Slot
+
+/**
+  * The layout of the rows of a slotted pipeline. Every variable gets either a long slot, which holds the id of a node
+  * or a relationship, or a reference slot, which holds any other value. Pipes look up the offsets of their variables
+  * when they are built, so rows never have to be accessed by name at runtime.
+  */
+class SlotConfiguration {
+
+  private val slots = mutable.LinkedHashMap.empty[String, Slot]
+  private var _numberOfLongs = 0
+  private var _numberOfReferences = 0
+
+  def numberOfLongs: Int = _numberOfLongs
+
+  def numberOfReferences: Int = _numberOfReferences
+
+  def newLong(key: String, typ: CypherType): LongSlot = {
+    if (typ != CTNode && typ != CTRelationship)
+      throw new InternalException(s"Only nodes and relationships can be stored in long slots, but `$key` is $typ")
+    slots.get(key) match {
+      case Some(slot: LongSlot) if slot.typ == typ => slot
+      case Some(slot) => throw new InternalException(s"Tried to allocate a long slot for `$key`, which already has $slot")
+      case None =>
+        val slot = LongSlot(_numberOfLongs, typ)
+        slots.put(key, slot)
+        _numberOfLongs += 1
+        slot
+    }
+  }
+
+  def newReference(key: String, typ: CypherType): RefSlot = slots.get(key) match {
+    case Some(slot: RefSlot) => slot
+    case Some(slot) => throw new InternalException(s"Tried to allocate a reference slot for `$key`, which already has $slot")
+    case None =>
+      val slot = RefSlot(_numberOfReferences, typ)
+      slots.put(key, slot)
+      _numberOfReferences += 1
+      slot
+  }
+
+  def get(key: String): Option[Slot] = slots.get(key)
+
+  def apply(key: String): Slot = slots.getOrElse(key, throw new InternalException(s"There is no slot for `$key`"))
+
+  def getLongOffsetFor(key: String): Int = apply(key) match {
+    case LongSlot(offset, _) => offset
+    case slot => throw new InternalException(s"Expected `$key` to have a long slot, but it has $slot")
+  }
+
+  def getReferenceOffsetFor(key: String): Int = apply(key) match {
+    case RefSlot(offset, _) => offset
+    case slot => throw new InternalException(s"Expected `$key` to have a reference slot, but it has $slot")
+  }
+
+  def variables: Iterator[(String, Slot)] = slots.iterator
+
+  override def toString: String = s"SlotConfiguration(longs=$numberOfLongs, refs=$numberOfReferences, slots=$slots)"
+}
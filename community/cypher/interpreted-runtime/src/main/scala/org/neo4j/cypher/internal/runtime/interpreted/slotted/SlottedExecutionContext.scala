@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{Value, Values}
+import org.neo4j.values.virtual._
+
+import scala.collection.Iterator
+
+object SlottedExecutionContext {
+  def apply(slots: SlotConfiguration): SlottedExecutionContext = new SlottedExecutionContext(slots)
+}
+
+/**
+  * A row of a slotted pipeline, with the ids of nodes and relationships in a primitive long array, and all other values
+  * in a reference array, both laid out by the given slot configuration. Copying a row is a pair of array copies.
+  *
+  * Pipes and expressions of the slotted runtime access the row by offset. Access by name is still supported, by looking
+  * up the slot of the variable, so that the interpreted expressions and pipes that do not care about the layout of the
+  * row can be used on slotted rows.
+  */
+class SlottedExecutionContext(val slots: SlotConfiguration) extends ExecutionContext {
+
+  private val longs = new Array[Long](slots.numberOfLongs)
+  private val refs = new Array[AnyValue](slots.numberOfReferences)
+
+  override def copyTo(target: ExecutionContext, fromLongOffset: Int = 0, fromRefOffset: Int = 0, toLongOffset: Int = 0, toRefOffset: Int = 0): Unit =
+    target match {
+      case other: SlottedExecutionContext =>
+        System.arraycopy(longs, fromLongOffset, other.longs, toLongOffset, longs.length - fromLongOffset)
+        System.arraycopy(refs, fromRefOffset, other.refs, toRefOffset, refs.length - fromRefOffset)
+      case _ =>
+        fail()
+    }
+
+  override def copyFrom(input: ExecutionContext, nLongs: Int, nRefs: Int): Unit = input match {
+    case other: SlottedExecutionContext =>
+      if (nLongs > longs.length || nRefs > refs.length)
+        throw new InternalException("Tried to copy more data into a slotted row than it has room for")
+      System.arraycopy(other.longs, 0, longs, 0, nLongs)
+      System.arraycopy(other.refs, 0, refs, 0, nRefs)
+    case _ =>
+      fail()
+  }
+
+  override def copyCachedFrom(input: ExecutionContext): Unit = fail()
+
+  override def setLongAt(offset: Int, value: Long): Unit = longs(offset) = value
+
+  override def getLongAt(offset: Int): Long = longs(offset)
+
+  override def setRefAt(offset: Int, value: AnyValue): Unit = refs(offset) = value
+
+  override def getRefAt(offset: Int): AnyValue = refs(offset)
+
+  override def get(key: String): Option[AnyValue] = slots.get(key).flatMap(slot => Option(getValue(slot)))
+
+  override def iterator: Iterator[(String, AnyValue)] = slots.variables.flatMap {
+    case (key, slot) => Option(getValue(slot)).map(value => (key, value))
+  }
+
+  override def +=(kv: (String, AnyValue)): this.type = {
+    set(kv._1, kv._2)
+    this
+  }
+
+  override def -=(key: String): this.type = fail()
+
+  override def set(newEntries: Seq[(String, AnyValue)]): Unit = newEntries.foreach {
+    case (key, value) => set(key, value)
+  }
+
+  override def set(key: String, value: AnyValue): Unit = slots(key) match {
+    case LongSlot(offset, _) => longs(offset) = entityId(key, value)
+    case RefSlot(offset, _) => refs(offset) = value
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue, key3: String, value3: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+    set(key3, value3)
+  }
+
+  override def mergeWith(other: ExecutionContext): Unit = fail()
+
+  override def createClone(): SlottedExecutionContext = {
+    val clone = new SlottedExecutionContext(slots)
+    copyTo(clone)
+    clone
+  }
+
+  override def copyWith(key: String, value: AnyValue): ExecutionContext = {
+    val clone = createClone()
+    clone.set(key, value)
+    clone
+  }
+
+  override def copyWith(key1: String, value1: AnyValue, key2: String, value2: AnyValue): ExecutionContext = {
+    val clone = createClone()
+    clone.set(key1, value1, key2, value2)
+    clone
+  }
+
+  override def copyWith(key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue,
+                        key3: String, value3: AnyValue): ExecutionContext = {
+    val clone = createClone()
+    clone.set(key1, value1, key2, value2, key3, value3)
+    clone
+  }
+
+  override def copyWith(newEntries: Seq[(String, AnyValue)]): ExecutionContext = {
+    val clone = createClone()
+    clone.set(newEntries)
+    clone
+  }
+
+  override def setCachedProperty(key: CachedNodeProperty, value: Value): Unit = fail()
+
+  override def setCachedPropertyAt(offset: Int, value: Value): Unit = fail()
+
+  override def getCachedProperty(key: CachedNodeProperty): Value = fail()
+
+  override def getCachedPropertyAt(offset: Int): Value = fail()
+
+  // Slotted rows do not cache any node properties, so there is nothing to invalidate
+  override def invalidateCachedProperties(node: Long): Unit = {}
+
+  override def boundEntities(materializeNode: Long => AnyValue, materializeRelationship: Long => AnyValue): Map[String, AnyValue] =
+    slots.variables.collect {
+      case (key, slot@LongSlot(offset, _)) if longs(offset) != -1L =>
+        (key, if (slot.isNode) materializeNode(longs(offset)) else materializeRelationship(longs(offset)))
+      case (key, RefSlot(offset, _)) if refs(offset).isInstanceOf[NodeValue] || refs(offset).isInstanceOf[RelationshipValue] =>
+        (key, refs(offset))
+    }.toMap
+
+  override def isNull(key: String): Boolean = get(key).contains(Values.NO_VALUE)
+
+  override def toString: String = s"SlottedExecutionContext(longs=${longs.mkString("[", ", ", "]")}, refs=${refs.mkString("[", ", ", "]")})"
+
+  private def getValue(slot: Slot): AnyValue = slot match {
+    case longSlot@LongSlot(offset, _) =>
+      val id = longs(offset)
+      if (id == -1L) Values.NO_VALUE
+      else if (longSlot.isNode) VirtualValues.node(id)
+      else VirtualValues.relationship(id)
+    case RefSlot(offset, _) =>
+      refs(offset)
+  }
+
+  private def entityId(key: String, value: AnyValue): Long = value match {
+    case node: VirtualNodeValue => node.id()
+    case relationship: VirtualRelationshipValue => relationship.id()
+    case Values.NO_VALUE => -1L
+    case _ => throw new InternalException(s"Expected a node or a relationship for `$key`, but got $value")
+  }
+
+  private def fail(): Nothing = throw new InternalException("Tried using a slotted context as a map context")
+}
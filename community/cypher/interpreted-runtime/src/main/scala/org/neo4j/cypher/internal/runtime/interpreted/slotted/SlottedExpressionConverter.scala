@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted
+
+import org.neo4j.cypher.internal.runtime.interpreted.CommandProjection
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{ExpressionConverter, ExpressionConverters}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression => CommandExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.runtime.interpreted.slotted.expressions._
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.cypher.internal.v3_5.{expressions => ast}
+
+/**
+  * Converts variables, and properties of nodes and relationships, into expressions that read their slots by offset.
+  * Everything else is left to the converters that come after this one.
+  */
+case class SlottedExpressionConverter(slots: SlotConfiguration) extends ExpressionConverter {
+
+  override def toCommandProjection(id: Id, projections: Map[String, ast.Expression],
+                                   self: ExpressionConverters): Option[CommandProjection] = None
+
+  override def toCommandExpression(id: Id, expression: ast.Expression,
+                                   self: ExpressionConverters): Option[CommandExpression] = expression match {
+    case ast.Variable(name) =>
+      slots.get(name).map {
+        case slot@LongSlot(offset, _) if slot.isNode => NodeFromSlot(offset)
+        case LongSlot(offset, _) => RelationshipFromSlot(offset)
+        case RefSlot(offset, _) => ReferenceFromSlot(offset)
+      }
+
+    case ast.Property(ast.Variable(name), propertyKey) =>
+      slots.get(name) match {
+        case Some(slot@LongSlot(offset, _)) if slot.isNode => Some(NodePropertyFromSlot(offset, PropertyKey(propertyKey.name)))
+        case Some(LongSlot(offset, _)) => Some(RelationshipPropertyFromSlot(offset, PropertyKey(propertyKey.name)))
+        case _ => None
+      }
+
+    case _ => None
+  }
+}
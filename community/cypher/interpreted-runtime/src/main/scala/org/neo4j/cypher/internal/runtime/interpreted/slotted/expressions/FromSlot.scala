@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted.expressions
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.VirtualValues
+
+/**
+  * Base class of the expressions that read a variable straight out of a slot of the row, instead of by name.
+  */
+abstract class FromSlot extends Expression {
+
+  override def rewrite(f: Expression => Expression): Expression = f(this)
+
+  override def arguments: Seq[Expression] = Seq.empty
+
+  override def symbolTableDependencies: Set[String] = Set.empty
+}
+
+case class NodeFromSlot(offset: Int) extends FromSlot {
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = VirtualValues.node(ctx.getLongAt(offset))
+}
+
+case class RelationshipFromSlot(offset: Int) extends FromSlot {
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = VirtualValues.relationship(ctx.getLongAt(offset))
+}
+
+case class ReferenceFromSlot(offset: Int) extends FromSlot {
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = ctx.getRefAt(offset)
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted.expressions
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
+
+/**
+  * Reads a property of the node whose id is in the given long slot, without materializing a node value first.
+  */
+case class NodePropertyFromSlot(offset: Int, propertyKey: KeyToken) extends Expression {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = propertyKey.getOptId(state.query) match {
+    case None => Values.NO_VALUE
+    case Some(propertyKeyId) => state.query.nodeOps.getProperty(ctx.getLongAt(offset), propertyKeyId)
+  }
+
+  override def rewrite(f: Expression => Expression): Expression = f(NodePropertyFromSlot(offset, propertyKey.rewrite(f)))
+
+  override def children: Seq[AstNode[_]] = Seq(propertyKey)
+
+  override def arguments: Seq[Expression] = Seq.empty
+
+  override def symbolTableDependencies: Set[String] = Set.empty
+
+  override def toString: String = s"NodePropertyFromSlot($offset, ${propertyKey.name})"
+}
+
+/**
+  * Reads a property of the relationship whose id is in the given long slot, without materializing a relationship value
+  * first.
+  */
+case class RelationshipPropertyFromSlot(offset: Int, propertyKey: KeyToken) extends Expression {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = propertyKey.getOptId(state.query) match {
+    case None => Values.NO_VALUE
+    case Some(propertyKeyId) => state.query.relationshipOps.getProperty(ctx.getLongAt(offset), propertyKeyId)
+  }
+
+  override def rewrite(f: Expression => Expression): Expression =
+    f(RelationshipPropertyFromSlot(offset, propertyKey.rewrite(f)))
+
+  override def children: Seq[AstNode[_]] = Seq(propertyKey)
+
+  override def arguments: Seq[Expression] = Seq.empty
+
+  override def symbolTableDependencies: Set[String] = Set.empty
+
+  override def toString: String = s"RelationshipPropertyFromSlot($offset, ${propertyKey.name})"
+}
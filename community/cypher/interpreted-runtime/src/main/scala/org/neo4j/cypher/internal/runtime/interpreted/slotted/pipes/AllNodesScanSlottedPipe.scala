@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted.pipes
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{Pipe, QueryState}
+import org.neo4j.cypher.internal.runtime.interpreted.slotted.{SlotConfiguration, SlottedExecutionContext}
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+
+case class AllNodesScanSlottedPipe(ident: String, slots: SlotConfiguration)
+                                  (val id: Id = Id.INVALID_ID) extends Pipe {
+
+  private val offset = slots.getLongOffsetFor(ident)
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] =
+    new PrimitiveLongMappingIterator[ExecutionContext](state.query.nodeOps.allPrimitive) {
+      override protected def map(nodeId: Long): ExecutionContext = {
+        val context = SlottedExecutionContext(slots)
+        context.setLongAt(offset, nodeId)
+        context
+      }
+    }
+}
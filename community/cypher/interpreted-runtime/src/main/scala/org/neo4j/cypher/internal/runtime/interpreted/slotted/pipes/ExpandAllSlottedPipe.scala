@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted.pipes
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{LazyTypes, Pipe, PipeWithSource, QueryState}
+import org.neo4j.cypher.internal.runtime.interpreted.slotted.{SlotConfiguration, SlottedExecutionContext}
+import org.neo4j.cypher.internal.v3_5.expressions.SemanticDirection
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.storageengine.api.RelationshipVisitor
+
+/**
+  * Expands from the node in the `fromName` slot, and writes the relationship and the node at the other end into their
+  * long slots of a copy of the incoming row.
+  */
+case class ExpandAllSlottedPipe(source: Pipe,
+                                fromName: String,
+                                relName: String,
+                                toName: String,
+                                dir: SemanticDirection,
+                                types: LazyTypes,
+                                slots: SlotConfiguration)
+                               (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
+
+  private val fromOffset = slots.getLongOffsetFor(fromName)
+  private val relOffset = slots.getLongOffsetFor(relName)
+  private val toOffset = slots.getLongOffsetFor(toName)
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    input.flatMap {
+      inputRow =>
+        val fromNode = inputRow.getLongAt(fromOffset)
+        if (fromNode == -1L) {
+          Iterator.empty
+        } else {
+          val relationships = state.query.getRelationshipsForIdsPrimitive(fromNode, dir, types.types(state.query))
+          var otherNode = -1L
+          val visitor = new RelationshipVisitor[RuntimeException] {
+            override def visit(relationshipId: Long, typeId: Int, startNodeId: Long, endNodeId: Long): Unit =
+              otherNode = if (startNodeId == fromNode) endNodeId else startNodeId
+          }
+
+          new PrimitiveLongMappingIterator[ExecutionContext](relationships) {
+            override protected def map(relId: Long): ExecutionContext = {
+              relationships.relationshipVisit(relId, visitor)
+              val outputRow = SlottedExecutionContext(slots)
+              inputRow.copyTo(outputRow)
+              outputRow.setLongAt(relOffset, relId)
+              outputRow.setLongAt(toOffset, otherNode)
+              outputRow
+            }
+          }
+        }
+    }
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted.pipes
+
+import org.eclipse.collections.api.iterator.LongIterator
+
+/**
+  * Maps the ids of a primitive iterator into rows. This is an abstract class rather than a function, so the ids are
+  * not boxed on the way.
+  */
+abstract class PrimitiveLongMappingIterator[T](iterator: LongIterator) extends Iterator[T] {
+
+  override def hasNext: Boolean = iterator.hasNext
+
+  override def next(): T = map(iterator.next())
+
+  protected def map(id: Long): T
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted.pipes
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{Pipe, PipeWithSource, QueryState}
+import org.neo4j.cypher.internal.runtime.interpreted.slotted.{LongSlot, RefSlot, Slot, SlotConfiguration}
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MutableMaps}
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
+
+/**
+  * Turns the slotted rows into the named rows of the result, reading the columns by offset. Nodes and relationships
+  * are only referenced by id in slotted rows, so they are materialized here, including any that are nested in lists
+  * and maps, using the given materializer.
+  */
+case class ProduceResultsSlottedPipe(source: Pipe, columns: Seq[String], slots: SlotConfiguration,
+                                     materialize: (QueryContext, AnyValue) => AnyValue)
+                                    (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
+
+  private val columnSlots = columns.map(slots.apply).toArray
+  private val columnNames = columns.toArray
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    // do not register this pipe as parent as it does not do anything except filtering of already fetched
+    // key-value pairs and thus should not have any stats
+
+    input.map {
+      original =>
+        val m = MutableMaps.create[String, AnyValue](columnNames.length)
+        var i = 0
+        while (i < columnNames.length) {
+          m.put(columnNames(i), value(original, columnSlots(i), state))
+          i += 1
+        }
+        ExecutionContext(m)
+    }
+  }
+
+  private def value(row: ExecutionContext, slot: Slot, state: QueryState): AnyValue = slot match {
+    case longSlot@LongSlot(offset, _) =>
+      val id = row.getLongAt(offset)
+      if (id == -1L) Values.NO_VALUE
+      else if (longSlot.isNode) state.query.nodeOps.getById(id)
+      else state.query.relationshipOps.getById(id)
+    case RefSlot(offset, _) =>
+      materialize(state.query, row.getRefAt(offset))
+  }
+}
@@ -157,6 +157,8 @@ trait QueryContextAdaptation {
 
   override def getNodesByLabelPrimitive(id: Int): LongIterator = ???
 
+  override def getRelationshipsByType(id: Int): scala.Iterator[RelationshipValue] = ???
+
   override def lockingUniqueIndexSeek[RESULT](index: IndexReference,
                                               values: Seq[IndexQuery.ExactPredicate]): NodeValueIndexCursor = ???
 
@@ -22,9 +22,9 @@ package org.neo4j.cypher.internal.runtime.interpreted
 import org.mockito.invocation.InvocationOnMock
 import org.mockito.stubbing.Answer
 import org.mockito.{ArgumentMatchers, Mockito}
-import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.{QueryContext, ResourceManager}
 import org.neo4j.cypher.internal.runtime.interpreted.TransactionBoundQueryContext.IndexSearchMonitor
-import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExternalCSVResource, NullPipeDecorator, PipeDecorator, QueryState}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExternalCSVResource, NullPipeDecorator, PipeDecorator, QueryMemoryTracker, QueryState}
 import org.neo4j.graphdb.spatial.Point
 import org.neo4j.graphdb.{Node, Relationship}
 import org.neo4j.kernel.GraphDatabaseQueryService
@@ -53,6 +53,16 @@ object QueryStateHelper {
     new QueryState(query, resources, params, decorator,
       triadicState = mutable.Map.empty, repeatableReads = mutable.Map.empty, initialContext = initialContext)
 
+  /**
+    * An empty query state with the given memory budget, where the query traces spill files in the given resources.
+    */
+  def emptyWithMemoryBudget(budget: Long,
+                            resources: ResourceManager = new ResourceManager,
+                            query: QueryContext = Mockito.mock(classOf[QueryContext])): QueryState = {
+    Mockito.when(query.resources).thenReturn(resources)
+    new QueryState(query, null, EMPTY_MAP, memoryTracker = QueryMemoryTracker(budget))
+  }
+
   private val locker: PropertyContainerLocker = new PropertyContainerLocker
 
   def queryStateFrom(db: GraphDatabaseQueryService,
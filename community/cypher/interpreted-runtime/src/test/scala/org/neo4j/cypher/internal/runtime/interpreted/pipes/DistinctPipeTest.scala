@@ -19,12 +19,14 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.neo4j.cypher.internal.runtime.ResourceManager
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.interpreted.ValueComparisonHelper._
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, Literal, Multiply, Variable}
 import org.neo4j.cypher.internal.v3_5.util.symbols._
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
-import org.neo4j.values.storable.Values.stringArray
+import org.neo4j.values.storable.Values.{intValue, stringArray}
+import org.neo4j.values.storable.IntValue
 import org.neo4j.values.virtual.MapValue
 
 import scala.collection.JavaConverters._
@@ -79,6 +81,24 @@ class DistinctPipeTest extends CypherFunSuite {
     result.head("x").asInstanceOf[MapValue].get("prop") should equal(stringArray("a", "b"))
   }
 
+  test("distinct spills unseen values to partitions when over the memory budget") {
+    //GIVEN
+    val pipe = createDistinctPipe((0 until 20000).map(i => Map("x" -> i % 10000)).toList)
+    val monitor = new CountingResourceMonitor
+    val resources = new ResourceManager(monitor)
+    val state = QueryStateHelper.emptyWithMemoryBudget(4096, resources)
+
+    //WHEN
+    val result = pipe.createResults(state).map(_("x")).toList
+
+    //THEN
+    result.sortBy(_.asInstanceOf[IntValue].value()) should equal((0 until 10000).map(intValue))
+    state.memoryTracker.spilledBytes(pipe.id) should not be empty
+    // The partitions of the first level are too big for the budget as well, and are partitioned again
+    monitor.traced should be > 1
+    resources.allResources shouldBe empty
+  }
+
   def createDistinctPipe(input: List[Map[String, Any]], expressions: Map[String, Expression] = Map("x" -> Variable("x"))) = {
     val source = new FakePipe(input, "x" -> CTNumber)
     DistinctPipe(source, expressions)()
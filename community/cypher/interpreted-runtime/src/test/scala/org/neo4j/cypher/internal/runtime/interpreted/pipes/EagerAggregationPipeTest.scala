@@ -19,13 +19,14 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.neo4j.cypher.internal.runtime.ResourceManager
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions._
 import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.PropertyKey
 import org.neo4j.cypher.internal.v3_5.util.symbols._
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.Values
+import org.neo4j.values.storable.{IntValue, Values}
 import org.neo4j.values.storable.Values.{intValue, longValue, stringValue}
 import org.neo4j.values.virtual.VirtualValues
 
@@ -144,6 +145,27 @@ class EagerAggregationPipeTest extends CypherFunSuite {
     getResults(aggregationPipe) should equal(List(Map("count(name)" -> longValue(3))))
   }
 
+  test("should spill the rows of new groups to partitions when over the memory budget") {
+    val rows = (0 until 10000) ++ (0 until 10000)
+    val source = new FakePipe(rows.map(i => Map[String, Any]("x" -> i)), "x" -> CTInteger)
+
+    val grouping = createReturnItemsFor("x")
+    val aggregation = Map("count(*)" -> CountStar())
+    val aggregationPipe = EagerAggregationPipe(source, grouping, aggregation)()
+    val monitor = new CountingResourceMonitor
+    val resources = new ResourceManager(monitor)
+    val state = QueryStateHelper.emptyWithMemoryBudget(4096, resources)
+
+    val result = aggregationPipe.createResults(state).map(_.toMap).toList
+
+    result.sortBy(_("x").asInstanceOf[IntValue].value()) should equal(
+      (0 until 10000).map(i => Map[String, AnyValue]("x" -> intValue(i), "count(*)" -> longValue(2))))
+    state.memoryTracker.spilledBytes(aggregationPipe.id) should not be empty
+    // The partitions of the first level are too big for the budget as well, and are partitioned again
+    monitor.traced should be > 1
+    resources.allResources shouldBe empty
+  }
+
   private def createSymbolTableFor(name: String): (String, CypherType) = name -> CTNode
 
   private def getResults(p: Pipe) = p.createResults(QueryStateHelper.empty).map(_.toMap).toList
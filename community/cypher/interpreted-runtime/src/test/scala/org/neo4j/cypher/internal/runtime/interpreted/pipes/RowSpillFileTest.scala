@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.time._
+
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, ImplicitDummyPos, QueryStateHelper}
+import org.neo4j.cypher.internal.runtime.{Operations, QueryContext, ResourceManager}
+import org.neo4j.cypher.internal.v3_5.expressions.PropertyKeyName
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.CoordinateReferenceSystem.{Cartesian, WGS84}
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual.VirtualValues.EMPTY_MAP
+import org.neo4j.values.virtual.{NodeValue, RelationshipValue, VirtualValues}
+import org.scalatest.mock.MockitoSugar
+
+class RowSpillFileTest extends CypherFunSuite with MockitoSugar with ImplicitDummyPos {
+
+  private val nodeA = VirtualValues.nodeValue(1, Values.stringArray("A"), EMPTY_MAP)
+  private val nodeB = VirtualValues.nodeValue(2, Values.stringArray("B"), EMPTY_MAP)
+  private val relationship = VirtualValues.relationshipValue(3, nodeA, nodeB, Values.stringValue("R"), EMPTY_MAP)
+
+  private val point = Values.pointValue(Cartesian, 1.5, -2.5)
+  private val geographic = Values.pointValue(WGS84, 12.5, 56.75)
+  private val duration = DurationValue.duration(14, 3, 3600, 500)
+  private val date = LocalDate.of(2018, 6, 5)
+  private val localTime = LocalTime.of(12, 30, 15, 123456789)
+  private val time = OffsetTime.of(localTime, ZoneOffset.ofHours(2))
+  private val localDateTime = LocalDateTime.of(date, localTime)
+  private val dateTime = ZonedDateTime.of(localDateTime, ZoneId.of("Europe/Stockholm"))
+
+  private val values: Seq[(String, AnyValue)] = Seq(
+    "null" -> Values.NO_VALUE,
+    "boolean" -> Values.booleanValue(true),
+    "byte" -> Values.byteValue(-7),
+    "short" -> Values.shortValue(1234),
+    "int" -> Values.intValue(-123456),
+    "long" -> Values.longValue(Long.MaxValue),
+    "float" -> Values.floatValue(1.25f),
+    "double" -> Values.doubleValue(-0.125),
+    "string" -> Values.stringValue("spilled ♥"),
+    "char" -> Values.charValue('x'),
+    "byteArray" -> Values.byteArray(Array[Byte](1, -2, 3)),
+    "shortArray" -> Values.shortArray(Array[Short](1, -2, 3)),
+    "intArray" -> Values.intArray(Array(1, -2, 3)),
+    "longArray" -> Values.longArray(Array(1L, Long.MinValue)),
+    "floatArray" -> Values.floatArray(Array(1.5f, -2.5f)),
+    "doubleArray" -> Values.doubleArray(Array(1.5, -2.5)),
+    "booleanArray" -> Values.booleanArray(Array(true, false)),
+    "charArray" -> Values.charArray(Array('a', 'b')),
+    "stringArray" -> Values.stringArray("a", "", "c"),
+    "emptyArray" -> Values.longArray(Array.empty[Long]),
+    "point" -> point,
+    "geographicPoint" -> geographic,
+    "pointArray" -> Values.pointArray(Array(point, geographic)),
+    "duration" -> duration,
+    "durationArray" -> Values.durationArray(Array(duration, DurationValue.duration(0, 0, 0, 1))),
+    "date" -> DateValue.date(date),
+    "dateArray" -> Values.dateArray(Array(date, date.plusDays(1))),
+    "localTime" -> LocalTimeValue.localTime(localTime),
+    "localTimeArray" -> Values.localTimeArray(Array(localTime)),
+    "time" -> TimeValue.time(time),
+    "timeArray" -> Values.timeArray(Array(time)),
+    "localDateTime" -> LocalDateTimeValue.localDateTime(localDateTime),
+    "localDateTimeArray" -> Values.localDateTimeArray(Array(localDateTime)),
+    "dateTime" -> DateTimeValue.datetime(dateTime),
+    "offsetDateTime" -> DateTimeValue.datetime(OffsetDateTime.of(localDateTime, ZoneOffset.ofHours(-5))),
+    "dateTimeArray" -> Values.dateTimeArray(Array(dateTime)),
+    "node" -> nodeA,
+    "relationship" -> relationship,
+    "path" -> VirtualValues.path(Array[NodeValue](nodeA, nodeB), Array[RelationshipValue](relationship)),
+    "list" -> VirtualValues.list(Values.intValue(1), Values.NO_VALUE, VirtualValues.list(nodeB), Values.stringValue("a")),
+    "map" -> VirtualValues.map(Array("a", "b"), Array[AnyValue](Values.intValue(1), VirtualValues.list(relationship)))
+  )
+
+  test("should read back every type of value that was written") {
+    val (file, _) = createSpillFile()
+
+    val run = file.writeRun(Iterator(ExecutionContext.from(values: _*)))
+    val rows = file.read(run).toList
+
+    rows should have size 1
+    values.foreach {
+      case (key, value) => withClue(key)(rows.head(key) should equal(value))
+    }
+  }
+
+  test("should read back cached properties, including invalidated ones") {
+    val (file, _) = createSpillFile()
+    val cached = CachedNodeProperty("n", PropertyKeyName("prop")(pos))(pos)
+    val invalidated = CachedNodeProperty("n", PropertyKeyName("other")(pos))(pos)
+    val row = ExecutionContext.from("n" -> nodeA)
+    row.setCachedProperty(cached, Values.dateArray(Array(date)))
+    row.setCachedProperty(invalidated, null)
+
+    val rows = file.read(file.writeRun(Iterator(row))).toList
+
+    rows.head("n") should equal(nodeA)
+    rows.head.getCachedProperty(cached) should equal(Values.dateArray(Array(date)))
+    rows.head.getCachedProperty(invalidated) should be(null)
+  }
+
+  test("should keep runs that are written at the same time apart") {
+    val (file, _) = createSpillFile()
+    val first = file.newRun()
+    val second = file.newRun()
+    // Enough rows to write several chunks for each run
+    (0 until 10000).foreach { i =>
+      first.write(ExecutionContext.from("x" -> Values.intValue(i)))
+      second.write(ExecutionContext.from("y" -> Values.stringValue(s"row $i")))
+    }
+    val firstRun = first.finish()
+    val secondRun = second.finish()
+
+    firstRun.chunks.size should be > 1
+    file.read(secondRun).map(_("y")).toList should equal((0 until 10000).map(i => Values.stringValue(s"row $i")))
+    file.read(firstRun).map(_("x")).toList should equal((0 until 10000).map(i => Values.intValue(i)))
+  }
+
+  test("should record the spilled bytes and close the file when released") {
+    val (file, state) = createSpillFile()
+
+    file.writeRun(Iterator(ExecutionContext.from("x" -> Values.intValue(1))))
+
+    state.memoryTracker.spilledBytes(Id(7)).get should be > 0L
+    state.query.resources.allResources should contain(file)
+    file.release()
+    state.query.resources.allResources shouldBe empty
+  }
+
+  private def createSpillFile(): (RowSpillFile, QueryState) = {
+    val query = mock[QueryContext]
+    val nodeOps = mock[Operations[NodeValue]]
+    val relationshipOps = mock[Operations[RelationshipValue]]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(query.relationshipOps).thenReturn(relationshipOps)
+    when(nodeOps.getById(nodeA.id())).thenReturn(nodeA)
+    when(nodeOps.getById(nodeB.id())).thenReturn(nodeB)
+    when(relationshipOps.getById(relationship.id())).thenReturn(relationship)
+
+    val resources = new ResourceManager
+    val state = QueryStateHelper.emptyWithMemoryBudget(1024, resources, query)
+    val file = new RowSpillFile(Id(7), state)
+    (file, state)
+  }
+}
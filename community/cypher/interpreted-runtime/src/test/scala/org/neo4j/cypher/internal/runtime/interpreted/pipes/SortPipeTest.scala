@@ -20,12 +20,15 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.junit.Assert._
+import org.mockito.Mockito.when
 import org.neo4j.cypher.internal.runtime.interpreted.ValueComparisonHelper._
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.{QueryContext, ResourceManager}
 import org.neo4j.cypher.internal.v3_5.util.symbols._
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
 import org.neo4j.values.storable.Values
-import org.neo4j.values.storable.Values.intValue
+import org.neo4j.values.storable.Values.{intValue, stringValue}
+import org.neo4j.values.virtual.VirtualValues.EMPTY_MAP
 import org.scalatest.mock.MockitoSugar
 
 import scala.collection.mutable.{Map => MutableMap}
@@ -93,4 +96,40 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
       Map("y" -> intValue(2)),
       Map("y" -> Values.NO_VALUE)))
   }
+
+  test("should spill to disk and merge the rows back in order when over the memory budget") {
+    val list: Seq[MutableMap[String, Any]] = (1 to 1000).reverse.map(i => MutableMap[String, Any]("x" -> i, "y" -> s"row $i"))
+    val source = new FakePipe(list, "x" -> CTNumber, "y" -> CTString)
+    val sortPipe = new SortPipe(source, List(Ascending("x")))()
+
+    val resources = new ResourceManager
+    val query = mock[QueryContext]
+    when(query.resources).thenReturn(resources)
+    val state = new QueryState(query, null, EMPTY_MAP, memoryTracker = QueryMemoryTracker(16 * 1024))
+
+    val result = sortPipe.createResults(state).toList
+
+    result.map(_("x")) should equal((1 to 1000).map(i => intValue(i)))
+    result.map(_("y")) should equal((1 to 1000).map(i => stringValue(s"row $i")))
+    state.memoryTracker.spilledBytes(sortPipe.id) should not be empty
+    resources.allResources shouldBe empty
+  }
+
+  test("should merge more spilled runs than the merge fan-in, and keep the sort stable") {
+    val list: Seq[MutableMap[String, Any]] = (0 until 2000).reverse.map(i => MutableMap[String, Any]("x" -> i / 4, "y" -> i))
+    val source = new FakePipe(list, "x" -> CTNumber, "y" -> CTNumber)
+    val sortPipe = new SortPipe(source, List(Ascending("x")))()
+    val monitor = new CountingResourceMonitor
+    val resources = new ResourceManager(monitor)
+    val state = QueryStateHelper.emptyWithMemoryBudget(1024, resources)
+
+    val result = sortPipe.createResults(state).toList
+
+    // Only a few rows fit within the budget, so there are many more runs than can be merged at once
+    val expected = list.sortBy(_("x").asInstanceOf[Int])
+    result.map(_("x")) should equal(expected.map(row => intValue(row("x").asInstanceOf[Int])))
+    result.map(_("y")) should equal(expected.map(row => intValue(row("y").asInstanceOf[Int])))
+    monitor.traced should be > 1
+    resources.allResources shouldBe empty
+  }
 }
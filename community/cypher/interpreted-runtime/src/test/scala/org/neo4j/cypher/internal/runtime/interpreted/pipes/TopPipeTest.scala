@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.neo4j.cypher.internal.runtime.ResourceManager
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Literal
 import org.neo4j.kernel.impl.util.ValueUtils
@@ -189,6 +190,30 @@ class TopPipeTest extends CypherFunSuite {
     result should equal(list(10,null))
   }
 
+  test("top n should keep the table in memory when it fits within the memory budget") {
+    val input = createFakePipeWith(1000)
+    val pipe = TopNPipe(input, Literal(5), ExecutionContextOrdering.asComparator(List(Ascending("a"))))()
+    val resources = new ResourceManager
+    val state = QueryStateHelper.emptyWithMemoryBudget(16 * 1024, resources)
+
+    val result = pipe.createResults(state).map(ctx => ctx("a")).toList
+
+    result should equal(list(0, 1, 2, 3, 4))
+    state.memoryTracker.spilledBytes(pipe.id) shouldBe empty
+    resources.allResources shouldBe empty
+  }
+
+  test("top n should sort externally when the table does not fit within the memory budget") {
+    val input = createFakePipeWith(2000)
+    val pipe = TopNPipe(input, Literal(500), ExecutionContextOrdering.asComparator(List(Descending("a"))))()
+    val state = QueryStateHelper.emptyWithMemoryBudget(4096)
+
+    val result = pipe.createResults(state).map(ctx => ctx("a")).toList
+
+    result should equal(list((1500 until 2000).reverse: _*))
+    state.memoryTracker.spilledBytes(pipe.id) should not be empty
+  }
+
   private def list(a: Any*) = a.map(ValueUtils.of).toList
 
   private def createFakePipeWith(count: Int): FakePipe = {
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.slotted
+
+import org.neo4j.cypher.internal.v3_5.util.symbols.{CTAny, CTNode, CTRelationship}
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Values.{NO_VALUE, intValue, stringValue}
+import org.neo4j.values.virtual.VirtualValues
+
+class SlottedExecutionContextTest extends CypherFunSuite {
+
+  private def slots(): SlotConfiguration = {
+    val slots = new SlotConfiguration
+    slots.newLong("n", CTNode)
+    slots.newLong("r", CTRelationship)
+    slots.newReference("x", CTAny)
+    slots
+  }
+
+  test("allocates longs and references separately") {
+    val s = slots()
+
+    s.numberOfLongs should equal(2)
+    s.numberOfReferences should equal(1)
+    s("n") should equal(LongSlot(0, CTNode))
+    s("r") should equal(LongSlot(1, CTRelationship))
+    s("x") should equal(RefSlot(0, CTAny))
+  }
+
+  test("reuses the slot of a variable that is allocated again") {
+    val s = slots()
+
+    s.newLong("n", CTNode) should equal(LongSlot(0, CTNode))
+    s.newReference("x", CTAny) should equal(RefSlot(0, CTAny))
+    s.numberOfLongs should equal(2)
+    s.numberOfReferences should equal(1)
+  }
+
+  test("reads long slots by name as node and relationship references") {
+    val ctx = SlottedExecutionContext(slots())
+    ctx.setLongAt(0, 42L)
+    ctx.setLongAt(1, -1L)
+
+    ctx("n") should equal(VirtualValues.node(42L))
+    ctx("r") should equal(NO_VALUE)
+  }
+
+  test("writes nodes by name as ids") {
+    val ctx = SlottedExecutionContext(slots())
+
+    ctx.set("n", VirtualValues.node(7L), "x", stringValue("a"))
+
+    ctx.getLongAt(0) should equal(7L)
+    ctx.getRefAt(0) should equal(stringValue("a"))
+  }
+
+  test("clones are independent of the original") {
+    val ctx = SlottedExecutionContext(slots())
+    ctx.setLongAt(0, 1L)
+    ctx.setRefAt(0, intValue(1))
+
+    val clone = ctx.copyWith("x", intValue(2))
+    clone.setLongAt(0, 2L)
+
+    ctx.getLongAt(0) should equal(1L)
+    ctx.getRefAt(0) should equal(intValue(1))
+    clone.getLongAt(0) should equal(2L)
+    clone.getRefAt(0) should equal(intValue(2))
+  }
+}
@@ -58,6 +58,14 @@ public interface OperatorProfile
                NO_DATA : MathUtil.portion( pageCacheHits(), pageCacheMisses() );
     }
 
+    /**
+     * Number of bytes that this operator has written to temporary files, because the query was over its memory budget.
+     */
+    default long spilledBytes()
+    {
+        return NO_DATA;
+    }
+
     long NO_DATA = -1L;
 
     OperatorProfile NONE = new OperatorProfile()
@@ -126,6 +126,8 @@ trait QueryContext extends TokenContext with DbAccess {
 
   def getNodesByLabelPrimitive(id: Int): LongIterator
 
+  def getRelationshipsByType(id: Int): Iterator[RelationshipValue]
+
   /* return true if the constraint was created, false if preexisting, throws if failed */
   def createNodeKeyConstraint(descriptor: IndexDescriptor): Boolean
 
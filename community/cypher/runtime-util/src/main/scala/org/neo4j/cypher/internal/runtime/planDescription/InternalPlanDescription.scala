@@ -148,6 +148,8 @@ object InternalPlanDescription {
 
     case class PageCacheHitRatio(value: Double) extends Argument
 
+    case class SpilledBytes(value: Long) extends Argument
+
     case class ColumnsLeft(value: Seq[String]) extends Argument
 
     case class Expression(value: ast.Expression) extends Argument
@@ -219,6 +221,11 @@ object InternalPlanDescription {
       override def name = "runtime-impl"
     }
 
+    case class MemoryBudget(value: Long) extends Argument {
+
+      override def name = "memory-budget"
+    }
+
     case class ExpandExpression(from: String, relName: String, relTypes: Seq[String], to: String,
                                 direction: SemanticDirection, minLength: Int, maxLength: Option[Int]) extends Argument
 
@@ -320,7 +327,10 @@ final case class PlanDescriptionImpl(id: Id,
     val runtimeVersion = arguments.collectFirst {
       case RuntimeVersion(n) => s"Runtime version ${n.toUpperCase}$NL"
     }
-    val prefix = version ++ planner ++ runtime ++ runtimeVersion
+    val memoryBudget = arguments.collectFirst {
+      case MemoryBudget(n) => s"Memory budget $n bytes$NL"
+    }
+    val prefix = version ++ planner ++ runtime ++ runtimeVersion ++ memoryBudget
     s"${prefix.mkString("", NL, NL)}${renderAsTreeTable(this)}$NL${renderSummary(this)}$renderSources"
   }
 
@@ -354,6 +364,7 @@ final case class CompactedPlanDescription(similar: Seq[InternalPlanDescription])
     var pageCacheHits: Option[Long] = None
     var pageCacheMisses: Option[Long] = None
     var pageCacheHitRatio: Option[Double] = None
+    var spilledBytes: Option[Long] = None
     var time: Option[Long] = None
     var rows: Option[Long] = None
 
@@ -364,6 +375,7 @@ final case class CompactedPlanDescription(similar: Seq[InternalPlanDescription])
           case PageCacheHits(v) => pageCacheHits = Some(pageCacheHits.map(_ + v).getOrElse(v)); false
           case PageCacheMisses(v) => pageCacheMisses = Some(pageCacheMisses.map(_ + v).getOrElse(v)); false
           case PageCacheHitRatio(v) => pageCacheHitRatio = Some(pageCacheHitRatio.map(_ + v).getOrElse(v)); false
+          case SpilledBytes(v) => spilledBytes = Some(spilledBytes.map(_ + v).getOrElse(v)); false
           case Time(v) => time = Some(time.map(_ + v).getOrElse(v)); false
           case Rows(v) => rows = Some(rows.map(o => Math.max(o, v)).getOrElse(v)); false
           case _ => true
@@ -371,7 +383,7 @@ final case class CompactedPlanDescription(similar: Seq[InternalPlanDescription])
         acc ++ args
     }.toIndexedSeq ++ dbHits.map(DbHits.apply) ++ pageCacheHits.map(PageCacheHits.apply) ++
       pageCacheMisses.map(PageCacheMisses.apply) ++ pageCacheHitRatio.map(PageCacheHitRatio.apply) ++
-      time.map(Time.apply) ++ rows.map(Rows.apply)
+      spilledBytes.map(SpilledBytes.apply) ++ time.map(Time.apply) ++ rows.map(Rows.apply)
   }
 
   override def find(name: String): Seq[InternalPlanDescription] = similar.last.find(name)
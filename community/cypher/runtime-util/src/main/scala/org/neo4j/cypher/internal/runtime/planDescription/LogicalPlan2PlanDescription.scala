@@ -24,7 +24,7 @@ import org.neo4j.cypher.internal.runtime.planDescription.InternalPlanDescription
 import org.neo4j.cypher.internal.v3_5.logical.plans
 import org.neo4j.cypher.internal.v3_5.logical.plans._
 import org.neo4j.cypher.internal.v3_5.expressions.functions.Point
-import org.neo4j.cypher.internal.v3_5.expressions.{FunctionInvocation, FunctionName, LabelToken, MapExpression, Namespace, PropertyKeyToken, Expression => ASTExpression}
+import org.neo4j.cypher.internal.v3_5.expressions.{FunctionInvocation, FunctionName, LabelToken, MapExpression, Namespace, PropertyKeyToken, SemanticDirection, Expression => ASTExpression}
 import org.neo4j.cypher.internal.v3_5.frontend.PlannerName
 import org.neo4j.cypher.internal.v3_5.util.InternalException
 
@@ -118,6 +118,14 @@ case class LogicalPlan2PlanDescription(readOnly: Boolean, cardinalities: Cardina
       case _: UndirectedRelationshipByIdSeek =>
         PlanDescriptionImpl(id, "UndirectedRelationshipByIdSeek", NoChildren, Seq.empty, variables)
 
+      case DirectedRelationshipTypeScan(relName, startNode, typ, endNode, _) =>
+        val expression = ExpandExpression(startNode, relName, Seq(typ.name), endNode, SemanticDirection.OUTGOING, 1, Some(1))
+        PlanDescriptionImpl(id, "DirectedRelationshipTypeScan", NoChildren, Seq(expression), variables)
+
+      case UndirectedRelationshipTypeScan(relName, leftNode, typ, rightNode, _) =>
+        val expression = ExpandExpression(leftNode, relName, Seq(typ.name), rightNode, SemanticDirection.BOTH, 1, Some(1))
+        PlanDescriptionImpl(id, "UndirectedRelationshipTypeScan", NoChildren, Seq(expression), variables)
+
       case _: CreateIndex =>
         PlanDescriptionImpl(id, "CreateIndex", NoChildren, Seq.empty, variables)
 
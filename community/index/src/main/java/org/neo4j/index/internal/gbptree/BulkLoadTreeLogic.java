@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
+import static org.neo4j.index.internal.gbptree.TreeNode.NO_NODE_FLAG;
+
+/**
+ * Builds a tree bottom-up from key/value pairs given in strictly ascending key order.
+ * <p>
+ * Entries are appended to the rightmost leaf until it is filled to the {@link #fillFactor fill factor}, at which point
+ * a new leaf is created as its right sibling. Every new node on a level results in a splitter key and a child pointer
+ * being appended to the rightmost node on the level above, which in turn gets a right sibling when filled.
+ * A new level is added on top when the current top level gets its second node. The rightmost node on each level
+ * is kept open in its own {@link PageCursor}, so no node is visited more than once.
+ * <p>
+ * All nodes are written in the unstable generation and none of them are reachable from the root of the tree until
+ * the root returned from {@link #finish()} has been set. A crash before the next checkpoint leaves the tree empty.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ */
+class BulkLoadTreeLogic<KEY,VALUE>
+{
+    static final double DEFAULT_FILL_FACTOR = 1.0;
+
+    private final PagedFile pagedFile;
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final Layout<KEY,VALUE> layout;
+    private final IdProvider idProvider;
+    private final long stableGeneration;
+    private final long unstableGeneration;
+
+    /**
+     * How much of each node to fill before moving on to a new node, 1=tightly packed nodes.
+     */
+    private final double fillFactor;
+
+    /**
+     * Rightmost node of each level, leaf level first.
+     */
+    private final List<Level> levels = new ArrayList<>();
+
+    /**
+     * Last added key, used to verify key order and to decide splitter keys between leaves.
+     */
+    private final KEY lastKey;
+
+    /**
+     * Splitter key to propagate to the level above when a new node is created.
+     */
+    private final KEY splitter;
+
+    BulkLoadTreeLogic( PagedFile pagedFile, TreeNode<KEY,VALUE> bTreeNode, Layout<KEY,VALUE> layout, IdProvider idProvider,
+            long stableGeneration, long unstableGeneration, double fillFactor )
+    {
+        if ( fillFactor <= 0 || fillFactor > 1 )
+        {
+            throw new IllegalArgumentException( "Fill factor must be in the range (0, 1], but was " + fillFactor );
+        }
+        this.pagedFile = pagedFile;
+        this.bTreeNode = bTreeNode;
+        this.layout = layout;
+        this.idProvider = idProvider;
+        this.stableGeneration = stableGeneration;
+        this.unstableGeneration = unstableGeneration;
+        this.fillFactor = fillFactor;
+        this.lastKey = layout.newKey();
+        this.splitter = layout.newKey();
+    }
+
+    /**
+     * Add key and value to the rightmost leaf, creating a new leaf if the current one is filled.
+     *
+     * @param key key to add, must be greater than the previously added key.
+     * @param value value to add.
+     * @throws IOException on page cache access error.
+     */
+    void add( KEY key, VALUE value ) throws IOException
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        Level leaf;
+        if ( levels.isEmpty() )
+        {
+            leaf = newLevel( TreeNode.Type.LEAF );
+        }
+        else
+        {
+            if ( layout.compare( lastKey, key ) >= 0 )
+            {
+                throw new IllegalArgumentException( "Bulk loaded keys must be added in strictly ascending order, but got " + key +
+                        " after " + lastKey );
+            }
+            leaf = levels.get( 0 );
+            if ( leaf.keyCount > 0 && leafFilledBeyond( leaf, key, value ) )
+            {
+                long leftLeaf = leaf.cursor.getCurrentPageId();
+                long rightLeaf = newRightSibling( leaf, TreeNode.Type.LEAF );
+                layout.minimalSplitter( lastKey, key, splitter );
+                insertInLevel( 1, splitter, leftLeaf, rightLeaf );
+            }
+        }
+
+        bTreeNode.insertKeyValueAt( leaf.cursor, key, value, leaf.keyCount, leaf.keyCount );
+        leaf.keyCount++;
+        TreeNode.setKeyCount( leaf.cursor, leaf.keyCount );
+        layout.copyKey( key, lastKey );
+    }
+
+    private boolean leafFilledBeyond( Level leaf, KEY key, VALUE value )
+    {
+        if ( !bTreeNode.leafFilledBeyond( leaf.cursor, leaf.keyCount, key, value, fillFactor ) )
+        {
+            return false;
+        }
+        // Nothing is ever removed from a bulk loaded leaf, but formats that compress keys may be able to make room for more
+        if ( bTreeNode.leafOverflow( leaf.cursor, leaf.keyCount, key, value ) == TreeNode.Overflow.NO_NEED_DEFRAG )
+        {
+            bTreeNode.defragmentLeaf( leaf.cursor );
+            return bTreeNode.leafFilledBeyond( leaf.cursor, leaf.keyCount, key, value, fillFactor );
+        }
+        return true;
+    }
+
+    /**
+     * Append splitter key and the new right child to the rightmost node on the given level, creating the level if
+     * it doesn't exist yet. If the rightmost node is filled, a new node is created and the splitter key is instead
+     * moved up to the level above, i.e. it becomes the splitter between the old and the new node.
+     */
+    private void insertInLevel( int levelIndex, KEY key, long leftChild, long rightChild ) throws IOException
+    {
+        Level level;
+        if ( levelIndex == levels.size() )
+        {
+            level = newLevel( TreeNode.Type.INTERNAL );
+            bTreeNode.setChildAt( level.cursor, leftChild, 0, stableGeneration, unstableGeneration );
+        }
+        else
+        {
+            level = levels.get( levelIndex );
+            if ( level.keyCount > 0 && bTreeNode.internalFilledBeyond( level.cursor, level.keyCount, key, fillFactor ) )
+            {
+                long leftNode = level.cursor.getCurrentPageId();
+                long rightNode = newRightSibling( level, TreeNode.Type.INTERNAL );
+                bTreeNode.setChildAt( level.cursor, rightChild, 0, stableGeneration, unstableGeneration );
+                insertInLevel( levelIndex + 1, key, leftNode, rightNode );
+                return;
+            }
+        }
+
+        bTreeNode.insertKeyAndRightChildAt( level.cursor, key, rightChild, level.keyCount, level.keyCount,
+                stableGeneration, unstableGeneration );
+        level.keyCount++;
+        TreeNode.setKeyCount( level.cursor, level.keyCount );
+    }
+
+    private Level newLevel( TreeNode.Type type ) throws IOException
+    {
+        long nodeId = idProvider.acquireNewId( stableGeneration, unstableGeneration );
+        PageCursor cursor = pagedFile.io( nodeId, PagedFile.PF_SHARED_WRITE_LOCK );
+        Level level = new Level( cursor );
+        levels.add( level );
+        PageCursorUtil.goTo( cursor, "new level", nodeId );
+        initialize( cursor, type );
+        return level;
+    }
+
+    private long newRightSibling( Level level, TreeNode.Type type ) throws IOException
+    {
+        PageCursor cursor = level.cursor;
+        long leftNode = cursor.getCurrentPageId();
+        long rightNode = idProvider.acquireNewId( stableGeneration, unstableGeneration );
+        TreeNode.setRightSibling( cursor, rightNode, stableGeneration, unstableGeneration );
+        checkOutOfBounds( cursor );
+
+        PageCursorUtil.goTo( cursor, "right sibling", rightNode );
+        initialize( cursor, type );
+        TreeNode.setLeftSibling( cursor, leftNode, stableGeneration, unstableGeneration );
+        level.keyCount = 0;
+        return rightNode;
+    }
+
+    private void initialize( PageCursor cursor, TreeNode.Type type )
+    {
+        if ( type == TreeNode.Type.LEAF )
+        {
+            bTreeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+        }
+        else
+        {
+            bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+        }
+    }
+
+    /**
+     * Completes the rightmost node on every level and releases all resources.
+     *
+     * @return id of the root of the built tree, i.e. the single node on the top level, or {@link TreeNode#NO_NODE_FLAG}
+     * if nothing was added.
+     */
+    long finish()
+    {
+        long root = NO_NODE_FLAG;
+        for ( Level level : levels )
+        {
+            root = level.cursor.getCurrentPageId();
+            checkOutOfBounds( level.cursor );
+        }
+        close();
+        return root;
+    }
+
+    /**
+     * Releases all resources without completing the tree.
+     */
+    void close()
+    {
+        for ( Level level : levels )
+        {
+            level.cursor.close();
+        }
+        levels.clear();
+    }
+
+    private static class Level
+    {
+        private final PageCursor cursor;
+        private int keyCount;
+
+        Level( PageCursor cursor )
+        {
+            this.cursor = cursor;
+        }
+    }
+}
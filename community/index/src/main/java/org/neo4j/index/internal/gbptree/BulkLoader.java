@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Able to {@link #add(Object, Object) add} key/value pairs, given in strictly ascending key order, into an empty
+ * {@link GBPTree}. The tree is built bottom-up, filling leaves from left to right and building the internal levels
+ * on top of them, instead of inserting every key through a top-down descent. The built tree becomes visible to
+ * readers when the bulk loader is {@link #close() closed}, typically using try-with-resource clause.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ */
+public interface BulkLoader<KEY,VALUE> extends Closeable
+{
+    /**
+     * Add given {@code key} and {@code value} to the tree, to the right of all previously added keys.
+     *
+     * @param key key to add, must be greater than the previously added key.
+     * @param value value to associate with key.
+     * @throws IllegalArgumentException if {@code key} isn't greater than the previously added key.
+     * @throws UncheckedIOException on index access error.
+     */
+    void add( KEY key, VALUE value );
+
+    /**
+     * Completes the rightmost node on every level of the built tree and makes the tree visible to readers.
+     *
+     * @throws IOException on index access error.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -31,6 +31,8 @@ import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
@@ -298,6 +300,11 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final SingleWriter writer;
 
+    /**
+     * A single instance {@link BulkLoader}, sharing the single writer slot with {@link #writer}.
+     */
+    private final SingleBulkLoader bulkLoader = new SingleBulkLoader();
+
     /**
      * Tells whether or not there have been made changes (using {@link #writer()}) to this tree
      * since last call to {@link #checkpoint(IOLimiter)}. This variable is set when calling {@link #writer()}
@@ -903,6 +910,99 @@ public class GBPTree<KEY,VALUE> implements Closeable
                 exceptionDecorator, SeekCursor.DEFAULT_MAX_READ_AHEAD );
     }
 
+    /**
+     * Collects keys from the internal nodes of this tree, which split the tree into ranges of roughly the same size.
+     * Keys are collected one level at the time, starting from the root, until a level has been visited after which at
+     * least {@code desiredNumberOfKeys} keys have been collected, or until the lowest level of internal nodes has been visited.
+     * Each range between two neighbouring keys then covers one sub-tree below the last visited level.
+     * <p>
+     * The keys are read without blocking writers, so concurrent changes may make the ranges less even than they would
+     * otherwise be. They are still valid bounds for {@link #seek(Object, Object) seeking} though.
+     *
+     * @param desiredNumberOfKeys number of keys to collect before stopping at the end of a level.
+     * @return keys from the internal nodes in ascending order, or an empty list if the tree consists of only a root leaf.
+     * @throws IOException on error reading from index.
+     */
+    public List<KEY> partitionKeys( int desiredNumberOfKeys ) throws IOException
+    {
+        long generation = this.generation;
+        long stableGeneration = stableGeneration( generation );
+        long unstableGeneration = unstableGeneration( generation );
+
+        List<KEY> keys = new ArrayList<>();
+        try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+        {
+            long leftmostNode = cursor.getCurrentPageId();
+            while ( keys.size() < desiredNumberOfKeys && TreeNode.isNode( leftmostNode ) )
+            {
+                leftmostNode = collectLevelKeys( cursor, leftmostNode, keys, stableGeneration, unstableGeneration );
+            }
+        }
+        keys.sort( layout );
+        return keys;
+    }
+
+    /**
+     * Collects the keys of all internal nodes on the level starting with the given node, going right through the siblings.
+     *
+     * @return the left-most child of the visited level, or {@link TreeNode#NO_NODE_FLAG} if the level wasn't an internal level.
+     */
+    private long collectLevelKeys( PageCursor cursor, long leftmostNode, List<KEY> keys, long stableGeneration, long unstableGeneration )
+            throws IOException
+    {
+        long leftmostChild = TreeNode.NO_NODE_FLAG;
+        long nodeId = leftmostNode;
+        while ( TreeNode.isNode( nodeId ) )
+        {
+            TreeNode.goTo( cursor, "partition", nodeId );
+            boolean isInternal;
+            int keyCount;
+            List<KEY> nodeKeys;
+            long firstChild;
+            long rightSibling;
+            do
+            {
+                isInternal = TreeNode.nodeType( cursor ) == TreeNode.NODE_TYPE_TREE_NODE && TreeNode.isInternal( cursor );
+                keyCount = TreeNode.keyCount( cursor );
+                nodeKeys = new ArrayList<>();
+                firstChild = TreeNode.NO_NODE_FLAG;
+                rightSibling = TreeNode.NO_NODE_FLAG;
+                if ( isInternal )
+                {
+                    if ( !bTreeNode.reasonableKeyCount( keyCount ) )
+                    {
+                        cursor.setCursorException( "Unexpected keyCount " + keyCount );
+                        continue;
+                    }
+                    for ( int pos = 0; pos < keyCount; pos++ )
+                    {
+                        nodeKeys.add( bTreeNode.keyAt( cursor, layout.newKey(), pos, TreeNode.Type.INTERNAL ) );
+                    }
+                    firstChild = bTreeNode.childAt( cursor, 0, stableGeneration, unstableGeneration );
+                    rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+                }
+            }
+            while ( cursor.shouldRetry() );
+            checkOutOfBounds( cursor );
+            cursor.checkAndClearCursorException();
+
+            if ( !isInternal )
+            {
+                // Either the level of leaves or a concurrent change of the tree, anyway there are no more keys to collect here
+                return TreeNode.NO_NODE_FLAG;
+            }
+            keys.addAll( nodeKeys );
+            if ( nodeId == leftmostNode )
+            {
+                PointerChecking.checkPointer( firstChild, false );
+                leftmostChild = GenerationSafePointerPair.pointer( firstChild );
+            }
+            PointerChecking.checkPointer( rightSibling, true );
+            nodeId = GenerationSafePointerPair.pointer( rightSibling );
+        }
+        return leftmostChild;
+    }
+
     /**
      * Checkpoints and flushes any pending changes to storage. After a successful call to this method
      * the data is durable and safe. {@link #writer() Changes} made after this call and until crashing or
@@ -1074,6 +1174,36 @@ public class GBPTree<KEY,VALUE> implements Closeable
         return writer;
     }
 
+    /**
+     * Use default fill factor, i.e. tightly packed nodes.
+     * @see GBPTree#bulkLoader(double)
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader() throws IOException
+    {
+        return bulkLoader( BulkLoadTreeLogic.DEFAULT_FILL_FACTOR );
+    }
+
+    /**
+     * Returns a {@link BulkLoader} able to build the contents of this index bottom-up from entries given in sorted order,
+     * which is much cheaper than inserting them one by one using a {@link Writer}. The index must be empty.
+     * After usage the returned bulk loader must be closed, typically by using try-with-resource clause.
+     * The bulk loader and the {@link Writer} can't be acquired at the same time.
+     *
+     * @param fillFactor Decide how much of each node to fill, 0=nothing (at least one key per node), 1=tightly packed.
+     * Leaving some space in each node avoids splitting them on subsequent inserts.
+     * @return the single {@link BulkLoader} for this index.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if the index isn't empty, or for calls made between a successful call to this
+     * method, or to {@link #writer()}, and closing the returned bulk loader or writer.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor ) throws IOException
+    {
+        assertRecoveryCleanSuccessful();
+        bulkLoader.initialize( fillFactor );
+        changesSinceLastCheckpoint = true;
+        return bulkLoader;
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1416,6 +1546,115 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    private class SingleBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private BulkLoadTreeLogic<KEY,VALUE> treeLogic;
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        /**
+         * Takes the single writer slot and verifies that the tree is empty, i.e. that the root is a leaf without keys.
+         */
+        void initialize( double fillFactor ) throws IOException
+        {
+            if ( !writer.writerTaken.compareAndSet( false, true ) )
+            {
+                throw new IllegalStateException( "Writer in " + GBPTree.this + " is already acquired by someone else. " +
+                        "Bulk loading requires the single writer. The writer will become available as soon as " +
+                        "acquired writer is closed" );
+            }
+
+            boolean success = false;
+            boolean locked = false;
+            try
+            {
+                lock.writerLock();
+                locked = true;
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK ) )
+                {
+                    if ( !TreeNode.isLeaf( cursor ) || TreeNode.keyCount( cursor ) != 0 )
+                    {
+                        throw new IllegalStateException( "Bulk loading requires an empty tree, but " + GBPTree.this + " has entries" );
+                    }
+                }
+                treeLogic = new BulkLoadTreeLogic<>( pagedFile, bTreeNode, layout, freeList, stableGeneration, unstableGeneration, fillFactor );
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    if ( locked )
+                    {
+                        lock.writerUnlock();
+                    }
+                    writer.writerTaken.set( false );
+                }
+            }
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            try
+            {
+                treeLogic.add( key, value );
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+        }
+
+        /**
+         * Replaces the empty root with the root of the built tree. The old root is released to the free-list.
+         */
+        @Override
+        public void close() throws IOException
+        {
+            if ( treeLogic == null )
+            {
+                throw new IllegalStateException( "Tried to close bulk loader of " + GBPTree.this +
+                        ", but bulk loader is already closed." );
+            }
+            try
+            {
+                long newRootId = treeLogic.finish();
+                if ( TreeNode.isNode( newRootId ) )
+                {
+                    long oldRootId = root.id();
+                    GBPTree.this.setRoot( newRootId, unstableGeneration );
+                    freeList.releaseId( stableGeneration, unstableGeneration, oldRootId );
+                }
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                treeLogic.close();
+                treeLogic = null;
+                writer.writerTaken.set( false );
+                lock.writerUnlock();
+            }
+        }
+    }
+
     public boolean wasDirtyOnStartup()
     {
         return dirtyOnStartup;
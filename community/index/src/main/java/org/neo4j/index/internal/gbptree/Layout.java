@@ -40,6 +40,7 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
 {
     int FIXED_SIZE_KEY = -1;
     int FIXED_SIZE_VALUE = -1;
+    int NO_KEY_PREFIX_COMPRESSION = -1;
 
     /**
      * @return new key instance.
@@ -110,6 +111,22 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
      */
     boolean fixedSize();
 
+    /**
+     * Dynamically sized keys can have the prefix that neighbouring keys have in common stored only once per leaf.
+     * This only pays off if keys sort in the same order as their written bytes, at least after the first few bytes,
+     * so that keys close to each other share long prefixes. Keys that start with something that differs between
+     * neighbouring keys, e.g. an entity id, can exclude those leading bytes from the compression.
+     * <p>
+     * This is only considered when creating a new index, an existing index keeps the format it was created with.
+     *
+     * @return number of leading bytes of written keys to exclude from prefix compression, or
+     * {@link #NO_KEY_PREFIX_COMPRESSION} if keys should not be prefix compressed.
+     */
+    default int keyPrefixCompressionOffset()
+    {
+        return NO_KEY_PREFIX_COMPRESSION;
+    }
+
     /**
      * Find shortest key (best effort) that separate left from right in sort order
      * and initialize into with result.
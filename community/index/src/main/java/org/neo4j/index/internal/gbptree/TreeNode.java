@@ -330,6 +330,20 @@ abstract class TreeNode<KEY,VALUE>
      */
     abstract Overflow leafOverflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue );
 
+    /**
+     * Will leaf be filled beyond given fill factor if appending new key and value? Used when bulk loading,
+     * where nodes are filled from left to right and have no dead space.
+     * @return true if leaf will be filled beyond fill factor, or overflow, else false.
+     */
+    abstract boolean leafFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor );
+
+    /**
+     * Will internal be filled beyond given fill factor if appending new key? Used when bulk loading,
+     * where nodes are filled from left to right and have no dead space.
+     * @return true if internal will be filled beyond fill factor, or overflow, else false.
+     */
+    abstract boolean internalFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor );
+
     /**
      * Clean page with leaf node from garbage to make room for further insert without having to split.
      */
@@ -86,7 +86,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
      */
     private static final int BYTE_POS_ALLOCOFFSET = BASE_HEADER_LENGTH;
     private static final int BYTE_POS_DEADSPACE = BYTE_POS_ALLOCOFFSET + bytesPageOffset();
-    private static final int HEADER_LENGTH_DYNAMIC = BYTE_POS_DEADSPACE + bytesPageOffset();
+    static final int HEADER_LENGTH_DYNAMIC = BYTE_POS_DEADSPACE + bytesPageOffset();
 
     private static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE = 2;
     private static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
@@ -96,17 +96,31 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private final int maxKeyCount = pageSize / (bytesKeyOffset() + SIZE_KEY_SIZE + SIZE_VALUE_SIZE);
     private final int[] oldOffset = new int[maxKeyCount];
     private final int[] newOffset = new int[maxKeyCount];
-    private final int totalSpace;
+    private final int headerLength;
+    private final int additionalLeafKeySize;
+    final int totalSpace;
     private final int halfSpace;
     private final KEY tmpKeyLeft;
     private final KEY tmpKeyRight;
 
     TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout )
+    {
+        this( pageSize, layout, HEADER_LENGTH_DYNAMIC, 0 );
+    }
+
+    /**
+     * @param headerLength length of the header, for formats that keep more in the header than this format does.
+     * @param additionalLeafKeySize maximum number of bytes that a key stored in a leaf can be larger than {@link Layout#keySize(Object)},
+     * for formats that encode leaf keys differently than this format does, see {@link #leafKeySize(PageCursor, Object)}.
+     */
+    TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout, int headerLength, int additionalLeafKeySize )
     {
         super( pageSize, layout );
-        totalSpace = pageSize - HEADER_LENGTH_DYNAMIC;
+        this.headerLength = headerLength;
+        this.additionalLeafKeySize = additionalLeafKeySize;
+        totalSpace = pageSize - headerLength;
         halfSpace = totalSpace / 2;
-        keyValueSizeCap = keyValueSizeCapFromPageSize( pageSize );
+        keyValueSizeCap = keyValueSizeCapFromPageSize( pageSize, headerLength ) - additionalLeafKeySize;
 
         if ( keyValueSizeCap < MINIMUM_ENTRY_SIZE_CAP )
         {
@@ -123,7 +137,12 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     @VisibleForTesting
     public static int keyValueSizeCapFromPageSize( int pageSize )
     {
-        return (pageSize - HEADER_LENGTH_DYNAMIC) / LEAST_NUMBER_OF_ENTRIES_PER_PAGE - SIZE_TOTAL_OVERHEAD;
+        return keyValueSizeCapFromPageSize( pageSize, HEADER_LENGTH_DYNAMIC );
+    }
+
+    private static int keyValueSizeCapFromPageSize( int pageSize, int headerLength )
+    {
+        return (pageSize - headerLength) / LEAST_NUMBER_OF_ENTRIES_PER_PAGE - SIZE_TOTAL_OVERHEAD;
     }
 
     @Override
@@ -147,7 +166,14 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
             return into;
         }
-        layout.readKey( cursor, into, keySize );
+        if ( type == LEAF )
+        {
+            readLeafKey( cursor, into, keySize );
+        }
+        else
+        {
+            layout.readKey( cursor, into, keySize );
+        }
         return into;
     }
 
@@ -164,7 +190,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
             return;
         }
-        layout.readKey( cursor, intoKey, keySize );
+        readLeafKey( cursor, intoKey, keySize );
         layout.readValue( cursor, intoValue, valueSize );
     }
 
@@ -197,14 +223,14 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     {
         // Where to write key?
         int currentKeyValueOffset = getAllocOffset( cursor );
-        int keySize = layout.keySize( key );
+        int keySize = leafKeySize( cursor, key );
         int valueSize = layout.valueSize( value );
         int newKeyValueOffset = currentKeyValueOffset - keySize - valueSize - getOverhead( keySize, valueSize );
 
         // Write key and value
         cursor.setOffset( newKeyValueOffset );
         putKeyValueSize( cursor, keySize, valueSize );
-        layout.writeKey( cursor, key );
+        writeLeafKey( cursor, key );
         layout.writeValue( cursor, value );
 
         // Update alloc space
@@ -346,6 +372,34 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         cursor.setOffset( cursor.getOffset() + delta );
     }
 
+    /**
+     * @param cursor {@link PageCursor} pinned to the leaf that the key is to be stored in.
+     * @param key key to be stored.
+     * @return size, in bytes, of the given key when stored in the leaf that the cursor is pinned to.
+     */
+    int leafKeySize( PageCursor cursor, KEY key )
+    {
+        return layout.keySize( key );
+    }
+
+    /**
+     * Writes the key, as stored in leaves, at the current offset of the cursor. The number of bytes written must
+     * be exactly {@link #leafKeySize(PageCursor, Object)}.
+     */
+    void writeLeafKey( PageCursor cursor, KEY key )
+    {
+        layout.writeKey( cursor, key );
+    }
+
+    /**
+     * Reads a key, as written by {@link #writeLeafKey(PageCursor, Object)}, at the current offset of the cursor.
+     * The cursor must be left directly after the stored key.
+     */
+    void readLeafKey( PageCursor cursor, KEY into, int keySize )
+    {
+        layout.readKey( cursor, into, keySize );
+    }
+
     @Override
     void setChildAt( PageCursor cursor, long child, int pos, long stableGeneration, long unstableGeneration )
     {
@@ -364,7 +418,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     {
         int keySize = layout.keySize( key );
         int valueSize = layout.valueSize( value );
-        if ( keyValueSizeTooLarge( keySize, valueSize ) )
+        if ( keySize + valueSize > keyValueSizeCap() )
         {
             throw new IllegalArgumentException( "Index key-value size it to large. Please see index documentation for limitations." );
         }
@@ -412,13 +466,29 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int allocSpace = getAllocSpace( cursor, currentKeyCount, LEAF );
 
         // How much space do we need?
-        int neededSpace = totalSpaceOfKeyValue( newKey, newValue );
+        int neededSpace = totalSpaceOfKeyValue( cursor, newKey, newValue );
 
         // There is your answer!
         return neededSpace <= allocSpace ? Overflow.NO :
                neededSpace <= allocSpace + deadSpace ? Overflow.NO_NEED_DEFRAG : Overflow.YES;
     }
 
+    @Override
+    boolean leafFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        int neededSpace = totalSpaceOfKeyValue( cursor, newKey, newValue );
+        return leafOverflow( cursor, currentKeyCount, newKey, newValue ) != Overflow.NO ||
+               totalActiveSpace( cursor, currentKeyCount, LEAF ) + neededSpace > totalSpace * fillFactor;
+    }
+
+    @Override
+    boolean internalFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor )
+    {
+        int neededSpace = totalSpaceOfKeyChild( newKey );
+        return internalOverflow( cursor, currentKeyCount, newKey ) != Overflow.NO ||
+               totalActiveSpace( cursor, currentKeyCount, INTERNAL ) + neededSpace > totalSpace * fillFactor;
+    }
+
     @Override
     void defragmentLeaf( PageCursor cursor )
     {
@@ -674,6 +744,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         layout.minimalSplitter( leftInSplit, rightInSplit, newSplitter );
 
         int rightKeyCount = keyCountAfterInsert - splitPos;
+        copyLeafHeader( leftCursor, rightCursor );
 
         if ( insertPos < splitPos )
         {
@@ -682,7 +753,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             // insert _,_,_,X,_,_,_,_,_,_,_
             // split            ^
             moveKeysAndValues( leftCursor, splitPos - 1, rightCursor, 0, rightKeyCount );
-            defragmentLeaf( leftCursor );
+            doDefragment( leftCursor, LEAF );
             insertKeyValueAt( leftCursor, newKey, newValue, insertPos, splitPos - 1 );
         }
         else
@@ -697,7 +768,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             int newInsertPos = insertPos - splitPos;
             int keysToMove = leftKeyCount - splitPos;
             moveKeysAndValues( leftCursor, splitPos, rightCursor, 0, keysToMove );
-            defragmentLeaf( leftCursor );
+            doDefragment( leftCursor, LEAF );
             insertKeyValueAt( rightCursor, newKey, newValue, newInsertPos, keysToMove );
         }
         TreeNode.setKeyCount( leftCursor, splitPos );
@@ -785,7 +856,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     void moveKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount,
             int fromPosInLeftNode )
     {
-        defragmentLeaf( rightCursor );
+        doDefragment( rightCursor, LEAF );
         int numberOfKeysToMove = leftKeyCount - fromPosInLeftNode;
 
         // Push keys and values in right sibling to the right
@@ -798,6 +869,14 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         setKeyCount( rightCursor, rightKeyCount + numberOfKeysToMove );
     }
 
+    /**
+     * Called when splitting a leaf, before any keys are moved from the left leaf to the new right leaf. Formats that keep state
+     * in the leaf header that stored keys depend on, must copy that state here so that keys can be moved as they are.
+     */
+    void copyLeafHeader( PageCursor leftCursor, PageCursor rightCursor )
+    {   // nothing to copy by default
+    }
+
     // NOTE: Does update keyCount
     private void moveKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
     {
@@ -848,7 +927,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     @Override
     void copyKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
-        defragmentLeaf( rightCursor );
+        doDefragment( rightCursor, LEAF );
 
         // Push keys and values in right sibling to the right
         insertSlotsAt( rightCursor, 0, leftKeyCount, rightKeyCount, keyPosOffsetLeaf( 0 ), bytesKeyOffset() );
@@ -984,7 +1063,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         zeroPad( fromCursor, childFromOffset, lengthInBytes );
     }
 
-    private void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
+    void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
     {
         fromCursor.setOffset( fromOffset );
         fromCursor.putBytes( lengthInBytes, (byte) 0 );
@@ -1092,7 +1171,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int accumulatedLeftSpace = 0;
         int currentDelta = targetLeftSpace;
         int prevDelta;
-        int spaceOfNewKey = totalSpaceOfKeyValue( newKey, newValue );
+        int spaceOfNewKey = totalSpaceOfKeyValue( cursor, newKey, newValue );
         int totalSpaceIncludingNewKey = totalActiveSpace( cursor, keyCountAfterInsert - 1, LEAF ) + spaceOfNewKey;
         boolean includedNew = false;
         boolean prevPosPossible;
@@ -1137,16 +1216,16 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return splitPos;
     }
 
-    private int totalActiveSpace( PageCursor cursor, int keyCount, Type type )
+    int totalActiveSpace( PageCursor cursor, int keyCount, Type type )
     {
         int deadSpace = getDeadSpace( cursor );
         int allocSpace = getAllocSpace( cursor, keyCount, type );
         return totalSpace - deadSpace - allocSpace;
     }
 
-    private int totalSpaceOfKeyValue( KEY key, VALUE value )
+    private int totalSpaceOfKeyValue( PageCursor cursor, KEY key, VALUE value )
     {
-        int keySize = layout.keySize( key );
+        int keySize = leafKeySize( cursor, key );
         int valueSize = layout.valueSize( value );
         return bytesKeyOffset() + getOverhead( keySize, valueSize ) + keySize + valueSize;
     }
@@ -1173,7 +1252,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return bytesKeyOffset() + getOverhead( keySize, 0 ) + childSize() + keySize;
     }
 
-    private void setAllocOffset( PageCursor cursor, int allocOffset )
+    void setAllocOffset( PageCursor cursor, int allocOffset )
     {
         PageCursorUtil.putUnsignedShort( cursor, BYTE_POS_ALLOCOFFSET, allocOffset );
     }
@@ -1183,17 +1262,17 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_ALLOCOFFSET );
     }
 
-    private void setDeadSpace( PageCursor cursor, int deadSpace )
+    void setDeadSpace( PageCursor cursor, int deadSpace )
     {
         putUnsignedShort( cursor, BYTE_POS_DEADSPACE, deadSpace );
     }
 
-    private int getDeadSpace( PageCursor cursor )
+    int getDeadSpace( PageCursor cursor )
     {
         return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_DEADSPACE );
     }
 
-    private void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
+    void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
     {
         // Set cursor to correct place in offset array
         int keyPosOffset = keyPosOffset( pos, type );
@@ -1203,10 +1282,10 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int keyOffset = readKeyOffset( cursor );
 
         // Verify offset is reasonable
-        if ( keyOffset >= pageSize || keyOffset < HEADER_LENGTH_DYNAMIC )
+        if ( keyOffset >= pageSize || keyOffset < headerLength )
         {
             cursor.setCursorException( format( "Tried to read key on offset=%d, headerLength=%d, pageSize=%d, pos=%d",
-                    keyOffset, HEADER_LENGTH_DYNAMIC, pageSize, pos ) );
+                    keyOffset, headerLength, pageSize, pos ) );
             return;
         }
 
@@ -1222,7 +1301,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
 
     private boolean keyValueSizeTooLarge( int keySize, int valueSize )
     {
-        return keySize + valueSize > keyValueSizeCap();
+        return keySize + valueSize > keyValueSizeCap() + additionalLeafKeySize;
     }
 
     private int keyPosOffset( int pos, Type type )
@@ -1237,15 +1316,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         }
     }
 
-    private int keyPosOffsetLeaf( int pos )
+    int keyPosOffsetLeaf( int pos )
     {
-        return HEADER_LENGTH_DYNAMIC + pos * bytesKeyOffset();
+        return headerLength + pos * bytesKeyOffset();
     }
 
     private int keyPosOffsetInternal( int pos )
     {
         // header + childPointer + pos * (keyPosOffsetSize + childPointer)
-        return HEADER_LENGTH_DYNAMIC + childSize() + pos * keyChildSize();
+        return headerLength + childSize() + pos * keyChildSize();
     }
 
     private int keyChildSize()
@@ -1258,7 +1337,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return SIZE_PAGE_REFERENCE;
     }
 
-    private static int bytesKeyOffset()
+    static int bytesKeyOffset()
     {
         return SIZE_OFFSET;
     }
@@ -1323,11 +1402,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             {
                 singleKey.add( "_" );
             }
-            layout.readKey( cursor, readKey, keySize );
             if ( type == LEAF )
             {
+                readLeafKey( cursor, readKey, keySize );
                 layout.readValue( cursor, readValue, valueSize );
             }
+            else
+            {
+                layout.readKey( cursor, readKey, keySize );
+            }
             singleKey.add( Integer.toString( keySize ) );
             if ( type == LEAF && includeValue )
             {
@@ -1398,7 +1481,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private int totalActiveSpaceRaw( PageCursor cursor, int keyCount, Type type )
     {
         // Offset array
-        int offsetArrayStart = HEADER_LENGTH_DYNAMIC;
+        int offsetArrayStart = headerLength;
         int offsetArrayEnd = keyPosOffset( keyCount, type );
         int offsetArraySize = offsetArrayEnd - offsetArrayStart;
 
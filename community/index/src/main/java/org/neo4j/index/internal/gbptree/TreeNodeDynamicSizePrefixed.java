@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static java.lang.String.format;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractKeySize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.getOverhead;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyOffset;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyOffset;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyValueSize;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * A {@link TreeNodeDynamicSize} where keys in leaves are prefix compressed. Each leaf has a key prefix in its header
+ * and each key in the leaf only stores the bytes that come after the part of the key prefix that it shares.
+ * Internal nodes are exactly like in {@link TreeNodeDynamicSize}, apart from the longer header.
+ *
+ * <pre>
+ * LEAF
+ * [                 HEADER   152B                      ]|[KEY_OFFSETS]##########[KEYS_VALUES]
+ * [ ... ][DEADSPACE][PREFIXOFFSET][PREFIXLENGTH][PREFIX]|[K0*,K1*,K2*]->      <-[KV0,KV2,KV1]
+ *         84         86            87            88      152
+ *
+ * key entry in leaf - [keyValueSize 1B-4B|sharedLength 1B|first PREFIXOFFSET bytes of key|rest of key after shared prefix|value]
+ * </pre>
+ *
+ * The first {@link Layout#keyPrefixCompressionOffset() PREFIXOFFSET} bytes of every key are never compressed.
+ * The key prefix of a new leaf is empty. When a leaf would otherwise overflow, the key prefix is extended with the
+ * bytes that all keys in the leaf have in common after their current shared prefix, and all keys are rewritten.
+ * Leaves created in a split get the key prefix of the leaf that was split, so that keys can be moved between them
+ * as they are. For the same reason leaves are only merged or rebalanced if they have the same key prefix.
+ */
+public class TreeNodeDynamicSizePrefixed<KEY, VALUE> extends TreeNodeDynamicSize<KEY,VALUE>
+{
+    static final byte FORMAT_IDENTIFIER = 4;
+    static final byte FORMAT_VERSION = 0;
+
+    static final int MAX_KEY_PREFIX_LENGTH = 64;
+    private static final int SIZE_SHARED_LENGTH = Byte.BYTES;
+    private static final int BYTE_POS_KEY_PREFIX_OFFSET = HEADER_LENGTH_DYNAMIC;
+    private static final int BYTE_POS_KEY_PREFIX_LENGTH = BYTE_POS_KEY_PREFIX_OFFSET + Byte.BYTES;
+    private static final int BYTE_POS_KEY_PREFIX = BYTE_POS_KEY_PREFIX_LENGTH + Byte.BYTES;
+    private static final int HEADER_LENGTH_PREFIXED = BYTE_POS_KEY_PREFIX + MAX_KEY_PREFIX_LENGTH;
+
+    private final int keyPrefixOffset;
+    private final int keyBufferSize;
+    // Only used by the writer
+    private final KeyBuffer writeBuffer;
+    private final byte[] keyPrefix = new byte[MAX_KEY_PREFIX_LENGTH];
+    private final byte[] pageBytes;
+    private final PageCursor pageBytesCursor;
+    // Used by concurrent readers, typically only touched by the seek cursors of a few threads
+    private final ThreadLocal<KeyBuffer> readBuffers;
+
+    TreeNodeDynamicSizePrefixed( int pageSize, Layout<KEY,VALUE> layout )
+    {
+        super( pageSize, layout, HEADER_LENGTH_PREFIXED, SIZE_SHARED_LENGTH );
+        int keyPrefixOffset = layout.keyPrefixCompressionOffset();
+        if ( keyPrefixOffset > 0xFF )
+        {
+            throw new IllegalArgumentException( "Key prefix compression offset can be at most 255, but was " + keyPrefixOffset );
+        }
+        // An index that was created with prefix compression can be opened with a layout that no longer asks for it,
+        // such a layout simply gets the whole key compressed in new leaves.
+        this.keyPrefixOffset = Math.max( 0, keyPrefixOffset );
+        this.keyBufferSize = keyValueSizeCap() + SIZE_SHARED_LENGTH + MAX_KEY_PREFIX_LENGTH;
+        this.writeBuffer = new KeyBuffer( keyBufferSize );
+        this.pageBytes = new byte[pageSize];
+        this.pageBytesCursor = new ByteArrayPageCursor( pageBytes );
+        this.readBuffers = ThreadLocal.withInitial( () -> new KeyBuffer( keyBufferSize ) );
+    }
+
+    @Override
+    void writeAdditionalHeader( PageCursor cursor )
+    {
+        super.writeAdditionalHeader( cursor );
+        cursor.putByte( BYTE_POS_KEY_PREFIX_OFFSET, (byte) keyPrefixOffset );
+        cursor.putByte( BYTE_POS_KEY_PREFIX_LENGTH, (byte) 0 );
+    }
+
+    @Override
+    int leafKeySize( PageCursor cursor, KEY key )
+    {
+        int keySize = serialize( key );
+        int head = Math.min( keyPrefixOffset( cursor ), keySize );
+        return SIZE_SHARED_LENGTH + keySize - sharedLength( cursor, head, keySize );
+    }
+
+    @Override
+    void writeLeafKey( PageCursor cursor, KEY key )
+    {
+        int keySize = serialize( key );
+        int head = Math.min( keyPrefixOffset( cursor ), keySize );
+        int shared = sharedLength( cursor, head, keySize );
+        byte[] bytes = writeBuffer.bytes;
+        cursor.putByte( (byte) shared );
+        cursor.putBytes( bytes, 0, head );
+        cursor.putBytes( bytes, head + shared, keySize - head - shared );
+    }
+
+    @Override
+    void readLeafKey( PageCursor cursor, KEY into, int keySize )
+    {
+        if ( keySize < SIZE_SHARED_LENGTH )
+        {
+            cursor.setCursorException( format( "Read unreliable prefix compressed key, id=%d, keySize=%d", cursor.getCurrentPageId(), keySize ) );
+            return;
+        }
+        int shared = cursor.getByte() & 0xFF;
+        int storedKeySize = keySize - SIZE_SHARED_LENGTH;
+        if ( shared == 0 )
+        {
+            // The whole key is stored as it is, no need to assemble it
+            layout.readKey( cursor, into, storedKeySize );
+            return;
+        }
+
+        int head = keyPrefixOffset( cursor );
+        int keyPrefixLength = keyPrefixLength( cursor );
+        if ( storedKeySize < head || shared > keyPrefixLength || keyPrefixLength > MAX_KEY_PREFIX_LENGTH )
+        {
+            cursor.setCursorException( format( "Read unreliable prefix compressed key, id=%d, keySize=%d, sharedLength=%d, keyPrefixOffset=%d, " +
+                    "keyPrefixLength=%d", cursor.getCurrentPageId(), keySize, shared, head, keyPrefixLength ) );
+            return;
+        }
+
+        KeyBuffer buffer = readBuffers.get();
+        byte[] bytes = buffer.bytes;
+        cursor.getBytes( bytes, 0, head );
+        for ( int i = 0; i < shared; i++ )
+        {
+            bytes[head + i] = cursor.getByte( BYTE_POS_KEY_PREFIX + i );
+        }
+        cursor.getBytes( bytes, head + shared, storedKeySize - head );
+
+        buffer.cursor.setOffset( 0 );
+        layout.readKey( buffer.cursor, into, storedKeySize + shared );
+        try
+        {
+            buffer.cursor.checkAndClearCursorException();
+        }
+        catch ( CursorException e )
+        {
+            cursor.setCursorException( e.getMessage() );
+        }
+    }
+
+    @Override
+    Overflow leafOverflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue )
+    {
+        Overflow overflow = super.leafOverflow( cursor, currentKeyCount, newKey, newValue );
+        if ( overflow != Overflow.YES )
+        {
+            return overflow;
+        }
+
+        // See if extending the key prefix makes room, the same extension that defragmentLeaf will do
+        int keyPrefixLength = keyPrefixLength( cursor );
+        int newKeyPrefixLength = extendKeyPrefix( cursor, currentKeyCount );
+        if ( newKeyPrefixLength == keyPrefixLength )
+        {
+            return Overflow.YES;
+        }
+        int keySize = serialize( newKey );
+        int head = Math.min( keyPrefixOffset( cursor ), keySize );
+        int shared = 0;
+        int maxShared = Math.min( newKeyPrefixLength, keySize - head );
+        while ( shared < maxShared && writeBuffer.bytes[head + shared] == keyPrefix[shared] )
+        {
+            shared++;
+        }
+        int newKeySize = SIZE_SHARED_LENGTH + keySize - shared;
+        int valueSize = layout.valueSize( newValue );
+        int neededSpace = bytesKeyOffset() + getOverhead( newKeySize, valueSize ) + newKeySize + valueSize;
+        // Upper bound, keys may also need fewer bytes for their size after being compressed
+        int activeSpace = totalActiveSpace( cursor, currentKeyCount, LEAF ) - currentKeyCount * (newKeyPrefixLength - keyPrefixLength);
+        return activeSpace + neededSpace <= totalSpace ? Overflow.NO_NEED_DEFRAG : Overflow.YES;
+    }
+
+    @Override
+    void defragmentLeaf( PageCursor cursor )
+    {
+        int keyCount = keyCount( cursor );
+        int keyPrefixLength = keyPrefixLength( cursor );
+        int newKeyPrefixLength = extendKeyPrefix( cursor, keyCount );
+        if ( newKeyPrefixLength == keyPrefixLength )
+        {
+            super.defragmentLeaf( cursor );
+        }
+        else
+        {
+            compressKeys( cursor, keyCount, keyPrefixLength, newKeyPrefixLength );
+        }
+    }
+
+    @Override
+    int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        return sameKeyPrefix( leftCursor, rightCursor ) ? super.canRebalanceLeaves( leftCursor, leftKeyCount, rightCursor, rightKeyCount ) : 0;
+    }
+
+    @Override
+    boolean canMergeLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        return sameKeyPrefix( leftCursor, rightCursor ) && super.canMergeLeaves( leftCursor, leftKeyCount, rightCursor, rightKeyCount );
+    }
+
+    @Override
+    void copyLeafHeader( PageCursor leftCursor, PageCursor rightCursor )
+    {
+        leftCursor.copyTo( BYTE_POS_KEY_PREFIX_OFFSET, rightCursor, BYTE_POS_KEY_PREFIX_OFFSET, HEADER_LENGTH_PREFIXED - BYTE_POS_KEY_PREFIX_OFFSET );
+    }
+
+    /**
+     * Finds the bytes that all keys in the leaf have in common after the key prefix, if all keys share the whole key prefix.
+     * The key prefix, including any extension, is left in {@link #keyPrefix}.
+     *
+     * @return length of the extended key prefix, or length of the current key prefix if it can't be extended.
+     */
+    private int extendKeyPrefix( PageCursor cursor, int keyCount )
+    {
+        int keyPrefixLength = keyPrefixLength( cursor );
+        int head = keyPrefixOffset( cursor );
+        int extension = MAX_KEY_PREFIX_LENGTH - keyPrefixLength;
+        int firstSuffixOffset = 0;
+        for ( int pos = 0; pos < keyCount && extension > 0; pos++ )
+        {
+            placeCursorAtActualKey( cursor, pos, LEAF );
+            int storedKeySize = extractKeySize( readKeyValueSize( cursor ) ) - SIZE_SHARED_LENGTH;
+            int shared = cursor.getByte() & 0xFF;
+            if ( shared != keyPrefixLength || storedKeySize < head )
+            {
+                return keyPrefixLength;
+            }
+            int suffixOffset = cursor.getOffset() + head;
+            int suffixLength = Math.min( extension, storedKeySize - head );
+            if ( pos == 0 )
+            {
+                firstSuffixOffset = suffixOffset;
+                extension = suffixLength;
+            }
+            else
+            {
+                int common = 0;
+                while ( common < suffixLength && cursor.getByte( firstSuffixOffset + common ) == cursor.getByte( suffixOffset + common ) )
+                {
+                    common++;
+                }
+                extension = common;
+            }
+        }
+        if ( keyCount == 0 || extension == 0 )
+        {
+            return keyPrefixLength;
+        }
+
+        for ( int i = 0; i < keyPrefixLength; i++ )
+        {
+            keyPrefix[i] = cursor.getByte( BYTE_POS_KEY_PREFIX + i );
+        }
+        for ( int i = 0; i < extension; i++ )
+        {
+            keyPrefix[keyPrefixLength + i] = cursor.getByte( firstSuffixOffset + i );
+        }
+        return keyPrefixLength + extension;
+    }
+
+    /**
+     * Rewrites all keys in the leaf to share the extended key prefix in {@link #keyPrefix}, which all of them share.
+     * Dead space is reclaimed in the process, just like {@link #defragmentLeaf(PageCursor)} does.
+     */
+    private void compressKeys( PageCursor cursor, int keyCount, int keyPrefixLength, int newKeyPrefixLength )
+    {
+        int extension = newKeyPrefixLength - keyPrefixLength;
+        int head = keyPrefixOffset( cursor );
+        int allocOffset = getAllocOffset( cursor );
+        cursor.setOffset( allocOffset );
+        cursor.getBytes( pageBytes, allocOffset, pageSize - allocOffset );
+
+        int newAllocOffset = pageSize;
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            cursor.setOffset( keyPosOffsetLeaf( pos ) );
+            pageBytesCursor.setOffset( readKeyOffset( cursor ) );
+            long keyValueSize = readKeyValueSize( pageBytesCursor );
+            int keySize = extractKeySize( keyValueSize );
+            int valueSize = extractValueSize( keyValueSize );
+            int headOffset = pageBytesCursor.getOffset() + SIZE_SHARED_LENGTH;
+            int newKeySize = keySize - extension;
+
+            newAllocOffset -= getOverhead( newKeySize, valueSize ) + newKeySize + valueSize;
+            cursor.setOffset( newAllocOffset );
+            putKeyValueSize( cursor, newKeySize, valueSize );
+            cursor.putByte( (byte) newKeyPrefixLength );
+            cursor.putBytes( pageBytes, headOffset, head );
+            cursor.putBytes( pageBytes, headOffset + head + extension, newKeySize - SIZE_SHARED_LENGTH - head + valueSize );
+
+            cursor.setOffset( keyPosOffsetLeaf( pos ) );
+            putKeyOffset( cursor, newAllocOffset );
+        }
+
+        cursor.setOffset( BYTE_POS_KEY_PREFIX + keyPrefixLength );
+        cursor.putBytes( keyPrefix, keyPrefixLength, extension );
+        cursor.putByte( BYTE_POS_KEY_PREFIX_LENGTH, (byte) newKeyPrefixLength );
+        setAllocOffset( cursor, newAllocOffset );
+        zeroPad( cursor, allocOffset, newAllocOffset - allocOffset );
+        setDeadSpace( cursor, 0 );
+    }
+
+    private int serialize( KEY key )
+    {
+        PageCursor keyCursor = writeBuffer.cursor;
+        keyCursor.setOffset( 0 );
+        layout.writeKey( keyCursor, key );
+        return keyCursor.getOffset();
+    }
+
+    /**
+     * @return number of bytes, after the first {@code head} bytes, that the serialized key in {@link #writeBuffer}
+     * has in common with the key prefix of the leaf.
+     */
+    private int sharedLength( PageCursor cursor, int head, int keySize )
+    {
+        byte[] bytes = writeBuffer.bytes;
+        int maxShared = Math.min( keyPrefixLength( cursor ), keySize - head );
+        int shared = 0;
+        while ( shared < maxShared && bytes[head + shared] == cursor.getByte( BYTE_POS_KEY_PREFIX + shared ) )
+        {
+            shared++;
+        }
+        return shared;
+    }
+
+    private static boolean sameKeyPrefix( PageCursor leftCursor, PageCursor rightCursor )
+    {
+        if ( keyPrefixOffset( leftCursor ) != keyPrefixOffset( rightCursor ) )
+        {
+            return false;
+        }
+        int keyPrefixLength = keyPrefixLength( leftCursor );
+        if ( keyPrefixLength != keyPrefixLength( rightCursor ) )
+        {
+            return false;
+        }
+        for ( int i = 0; i < keyPrefixLength; i++ )
+        {
+            if ( leftCursor.getByte( BYTE_POS_KEY_PREFIX + i ) != rightCursor.getByte( BYTE_POS_KEY_PREFIX + i ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int keyPrefixOffset( PageCursor cursor )
+    {
+        return cursor.getByte( BYTE_POS_KEY_PREFIX_OFFSET ) & 0xFF;
+    }
+
+    static int keyPrefixLength( PageCursor cursor )
+    {
+        return cursor.getByte( BYTE_POS_KEY_PREFIX_LENGTH ) & 0xFF;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeNodeDynamicSizePrefixed[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() + ", keyPrefixOffset:" +
+                keyPrefixOffset + "]";
+    }
+
+    private static class KeyBuffer
+    {
+        private final byte[] bytes;
+        private final PageCursor cursor;
+
+        KeyBuffer( int size )
+        {
+            bytes = new byte[size];
+            cursor = new ByteArrayPageCursor( bytes );
+        }
+    }
+}
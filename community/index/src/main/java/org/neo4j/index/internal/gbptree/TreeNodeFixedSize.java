@@ -316,6 +316,23 @@ class TreeNodeFixedSize<KEY,VALUE> extends TreeNode<KEY,VALUE>
         return currentKeyCount + 1 > leafMaxKeyCount() ? Overflow.YES : Overflow.NO;
     }
 
+    @Override
+    boolean leafFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        return currentKeyCount + 1 > filledKeyCount( leafMaxKeyCount(), fillFactor );
+    }
+
+    @Override
+    boolean internalFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor )
+    {
+        return currentKeyCount + 1 > filledKeyCount( internalMaxKeyCount(), fillFactor );
+    }
+
+    private static int filledKeyCount( int maxKeyCount, double fillFactor )
+    {
+        return Math.max( 1, (int) (maxKeyCount * fillFactor) );
+    }
+
     @Override
     void defragmentLeaf( PageCursor cursor )
     {   // no-op
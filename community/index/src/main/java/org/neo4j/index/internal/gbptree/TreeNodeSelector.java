@@ -75,6 +75,30 @@ class TreeNodeSelector
         }
     };
 
+    /**
+     * Creates {@link TreeNodeDynamicSizePrefixed} instances.
+     */
+    static Factory DYNAMIC_PREFIXED = new Factory()
+    {
+        @Override
+        public <KEY,VALUE> TreeNode<KEY,VALUE> create( int pageSize, Layout<KEY,VALUE> layout )
+        {
+            return new TreeNodeDynamicSizePrefixed<>( pageSize, layout );
+        }
+
+        @Override
+        public byte formatIdentifier()
+        {
+            return TreeNodeDynamicSizePrefixed.FORMAT_IDENTIFIER;
+        }
+
+        @Override
+        public byte formatVersion()
+        {
+            return TreeNodeDynamicSizePrefixed.FORMAT_VERSION;
+        }
+    };
+
     /**
      * Selects a format based on the given {@link Layout}.
      *
@@ -83,8 +107,13 @@ class TreeNodeSelector
      */
     static Factory selectByLayout( Layout<?,?> layout )
     {
-        // For now the selection is done in a simple fashion, by looking at layout.fixedSize().
-        return layout.fixedSize() ? FIXED : DYNAMIC;
+        // For now the selection is done in a simple fashion, by looking at layout.fixedSize() and whether or not
+        // the layout asks for keys to be prefix compressed.
+        if ( layout.fixedSize() )
+        {
+            return FIXED;
+        }
+        return layout.keyPrefixCompressionOffset() == Layout.NO_KEY_PREFIX_COMPRESSION ? DYNAMIC : DYNAMIC_PREFIXED;
     }
 
     /**
@@ -96,7 +125,7 @@ class TreeNodeSelector
      */
     static Factory selectByFormat( byte formatIdentifier, byte formatVersion )
     {
-        // For now do a simple selection of the two formats we know. Moving forward this can contain
+        // For now do a simple selection of the formats we know. Moving forward this can contain
         // many more identifiers and different versions of each.
         if ( formatIdentifier == TreeNodeFixedSize.FORMAT_IDENTIFIER && formatVersion == TreeNodeFixedSize.FORMAT_VERSION )
         {
@@ -106,6 +135,10 @@ class TreeNodeSelector
         {
             return DYNAMIC;
         }
+        else if ( formatIdentifier == TreeNodeDynamicSizePrefixed.FORMAT_IDENTIFIER && formatVersion == TreeNodeDynamicSizePrefixed.FORMAT_VERSION )
+        {
+            return DYNAMIC_PREFIXED;
+        }
         throw new IllegalArgumentException(
                 format( "Unknown format identifier:%d and version:%d combination", formatIdentifier, formatVersion ) );
     }
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+import org.neo4j.test.rule.RandomRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.io.pagecache.IOLimiter.UNLIMITED;
+
+public abstract class GBPTreeBulkLoaderTestBase<KEY,VALUE>
+{
+    private RandomRule random = new RandomRule();
+    private PageCacheAndDependenciesRule deps = new PageCacheAndDependenciesRule();
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( random ).around( deps );
+
+    private TestLayout<KEY,VALUE> layout;
+    private File indexFile;
+
+    @Before
+    public void setUp()
+    {
+        indexFile = deps.directory().file( "index" );
+        layout = getLayout();
+    }
+
+    abstract TestLayout<KEY,VALUE> getLayout();
+
+    @Test
+    public void shouldSeeAllBulkLoadedEntries() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // when
+            int count = random.nextInt( 1_000, 10_000 );
+            bulkLoad( index, 0, count, BulkLoadTreeLogic.DEFAULT_FILL_FACTOR );
+
+            // then
+            assertEntries( index, 0, count );
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void shouldSeeBulkLoadedEntriesAfterCheckpointAndRestart() throws Exception
+    {
+        // given
+        int count = 5_000;
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            bulkLoad( index, 0, count, BulkLoadTreeLogic.DEFAULT_FILL_FACTOR );
+            index.checkpoint( UNLIMITED );
+        }
+
+        // when
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // then
+            assertEntries( index, 0, count );
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void shouldBeAbleToWriteToBulkLoadedTree() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // given
+            int count = 5_000;
+            bulkLoad( index, 0, count * 2, 0.5 );
+
+            // when
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    writer.remove( key( i ) );
+                }
+                for ( int i = count * 2; i < count * 3; i++ )
+                {
+                    writer.put( key( i ), value( i ) );
+                }
+            }
+
+            // then
+            assertEntries( index, count, count * 3 );
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void shouldFillNodesAccordingToFillFactor() throws Exception
+    {
+        int count = 5_000;
+        int tightlyPackedLeaves;
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            bulkLoad( index, 0, count, 1.0 );
+            tightlyPackedLeaves = countLeaves( index );
+        }
+        deps.fileSystem().deleteFile( indexFile );
+
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            bulkLoad( index, 0, count, 0.5 );
+            int halfFullLeaves = countLeaves( index );
+            assertTrue( "Expected more leaves with lower fill factor, " + tightlyPackedLeaves + " vs " + halfFullLeaves,
+                    halfFullLeaves > tightlyPackedLeaves * 1.5 );
+            assertEntries( index, 0, count );
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void shouldFailOnKeysNotInAscendingOrder() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index();
+              BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader() )
+        {
+            bulkLoader.add( key( 10 ), value( 10 ) );
+            try
+            {
+                bulkLoader.add( key( 10 ), value( 10 ) );
+                fail( "Should have failed" );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // good
+            }
+        }
+    }
+
+    @Test
+    public void shouldFailToBulkLoadNonEmptyTree() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // given
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 0 ), value( 0 ) );
+            }
+
+            // when
+            try ( BulkLoader<KEY,VALUE> ignored = index.bulkLoader() )
+            {
+                fail( "Should have failed" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // then good
+            }
+
+            // and writer is still available
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 1 ), value( 1 ) );
+            }
+            assertEntries( index, 0, 2 );
+        }
+    }
+
+    @Test
+    public void shouldNotAllowWriterWhileBulkLoading() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index();
+              BulkLoader<KEY,VALUE> ignored = index.bulkLoader() )
+        {
+            try
+            {
+                index.writer();
+                fail( "Should have failed" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // good
+            }
+        }
+    }
+
+    private void bulkLoad( GBPTree<KEY,VALUE> index, long fromSeed, long toSeed, double fillFactor ) throws IOException
+    {
+        try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( fillFactor ) )
+        {
+            for ( long seed = fromSeed; seed < toSeed; seed++ )
+            {
+                bulkLoader.add( key( seed ), value( seed ) );
+            }
+        }
+    }
+
+    private void assertEntries( GBPTree<KEY,VALUE> index, long fromSeed, long toSeed ) throws IOException
+    {
+        try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+        {
+            for ( long seed = fromSeed; seed < toSeed; seed++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( seed, layout.keySeed( cursor.get().key() ) );
+                assertEquals( seed, layout.valueSeed( cursor.get().value() ) );
+            }
+            assertFalse( cursor.next() );
+        }
+    }
+
+    private int countLeaves( GBPTree<KEY,VALUE> index ) throws IOException
+    {
+        int[] leaves = new int[1];
+        index.visit( new GBPTreeVisitor.Adaptor<KEY,VALUE>()
+        {
+            @Override
+            public void beginNode( long pageId, boolean isLeaf, long generation, int keyCount )
+            {
+                if ( isLeaf )
+                {
+                    leaves[0]++;
+                }
+            }
+        } );
+        return leaves[0];
+    }
+
+    private GBPTree<KEY,VALUE> index() throws IOException
+    {
+        return new GBPTreeBuilder<>( deps.pageCache(), indexFile, layout ).build();
+    }
+
+    private VALUE value( long seed )
+    {
+        return layout.value( seed );
+    }
+
+    private KEY key( long seed )
+    {
+        return layout.key( seed );
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares density and height of trees with and without prefix compressed leaves, for keys sharing long prefixes,
+ * like keys of string and composite indexes.
+ */
+public class GBPTreePrefixCompressionTest
+{
+    private static final String COMMON_PREFIX = "http://example.com/some/path/to/a/resource/";
+    private static final int COUNT = 20_000;
+
+    @Rule
+    public final PageCacheAndDependenciesRule deps = new PageCacheAndDependenciesRule();
+
+    @Test
+    public void shouldNeedFewerLeavesAndLevelsWithPrefixCompression() throws Exception
+    {
+        // given
+        TreeStats uncompressed = insertAndMeasure( new SimpleByteArrayLayout( false ), "uncompressed" );
+
+        // when
+        TreeStats compressed = insertAndMeasure( new SimpleByteArrayLayout( false, 0 ), "compressed" );
+
+        // then
+        assertTrue( "Expected fewer leaves, " + compressed + " vs " + uncompressed, compressed.leaves * 2 < uncompressed.leaves );
+        assertTrue( "Expected no more levels, " + compressed + " vs " + uncompressed, compressed.levels <= uncompressed.levels );
+    }
+
+    private TreeStats insertAndMeasure( SimpleByteArrayLayout layout, String name ) throws IOException
+    {
+        File indexFile = deps.directory().file( name );
+        try ( GBPTree<RawBytes,RawBytes> index = new GBPTreeBuilder<>( deps.pageCache(), indexFile, layout ).build() )
+        {
+            try ( Writer<RawBytes,RawBytes> writer = index.writer() )
+            {
+                for ( int i = 0; i < COUNT; i++ )
+                {
+                    writer.put( key( i ), layout.value( i ) );
+                }
+            }
+
+            try ( RawCursor<Hit<RawBytes,RawBytes>,IOException> cursor = index.seek( key( 0 ), key( COUNT ) ) )
+            {
+                for ( int i = 0; i < COUNT; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertArrayEquals( key( i ).bytes, cursor.get().key().bytes );
+                }
+                assertFalse( cursor.next() );
+            }
+            assertTrue( index.consistencyCheck() );
+
+            TreeStats stats = new TreeStats();
+            index.visit( stats );
+            return stats;
+        }
+    }
+
+    private static RawBytes key( long i )
+    {
+        // Zero padded decimal, so that byte order is the same as numerical order
+        RawBytes key = new RawBytes();
+        key.bytes = (COMMON_PREFIX + format( "%010d", i )).getBytes( UTF_8 );
+        return key;
+    }
+
+    private static class TreeStats extends GBPTreeVisitor.Adaptor<RawBytes,RawBytes>
+    {
+        private int levels;
+        private int leaves;
+
+        @Override
+        public void beginLevel( int level )
+        {
+            levels++;
+        }
+
+        @Override
+        public void beginNode( long pageId, boolean isLeaf, long generation, int keyCount )
+        {
+            if ( isLeaf )
+            {
+                leaves++;
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return "levels:" + levels + ", leaves:" + leaves;
+        }
+    }
+}
@@ -1511,6 +1511,87 @@ public class GBPTreeTest
         }
     }
 
+    /* Partition keys tests */
+
+    @Test
+    public void partitionKeysOfRootLeafMustBeEmpty() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // GIVEN
+            insert( index, 0, 1 );
+
+            // WHEN
+            List<MutableLong> keys = index.partitionKeys( 10 );
+
+            // THEN
+            assertTrue( keys.isEmpty() );
+        }
+    }
+
+    @Test
+    public void partitionKeysMustSplitTreeIntoRangesCoveringAllEntries() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // GIVEN
+            int count = 10_000;
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    writer.put( new MutableLong( i ), new MutableLong( i ) );
+                }
+            }
+
+            // WHEN
+            List<MutableLong> keys = index.partitionKeys( 20 );
+
+            // THEN
+            assertTrue( "Expected at least 20 keys, but got " + keys.size(), keys.size() >= 20 );
+            assertTrue( keys.size() < count );
+            long expected = 0;
+            for ( int i = 0; i <= keys.size(); i++ )
+            {
+                MutableLong from = i == 0 ? new MutableLong( Long.MIN_VALUE ) : keys.get( i - 1 );
+                MutableLong to = i == keys.size() ? new MutableLong( Long.MAX_VALUE ) : keys.get( i );
+                assertTrue( from.longValue() < to.longValue() );
+                try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = index.seek( from, to ) )
+                {
+                    while ( seek.next() )
+                    {
+                        assertEquals( expected++, seek.get().key().longValue() );
+                    }
+                }
+            }
+            assertEquals( count, expected );
+        }
+    }
+
+    @Test
+    public void partitionKeysMustStopAtLowestInternalLevel() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // GIVEN
+            int count = 1_000;
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    writer.put( new MutableLong( i ), new MutableLong( i ) );
+                }
+            }
+
+            // WHEN
+            List<MutableLong> keys = index.partitionKeys( Integer.MAX_VALUE );
+
+            // THEN one key between every pair of neighbouring leaves, which each hold more than one entry
+            assertFalse( keys.isEmpty() );
+            assertTrue( keys.size() < count / 2 );
+        }
+    }
+
     /* TreeState has outdated root */
 
     @Test
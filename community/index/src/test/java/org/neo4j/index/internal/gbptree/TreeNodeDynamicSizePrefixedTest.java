@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.neo4j.index.internal.gbptree.TreeNode.Overflow;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+public class TreeNodeDynamicSizePrefixedTest extends TreeNodeTestBase<RawBytes,RawBytes>
+{
+    private static final int COMMON_PREFIX_LENGTH = 32;
+
+    private SimpleByteArrayLayout layout = new SimpleByteArrayLayout( true, 0 );
+
+    @Override
+    protected TestLayout<RawBytes,RawBytes> getLayout()
+    {
+        return layout;
+    }
+
+    @Override
+    protected TreeNodeDynamicSizePrefixed<RawBytes,RawBytes> getNode( int pageSize, Layout<RawBytes,RawBytes> layout )
+    {
+        return new TreeNodeDynamicSizePrefixed<>( pageSize, layout );
+    }
+
+    @Override
+    void assertAdditionalHeader( PageCursor cursor, TreeNode<RawBytes,RawBytes> node, int pageSize )
+    {
+        // When
+        int currentAllocSpace = ((TreeNodeDynamicSize) node).getAllocOffset( cursor );
+
+        // Then
+        assertEquals( pageSize, currentAllocSpace, "allocSpace point to end of page" );
+        assertEquals( 0, TreeNodeDynamicSizePrefixed.keyPrefixLength( cursor ), "leaf starts without key prefix" );
+    }
+
+    @Test
+    void shouldExtendKeyPrefixWhenLeafIsFull()
+    {
+        // given
+        TreeNodeDynamicSizePrefixed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = fillLeaf( node, false );
+
+        // when
+        Overflow overflow = node.leafOverflow( cursor, keyCount, key( keyCount ), value( keyCount ) );
+        assertEquals( Overflow.NO_NEED_DEFRAG, overflow );
+        node.defragmentLeaf( cursor );
+
+        // then
+        assertTrue( TreeNodeDynamicSizePrefixed.keyPrefixLength( cursor ) >= COMMON_PREFIX_LENGTH );
+        assertEquals( Overflow.NO, node.leafOverflow( cursor, keyCount, key( keyCount ), value( keyCount ) ) );
+        assertKeys( node, keyCount );
+    }
+
+    @Test
+    void shouldReadKeysNotSharingWholeKeyPrefix()
+    {
+        // given
+        TreeNodeDynamicSizePrefixed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = fillLeaf( node, false );
+        node.defragmentLeaf( cursor );
+
+        // when
+        RawBytes differentKey = layout.newKey();
+        differentKey.bytes = Arrays.copyOf( key( keyCount ).bytes, COMMON_PREFIX_LENGTH + Long.BYTES );
+        differentKey.bytes[COMMON_PREFIX_LENGTH / 2] = 'b';
+        node.insertKeyValueAt( cursor, differentKey, value( keyCount ), keyCount, keyCount );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+
+        // then
+        assertKeys( node, keyCount );
+        RawBytes readKey = node.keyAt( cursor, layout.newKey(), keyCount, LEAF );
+        assertArrayEquals( differentKey.bytes, readKey.bytes );
+    }
+
+    @Test
+    void shouldFitMoreKeysInLeafThanUncompressedFormat()
+    {
+        // given
+        TreeNodeDynamicSize<RawBytes,RawBytes> uncompressed = new TreeNodeDynamicSize<>( PAGE_SIZE, layout );
+        uncompressed.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int uncompressedKeyCount = fillLeaf( uncompressed, true );
+
+        // when
+        cursor.zapPage();
+        TreeNodeDynamicSizePrefixed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = fillLeaf( node, true );
+
+        // then
+        assertTrue( keyCount > uncompressedKeyCount * 2, "Expected more keys to fit, " + keyCount + " vs " + uncompressedKeyCount );
+        assertKeys( node, keyCount );
+    }
+
+    @Test
+    void shouldOnlyMergeOrRebalanceLeavesWithSameKeyPrefix() throws Exception
+    {
+        // given
+        TreeNodeDynamicSizePrefixed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        node.insertKeyValueAt( cursor, key( 0 ), value( 0 ), 0, 0 );
+        TreeNode.setKeyCount( cursor, 1 );
+        PageCursor rightCursor = new PageAwareByteArrayCursor( PAGE_SIZE );
+        rightCursor.next();
+        node.initializeLeaf( rightCursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        node.insertKeyValueAt( rightCursor, key( 1 ), value( 1 ), 0, 0 );
+        TreeNode.setKeyCount( rightCursor, 1 );
+        assertTrue( node.canMergeLeaves( cursor, 1, rightCursor, 1 ) );
+
+        // when
+        node.defragmentLeaf( rightCursor );
+        assertTrue( TreeNodeDynamicSizePrefixed.keyPrefixLength( rightCursor ) > 0 );
+
+        // then
+        assertFalse( node.canMergeLeaves( cursor, 1, rightCursor, 1 ) );
+        assertEquals( 0, node.canRebalanceLeaves( cursor, 1, rightCursor, 1 ) );
+    }
+
+    /**
+     * Fills the leaf with keys sharing a long prefix, until there's no room for more without defragmenting,
+     * or until there's no room for more at all if {@code defragment} is {@code true}.
+     *
+     * @return number of keys in the leaf.
+     */
+    private int fillLeaf( TreeNodeDynamicSize<RawBytes,RawBytes> node, boolean defragment )
+    {
+        for ( int keyCount = 0; ; keyCount++ )
+        {
+            RawBytes key = key( keyCount );
+            RawBytes value = value( keyCount );
+            Overflow overflow = node.leafOverflow( cursor, keyCount, key, value );
+            if ( overflow == Overflow.YES || (overflow == Overflow.NO_NEED_DEFRAG && !defragment) )
+            {
+                return keyCount;
+            }
+            if ( overflow == Overflow.NO_NEED_DEFRAG )
+            {
+                node.defragmentLeaf( cursor );
+            }
+            node.insertKeyValueAt( cursor, key, value, keyCount, keyCount );
+            TreeNode.setKeyCount( cursor, keyCount + 1 );
+        }
+    }
+
+    private void assertKeys( TreeNodeDynamicSize<RawBytes,RawBytes> node, int keyCount )
+    {
+        RawBytes readKey = layout.newKey();
+        RawBytes readValue = layout.newValue();
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            node.keyValueAt( cursor, readKey, readValue, pos );
+            assertArrayEquals( key( pos ).bytes, readKey.bytes );
+            assertArrayEquals( value( pos ).bytes, readValue.bytes );
+        }
+    }
+
+    private RawBytes key( long seed )
+    {
+        RawBytes key = layout.newKey();
+        key.bytes = ByteBuffer.allocate( COMMON_PREFIX_LENGTH + Long.BYTES ).put( commonPrefix() ).putLong( seed ).array();
+        return key;
+    }
+
+    private RawBytes value( long seed )
+    {
+        return layout.value( seed );
+    }
+
+    private static byte[] commonPrefix()
+    {
+        byte[] prefix = new byte[COMMON_PREFIX_LENGTH];
+        Arrays.fill( prefix, (byte) 'a' );
+        return prefix;
+    }
+}
@@ -73,7 +73,9 @@ public enum DatabaseFile
 
     METADATA_STORE( DatabaseFileNames.METADATA_STORE ),
 
-    LABEL_SCAN_STORE( false, DatabaseFileNames.LABEL_SCAN_STORE );
+    LABEL_SCAN_STORE( false, DatabaseFileNames.LABEL_SCAN_STORE ),
+
+    RELATIONSHIP_TYPE_SCAN_STORE( false, DatabaseFileNames.RELATIONSHIP_TYPE_SCAN_STORE );
 
     private final List<String> names;
     private final boolean hasIdFile;
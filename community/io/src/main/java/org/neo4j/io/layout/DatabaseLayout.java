@@ -45,6 +45,7 @@ import static org.neo4j.io.fs.FileUtils.getCanonicalFile;
 public class DatabaseLayout
 {
     private static final File[] EMPTY_FILES_ARRAY = new File[0];
+    private static final String TEMPORARY_DIRECTORY_NAME = "temp";
     private final File databaseDirectory;
     private final StoreLayout storeLayout;
     private final String databaseName;
@@ -87,6 +88,15 @@ public class DatabaseLayout
         return databaseDirectory;
     }
 
+    /**
+     * @return directory for temporary files of the database, which are not part of the store and can be deleted when the
+     * database is not running.
+     */
+    public File temporaryDirectory()
+    {
+        return file( TEMPORARY_DIRECTORY_NAME );
+    }
+
     public File metadataStore()
     {
         return file( DatabaseFile.METADATA_STORE.getName() );
@@ -97,6 +107,11 @@ public class DatabaseLayout
         return file( DatabaseFile.LABEL_SCAN_STORE.getName() );
     }
 
+    public File relationshipTypeScanStore()
+    {
+        return file( DatabaseFile.RELATIONSHIP_TYPE_SCAN_STORE.getName() );
+    }
+
     public File countStoreA()
     {
         return file( DatabaseFile.COUNTS_STORE_A.getName() );
@@ -60,8 +60,12 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_GROW = 1 << 2;
     /**
      * Read-ahead hint for sequential forward scanning.
+     * <p>
+     * As the cursor moves forward through the file, the pages in front of it are faulted in by a background thread,
+     * so the cursor does not have to wait for each of those page faults itself. Pages that are already in memory are
+     * not read again. This only makes sense for cursors that visit most of the pages in a range, in order.
      */
-    int PF_READ_AHEAD = 1 << 3; // TBD
+    int PF_READ_AHEAD = 1 << 3;
     /**
      * Do not load in the page if it is not loaded already. The methods {@link PageCursor#next()} and
      * {@link PageCursor#next(long)} will always return {@code true} for pages that are within the range of the file,
@@ -74,8 +78,12 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_FAULT = 1 << 4;
     /**
      * Do not update page access statistics.
+     * <p>
+     * Pages pinned by a transient cursor are not made any more recently used than they already were, and pages that
+     * are faulted in by a transient cursor are the first candidates for eviction. This is meant for one-pass
+     * sequential scans, such that they do not push the frequently used pages out of the page cache.
      */
-    int PF_TRANSIENT = 1 << 5; // TBD
+    int PF_TRANSIENT = 1 << 5;
     /**
      * Flush pages more aggressively, after they have been dirtied by a write cursor.
      */
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * A contiguous range of pages in the {@link PageList}, that is swept by its own eviction thread, with its own clock arm
+ * and its own freelist.
+ * <p>
+ * Page faulting threads take their free pages from the partition they have affinity with, and only fall back to the
+ * other partitions when their own partition has run dry. This way, the eviction work for a large page cache can be
+ * spread over multiple threads, without the partitions contending on a shared freelist head.
+ *
+ * @see MuninnPageCache#continuouslySweepPages(EvictionPartition)
+ */
+final class EvictionPartition
+{
+    // This is used as a poison-pill signal in the freelist, to inform any
+    // page faulting thread that it is now no longer possible to queue up and
+    // wait for more pages to be evicted, because the page cache has been shut
+    // down.
+    static final FreePage shutdownSignal = new FreePage( 0 );
+
+    // The field offset to unsafely access the freelist field.
+    private static final long freelistOffset =
+            UnsafeUtil.getFieldOffset( EvictionPartition.class, "freelist" );
+
+    final int index;
+    final int firstPageId;
+    final int pageCount;
+    final int keepFree;
+
+    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
+    // Initially, the field is an AtomicInteger that counts from zero to the page count of this partition, at which
+    // point all of the pages in the partition have been put in use. Once this happens, the field is set to null to
+    // allow the eviction thread of the partition to start its work. From that point on, the field will operate as a
+    // concurrent stack of FreePage objects. The eviction thread pushes newly freed FreePage objects onto the stack, and
+    // page faulting threads pops FreePage objects from the stack. The FreePage objects are single-use, to avoid running
+    // into the ABA-problem.
+    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
+    private volatile Object freelist;
+
+    // The thread that runs the eviction algorithm for this partition. We unpark this when we've run out of
+    // free pages to grab.
+    volatile Thread evictionThread;
+    // True if the eviction thread is currently parked, without someone having
+    // signalled it to wake up. This is used as a weak guard for unparking the
+    // eviction thread, because calling unpark too much (from many page
+    // faulting threads) can cause contention on the locks protecting that
+    // threads scheduling meta-data in the OS kernel.
+    private volatile boolean evictorParked;
+
+    EvictionPartition( int index, int firstPageId, int pageCount, int keepFree )
+    {
+        this.index = index;
+        this.firstPageId = firstPageId;
+        this.pageCount = pageCount;
+        this.keepFree = keepFree;
+        setFreelistHead( new AtomicInteger() );
+    }
+
+    /**
+     * @return the exclusive upper bound of the page ids in this partition.
+     */
+    int pageIdBound()
+    {
+        return firstPageId + pageCount;
+    }
+
+    /**
+     * Grab a page from the freelist of this partition.
+     *
+     * @param pages the page list this partition is a range of.
+     * @return the {@code pageRef} of a free page, or {@code 0} if the freelist is empty.
+     */
+    long grabFreePage( PageList pages )
+    {
+        for (;;)
+        {
+            Object current = getFreelistHead();
+            if ( current == null )
+            {
+                return 0;
+            }
+            else if ( current instanceof AtomicInteger )
+            {
+                AtomicInteger counter = (AtomicInteger) current;
+                int offset = counter.get();
+                if ( offset < pageCount && counter.compareAndSet( offset, offset + 1 ) )
+                {
+                    return pages.deref( firstPageId + offset );
+                }
+                if ( offset >= pageCount )
+                {
+                    compareAndSetFreelistHead( current, null );
+                }
+            }
+            else if ( current instanceof FreePage )
+            {
+                FreePage freePage = (FreePage) current;
+                if ( freePage == shutdownSignal )
+                {
+                    throw new IllegalStateException( "The PageCache has been shut down." );
+                }
+
+                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                {
+                    return freePage.pageRef;
+                }
+            }
+        }
+    }
+
+    void addFreePage( long pageRef )
+    {
+        Object current;
+        FreePage freePage = new FreePage( pageRef );
+        do
+        {
+            current = getFreelistHead();
+            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pageCount )
+            {
+                current = null;
+            }
+            freePage.setNext( current );
+        }
+        while ( !compareAndSetFreelistHead( current, freePage ) );
+    }
+
+    /**
+     * @return the number of pages this partition is short of its {@link #keepFree} target, or {@code 0} if the
+     * eviction thread does not need to do anything.
+     */
+    int evictionBacklog()
+    {
+        Object freelistHead = getFreelistHead();
+
+        if ( freelistHead == null )
+        {
+            return keepFree;
+        }
+        else if ( freelistHead.getClass() == FreePage.class )
+        {
+            int availablePages = ((FreePage) freelistHead).count;
+            if ( availablePages < keepFree )
+            {
+                return keepFree - availablePages;
+            }
+        }
+        else if ( freelistHead.getClass() == AtomicInteger.class )
+        {
+            AtomicInteger counter = (AtomicInteger) freelistHead;
+            long count = pageCount - counter.get();
+            if ( count < keepFree )
+            {
+                return count < 0 ? keepFree : (int) (keepFree - count);
+            }
+        }
+        return 0;
+    }
+
+    boolean hasUnusedPages()
+    {
+        return getFreelistHead() instanceof AtomicInteger;
+    }
+
+    boolean isFreelistEmpty()
+    {
+        return getFreelistHead() == null;
+    }
+
+    void signalShutdown()
+    {
+        setFreelistHead( shutdownSignal );
+    }
+
+    void unparkEvictor()
+    {
+        if ( evictorParked )
+        {
+            evictorParked = false;
+            LockSupport.unpark( evictionThread );
+        }
+    }
+
+    void parkEvictor( long parkNanos )
+    {
+        // Only called from the eviction thread of this partition!
+        evictorParked = true;
+        LockSupport.parkNanos( this, parkNanos );
+        evictorParked = false;
+    }
+
+    private Object getFreelistHead()
+    {
+        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
+    }
+
+    private boolean compareAndSetFreelistHead( Object expected, Object update )
+    {
+        return UnsafeUtil.compareAndSwapObject(
+                this, freelistOffset, expected, update );
+    }
+
+    private void setFreelistHead( Object newFreelistHead )
+    {
+        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EvictionPartition[" + index + ", pages " + firstPageId + " to " + pageIdBound() + "]";
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A range of translation table chunks of a file, that is flushed by one of the flusher threads when the whole page
+ * cache is flushed in parallel.
+ */
+final class FlushStripe
+{
+    final MuninnPagedFile pagedFile;
+    final int fromChunk;
+    final int toChunk;
+    // Shared by all the stripes of the same file. The flusher that completes the last stripe forces the file.
+    final AtomicInteger remainingStripes;
+
+    FlushStripe( MuninnPagedFile pagedFile, int fromChunk, int toChunk, AtomicInteger remainingStripes )
+    {
+        this.pagedFile = pagedFile;
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+        this.remainingStripes = remainingStripes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "FlushStripe[file = %s, chunks = %s to %s]", pagedFile.file(), fromChunk, toChunk );
+    }
+}
@@ -29,11 +29,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOLimiter;
@@ -126,21 +128,34 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // The number of partitions the pages are divided into, each with its own eviction thread, clock arm and freelist.
+    // This will be truncated so that every partition has at least two pages.
+    private static final int evictionPartitions = getInteger(
+            MuninnPageCache.class, "evictionPartitions", 1 );
+
+    // The maximum number of read-ahead jobs that can be in flight at the same time, across all of the mapped files.
+    // Cursors that ask for more read-ahead than this, will simply fault in their pages themselves.
+    private static final int maxConcurrentReadAheads = getInteger(
+            MuninnPageCache.class, "maxConcurrentReadAheads", 4 );
+
+    // The number of threads that flush the mapped files in parallel, when the whole page cache is flushed, as is done
+    // by checkpoints. A value of 1 flushes the files one after another, on the thread that asked for the flush.
+    private static final int flushThreads = getInteger(
+            MuninnPageCache.class, "flushThreads", Runtime.getRuntime().availableProcessors() );
+
+    // The number of translation table chunks in each of the stripes that the mapped files are divided into, when the
+    // whole page cache is flushed in parallel. Every stripe is flushed by a single thread, with its own flush event and
+    // buffers. A chunk is 4096 pages, or 32 MiB with the default page size, so the default of 8 gives 256 MiB stripes.
+    // That is large enough that the per-stripe overhead is small, and that each thread writes long sequential runs of
+    // pages, while the large store files are still split up between the threads. Smaller files are a stripe each.
+    private static final int flushStripeChunks = getInteger(
+            MuninnPageCache.class, "flushStripeChunks", 8 );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
             "OutOfMemoryError encountered in the page cache background eviction thread" );
 
-    // The field offset to unsafely access the freelist field.
-    private static final long freelistOffset =
-            UnsafeUtil.getFieldOffset( MuninnPageCache.class, "freelist" );
-
-    // This is used as a poison-pill signal in the freelist, to inform any
-    // page faulting thread that it is now no longer possible to queue up and
-    // wait for more pages to be evicted, because the page cache has been shut
-    // down.
-    private static final FreePage shutdownSignal = new FreePage( 0 );
-
     // A counter used to identify which background threads belong to which page cache.
     private static final AtomicInteger pageCacheIdCounter = new AtomicInteger();
 
@@ -153,7 +168,6 @@ public class MuninnPageCache implements PageCache
     private final int pageCacheId;
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
-    private final int keepFree;
     private final PageCacheTracer pageCacheTracer;
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final VersionContextSupplier versionContextSupplier;
@@ -163,29 +177,19 @@ public class MuninnPageCache implements PageCache
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
 
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
-    // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
-    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
-    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
-    private volatile Object freelist;
+    // The pages are divided into contiguous partitions, each with its own freelist and eviction thread.
+    // Page faulting threads grab free pages from the partition they have affinity with.
+    final EvictionPartition[] partitions;
+    private final int pagesPerPartition;
 
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
-    // The thread that runs the eviction algorithm. We unpark this when we've run out of
-    // free pages to grab.
-    private volatile Thread evictionThread;
-    // True if the eviction thread is currently parked, without someone having
-    // signalled it to wake up. This is used as a weak guard for unparking the
-    // eviction thread, because calling unpark too much (from many page
-    // faulting threads) can cause contention on the locks protecting that
-    // threads scheduling meta-data in the OS kernel.
-    private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
+    // The number of read-ahead jobs that are currently scheduled or running.
+    private final AtomicInteger readAheadsInFlight = new AtomicInteger();
+
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
@@ -268,6 +272,24 @@ public class MuninnPageCache implements PageCache
             PageCursorTracerSupplier pageCursorTracerSupplier,
             VersionContextSupplier versionContextSupplier,
             JobScheduler jobScheduler )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, evictionPartitions, pageCacheTracer, pageCursorTracerSupplier,
+                versionContextSupplier, jobScheduler );
+    }
+
+    /**
+     * Constructor variant that allows setting a non-standard cache page size, and a specific number of eviction
+     * partitions. Only ever use this for testing.
+     */
+    MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            MemoryAllocator memoryAllocator,
+            int cachePageSize,
+            int evictionPartitions,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            VersionContextSupplier versionContextSupplier,
+            JobScheduler jobScheduler )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -280,7 +302,6 @@ public class MuninnPageCache implements PageCache
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
-        this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
         this.pageCacheTracer = pageCacheTracer;
         this.pageCursorTracerSupplier = pageCursorTracerSupplier;
         this.versionContextSupplier = versionContextSupplier;
@@ -290,7 +311,17 @@ public class MuninnPageCache implements PageCache
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment );
         this.scheduler = jobScheduler;
 
-        setFreelistHead( new AtomicInteger() );
+        int partitionCount = Math.max( 1, Math.min( evictionPartitions, maxPages / 2 ) );
+        this.pagesPerPartition = maxPages / partitionCount;
+        this.partitions = new EvictionPartition[partitionCount];
+        for ( int i = 0; i < partitionCount; i++ )
+        {
+            int firstPageId = i * pagesPerPartition;
+            // The last partition picks up the remainder of the pages.
+            int pageCount = i == partitionCount - 1 ? maxPages - firstPageId : pagesPerPartition;
+            int keepFree = Math.min( pagesToKeepFree, pageCount / 2 );
+            partitions[i] = new EvictionPartition( i, firstPageId, pageCount, keepFree );
+        }
     }
 
     private static void verifyHacks()
@@ -492,7 +523,10 @@ public class MuninnPageCache implements PageCache
 
         try
         {
-            scheduler.schedule( Group.PAGE_CACHE, new EvictionTask( this ) );
+            for ( EvictionPartition partition : partitions )
+            {
+                scheduler.schedule( Group.PAGE_CACHE, new EvictionTask( this, partition ) );
+            }
         }
         catch ( Exception e )
         {
@@ -514,6 +548,10 @@ public class MuninnPageCache implements PageCache
         if ( file.decrementRefCount() )
         {
             // This was the last reference!
+            // Read-aheads are counted before they check the reference count, so any read-ahead that did not see it drop
+            // to zero is counted by now. Waiting for the count to drain means that none are in flight, queued or running,
+            // and no new ones will be scheduled, before we flush the file and close its swapper below.
+            file.awaitReadAheads();
             // Find and remove the existing mapping:
             FileMapping prev = null;
             FileMapping current = mappedFiles;
@@ -583,6 +621,11 @@ public class MuninnPageCache implements PageCache
 
     @Override
     public void flushAndForce( IOLimiter limiter ) throws IOException
+    {
+        flushAndForce( limiter, flushThreads, flushStripeChunks );
+    }
+
+    void flushAndForce( IOLimiter limiter, int threads, int stripeChunks ) throws IOException
     {
         if ( limiter == null )
         {
@@ -592,13 +635,13 @@ public class MuninnPageCache implements PageCache
 
         try ( MajorFlushEvent ignored = pageCacheTracer.beginCacheFlush() )
         {
-            if ( limiter.isLimited() )
+            if ( threads <= 1 )
             {
                 flushAllPages( files, limiter );
             }
             else
             {
-                flushAllPagesParallel( files, limiter );
+                flushAllPagesParallel( files, limiter, threads, Math.max( 1, stripeChunks ) );
             }
             syncDevice();
         }
@@ -613,36 +656,101 @@ public class MuninnPageCache implements PageCache
         }
     }
 
-    private void flushAllPagesParallel( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    private void flushAllPagesParallel( List<PagedFile> files, IOLimiter limiter, int threads, int stripeChunks )
+            throws IOException
     {
-        List<JobHandle> flushes = new ArrayList<>( files.size() );
-
-        // Submit all flushes to the background thread
+        // The files are divided into stripes of translation table chunks, and a fixed number of flusher threads take
+        // stripes from a shared queue until it is empty. The last stripe of a file also covers any chunks that the
+        // translation table grows by while we are flushing.
+        Queue<FlushStripe> stripes = new ConcurrentLinkedQueue<>();
         for ( PagedFile file : files )
         {
-            flushes.add( scheduler.schedule( Group.PAGE_CACHE, () ->
+            MuninnPagedFile pagedFile = (MuninnPagedFile) file;
+            int chunkCount = pagedFile.translationTableChunkCount();
+            int stripeCount = Math.max( 1, (chunkCount + stripeChunks - 1) / stripeChunks );
+            AtomicInteger remainingStripes = new AtomicInteger( stripeCount );
+            for ( int i = 0; i < stripeCount; i++ )
             {
-                try
+                int toChunk = i == stripeCount - 1 ? Integer.MAX_VALUE : (i + 1) * stripeChunks;
+                stripes.add( new FlushStripe( pagedFile, i * stripeChunks, toChunk, remainingStripes ) );
+            }
+        }
+
+        // All the flushers must stay within the IO budget of the one limiter, rather than each getting the full budget.
+        IOLimiter sharedLimiter = limiter == IOLimiter.UNLIMITED ? limiter : new SharedIOLimiter( limiter );
+
+        // Submit the flushers to the background threads
+        int flusherCount = Math.min( threads, stripes.size() );
+        List<JobHandle> flushers = new ArrayList<>( flusherCount );
+        for ( int i = 0; i < flusherCount; i++ )
+        {
+            flushers.add( scheduler.schedule( Group.PAGE_CACHE, () -> flushStripes( stripes, sharedLimiter ) ) );
+        }
+
+        // Wait for all to complete
+        IOException exception = null;
+        for ( JobHandle flusher : flushers )
+        {
+            try
+            {
+                flusher.waitTermination();
+            }
+            catch ( InterruptedException | ExecutionException e )
+            {
+                if ( exception == null )
                 {
-                    flushFile( (MuninnPagedFile) file, limiter );
+                    exception = new IOException( e );
                 }
-                catch ( IOException e )
+                else
                 {
-                    throw new UncheckedIOException( e );
+                    exception.addSuppressed( e );
                 }
-            } ) );
+            }
+        }
+        if ( exception != null )
+        {
+            throw exception;
         }
+    }
 
-        // Wait for all to complete
-        for ( JobHandle flush : flushes )
+    private void flushStripes( Queue<FlushStripe> stripes, IOLimiter limiter )
+    {
+        FlushStripe stripe;
+        while ( (stripe = stripes.poll()) != null )
         {
             try
             {
-                flush.waitTermination();
+                flushStripe( stripe, limiter );
             }
-            catch ( InterruptedException | ExecutionException e )
+            catch ( IOException e )
+            {
+                // Stop the other flushers as well, since the flush has failed anyway.
+                stripes.clear();
+                throw new UncheckedIOException( e );
+            }
+        }
+    }
+
+    private void flushStripe( FlushStripe stripe, IOLimiter limiter ) throws IOException
+    {
+        MuninnPagedFile muninnPagedFile = stripe.pagedFile;
+        // Every stripe is traced as a flush of its own, on the thread that flushes it, so the flush events show the
+        // throughput of the individual flusher threads.
+        try ( MajorFlushEvent stripeFlush = pageCacheTracer.beginFileFlush( muninnPagedFile.swapper ) )
+        {
+            FlushEventOpportunity flushOpportunity = stripeFlush.flushEventOpportunity();
+            muninnPagedFile.flushChunks( flushOpportunity, false, limiter, stripe.fromChunk, stripe.toChunk );
+            if ( stripe.remainingStripes.decrementAndGet() == 0 )
+            {
+                muninnPagedFile.flush();
+            }
+        }
+        catch ( ClosedChannelException e )
+        {
+            if ( muninnPagedFile.getRefCount() > 0 )
             {
-                throw new IOException( e );
+                // See flushFile about why we only rethrow this for files that are still mapped.
+                throw e;
             }
         }
     }
@@ -674,6 +782,40 @@ public class MuninnPageCache implements PageCache
         swapperFactory.syncDevice();
     }
 
+    boolean readAhead( MuninnPagedFile pagedFile, long startPageId, long endPageId )
+    {
+        if ( closed )
+        {
+            return false;
+        }
+        if ( readAheadsInFlight.incrementAndGet() > maxConcurrentReadAheads )
+        {
+            readAheadsInFlight.decrementAndGet();
+            return false;
+        }
+        try
+        {
+            scheduler.schedule( Group.PAGE_CACHE, () ->
+            {
+                try
+                {
+                    pagedFile.faultInPages( startPageId, endPageId );
+                }
+                finally
+                {
+                    readAheadsInFlight.decrementAndGet();
+                }
+            } );
+            return true;
+        }
+        catch ( RejectedExecutionException e )
+        {
+            // The scheduler is shutting down.
+            readAheadsInFlight.decrementAndGet();
+            return false;
+        }
+    }
+
     @Override
     public synchronized void close()
     {
@@ -701,8 +843,11 @@ public class MuninnPageCache implements PageCache
 
         closed = true;
 
-        interrupt( evictionThread );
-        evictionThread = null;
+        for ( EvictionPartition partition : partitions )
+        {
+            interrupt( partition.evictionThread );
+            partition.evictionThread = null;
+        }
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -766,93 +911,95 @@ public class MuninnPageCache implements PageCache
 
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
-        // Review the comment on the freelist field before making changes to
-        // this part of the code.
-        // Whatever the case, we're going to the head-pointer of the freelist,
-        // and in doing so, we can discover a number of things.
-        // We can discover a MuninnPage object, in which case we can try to
-        // CAS the freelist pointer to the value of the MuninnPage.nextFree
-        // pointer, and if this succeeds then we've grabbed that page.
-        // We can discover a FreePage object, in which case we'll do a similar
-        // dance by attempting to CAS the freelist to the FreePage objects next
-        // pointer, and again, if we succeed then we've grabbed the MuninnPage
-        // given by the FreePage object.
-        // We can discover a null-pointer, in which case the freelist has just
-        // been emptied for whatever it contained before. New FreePage objects
-        // are eventually going to be added to the freelist, but we are not
-        // going to wait around for that to happen. If the freelist is empty,
-        // then we do our own eviction to get a free page.
-        // If we find a FreePage object on the freelist, then it is important
-        // to check and see if it is the shutdownSignal instance. If that's the
-        // case, then the page cache has been shut down, and we should throw an
-        // exception from our page fault routine.
-        Object current;
+        // Review the comment on the EvictionPartition.freelist field before
+        // making changes to this part of the code.
+        // We first try to grab a page from the freelist of the partition that
+        // this thread has affinity with. If that freelist is empty, then we
+        // look for a free page in the freelists of the other partitions,
+        // before falling back to doing our own eviction in our home partition.
+        // If we find the shutdownSignal in any of the freelists, then the page
+        // cache has been shut down, and we throw an exception from our page
+        // fault routine.
+        EvictionPartition home = partitionForCurrentThread();
         for (;;)
         {
             assertHealthy();
-            current = getFreelistHead();
-            if ( current == null )
+            long pageRef = home.grabFreePage( pages );
+            if ( pageRef != 0 )
             {
-                unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
-                if ( pageRef != 0 )
-                {
-                    return pageRef;
-                }
+                return pageRef;
             }
-            else if ( current instanceof AtomicInteger )
+
+            pageRef = grabFreePageFromOtherPartitions( home );
+            if ( pageRef != 0 )
             {
-                int pageCount = pages.getPageCount();
-                AtomicInteger counter = (AtomicInteger) current;
-                int pageId = counter.get();
-                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
-                {
-                    return pages.deref( pageId );
-                }
-                if ( pageId >= pageCount )
-                {
-                    compareAndSetFreelistHead( current, null );
-                }
+                return pageRef;
             }
-            else if ( current instanceof FreePage )
+
+            home.unparkEvictor();
+            pageRef = cooperativelyEvict( home, faultEvent );
+            if ( pageRef != 0 )
             {
-                FreePage freePage = (FreePage) current;
-                if ( freePage == shutdownSignal )
-                {
-                    throw new IllegalStateException( "The PageCache has been shut down." );
-                }
+                return pageRef;
+            }
+        }
+    }
 
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
-                {
-                    return freePage.pageRef;
-                }
+    private EvictionPartition partitionForCurrentThread()
+    {
+        EvictionPartition[] partitions = this.partitions;
+        if ( partitions.length == 1 )
+        {
+            return partitions[0];
+        }
+        return partitions[(int) (Thread.currentThread().getId() % partitions.length)];
+    }
+
+    private EvictionPartition partitionOf( long pageRef )
+    {
+        int index = pages.toId( pageRef ) / pagesPerPartition;
+        return partitions[Math.min( index, partitions.length - 1 )];
+    }
+
+    private long grabFreePageFromOtherPartitions( EvictionPartition home )
+    {
+        int partitionCount = partitions.length;
+        for ( int i = 1; i < partitionCount; i++ )
+        {
+            EvictionPartition partition = partitions[(home.index + i) % partitionCount];
+            long pageRef = partition.grabFreePage( pages );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
             }
         }
+        return 0;
     }
 
-    private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
+    private long cooperativelyEvict( EvictionPartition partition, PageFaultEvent faultEvent ) throws IOException
     {
         int iterations = 0;
-        int pageCount = pages.getPageCount();
-        int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
+        int firstPageId = partition.firstPageId;
+        int pageIdBound = partition.pageIdBound();
+        int clockArm = firstPageId + ThreadLocalRandom.current().nextInt( partition.pageCount );
         boolean evicted = false;
         long pageRef;
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            if ( !partition.isFreelistEmpty() )
             {
                 return 0;
             }
 
-            if ( clockArm == pageCount )
+            if ( clockArm == pageIdBound )
             {
                 if ( iterations == cooperativeEvictionLiveLockThreshold )
                 {
                     throw cooperativeEvictionLiveLock();
                 }
                 iterations++;
-                clockArm = 0;
+                clockArm = firstPageId;
             }
 
             pageRef = pages.deref( clockArm );
@@ -881,111 +1028,78 @@ public class MuninnPageCache implements PageCache
                 "your database." );
     }
 
-    private void unparkEvictor()
+    private boolean hasUnusedPages()
     {
-        if ( evictorParked )
+        for ( EvictionPartition partition : partitions )
         {
-            evictorParked = false;
-            LockSupport.unpark( evictionThread );
+            if ( partition.hasUnusedPages() )
+            {
+                return true;
+            }
         }
-    }
-
-    private void parkEvictor( long parkNanos )
-    {
-        // Only called from the background eviction thread!
-        evictorParked = true;
-        LockSupport.parkNanos( this, parkNanos );
-        evictorParked = false;
-    }
-
-    private Object getFreelistHead()
-    {
-        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
-    }
-
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
-    {
-        return UnsafeUtil.compareAndSwapObject(
-                this, freelistOffset, expected, update );
-    }
-
-    private void setFreelistHead( Object newFreelistHead )
-    {
-        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+        return false;
     }
 
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
+     * Scan through all the pages in the given partition, one by one, and decrement their usage stamps.
      * If a usage reaches zero, we try-write-locking it, and if we get that lock,
      * we evict the page. If we don't, we move on to the next page.
-     * Once we have enough free pages, we park our thread. Page-faulting will
+     * Once we have enough free pages in the partition, we park our thread. Page-faulting will
      * unpark our thread as needed.
      */
-    void continuouslySweepPages()
+    void continuouslySweepPages( EvictionPartition partition )
     {
-        evictionThread = Thread.currentThread();
-        int clockArm = 0;
+        partition.evictionThread = Thread.currentThread();
+        int clockArm = partition.firstPageId;
 
         while ( !closed )
         {
-            int pageCountToEvict = parkUntilEvictionRequired( keepFree );
-            try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( pageCountToEvict ) )
+            int pageCountToEvict = parkUntilEvictionRequired( partition );
+            try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( partition.index, pageCountToEvict ) )
             {
-                clockArm = evictPages( pageCountToEvict, clockArm, evictionRunEvent );
+                clockArm = evictPages( partition, pageCountToEvict, clockArm, evictionRunEvent );
             }
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
         // the freelist. This signal is looked out for in grabFreePage.
-        setFreelistHead( shutdownSignal );
+        partition.signalShutdown();
     }
 
-    private int parkUntilEvictionRequired( int keepFree )
+    private int parkUntilEvictionRequired( EvictionPartition partition )
     {
-        // Park until we're either interrupted, or the number of free pages drops
-        // bellow keepFree.
+        // Park until we're either interrupted, or the number of free pages in
+        // the partition drops bellow its keepFree.
         long parkNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
         for (;;)
         {
-            parkEvictor( parkNanos );
+            partition.parkEvictor( parkNanos );
             if ( Thread.interrupted() || closed )
             {
                 return 0;
             }
 
-            Object freelistHead = getFreelistHead();
-
-            if ( freelistHead == null )
-            {
-                return keepFree;
-            }
-            else if ( freelistHead.getClass() == FreePage.class )
+            int pageCountToEvict = partition.evictionBacklog();
+            if ( pageCountToEvict > 0 )
             {
-                int availablePages = ((FreePage) freelistHead).count;
-                if ( availablePages < keepFree )
-                {
-                    return keepFree - availablePages;
-                }
-            }
-            else if ( freelistHead.getClass() == AtomicInteger.class )
-            {
-                AtomicInteger counter = (AtomicInteger) freelistHead;
-                long count = pages.getPageCount() - counter.get();
-                if ( count < keepFree )
-                {
-                    return count < 0 ? keepFree : (int) (keepFree - count);
-                }
+                return pageCountToEvict;
             }
         }
     }
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
+        return evictPages( partitions[0], pageCountToEvict, clockArm, evictionRunEvent );
+    }
+
+    int evictPages( EvictionPartition partition, int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
+    {
+        int pageIdBound = partition.pageIdBound();
         while ( pageCountToEvict > 0 && !closed )
         {
-            if ( clockArm == pages.getPageCount() )
+            if ( clockArm >= pageIdBound || clockArm < partition.firstPageId )
             {
-                clockArm = 0;
+                clockArm = partition.firstPageId;
             }
 
             if ( closed )
@@ -1003,7 +1117,7 @@ public class MuninnPageCache implements PageCache
                     if ( pages.tryEvict( pageRef, evictionRunEvent ) )
                     {
                         clearEvictorException();
-                        addFreePageToFreelist( pageRef );
+                        partition.addFreePage( pageRef );
                     }
                 }
                 catch ( IOException e )
@@ -1029,18 +1143,7 @@ public class MuninnPageCache implements PageCache
 
     void addFreePageToFreelist( long pageRef )
     {
-        Object current;
-        FreePage freePage = new FreePage( pageRef );
-        do
-        {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
-            {
-                current = null;
-            }
-            freePage.setNext( current );
-        }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+        partitionOf( pageRef ).addFreePage( pageRef );
     }
 
     void clearEvictorException()
@@ -1068,7 +1171,7 @@ public class MuninnPageCache implements PageCache
 
     void vacuum( SwapperSet swappers )
     {
-        if ( getFreelistHead() instanceof AtomicInteger && swappers.countAvailableIds() > 200 )
+        if ( hasUnusedPages() && swappers.countAvailableIds() > 200 )
         {
             return; // We probably still have plenty of free pages left. Don't bother vacuuming just yet.
         }
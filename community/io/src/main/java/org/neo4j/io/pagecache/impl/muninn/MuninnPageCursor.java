@@ -38,9 +38,12 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 abstract class MuninnPageCursor extends PageCursor
 {
@@ -49,6 +52,15 @@ abstract class MuninnPageCursor extends PageCursor
 
     private static final boolean boundsCheck = flag( MuninnPageCursor.class, "boundsCheck", true );
 
+    // The number of pages that are faulted in ahead of a cursor that is reading sequentially. Zero disables read-ahead.
+    static final int readAheadPages = getInteger( MuninnPageCursor.class, "readAheadPages", 16 );
+
+    // The number of consecutive pages a cursor must have visited, before it is considered to be reading sequentially
+    // and starts reading ahead, even without the PF_READ_AHEAD flag. Zero disables this adaptive read-ahead, such that
+    // only cursors opened with PF_READ_AHEAD will read ahead.
+    private static final int adaptiveReadAheadThreshold = getInteger(
+            MuninnPageCursor.class, "adaptiveReadAheadThreshold", 0 );
+
     // Size of the respective primitive types in bytes.
     private static final int SIZE_OF_BYTE = Byte.BYTES;
     private static final int SIZE_OF_SHORT = Short.BYTES;
@@ -67,6 +79,12 @@ abstract class MuninnPageCursor extends PageCursor
     protected boolean eagerFlush;
     protected boolean noFault;
     protected boolean noGrow;
+    protected boolean transientAccess;
+    protected boolean readAhead;
+    private boolean readAheadHint;
+    private long sequentialPages;
+    private long expectedNextPageId;
+    private long readAheadHorizon;
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
@@ -102,6 +120,20 @@ abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault | isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.transientAccess = isFlagRaised( pf_flags, PF_TRANSIENT );
+        this.readAheadHint = isFlagRaised( pf_flags, PF_READ_AHEAD );
+        this.readAhead = !noFault && readAheadPages > 0 && (readAheadHint || adaptiveReadAheadThreshold > 0);
+        this.sequentialPages = 0;
+        this.expectedNextPageId = UNBOUND_PAGE_ID;
+        this.readAheadHorizon = 0;
+    }
+
+    /**
+     * Stop this cursor from reading ahead, regardless of the flags it was opened with.
+     */
+    final void disableReadAhead()
+    {
+        readAhead = false;
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -256,6 +288,41 @@ abstract class MuninnPageCursor extends PageCursor
         return currentPageId == UNBOUND_PAGE_ID ? null : pagedFile.file();
     }
 
+    /**
+     * Ask for the pages following the given file page to be faulted in by a background thread, if this cursor is
+     * reading sequentially. Must only be called when {@link #readAhead} is {@code true}.
+     * <p>
+     * Once a cursor is reading ahead, it keeps a window of {@code readAheadPages} in front of it, and asks for the next
+     * window when it has moved past the middle of the current one. Any jump to a non-consecutive page resets this.
+     *
+     * @param filePageId The file page id that this cursor is about to pin.
+     * @param lastPageId The id of the last page in the file. No pages beyond this will be read ahead.
+     */
+    final void readAheadIfSequential( long filePageId, long lastPageId )
+    {
+        if ( filePageId == expectedNextPageId )
+        {
+            sequentialPages++;
+        }
+        else
+        {
+            sequentialPages = 0;
+            readAheadHorizon = filePageId + 1;
+        }
+        expectedNextPageId = filePageId + 1;
+
+        boolean sequential = readAheadHint || sequentialPages >= adaptiveReadAheadThreshold;
+        long startPageId = Math.max( readAheadHorizon, filePageId + 1 );
+        if ( sequential && filePageId + readAheadPages / 2 >= readAheadHorizon && startPageId <= lastPageId )
+        {
+            long endPageId = Math.min( filePageId + 1 + readAheadPages, lastPageId + 1 );
+            if ( pagedFile.readAhead( startPageId, endPageId ) )
+            {
+                readAheadHorizon = endPageId;
+            }
+        }
+    }
+
     /**
      * Pin the desired file page to this cursor, page faulting it into memory if it isn't there already.
      * @param filePageId The file page id we want to pin this cursor to.
@@ -24,6 +24,9 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCursor;
@@ -72,6 +75,9 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     final int swapperId;
     private final CursorFactory cursorFactory;
 
+    // The number of read-aheads of this file that are currently scheduled or running.
+    private final AtomicInteger readAheadsInFlight = new AtomicInteger();
+
     // Guarded by the monitor lock on MuninnPageCache (map and unmap)
     private boolean deleteOnClose;
 
@@ -362,14 +368,43 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             throws IOException
     {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
+        flushChunks( flushes, forClosing, limiter, 0, Integer.MAX_VALUE );
+        swapper.force();
+    }
+
+    /**
+     * @return the number of chunks in the translation table, which is the unit that flushes can be striped by.
+     */
+    int translationTableChunkCount()
+    {
+        return translationTable.length;
+    }
+
+    /**
+     * Flush the dirty pages in the given range of translation table chunks, without forcing the file.
+     * Different ranges of the same file can be flushed concurrently.
+     *
+     * @param flushes the flush event opportunity to report the flushes to.
+     * @param forClosing {@code true} if the file is being closed, in which case the pages are exclusively locked.
+     * @param limiter the limiter to report the completed IOs to.
+     * @param fromChunk the first chunk to flush, inclusive.
+     * @param toChunk the last chunk to flush, exclusive. This is capped to the size of the translation table.
+     * @throws IOException if the pages could not be written.
+     */
+    void flushChunks( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter, int fromChunk, int toChunk )
+            throws IOException
+    {
         long[] pages = new long[translationTableChunkSize];
         long[] flushStamps = forClosing ? null : new long[translationTableChunkSize];
         long[] bufferAddresses = new long[translationTableChunkSize];
-        long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
+        // Start one before the first page, because we increment at the *start* of the chunk-loop iteration.
+        long filePageId = ((long) fromChunk << translationTableChunkSizePower) - 1;
         long limiterStamp = IOLimiter.INITIAL_STAMP;
         int[][] tt = this.translationTable;
-        for ( int[] chunk : tt )
+        int chunkBound = Math.min( toChunk, tt.length );
+        for ( int chunkId = fromChunk; chunkId < chunkBound; chunkId++ )
         {
+            int[] chunk = tt[chunkId];
             // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
             // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
             // TODO garbage to the file.
@@ -437,8 +472,6 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                 limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
             }
         }
-
-        swapper.force();
     }
 
     private void vectoredFlush(
@@ -524,6 +557,70 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         pageCache.syncDevice();
     }
 
+    /**
+     * Ask for the given range of pages to be faulted in by a background thread, ahead of a cursor that is reading
+     * sequentially through this file.
+     *
+     * @param startPageId The first file page id to read ahead, inclusive.
+     * @param endPageId The last file page id to read ahead, exclusive.
+     * @return {@code true} if the read-ahead was scheduled, or {@code false} if too many read-aheads are already in
+     * flight.
+     */
+    boolean readAhead( long startPageId, long endPageId )
+    {
+        // Count the read-ahead before checking the reference count, so unmapping will either wait for it, or it will
+        // see that the file is being unmapped.
+        readAheadsInFlight.incrementAndGet();
+        if ( getRefCount() == 0 || !pageCache.readAhead( this, startPageId, endPageId ) )
+        {
+            readAheadsInFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Fault in the given range of pages, unless they are already in memory. This is the work of a read-ahead.
+     * <p>
+     * The pages are pinned with a transient cursor, so reading ahead does not make any of the pages more recently used.
+     * That only happens once they are pinned by the cursor that asked for the read-ahead. Neither does the transient
+     * cursor read ahead itself, even with adaptive read-ahead, or every read-ahead would ask for the next one.
+     */
+    void faultInPages( long startPageId, long endPageId )
+    {
+        try ( MuninnPageCursor cursor = (MuninnPageCursor) io( startPageId, PF_SHARED_READ_LOCK | PF_TRANSIENT ) )
+        {
+            cursor.disableReadAhead();
+            long pageId = startPageId;
+            while ( pageId < endPageId && cursor.next() )
+            {
+                pageId++;
+            }
+        }
+        catch ( IOException | IllegalStateException e )
+        {
+            // The file was unmapped, or the page cache was closed, while we were reading ahead. The cursor that asked
+            // for the read-ahead will run into the same problem, and report it, if it is still reading.
+        }
+        finally
+        {
+            readAheadsInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wait for all read-aheads of this file to finish. This must be done after the last reference to the file has
+     * been released, and before the swapper is closed, so no background thread is faulting pages of this file into
+     * memory that may be released with the page cache.
+     */
+    void awaitReadAheads()
+    {
+        while ( readAheadsInFlight.get() > 0 )
+        {
+            LockSupport.parkNanos( TimeUnit.MICROSECONDS.toNanos( 10 ) );
+        }
+    }
+
     @Override
     public void flush() throws IOException
     {
@@ -57,6 +57,10 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         }
         currentPageId = nextPageId;
         nextPageId++;
+        if ( readAhead )
+        {
+            readAheadIfSequential( currentPageId, lastPageId );
+        }
         pin( currentPageId, false );
         verifyContext();
         return true;
@@ -78,7 +82,10 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( long pageRef, long filePageId, PageSwapper swapper )
     {
         reset( pageRef );
-        pagedFile.incrementUsage( pageRef );
+        if ( !transientAccess )
+        {
+            pagedFile.incrementUsage( pageRef );
+        }
     }
 
     @Override
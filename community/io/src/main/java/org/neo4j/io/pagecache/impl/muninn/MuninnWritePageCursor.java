@@ -93,6 +93,10 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         }
         currentPageId = nextPageId;
         nextPageId++;
+        if ( readAhead )
+        {
+            readAheadIfSequential( currentPageId, lastPageId );
+        }
         pin( currentPageId, true );
         return true;
     }
@@ -121,7 +125,10 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         // after the reset() call, which means that if we throw, the cursor will
         // be closed and the page lock will be released.
         assertPagedFileStillMappedAndGetIdOfLastPage();
-        pagedFile.incrementUsage( pageRef );
+        if ( !transientAccess )
+        {
+            pagedFile.incrementUsage( pageRef );
+        }
         pagedFile.setLastModifiedTxId( pageRef, versionContextSupplier.getVersionContext().committingTransactionId() );
     }
 
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.Flushable;
+
+import org.neo4j.io.pagecache.IOLimiter;
+
+/**
+ * An {@link IOLimiter} that lets multiple flusher threads share the IO budget of another limiter.
+ * <p>
+ * The stamps given by the flushers are ignored. Instead, the completed IOs of all the flushers are reported to the
+ * delegate as if they came from a single flush, with a single stamp. The flushers take turns at calling the delegate,
+ * so when the delegate decides to pause the IO, all of the flushers are paused.
+ */
+final class SharedIOLimiter implements IOLimiter
+{
+    private final IOLimiter delegate;
+    private long stamp = INITIAL_STAMP;
+
+    SharedIOLimiter( IOLimiter delegate )
+    {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+    {
+        stamp = delegate.maybeLimitIO( stamp, recentlyCompletedIOs, flushable );
+        return stamp;
+    }
+
+    @Override
+    public void disableLimit()
+    {
+        delegate.disableLimit();
+    }
+
+    @Override
+    public void enableLimit()
+    {
+        delegate.enableLimit();
+    }
+
+    @Override
+    public boolean isLimited()
+    {
+        return delegate.isLimited();
+    }
+}
@@ -75,6 +75,17 @@ public interface PageCacheCounters
      */
     long filesUnmapped();
 
+    /**
+     * @return The number of page evictions observed thus far, in the given eviction partition.
+     */
+    long evictions( int partition );
+
+    /**
+     * @return The eviction backlog of the given eviction partition at the start of its latest eviction run; the number
+     * of pages it was short of its free page target. {@code 0} if no eviction run has been observed in the partition.
+     */
+    long evictionBacklog( int partition );
+
     /**
      * @return The number of page evictions that have thrown exceptions thus far.
      */
@@ -21,6 +21,7 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -45,6 +46,9 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder evictionExceptions = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
 
+    // Indexed by eviction partition, and grown when an eviction run is observed in a partition that is not yet in it
+    private volatile PartitionEvictions[] partitionEvictions = new PartitionEvictions[0];
+
     private final FlushEvent flushEvent = new FlushEvent()
     {
         @Override
@@ -155,6 +159,44 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionRunEvent;
     }
 
+    @Override
+    public EvictionRunEvent beginPageEvictions( int partition, int pageCountToEvict )
+    {
+        PartitionEvictions evictions = partitionEvictions( partition, true );
+        evictions.backlog = pageCountToEvict;
+        return evictions.evictionRunEvent;
+    }
+
+    private PartitionEvictions partitionEvictions( int partition, boolean create )
+    {
+        PartitionEvictions[] partitions = partitionEvictions;
+        if ( partition < partitions.length && partitions[partition] != null )
+        {
+            return partitions[partition];
+        }
+        return create ? createPartitionEvictions( partition ) : null;
+    }
+
+    private synchronized PartitionEvictions createPartitionEvictions( int partition )
+    {
+        PartitionEvictions[] partitions = partitionEvictions;
+        if ( partition >= partitions.length )
+        {
+            partitions = Arrays.copyOf( partitions, partition + 1 );
+        }
+        else if ( partitions[partition] != null )
+        {
+            return partitions[partition];
+        }
+        else
+        {
+            partitions = partitions.clone();
+        }
+        partitions[partition] = new PartitionEvictions();
+        partitionEvictions = partitions;
+        return partitions[partition];
+    }
+
     @Override
     public MajorFlushEvent beginFileFlush( PageSwapper swapper )
     {
@@ -227,6 +269,20 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return filesUnmapped.sum();
     }
 
+    @Override
+    public long evictions( int partition )
+    {
+        PartitionEvictions evictions = partitionEvictions( partition, false );
+        return evictions == null ? 0 : evictions.evictions.sum();
+    }
+
+    @Override
+    public long evictionBacklog( int partition )
+    {
+        PartitionEvictions evictions = partitionEvictions( partition, false );
+        return evictions == null ? 0 : evictions.backlog;
+    }
+
     @Override
     public long evictionExceptions()
     {
@@ -304,4 +360,64 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         this.maxPages.set( maxPages );
     }
+
+    /**
+     * The counters of a single eviction partition. Evictions in the partition are counted both here and in the totals.
+     */
+    private class PartitionEvictions
+    {
+        private final LongAdder evictions = new LongAdder();
+        private volatile long backlog;
+
+        private final EvictionEvent evictionEvent = new EvictionEvent()
+        {
+            @Override
+            public void setFilePageId( long filePageId )
+            {
+            }
+
+            @Override
+            public void setSwapper( PageSwapper swapper )
+            {
+            }
+
+            @Override
+            public FlushEventOpportunity flushEventOpportunity()
+            {
+                return flushEventOpportunity;
+            }
+
+            @Override
+            public void threwException( IOException exception )
+            {
+                evictionExceptions.increment();
+            }
+
+            @Override
+            public void setCachePageId( long cachePageId )
+            {
+            }
+
+            @Override
+            public void close()
+            {
+                evictions.increment();
+                DefaultPageCacheTracer.this.evictions.increment();
+            }
+        };
+
+        private final EvictionRunEvent evictionRunEvent = new EvictionRunEvent()
+        {
+            @Override
+            public EvictionEvent beginEviction()
+            {
+                return evictionEvent;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
 }
@@ -52,6 +52,12 @@ public interface PageCacheTracer extends PageCacheCounters
             return EvictionRunEvent.NULL;
         }
 
+        @Override
+        public EvictionRunEvent beginPageEvictions( int partition, int pageCountToEvict )
+        {
+            return EvictionRunEvent.NULL;
+        }
+
         @Override
         public MajorFlushEvent beginFileFlush( PageSwapper swapper )
         {
@@ -124,6 +130,18 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long evictions( int partition )
+        {
+            return 0;
+        }
+
+        @Override
+        public long evictionBacklog( int partition )
+        {
+            return 0;
+        }
+
         @Override
         public long evictionExceptions()
         {
@@ -218,6 +236,17 @@ public interface PageCacheTracer extends PageCacheCounters
      **/
     EvictionRunEvent beginPageEvictions( int pageCountToEvict );
 
+    /**
+     * A background eviction has begun in the given eviction partition. Called from the eviction thread of that
+     * partition.
+     *
+     * The {@code pageCountToEvict} is the eviction backlog of the partition; the number of pages it is short of its
+     * free page target. A partition that is consistently behind, is a sign that more eviction partitions are needed.
+     *
+     * The method returns an EvictionRunEvent to represent the event of this eviction run.
+     **/
+    EvictionRunEvent beginPageEvictions( int partition, int pageCountToEvict );
+
     /**
      * A PagedFile wants to flush all its bound pages.
      */
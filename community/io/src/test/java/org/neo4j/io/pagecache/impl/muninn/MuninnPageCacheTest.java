@@ -29,20 +29,26 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
 
+import org.neo4j.graphdb.config.Configuration;
 import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
 import org.neo4j.graphdb.mockfs.DelegatingStoreChannel;
 import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.tracing.ConfigurablePageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
@@ -51,11 +57,13 @@ import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
+import org.neo4j.memory.LocalMemoryTracker;
 
 import static java.time.Duration.ofMillis;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -66,9 +74,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer.Evict;
 
 public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
@@ -251,6 +262,164 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void mustEvictPagesPinnedByTransientCursorsBeforeFrequentlyUsedPages() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        RecordingPageCacheTracer tracer = new RecordingPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, blockCacheFlush( tracer ), PageCursorTracerSupplier.NULL );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            for ( int i = 0; i < 4; i++ )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+                try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK | PF_TRANSIENT ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+
+            int clockArm = pageCache.evictPages( 1, 0, tracer.beginPageEvictions( 1 ) );
+            assertThat( clockArm, is( 2 ) );
+            assertNotNull( tracer.observe( Evict.class ) );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( 0, cursor.getCurrentPageId() );
+                assertTrue( cursor.next() );
+                assertEquals( PageCursor.UNBOUND_PAGE_ID, cursor.getCurrentPageId() );
+            }
+        }
+    }
+
+    @Test
+    void readAheadCursorMustFaultInPagesAheadOfItInTheBackground()
+    {
+        assertTimeout( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            try ( StoreChannel channel = fs.create( file( "a" ) ) )
+            {
+                channel.writeAll( ByteBuffer.allocate( 8 * 8 ) );
+            }
+
+            try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+                    PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+
+                // Only page 0 was pinned, but the rest of the file must eventually be brought into memory by the
+                // read-ahead.
+                boolean allPagesLoaded;
+                do
+                {
+                    allPagesLoaded = true;
+                    try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+                    {
+                        while ( cursor.next() )
+                        {
+                            allPagesLoaded &= cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID;
+                        }
+                    }
+                    Thread.sleep( 1 );
+                }
+                while ( !allPagesLoaded );
+            }
+        } );
+    }
+
+    @Test
+    void readAheadMustOnlyFaultInThePagesItWasAskedFor()
+    {
+        assertTimeout( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            int filePages = 4 * MuninnPageCursor.readAheadPages + 1;
+            try ( StoreChannel channel = fs.create( file( "a" ) ) )
+            {
+                channel.writeAll( ByteBuffer.allocate( filePages * 8 ) );
+            }
+
+            try ( MuninnPageCache pageCache = createPageCache( fs, filePages + 20, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+                    MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8 ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+                pagedFile.awaitReadAheads();
+
+                // Page 0 was pinned, and the read-ahead must have faulted in the window of pages following it, but
+                // the cursor of the read-ahead must not have read further ahead on its own.
+                int pagesLoaded = 0;
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                        {
+                            pagesLoaded++;
+                        }
+                    }
+                }
+                assertEquals( 1 + MuninnPageCursor.readAheadPages, pagesLoaded );
+            }
+        } );
+    }
+
+    @Test
+    void parallelFlushMustWriteAllStripesOfAllFilesAndShareTheLimiter() throws Exception
+    {
+        // Pages this far apart end up in different translation table chunks, and thereby in different flush stripes.
+        long[] pageIds = {0, 5_000, 10_000};
+        AtomicInteger limitedIOs = new AtomicInteger();
+        IOLimiter limiter = ( previousStamp, recentlyCompletedIOs, flushable ) ->
+        {
+            limitedIOs.addAndGet( recentlyCompletedIOs );
+            return previousStamp;
+        };
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 40, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+                PagedFile pagedFileA = map( pageCache, file( "a" ), 8 );
+                PagedFile pagedFileB = map( pageCache, file( "b" ), 8 ) )
+        {
+            for ( PagedFile pagedFile : new PagedFile[]{pagedFileA, pagedFileB} )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( long pageId : pageIds )
+                    {
+                        assertTrue( cursor.next( pageId ) );
+                        cursor.putLong( pageId + 1 );
+                    }
+                }
+            }
+
+            pageCache.flushAndForce( limiter, 2, 1 );
+            assertEquals( pageIds.length * 2, limitedIOs.get() );
+
+            for ( String fileName : new String[]{"a", "b"} )
+            {
+                try ( StoreChannel channel = fs.open( file( fileName ), OpenMode.READ ) )
+                {
+                    for ( long pageId : pageIds )
+                    {
+                        ByteBuffer buffer = ByteBuffer.allocate( 8 );
+                        channel.position( pageId * 8 );
+                        channel.readAll( buffer );
+                        buffer.flip();
+                        assertEquals( pageId + 1, buffer.getLong() );
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     void trackPageModificationTransactionId() throws Exception
     {
@@ -711,6 +880,134 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void mustDividePagesIntoEvictionPartitions()
+    {
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( "" + MuninnPageCache.memoryRequiredForPages( 10 ), new LocalMemoryTracker() );
+        try ( MuninnPageCache pageCache = createPartitionedPageCache( allocator, 3 ) )
+        {
+            EvictionPartition[] partitions = pageCache.partitions;
+            assertEquals( 3, partitions.length );
+            assertEquals( 0, partitions[0].firstPageId );
+            assertEquals( 3, partitions[0].pageCount );
+            assertEquals( 3, partitions[1].firstPageId );
+            assertEquals( 3, partitions[1].pageCount );
+            assertEquals( 6, partitions[2].firstPageId );
+            assertEquals( 4, partitions[2].pageCount );
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void mustLimitEvictionPartitionsToTwoPagesPerPartition()
+    {
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( "" + MuninnPageCache.memoryRequiredForPages( 5 ), new LocalMemoryTracker() );
+        try ( MuninnPageCache pageCache = createPartitionedPageCache( allocator, 8 ) )
+        {
+            assertEquals( 2, pageCache.partitions.length );
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void evictedPagesMustBeReturnedToTheFreelistOfTheirOwnPartition() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( "" + MuninnPageCache.memoryRequiredForPages( 4 ), new LocalMemoryTracker() );
+        try ( MuninnPageCache pageCache = createPartitionedPageCache( allocator, 2 );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertTrue( cursor.next() );
+            }
+            evictAllPages( pageCache );
+
+            PageList pages = pageCache.pages;
+            for ( EvictionPartition partition : pageCache.partitions )
+            {
+                long pageRef;
+                while ( (pageRef = partition.grabFreePage( pages )) != 0 )
+                {
+                    int pageId = pages.toId( pageRef );
+                    assertTrue( pageId >= partition.firstPageId && pageId < partition.pageIdBound(), "page " + pageId + " in " + partition );
+                }
+            }
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void mustReadBackAllWrittenPagesWithMultipleEvictionPartitions()
+    {
+        assertTimeout( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            int pageCount = 100;
+            MemoryAllocator allocator = MemoryAllocator.createAllocator( "" + MuninnPageCache.memoryRequiredForPages( 12 ), new LocalMemoryTracker() );
+            try ( MuninnPageCache pageCache = createPartitionedPageCache( allocator, 4 );
+                  PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( long pageId = 0; pageId < pageCount; pageId++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( pageId );
+                    }
+                }
+
+                List<Future<?>> readers = new ArrayList<>();
+                for ( int i = 0; i < 8; i++ )
+                {
+                    readers.add( executor.submit( () ->
+                    {
+                        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+                        {
+                            for ( long pageId = 0; pageId < pageCount; pageId++ )
+                            {
+                                assertTrue( cursor.next() );
+                                long value;
+                                do
+                                {
+                                    value = cursor.getLong();
+                                }
+                                while ( cursor.shouldRetry() );
+                                assertEquals( pageId, value );
+                            }
+                        }
+                        return null;
+                    } ) );
+                }
+                for ( Future<?> reader : readers )
+                {
+                    reader.get();
+                }
+            }
+            finally
+            {
+                allocator.close();
+            }
+        } );
+    }
+
+    private MuninnPageCache createPartitionedPageCache( MemoryAllocator allocator, int evictionPartitions )
+    {
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.open( fs, Configuration.EMPTY );
+        return new MuninnPageCache( swapperFactory, allocator, PageCache.PAGE_SIZE, evictionPartitions, PageCacheTracer.NULL,
+                PageCursorTracerSupplier.NULL, EmptyVersionContextSupplier.EMPTY, jobScheduler );
+    }
+
     private static class FlushRendezvousTracer extends DefaultPageCacheTracer
     {
         private final CountDownLatch latch;
@@ -79,6 +79,33 @@ public class DefaultPageCacheTracerTest
         assertCounts( 0, 0, 0, 0, 4, 2, 3, 0, 36, 0, 0,  0d);
     }
 
+    @Test
+    void mustCountEvictionsPerPartition()
+    {
+        try ( EvictionRunEvent evictionRunEvent = tracer.beginPageEvictions( 1, 5 ) )
+        {
+            evictionRunEvent.beginEviction().close();
+            evictionRunEvent.beginEviction().close();
+        }
+        try ( EvictionRunEvent evictionRunEvent = tracer.beginPageEvictions( 3, 7 ) )
+        {
+            evictionRunEvent.beginEviction().close();
+        }
+        try ( EvictionRunEvent evictionRunEvent = tracer.beginPageEvictions( 1, 2 ) )
+        {
+            evictionRunEvent.beginEviction().close();
+        }
+
+        assertThat( "evictions", tracer.evictions(), is( 4L ) );
+        assertThat( "partition 0 evictions", tracer.evictions( 0 ), is( 0L ) );
+        assertThat( "partition 1 evictions", tracer.evictions( 1 ), is( 3L ) );
+        assertThat( "partition 3 evictions", tracer.evictions( 3 ), is( 1L ) );
+        assertThat( "partition 4 evictions", tracer.evictions( 4 ), is( 0L ) );
+        assertThat( "partition 0 backlog", tracer.evictionBacklog( 0 ), is( 0L ) );
+        assertThat( "partition 1 backlog", tracer.evictionBacklog( 1 ), is( 2L ) );
+        assertThat( "partition 3 backlog", tracer.evictionBacklog( 3 ), is( 7L ) );
+    }
+
     @Test
     void mustCountFileMappingAndUnmapping()
     {
@@ -61,6 +61,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.beginPageEvictions( pageCountToEvict );
     }
 
+    @Override
+    public EvictionRunEvent beginPageEvictions( int partition, int pageCountToEvict )
+    {
+        return delegate.beginPageEvictions( partition, pageCountToEvict );
+    }
+
     @Override
     public long unpins()
     {
@@ -103,6 +109,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.unmappedFile( file );
     }
 
+    @Override
+    public long evictions( int partition )
+    {
+        return delegate.evictions( partition );
+    }
+
+    @Override
+    public long evictionBacklog( int partition )
+    {
+        return delegate.evictionBacklog( partition );
+    }
+
     @Override
     public long evictionExceptions()
     {
@@ -115,11 +115,13 @@ class HEvents
 
     public static class EvictionRunHEvent extends IntervalHEvent implements EvictionRunEvent
     {
+        int partition;
         int pagesToEvict;
 
-        EvictionRunHEvent( LinearHistoryTracer tracer, int pagesToEvict )
+        EvictionRunHEvent( LinearHistoryTracer tracer, int partition, int pagesToEvict )
         {
             super( tracer );
+            this.partition = partition;
             this.pagesToEvict = pagesToEvict;
         }
 
@@ -132,6 +134,8 @@ class HEvents
         @Override
         void printBody( PrintStream out, String exceptionLinePrefix )
         {
+            out.print( ", partition:" );
+            out.print( partition );
             out.print( ", pagesToEvict:" );
             out.print( pagesToEvict );
         }
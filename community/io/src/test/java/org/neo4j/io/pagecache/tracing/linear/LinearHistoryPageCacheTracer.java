@@ -63,7 +63,13 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
-        return tracer.add( new EvictionRunHEvent( tracer, pageCountToEvict ) );
+        return beginPageEvictions( 0, pageCountToEvict );
+    }
+
+    @Override
+    public EvictionRunEvent beginPageEvictions( int partition, int pageCountToEvict )
+    {
+        return tracer.add( new EvictionRunHEvent( tracer, partition, pageCountToEvict ) );
     }
 
     @Override
@@ -138,6 +144,18 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long evictions( int partition )
+    {
+        return 0;
+    }
+
+    @Override
+    public long evictionBacklog( int partition )
+    {
+        return 0;
+    }
+
     @Override
     public long evictionExceptions()
     {
@@ -55,6 +55,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
 
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
+    {
+        return beginPageEvictions( 0, pageCountToEvict );
+    }
+
+    @Override
+    public EvictionRunEvent beginPageEvictions( int partition, int pageCountToEvict )
     {
         return new EvictionRunEvent()
         {
@@ -143,6 +149,18 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long evictions( int partition )
+    {
+        return 0;
+    }
+
+    @Override
+    public long evictionBacklog( int partition )
+    {
+        return 0;
+    }
+
     @Override
     public long evictionExceptions()
     {
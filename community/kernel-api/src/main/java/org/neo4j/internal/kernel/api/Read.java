@@ -319,6 +319,26 @@ public interface Read
      */
     void nodeProperties( long nodeReference, long reference, PropertyCursor cursor );
 
+    /**
+     * Reads the given properties of a batch of nodes into a columnar buffer, so that {@code columns[k][i]} receives
+     * the value of {@code propertyKeys[k]} on {@code nodeReferences[i]}, or {@link Values#NO_VALUE} if the node does
+     * not have that property, or does not exist. The nodes and their property chains are visited in the order of their
+     * references rather than the order of the batch, which keeps the page accesses mostly sequential.
+     *
+     * @param nodeReferences
+     *         the nodes to read the properties of.
+     * @param propertyKeys
+     *         the property key ids to read.
+     * @param nodeCursor
+     *         the cursor to use for reading the nodes.
+     * @param propertyCursor
+     *         the cursor to use for reading the properties.
+     * @param columns
+     *         one column per property key, each at least as long as {@code nodeReferences}.
+     */
+    void nodesProperties( long[] nodeReferences, int[] propertyKeys, NodeCursor nodeCursor, PropertyCursor propertyCursor,
+            Value[][] columns );
+
     /**
      * @param relationshipReference
      *         the owner of the properties.
@@ -27,6 +27,15 @@ public interface StorageEntityScanCursor extends StorageEntityCursor
      */
     void scan();
 
+    /**
+     * Initializes this cursor so that it will scan over the existing entities with ids in the given range. Unlike
+     * {@link #scan()}, the scan ends at the end of the range, even if entities with higher ids are created meanwhile.
+     *
+     * @param start the id to start the scan at, inclusive.
+     * @param end the id to end the scan at, exclusive.
+     */
+    void scanRange( long start, long end );
+
     /**
      * Initializes this cursor so that the next call to {@link #next()} will place this cursor at that entity.
      * @param reference entity to place this cursor at the next call to {@link #next()}.
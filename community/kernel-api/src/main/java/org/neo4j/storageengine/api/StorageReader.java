@@ -70,6 +70,13 @@ public interface StorageReader extends AutoCloseable
      */
     LabelScanReader getLabelScanReader();
 
+    /**
+     * @return {@link LabelScanReader} capable of reading relationships for specific relationship type ids, where the
+     * label ids are relationship type ids and the node ids are relationship ids, or {@code null} if there is no
+     * relationship type index.
+     */
+    LabelScanReader getRelationshipTypeScanReader();
+
     /**
      * Returns an {@link IndexReader} for searching entity ids given property values. One reader is allocated
      * and kept per index throughout the life of a statement, making the returned reader repeatable-read isolation.
@@ -297,6 +304,17 @@ public interface StorageReader extends AutoCloseable
 
     long relationshipsGetCount();
 
+    /**
+     * @return the highest node id that may be in use. Nodes that are created after this call may get higher ids.
+     */
+    long nodesGetHighestPossibleIdInUse();
+
+    /**
+     * @return the highest relationship id that may be in use. Relationships that are created after this call may get
+     * higher ids.
+     */
+    long relationshipsGetHighestPossibleIdInUse();
+
     int labelCount();
 
     int propertyKeyCount();
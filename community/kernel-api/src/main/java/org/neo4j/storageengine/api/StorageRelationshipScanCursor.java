@@ -31,4 +31,14 @@ public interface StorageRelationshipScanCursor extends StorageRelationshipCursor
      * @param type relationship type to scan over, or -1 for all relationships regardless of type.
      */
     void scan( int type );
+
+    /**
+     * Initializes this cursor so that it will scan over the existing relationships with ids in the given range.
+     *
+     * @param type relationship type to scan over, or -1 for all relationships regardless of type.
+     * @param start the id to start the scan at, inclusive.
+     * @param end the id to end the scan at, exclusive.
+     * @see #scanRange(long, long)
+     */
+    void scanRange( int type, long start, long end );
 }
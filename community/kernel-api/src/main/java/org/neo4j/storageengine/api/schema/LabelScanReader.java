@@ -46,6 +46,19 @@ public interface LabelScanReader extends Resource
      */
     void nodesWithLabel( IndexProgressor.NodeLabelClient client, int labelId );
 
+    /**
+     * Sets the client up for a label scan on <code>labelId</code>, of the nodes with ids in the given range. The
+     * range should start and end at the boundaries of the ranges of node ids that the store keeps together, or the
+     * client may be given nodes outside of the range. Unlike the other methods of this reader, this method can be
+     * called from multiple threads at the same time.
+     *
+     * @param client the client to communicate with
+     * @param labelId label token id
+     * @param fromId node id to start at, inclusive.
+     * @param toId node id to end at, exclusive.
+     */
+    void nodesWithLabel( IndexProgressor.NodeLabelClient client, int labelId, long fromId, long toId );
+
     /**
      * @param labelIds label token ids.
      * @return node ids with any of the given label ids.
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.Label.label;
+
+public abstract class ParallelNodeCursorTestBase<G extends KernelAPIReadTestSupport> extends KernelAPIReadTestBase<G>
+{
+    private static final int NUMBER_OF_NODES = 10_000;
+    private static final int NUMBER_OF_THREADS = 4;
+    private static MutableLongSet NODE_IDS;
+    private static MutableLongSet FOO_NODE_IDS;
+
+    @Override
+    public void createTestGraph( GraphDatabaseService graphDb )
+    {
+        NODE_IDS = new LongHashSet();
+        FOO_NODE_IDS = new LongHashSet();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < NUMBER_OF_NODES; i++ )
+            {
+                Node node = i % 3 == 0 ? graphDb.createNode( label( "Foo" ) ) : graphDb.createNode();
+                NODE_IDS.add( node.getId() );
+                if ( i % 3 == 0 )
+                {
+                    FOO_NODE_IDS.add( node.getId() );
+                }
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldScanAllNodesFromSingleThread()
+    {
+        // given
+        Scan<NodeCursor> scan = read.allNodesScan();
+        MutableLongSet ids = new LongHashSet();
+        try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+        {
+            // when
+            scan.initialize( nodes );
+            while ( nodes.next() )
+            {
+                assertTrue( "should only see each node once", ids.add( nodes.nodeReference() ) );
+            }
+        }
+
+        // then
+        assertEquals( NODE_IDS, ids );
+    }
+
+    @Test
+    public void shouldScanAllNodesFromMultipleThreads() throws Exception
+    {
+        // given
+        Scan<NodeCursor> scan = read.allNodesScan();
+        List<NodeCursor> cursorList = new ArrayList<>();
+        for ( int i = 0; i < NUMBER_OF_THREADS; i++ )
+        {
+            cursorList.add( cursors.allocateNodeCursor() );
+        }
+
+        // when
+        MutableLongSet ids = scanInParallel( cursorList, scan::initialize, NodeCursor::nodeReference );
+
+        // then
+        assertEquals( NODE_IDS, ids );
+    }
+
+    @Test
+    public void shouldScanNodesWithLabelFromMultipleThreads() throws Exception
+    {
+        // given
+        Scan<NodeLabelIndexCursor> scan = read.nodeLabelScan( token.nodeLabel( "Foo" ) );
+        List<NodeLabelIndexCursor> cursorList = new ArrayList<>();
+        for ( int i = 0; i < NUMBER_OF_THREADS; i++ )
+        {
+            cursorList.add( cursors.allocateNodeLabelIndexCursor() );
+        }
+
+        // when
+        MutableLongSet ids = scanInParallel( cursorList, scan::initialize, NodeLabelIndexCursor::nodeReference );
+
+        // then
+        assertEquals( FOO_NODE_IDS, ids );
+    }
+
+    @Test
+    public void shouldSeeNodesAddedAndRemovedInTransactionOnlyOnce() throws Exception
+    {
+        try ( org.neo4j.internal.kernel.api.Transaction tx = beginTransaction() )
+        {
+            // given
+            long added = tx.dataWrite().nodeCreate();
+            long removed = NODE_IDS.longIterator().next();
+            tx.dataWrite().nodeDelete( removed );
+            Scan<NodeCursor> scan = tx.dataRead().allNodesScan();
+            List<NodeCursor> cursorList = new ArrayList<>();
+            for ( int i = 0; i < NUMBER_OF_THREADS; i++ )
+            {
+                cursorList.add( tx.cursors().allocateNodeCursor() );
+            }
+
+            // when
+            MutableLongSet ids = scanInParallel( cursorList, scan::initialize, NodeCursor::nodeReference );
+
+            // then
+            MutableLongSet expected = LongHashSet.newSet( NODE_IDS );
+            expected.add( added );
+            expected.remove( removed );
+            assertEquals( expected, ids );
+        }
+    }
+
+    private static <C extends Cursor> MutableLongSet scanInParallel( List<C> cursorList, Consumer<C> initializer,
+            ToLongFunction<C> reference ) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( cursorList.size() );
+        try
+        {
+            List<Future<MutableLongSet>> futures = new ArrayList<>();
+            for ( C cursor : cursorList )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    MutableLongSet ids = new LongHashSet();
+                    initializer.accept( cursor );
+                    while ( cursor.next() )
+                    {
+                        assertTrue( "should only see each entity once", ids.add( reference.applyAsLong( cursor ) ) );
+                    }
+                    return ids;
+                } ) );
+            }
+
+            MutableLongSet all = new LongHashSet();
+            for ( Future<MutableLongSet> future : futures )
+            {
+                MutableLongSet ids = future.get();
+                ids.forEach( id -> assertTrue( "should only see each entity once", all.add( id ) ) );
+            }
+            return all;
+        }
+        finally
+        {
+            executor.shutdown();
+            cursorList.forEach( Cursor::close );
+        }
+    }
+}
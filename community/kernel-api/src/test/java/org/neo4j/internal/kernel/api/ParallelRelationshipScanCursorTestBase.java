@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.RelationshipType.withName;
+
+public abstract class ParallelRelationshipScanCursorTestBase<G extends KernelAPIReadTestSupport> extends KernelAPIReadTestBase<G>
+{
+    private static final int NUMBER_OF_RELATIONSHIPS = 10_000;
+    private static final int NUMBER_OF_THREADS = 4;
+    private static MutableLongSet RELATIONSHIP_IDS;
+    private static MutableLongSet LOOP_IDS;
+
+    @Override
+    public void createTestGraph( GraphDatabaseService graphDb )
+    {
+        RELATIONSHIP_IDS = new LongHashSet();
+        LOOP_IDS = new LongHashSet();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            Node a = graphDb.createNode();
+            Node b = graphDb.createNode();
+            for ( int i = 0; i < NUMBER_OF_RELATIONSHIPS; i++ )
+            {
+                Relationship relationship = i % 2 == 0 ? a.createRelationshipTo( a, withName( "LOOP" ) )
+                                                       : a.createRelationshipTo( b, withName( "LINE" ) );
+                RELATIONSHIP_IDS.add( relationship.getId() );
+                if ( i % 2 == 0 )
+                {
+                    LOOP_IDS.add( relationship.getId() );
+                }
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldScanAllRelationshipsFromMultipleThreads() throws Exception
+    {
+        // when
+        MutableLongSet ids = scanInParallel( read.allRelationshipsScan() );
+
+        // then
+        assertEquals( RELATIONSHIP_IDS, ids );
+    }
+
+    @Test
+    public void shouldScanRelationshipsOfTypeFromMultipleThreads() throws Exception
+    {
+        // when
+        MutableLongSet ids = scanInParallel( read.relationshipTypeScan( token.relationshipType( "LOOP" ) ) );
+
+        // then
+        assertEquals( LOOP_IDS, ids );
+    }
+
+    private MutableLongSet scanInParallel( Scan<RelationshipScanCursor> scan ) throws Exception
+    {
+        List<RelationshipScanCursor> cursorList = new ArrayList<>();
+        for ( int i = 0; i < NUMBER_OF_THREADS; i++ )
+        {
+            cursorList.add( cursors.allocateRelationshipScanCursor() );
+        }
+        ExecutorService executor = Executors.newFixedThreadPool( NUMBER_OF_THREADS );
+        try
+        {
+            List<Future<MutableLongSet>> futures = new ArrayList<>();
+            for ( RelationshipScanCursor cursor : cursorList )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    MutableLongSet ids = new LongHashSet();
+                    scan.initialize( cursor );
+                    while ( cursor.next() )
+                    {
+                        assertTrue( "should only see each relationship once", ids.add( cursor.relationshipReference() ) );
+                    }
+                    return ids;
+                } ) );
+            }
+
+            MutableLongSet all = new LongHashSet();
+            for ( Future<MutableLongSet> future : futures )
+            {
+                future.get().forEach( id -> assertTrue( "should only see each relationship once", all.add( id ) ) );
+            }
+            return all;
+        }
+        finally
+        {
+            executor.shutdown();
+            cursorList.forEach( Cursor::close );
+        }
+    }
+}
@@ -266,6 +266,28 @@ public abstract class PropertyCursorTestBase<G extends KernelAPIReadTestSupport>
         }
     }
 
+    @Test
+    public void shouldReadPropertiesOfManyNodes()
+    {
+        // given
+        long[] nodes = {allProps, shortProp, bare, byteProp, Long.MAX_VALUE >> 16, allProps};
+        int[] propertyKeys = {token.propertyKey( "byteProp" ), token.propertyKey( "shortProp" )};
+        Value[][] columns = new Value[propertyKeys.length][nodes.length];
+
+        try ( NodeCursor node = cursors.allocateNodeCursor(); PropertyCursor props = cursors.allocatePropertyCursor() )
+        {
+            // when
+            read.nodesProperties( nodes, propertyKeys, node, props, columns );
+        }
+
+        // then
+        Value noValue = Values.NO_VALUE;
+        Value byteValue = Values.of( (byte) 13 );
+        Value shortValue = Values.of( (short) 13 );
+        assertThat( columns[0], arrayContaining( byteValue, noValue, noValue, byteValue, noValue, byteValue ) );
+        assertThat( columns[1], arrayContaining( shortValue, shortValue, noValue, noValue, noValue, shortValue ) );
+    }
+
     private void assertAccessSingleProperty( long nodeId, Object expectedValue, ValueGroup expectedValueType )
     {
         // given
@@ -193,6 +193,13 @@ public class StubRead implements Read
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void nodesProperties( long[] nodeReferences, int[] propertyKeys, NodeCursor nodeCursor, PropertyCursor propertyCursor,
+            Value[][] columns )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void relationshipProperties( long relationshipReference, long reference, PropertyCursor cursor )
     {
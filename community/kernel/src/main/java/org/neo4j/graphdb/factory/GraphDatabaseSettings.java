@@ -235,6 +235,16 @@ public class GraphDatabaseSettings implements LoadableConfig
             "simply not performed and execution continues." )
     public static final Setting<Boolean> cypher_lenient_create_relationship = setting( "cypher.lenient_create_relationship", BOOLEAN, FALSE );
 
+    @Description( "The amount of memory that the sort, top, distinct and aggregation operators of a single Cypher query " +
+            "can use for the rows they hold on to, before further rows are written to temporary files and merged back " +
+            "when the results are produced. The memory use is estimated from the sizes of the values in the rows. " +
+            "Zero means 'unlimited'. A single query can set its own budget with the `CYPHER memoryBudget=...` option. " +
+            "Only the interpreted runtime honours the budget." )
+    public static final Setting<Long> cypher_query_memory_budget = buildSetting(
+            "cypher.query_memory_budget", BYTES, "0" )
+            .constraint( min( 0L ) )
+            .build();
+
     @Description( "Set this to specify the default runtime for the default language version." )
     @Internal
     public static final Setting<String> cypher_runtime = setting(
@@ -698,12 +708,48 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Long> logical_log_rotation_threshold =
             buildSetting( "dbms.tx_log.rotation.size", BYTES, "250M" ).constraint( min( ByteUnit.mebiBytes( 1 ) ) ).build();
 
+    @Description( "Specify if Neo4j should pre-allocate new transaction log files to the size given by " +
+            "`dbms.tx_log.rotation.size`, by filling them with zeros. This way, forcing the transaction log to disk " +
+            "does not also have to make the growth of the file durable. The file for the next log rotation is " +
+            "pre-allocated in the background, so a rotation that happens before it is ready gets a log file that is " +
+            "not pre-allocated." )
+    @Internal
+    public static final Setting<Boolean> preallocate_logical_logs =
+            setting( "unsupported.dbms.tx_log.preallocate", BOOLEAN, FALSE );
+
+    @Description( "Specify if Neo4j should keep transaction log files that are pruned, and reuse them as new " +
+            "transaction log files, instead of deleting them." )
+    @Internal
+    public static final Setting<Boolean> recycle_logical_logs =
+            setting( "unsupported.dbms.tx_log.recycle", BOOLEAN, FALSE );
+
     @Description( "If `true`, Neo4j will abort recovery if any errors are encountered in the logical log. Setting " +
             "this to `false` will allow Neo4j to restore as much as possible from the corrupted log files and ignore " +
             "the rest, but, the integrity of the database might be compromised." )
     @Internal
     public static final Setting<Boolean> fail_on_corrupted_log_files = setting("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOLEAN, TRUE );
 
+    @Description( "The number of threads that write the records changed by each recovered transaction to the store. " +
+            "The records are partitioned over the threads by store and record id, so the recovered store is the same " +
+            "as when recovering on a single thread. Setting this to 1 recovers transactions on a single thread." )
+    @Internal
+    public static final Setting<Integer> recovery_parallelism =
+            buildSetting( "unsupported.dbms.recovery.parallelism", INTEGER, "1" ).constraint( min( 1 ) ).build();
+
+    @Description( "The maximum number of concurrently committing transactions that are appended to the transaction " +
+            "log, and applied to the store, together as a single group. The default of 1 disables group commit, " +
+            "so every transaction is appended and applied on its own." )
+    @Internal
+    public static final Setting<Integer> group_commit_max_transactions =
+            buildSetting( "unsupported.dbms.tx_log.group_commit.max_transactions", INTEGER, "1" ).constraint( min( 1 ) ).build();
+
+    @Description( "How long a committing transaction that forms a group commit waits for other transactions to " +
+            "join the group, before the group is appended to the transaction log. By default, a group only holds " +
+            "the transactions that queued up while the previous group was being appended." )
+    @Internal
+    public static final Setting<Duration> group_commit_max_wait =
+            setting( "unsupported.dbms.tx_log.group_commit.max_wait", DURATION, "0ms" );
+
     @Description( "Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities." )
     @Internal
@@ -746,17 +792,16 @@ public class GraphDatabaseSettings implements LoadableConfig
 
     @Internal
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-                  "warmup after a restart, reducing the mean time to performance. " +
-                  "This feature available in Neo4j Enterprise Edition." )
+                  "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             setting( "unsupported.dbms.memory.pagecache.warmup.profile.interval", DURATION, "1m" );
 
     @Internal
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
-    public static final Setting<Boolean> pagecache_warmup_enabled = setting( "unsupported.dbms.memory.pagecache.warmup.enable", BOOLEAN, TRUE );
+            "This is disabled by default. When enabled, a profile of every mapped store file is written to the profiles " +
+            "directory of the database at every profiling interval, which adds to the disk writes of the database." )
+    public static final Setting<Boolean> pagecache_warmup_enabled = setting( "unsupported.dbms.memory.pagecache.warmup.enable", BOOLEAN, FALSE );
 
     @Description( "Allows the enabling or disabling of the file watcher service." +
             " This is an auxiliary service but should be left enabled in almost all cases." )
@@ -1080,6 +1125,15 @@ public class GraphDatabaseSettings implements LoadableConfig
             .constraint( min( 0L ) )
             .build();
 
+    @Description( "The amount of property values that a single transaction can keep in off-heap memory, before further values are " +
+            "written to a temporary file, which is memory mapped and deleted when the transaction closes. This lets transactions " +
+            "that change a lot of property data complete without exhausting the off-heap memory. Zero means 'never'. " +
+            "Used when dbms.tx_state.memory_allocation is set to 'OFF_HEAP'." )
+    public static final Setting<Long> tx_state_off_heap_values_spill_threshold = buildSetting(
+            "dbms.tx_state.off_heap.values_spill_threshold", BYTES, "0" )
+            .constraint( min( 0L ) )
+            .build();
+
     @Description( "Defines the maximum size of an off-heap memory block that can be cached to speed up allocations for transaction state data. " +
             "The value must be a power of 2." )
     public static final Setting<Long> tx_state_off_heap_max_cacheable_block_size = buildSetting(
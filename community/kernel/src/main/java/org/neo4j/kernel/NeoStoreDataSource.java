@@ -83,6 +83,8 @@ import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ReentrantLockService;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmerMonitor;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
@@ -115,8 +117,8 @@ import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.SimpleTriggerInfo;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.StoreCopyCheckPointMutex;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
-import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFileCreationMonitor;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilePreallocation;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
 import org.neo4j.kernel.impl.transaction.log.pruning.LogPruneStrategyFactory;
@@ -324,7 +326,7 @@ public class NeoStoreDataSource extends LifecycleAdapter
         life.add( Lifecycles.multiple( explicitIndexProvider.allIndexProviders() ) );
 
         // Check the tail of transaction logs and validate version
-        final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = new VersionAwareLogEntryReader<>();
+        final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = LogFilePreallocation.logEntryReader( config );
 
         LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fs )
                 .withLogEntryReader( logEntryReader )
@@ -427,6 +429,8 @@ public class NeoStoreDataSource extends LifecycleAdapter
 
         life.add( new DatabaseDiagnostics( dataSourceDependencies.resolveDependency( DiagnosticsManager.class ), this, databaseInfo ) );
         life.add( databaseAvailability );
+        life.add( new PageCacheWarmer( fs, pageCache, scheduler, databaseLayout.databaseDirectory(), config,
+                monitors.newMonitor( PageCacheWarmerMonitor.class ), logService.getInternalLog( PageCacheWarmer.class ) ) );
         life.setLast( lifecycleToTriggerCheckPointOnShutdown() );
 
         try
@@ -127,6 +127,18 @@ public interface LabelScanStore extends Lifecycle
      */
     LabelScanWriter newWriter();
 
+    /**
+     * Acquire a writer for populating an empty store from scratch, e.g. when rebuilding or importing.
+     * Only label additions, ordered by ascending node id, are supported. Implementations may defer all changes
+     * until the writer is closed. If the store isn't empty a regular {@link #newWriter() writer} is returned.
+     *
+     * @return {@link LabelScanWriter} which can populate the {@link LabelScanStore}.
+     */
+    default LabelScanWriter newBulkAppendWriter()
+    {
+        return newWriter();
+    }
+
     /**
      * Forces all changes to disk. Called at certain points from within Neo4j for example when
      * rotating the logical log. After completion of this call there cannot be any essential state that
@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.api.labelscan;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.util.StringJoiner;
@@ -34,52 +35,63 @@ import static org.neo4j.helpers.Format.duration;
 public class LoggingMonitor extends Monitor.Adaptor
 {
     private final Log log;
+    private final String indexName;
 
     public LoggingMonitor( Log log )
+    {
+        this( log, "label index" );
+    }
+
+    /**
+     * @param log the log to write to.
+     * @param indexName the name of the monitored index in the log messages, e.g. "label index".
+     */
+    public LoggingMonitor( Log log, String indexName )
     {
         this.log = log;
+        this.indexName = indexName;
     }
 
     @Override
     public void noIndex()
     {
-        log.info( "No label index found, this might just be first use. Preparing to rebuild." );
+        log.info( "No " + indexName + " found, this might just be first use. Preparing to rebuild." );
     }
 
     @Override
     public void notValidIndex()
     {
-        log.warn( "Label index could not be read. Preparing to rebuild." );
+        log.warn( capitalizedName() + " could not be read. Preparing to rebuild." );
     }
 
     @Override
     public void rebuilding()
     {
-        log.info( "Rebuilding label index, this may take a while" );
+        log.info( "Rebuilding " + indexName + ", this may take a while" );
     }
 
     @Override
     public void rebuilt( long roughNodeCount )
     {
-        log.info( "Label index rebuilt (roughly " + roughNodeCount + " nodes)" );
+        log.info( capitalizedName() + " rebuilt (roughly " + roughNodeCount + " entities)" );
     }
 
     @Override
     public void recoveryCleanupRegistered()
     {
-        log.info( "Label index cleanup job registered" );
+        log.info( capitalizedName() + " cleanup job registered" );
     }
 
     @Override
     public void recoveryCleanupStarted()
     {
-        log.info( "Label index cleanup job started" );
+        log.info( capitalizedName() + " cleanup job started" );
     }
 
     @Override
     public void recoveryCleanupFinished( long numberOfPagesVisited, long numberOfCleanedCrashPointers, long durationMillis )
     {
-        StringJoiner joiner = new StringJoiner( ", ", "Label index cleanup job finished: ", "" );
+        StringJoiner joiner = new StringJoiner( ", ", capitalizedName() + " cleanup job finished: ", "" );
         joiner.add( "Number of pages visited: " + numberOfPagesVisited );
         joiner.add( "Number of cleaned crashed pointers: " + numberOfCleanedCrashPointers );
         joiner.add( "Time spent: " + duration( durationMillis ) );
@@ -89,12 +101,17 @@ public class LoggingMonitor extends Monitor.Adaptor
     @Override
     public void recoveryCleanupClosed()
     {
-        log.info( "Label index cleanup job closed" );
+        log.info( capitalizedName() + " cleanup job closed" );
     }
 
     @Override
     public void recoveryCleanupFailed( Throwable throwable )
     {
-        log.info( String.format( "Label index cleanup job failed.%nCaused by: %s", ExceptionUtils.getStackTrace( throwable ) ) );
+        log.info( String.format( "%s cleanup job failed.%nCaused by: %s", capitalizedName(), ExceptionUtils.getStackTrace( throwable ) ) );
+    }
+
+    private String capitalizedName()
+    {
+        return StringUtils.capitalize( indexName );
     }
 }
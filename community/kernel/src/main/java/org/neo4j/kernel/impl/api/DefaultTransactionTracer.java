@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.api;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
@@ -36,7 +37,7 @@ import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.Clocks;
 import org.neo4j.time.SystemNanoClock;
 
-public class DefaultTransactionTracer implements TransactionTracer, LogRotationMonitor
+public class DefaultTransactionTracer implements TransactionTracer, LogRotationMonitor, GroupCommitMonitor
 {
     public interface Monitor
     {
@@ -49,6 +50,9 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
 
     private final AtomicLong counter = new AtomicLong();
     private final AtomicLong accumulatedTotalTimeNanos = new AtomicLong();
+    private final AtomicLong groupCommits = new AtomicLong();
+    private final AtomicLong groupCommittedTransactions = new AtomicLong();
+    private final AtomicLongArray groupCommitSizes = new AtomicLongArray( Integer.SIZE );
 
     private long startTimeNanos;
 
@@ -111,6 +115,14 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         {
             return StoreApplyEvent.NULL;
         }
+
+        @Override
+        public void setGroupCommitSize( int transactionCount )
+        {
+            groupCommits.incrementAndGet();
+            groupCommittedTransactions.addAndGet( transactionCount );
+            groupCommitSizes.incrementAndGet( Integer.SIZE - 1 - Integer.numberOfLeadingZeros( transactionCount ) );
+        }
     };
 
     private final TransactionEvent transactionEvent = new TransactionEvent()
@@ -178,6 +190,29 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         return TimeUnit.NANOSECONDS.toMillis( accumulatedTotalTimeNanos.get() );
     }
 
+    @Override
+    public long numberOfGroupCommits()
+    {
+        return groupCommits.get();
+    }
+
+    @Override
+    public long numberOfGroupCommittedTransactions()
+    {
+        return groupCommittedTransactions.get();
+    }
+
+    @Override
+    public long[] groupCommitSizeDistribution()
+    {
+        long[] distribution = new long[groupCommitSizes.length()];
+        for ( int i = 0; i < distribution.length; i++ )
+        {
+            distribution[i] = groupCommitSizes.get( i );
+        }
+        return distribution;
+    }
+
     private void updateCountersAndNotifyListeners()
     {
         counter.incrementAndGet();
@@ -19,8 +19,20 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionSerializationBuffer;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
@@ -29,22 +41,54 @@ import org.neo4j.storageengine.api.TransactionApplicationMode;
 
 import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionCommitFailed;
 import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionLogError;
+import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SPECIFIED;
 
+/**
+ * Commits transactions by appending them to the transaction log, and then applying them to the store.
+ * <p>
+ * Concurrently committing transactions are grouped together: each committer of a single transaction queues up, and
+ * one of them leads the group by taking the queued transactions, up to the configured maximum, and committing them as
+ * one batch. The batch is appended with a single write to the log and a single force, and applied to the store in one
+ * go. The leader holds the group commit lock only while appending, so the next group can be appended while the
+ * previous one is being applied. The other committers wait for the leader to tell them the outcome of their commit.
+ * If the batch fails to commit, then all of the transactions in it fail.
+ */
 public class TransactionRepresentationCommitProcess implements TransactionCommitProcess
 {
     private final TransactionAppender appender;
     private final StorageEngine storageEngine;
+    private final int groupCommitMaxTransactions;
+    private final long groupCommitMaxWaitNanos;
+    private final Queue<GroupCommitter> groupCommitQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger groupCommitQueueSize = new AtomicInteger();
+    private final Lock groupCommitLock = new ReentrantLock();
+    private final ThreadLocal<TransactionSerializationBuffer> serializationBuffers =
+            ThreadLocal.withInitial( TransactionSerializationBuffer::new );
+    private volatile Thread waitingGroupCommitLeader;
 
     public TransactionRepresentationCommitProcess( TransactionAppender appender, StorageEngine storageEngine )
+    {
+        this( appender, storageEngine, 1, Duration.ZERO );
+    }
+
+    public TransactionRepresentationCommitProcess( TransactionAppender appender, StorageEngine storageEngine,
+            int groupCommitMaxTransactions, Duration groupCommitMaxWait )
     {
         this.appender = appender;
         this.storageEngine = storageEngine;
+        this.groupCommitMaxTransactions = groupCommitMaxTransactions;
+        this.groupCommitMaxWaitNanos = groupCommitMaxWait.toNanos();
     }
 
     @Override
     public long commit( TransactionToApply batch, CommitEvent commitEvent,
             TransactionApplicationMode mode ) throws TransactionFailureException
     {
+        if ( canGroupCommit( batch, mode ) )
+        {
+            return groupCommit( batch, commitEvent, mode );
+        }
+
         long lastTxId = appendToLog( batch, commitEvent );
         try
         {
@@ -57,6 +101,194 @@ public class TransactionRepresentationCommitProcess implements TransactionCommit
         }
     }
 
+    /**
+     * Only single transactions committed by this instance are grouped. Batches that come from elsewhere, such as
+     * replicated or recovered transactions, are already committed in the order they are given. Transactions that
+     * carry a version context are also committed on their own, because the pages they change during application are
+     * marked with the version context of the applying thread.
+     */
+    private boolean canGroupCommit( TransactionToApply batch, TransactionApplicationMode mode )
+    {
+        return groupCommitMaxTransactions > 1 && mode == TransactionApplicationMode.INTERNAL && batch.next() == null &&
+               batch.transactionId() == TRANSACTION_ID_NOT_SPECIFIED && !batch.hasVersionContext();
+    }
+
+    private long groupCommit( TransactionToApply transaction, CommitEvent commitEvent, TransactionApplicationMode mode )
+            throws TransactionFailureException
+    {
+        GroupCommitter committer = new GroupCommitter( transaction );
+        TransactionSerializationBuffer serializedTransaction = serialize( transaction );
+        try
+        {
+            enqueue( committer );
+            while ( !committer.claimed )
+            {
+                List<GroupCommitter> group = null;
+                groupCommitLock.lock();
+                try
+                {
+                    if ( !committer.claimed )
+                    {
+                        awaitGroupCommitters();
+                        group = claimGroup();
+                        if ( !appendGroupToLog( group, commitEvent ) )
+                        {
+                            group = null;
+                        }
+                    }
+                }
+                finally
+                {
+                    groupCommitLock.unlock();
+                }
+
+                if ( group != null )
+                {
+                    applyGroupToStore( group, commitEvent, mode );
+                }
+            }
+            return committer.awaitOutcome();
+        }
+        finally
+        {
+            if ( serializedTransaction != null )
+            {
+                transaction.serializedTransaction( null );
+                serializedTransaction.clear();
+            }
+        }
+    }
+
+    /**
+     * Serialize the transaction on the thread of its committer, so that the group leader only has to copy the bytes
+     * into the log.
+     */
+    private TransactionSerializationBuffer serialize( TransactionToApply transaction )
+    {
+        TransactionSerializationBuffer buffer = serializationBuffers.get();
+        try
+        {
+            if ( buffer.serialize( transaction.transactionRepresentation() ) )
+            {
+                transaction.serializedTransaction( buffer );
+                return buffer;
+            }
+        }
+        catch ( IOException e )
+        {
+            // The appender will serialize the transaction into the log instead, and report any failure to do so.
+        }
+        buffer.clear();
+        return null;
+    }
+
+    private void enqueue( GroupCommitter committer )
+    {
+        groupCommitQueue.add( committer );
+        if ( groupCommitQueueSize.incrementAndGet() >= groupCommitMaxTransactions )
+        {
+            Thread leader = waitingGroupCommitLeader;
+            if ( leader != null )
+            {
+                LockSupport.unpark( leader );
+            }
+        }
+    }
+
+    private void awaitGroupCommitters()
+    {
+        if ( groupCommitMaxWaitNanos <= 0 )
+        {
+            return;
+        }
+        long deadline = System.nanoTime() + groupCommitMaxWaitNanos;
+        waitingGroupCommitLeader = Thread.currentThread();
+        try
+        {
+            long remainingNanos;
+            while ( groupCommitQueueSize.get() < groupCommitMaxTransactions &&
+                    (remainingNanos = deadline - System.nanoTime()) > 0 )
+            {
+                LockSupport.parkNanos( this, remainingNanos );
+            }
+        }
+        finally
+        {
+            waitingGroupCommitLeader = null;
+        }
+    }
+
+    private List<GroupCommitter> claimGroup()
+    {
+        List<GroupCommitter> group = new ArrayList<>();
+        GroupCommitter previous = null;
+        GroupCommitter committer;
+        while ( group.size() < groupCommitMaxTransactions && (committer = groupCommitQueue.poll()) != null )
+        {
+            groupCommitQueueSize.decrementAndGet();
+            committer.claimed = true;
+            if ( previous != null )
+            {
+                previous.transaction.next( committer.transaction );
+            }
+            group.add( committer );
+            previous = committer;
+        }
+        return group;
+    }
+
+    /**
+     * @return {@code true} if the group was appended, otherwise the committers in the group have been failed.
+     */
+    private boolean appendGroupToLog( List<GroupCommitter> group, CommitEvent commitEvent )
+    {
+        commitEvent.setGroupCommitSize( group.size() );
+        try
+        {
+            appendToLog( group.get( 0 ).transaction, commitEvent );
+            return true;
+        }
+        catch ( TransactionFailureException e )
+        {
+            complete( group, e );
+            return false;
+        }
+    }
+
+    private void applyGroupToStore( List<GroupCommitter> group, CommitEvent commitEvent,
+            TransactionApplicationMode mode )
+    {
+        TransactionToApply batch = group.get( 0 ).transaction;
+        TransactionFailureException failure = null;
+        try
+        {
+            applyToStore( batch, commitEvent, mode );
+        }
+        catch ( TransactionFailureException e )
+        {
+            failure = e;
+        }
+        finally
+        {
+            try
+            {
+                close( batch );
+            }
+            finally
+            {
+                complete( group, failure );
+            }
+        }
+    }
+
+    private static void complete( List<GroupCommitter> group, TransactionFailureException failure )
+    {
+        for ( GroupCommitter committer : group )
+        {
+            committer.complete( failure );
+        }
+    }
+
     private long appendToLog( TransactionToApply batch, CommitEvent commitEvent ) throws TransactionFailureException
     {
         try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
@@ -96,4 +328,44 @@ public class TransactionRepresentationCommitProcess implements TransactionCommit
             batch = batch.next();
         }
     }
+
+    private static class GroupCommitter
+    {
+        private final TransactionToApply transaction;
+        private final Thread thread = Thread.currentThread();
+        private volatile boolean claimed;
+        private volatile boolean completed;
+        private TransactionFailureException failure;
+
+        GroupCommitter( TransactionToApply transaction )
+        {
+            this.transaction = transaction;
+        }
+
+        void complete( TransactionFailureException failure )
+        {
+            this.failure = failure;
+            completed = true;
+            LockSupport.unpark( thread );
+        }
+
+        long awaitOutcome() throws TransactionFailureException
+        {
+            boolean interrupted = false;
+            while ( !completed )
+            {
+                LockSupport.park( this );
+                interrupted |= Thread.interrupted();
+            }
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+            return transaction.transactionId();
+        }
+    }
 }
@@ -29,6 +29,7 @@ import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.Commitment;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionSerializationBuffer;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.util.HexPrinter;
 import org.neo4j.storageengine.api.CommandsToApply;
@@ -71,6 +72,7 @@ public class TransactionToApply implements CommandsToApply, AutoCloseable
     private long transactionId;
     private final VersionContext versionContext;
     private TransactionToApply nextTransactionInBatch;
+    private TransactionSerializationBuffer serializedTransaction;
 
     // These fields are provided by commit process, storage engine, or recovery process
     private Commitment commitment;
@@ -112,7 +114,26 @@ public class TransactionToApply implements CommandsToApply, AutoCloseable
         nextTransactionInBatch = next;
     }
 
+    /**
+     * Attach the already serialized form of this transaction, so that it can be written to the log as is, or detach
+     * it by passing {@code null}. The buffer must be left untouched until the transaction has been appended.
+     */
+    public void serializedTransaction( TransactionSerializationBuffer serializedTransaction )
+    {
+        this.serializedTransaction = serializedTransaction;
+    }
+
     // These methods are called by the commit process
+    public TransactionSerializationBuffer serializedTransaction()
+    {
+        return serializedTransaction;
+    }
+
+    boolean hasVersionContext()
+    {
+        return versionContext != EmptyVersionContext.EMPTY;
+    }
+
     public Commitment commitment()
     {
         return commitment;
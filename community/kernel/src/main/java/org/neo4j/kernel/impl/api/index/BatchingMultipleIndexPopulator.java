@@ -65,8 +65,8 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
     private static final String EOL = System.lineSeparator();
     private static final String FLUSH_THREAD_NAME_PREFIX = "Index Population Flush Thread";
 
-    // Maximum number of workers processing batches of updates from the scan. It is capped because there's only a single
-    // thread generating updates and it generally cannot saturate all the workers anyway.
+    // Maximum number of workers processing batches of updates from the scan. It is capped because the updates are
+    // handed over by one scan thread at a time, which generally cannot saturate all the workers anyway.
     private final int MAXIMUM_NUMBER_OF_WORKERS = FeatureToggles.getInteger( getClass(), MAXIMUM_NUMBER_OF_WORKERS_NAME,
             min( 8, Runtime.getRuntime().availableProcessors() - 1 ) );
     private final int TASK_QUEUE_SIZE = FeatureToggles.getInteger( getClass(), TASK_QUEUE_SIZE_NAME,
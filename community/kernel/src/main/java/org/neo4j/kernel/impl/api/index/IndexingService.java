@@ -62,7 +62,6 @@ import org.neo4j.kernel.api.exceptions.schema.UniquePropertyValueValidationExcep
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexProvider;
-import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingController;
@@ -78,6 +77,7 @@ import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.storable.Value;
 
 import static java.lang.String.format;
@@ -119,6 +119,7 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
     private final SchemaState schemaState;
     private final IndexPopulationJobController populationJobController;
     private final Map<Long,IndexProxy> indexesToDropAfterCompletedRecovery = new HashMap<>();
+    private final ParallelIndexUpdatesApplier updatesApplier = new ParallelIndexUpdatesApplier( APPLY_THREADS );
 
     enum State
     {
@@ -171,6 +172,14 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
 
     public static final Monitor NO_MONITOR = new MonitorAdapter();
 
+    /**
+     * Number of threads that apply a batch of index updates, where each index is updated by a single thread.
+     * With {@code 1}, the default, all indexes are updated by the thread applying the batch. Most batches are
+     * the updates of a single small transaction, where handing them to other threads costs more than it saves,
+     * so parallel application is only worth enabling for workloads of large transactions touching many indexes.
+     */
+    static final int APPLY_THREADS = FeatureToggles.getInteger( IndexingService.class, "apply_threads", 1 );
+
     private volatile State state = State.NOT_STARTED;
 
     IndexingService( IndexProxyCreator indexProxyCreator,
@@ -450,6 +459,7 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
         state = State.STOPPED;
         samplingController.stop();
         populationJobController.stop();
+        updatesApplier.close();
         closeAllIndexes();
     }
 
@@ -535,10 +545,7 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
     {
         try ( IndexUpdaterMap updaterMap = indexMapRef.createIndexUpdaterMap( updateMode ) )
         {
-            for ( IndexEntryUpdate<SchemaDescriptor> indexUpdate : updates )
-            {
-                processUpdate( updaterMap, indexUpdate );
-            }
+            updatesApplier.apply( updaterMap, updates );
         }
     }
 
@@ -586,15 +593,6 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
         populationStarter.startPopulation();
     }
 
-    private void processUpdate( IndexUpdaterMap updaterMap, IndexEntryUpdate<SchemaDescriptor> indexUpdate ) throws IndexEntryConflictException
-    {
-        IndexUpdater updater = updaterMap.getUpdater( indexUpdate.indexKey().schema() );
-        if ( updater != null )
-        {
-            updater.process( indexUpdate );
-        }
-    }
-
     public void dropIndex( StoreIndexDescriptor rule )
     {
         indexMapRef.modify( indexMap ->
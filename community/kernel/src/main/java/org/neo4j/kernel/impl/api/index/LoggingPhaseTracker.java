@@ -29,6 +29,13 @@ import org.neo4j.logging.Log;
 import org.neo4j.util.FeatureToggles;
 import org.neo4j.util.VisibleForTesting;
 
+/**
+ * Logs the time spent in each phase of an index population.
+ * <p>
+ * Threads that {@link #startWorker() start a worker} track their phases without synchronization, and add their
+ * times to this tracker every period and when they stop. The times of a phase are then the sum of the times of all
+ * the threads that were in it.
+ */
 public class LoggingPhaseTracker implements PhaseTracker
 {
     private static final String MESSAGE_PREFIX = "TIME/PHASE ";
@@ -43,6 +50,7 @@ public class LoggingPhaseTracker implements PhaseTracker
     private long timeEnterPhase;
     private boolean stopped;
     private long lastPeriodReport = -1;
+    private final ThreadLocal<WorkerPhaseTracker> workers = new ThreadLocal<>();
 
     LoggingPhaseTracker( Log log )
     {
@@ -63,6 +71,27 @@ public class LoggingPhaseTracker implements PhaseTracker
 
     @Override
     public void enterPhase( Phase phase )
+    {
+        WorkerPhaseTracker worker = workers.get();
+        if ( worker != null )
+        {
+            worker.enterPhase( phase );
+        }
+        else
+        {
+            enterSharedPhase( phase );
+        }
+    }
+
+    @Override
+    public PhaseTracker startWorker()
+    {
+        WorkerPhaseTracker worker = new WorkerPhaseTracker();
+        workers.set( worker );
+        return worker;
+    }
+
+    private synchronized void enterSharedPhase( Phase phase )
     {
         if ( stopped )
         {
@@ -73,24 +102,38 @@ public class LoggingPhaseTracker implements PhaseTracker
             long now = logCurrentTime();
             currentPhase = phase;
             timeEnterPhase = now;
+            reportPeriodIfDue( now );
+        }
+    }
 
-            if ( lastPeriodReport == -1 )
-            {
-                lastPeriodReport = now;
-            }
+    private synchronized void merge( EnumMap<Phase,Counter> workerTimes, long now )
+    {
+        workerTimes.forEach( ( phase, counter ) ->
+        {
+            times.get( phase ).add( counter );
+            counter.reset();
+        } );
+        reportPeriodIfDue( now );
+    }
 
-            long millisSinceLastPeriodReport = now - lastPeriodReport;
-            if ( millisSinceLastPeriodReport >= periodInterval )
-            {
-                // Report period
-                periodReport( millisSinceLastPeriodReport );
-                lastPeriodReport = now;
-            }
+    private void reportPeriodIfDue( long now )
+    {
+        if ( lastPeriodReport == -1 )
+        {
+            lastPeriodReport = now;
+        }
+
+        long millisSinceLastPeriodReport = now - lastPeriodReport;
+        if ( millisSinceLastPeriodReport >= periodInterval )
+        {
+            // Report period
+            periodReport( millisSinceLastPeriodReport );
+            lastPeriodReport = now;
         }
     }
 
     @Override
-    public void stop()
+    public synchronized void stop()
     {
         stopped = true;
         logCurrentTime();
@@ -146,6 +189,76 @@ public class LoggingPhaseTracker implements PhaseTracker
         return now;
     }
 
+    /**
+     * Tracks the phases of the thread that started it. Only touches the shared tracker when it adds its times to it,
+     * so the thread can enter phases as often as it likes.
+     */
+    private class WorkerPhaseTracker implements PhaseTracker
+    {
+        private final EnumMap<Phase,Counter> workerTimes = new EnumMap<>( Phase.class );
+        private Phase workerPhase;
+        private long timeEnterWorkerPhase;
+        private long lastMerge;
+        private boolean workerStopped;
+
+        WorkerPhaseTracker()
+        {
+            for ( Phase phase : Phase.values() )
+            {
+                Counter counter = new Counter( phase );
+                counter.reset();
+                workerTimes.put( phase, counter );
+            }
+            lastMerge = clock.millis();
+        }
+
+        @Override
+        public void enterPhase( Phase phase )
+        {
+            if ( workerStopped )
+            {
+                throw new IllegalStateException( "Trying to report a new phase after phase tracker has been stopped." );
+            }
+            if ( phase != workerPhase )
+            {
+                long now = logWorkerTime();
+                workerPhase = phase;
+                timeEnterWorkerPhase = now;
+
+                if ( now - lastMerge >= periodInterval )
+                {
+                    merge( workerTimes, now );
+                    lastMerge = now;
+                }
+            }
+        }
+
+        @Override
+        public void stop()
+        {
+            workerStopped = true;
+            merge( workerTimes, logWorkerTime() );
+            workerPhase = null;
+            workers.remove();
+        }
+
+        @Override
+        public PhaseTracker startWorker()
+        {
+            return LoggingPhaseTracker.this.startWorker();
+        }
+
+        private long logWorkerTime()
+        {
+            long now = clock.millis();
+            if ( workerPhase != null )
+            {
+                workerTimes.get( workerPhase ).log( now - timeEnterWorkerPhase );
+            }
+            return now;
+        }
+    }
+
     public class Logger extends Counter
     {
         final Counter periodCounter;
@@ -163,6 +276,13 @@ public class LoggingPhaseTracker implements PhaseTracker
             periodCounter.log( timeMillis );
         }
 
+        @Override
+        void add( Counter other )
+        {
+            super.add( other );
+            periodCounter.add( other );
+        }
+
         Counter period()
         {
             return periodCounter;
@@ -190,6 +310,17 @@ public class LoggingPhaseTracker implements PhaseTracker
             minTime = Math.min( minTime, timeMillis );
         }
 
+        void add( Counter other )
+        {
+            if ( other.nbrOfReports > 0 )
+            {
+                totalTime += other.totalTime;
+                nbrOfReports += other.nbrOfReports;
+                maxTime = Math.max( maxTime, other.maxTime );
+                minTime = Math.min( minTime, other.minTime );
+            }
+        }
+
         void reset()
         {
             totalTime = 0;
@@ -68,7 +68,8 @@ import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
  * <li>{@link #indexAllEntities()}, which is a blocking call and will scan the entire store and
  * and generate updates that are fed into the {@link IndexPopulator populators}. Only a single call to this
  * method should be made during the life time of a {@link MultipleIndexPopulator} and should be called by the
- * same thread instantiating this instance.</li>
+ * same thread instantiating this instance. The store may be scanned by up to {@link #SCAN_THREADS} threads,
+ * which take turns to feed their updates to the populators.</li>
  * <li>{@link #queueUpdate(IndexEntryUpdate)} which queues updates which will be read by the thread currently executing
  * {@link #indexAllEntities()} and incorporated into that data stream. Calls to this method may come from any number
  * of concurrent threads.</li>
@@ -88,9 +89,12 @@ public class MultipleIndexPopulator implements IndexPopulator
 {
     public static final String QUEUE_THRESHOLD_NAME = "queue_threshold";
     static final String BATCH_SIZE_NAME = "batch_size";
+    static final String SCAN_THREADS_NAME = "scan_threads";
 
     final int QUEUE_THRESHOLD = FeatureToggles.getInteger( getClass(), QUEUE_THRESHOLD_NAME, 20_000 );
     final int BATCH_SIZE = FeatureToggles.getInteger( BatchingMultipleIndexPopulator.class, BATCH_SIZE_NAME, 10_000 );
+    final int SCAN_THREADS = FeatureToggles.getInteger( MultipleIndexPopulator.class, SCAN_THREADS_NAME,
+            Math.max( 1, Math.min( 4, Runtime.getRuntime().availableProcessors() / 2 ) ) );
 
     // Concurrency queue since multiple concurrent threads may enqueue updates into it. It is important for this queue
     // to have fast #size() method since it might be drained in batches
@@ -175,6 +179,7 @@ public class MultipleIndexPopulator implements IndexPopulator
             storeScan = storeView.visitNodes( entityTokenIds, propertyKeyIdFilter, new EntityPopulationVisitor(), null, false );
         }
         storeScan.setPhaseTracker( phaseTracker );
+        storeScan.setParallelism( SCAN_THREADS );
         return new DelegatingStoreScan<IndexPopulationFailedKernelException>( storeScan )
         {
             @Override
@@ -651,8 +656,13 @@ public class MultipleIndexPopulator implements IndexPopulator
     private class EntityPopulationVisitor implements Visitor<EntityUpdates,
             IndexPopulationFailedKernelException>
     {
+        /**
+         * May be called by several scan threads at once. They take turns, since batching the updates and applying
+         * the queued updates is not thread-safe, but the bulk of the work, reading the entities from the store,
+         * is done in parallel.
+         */
         @Override
-        public boolean visit( EntityUpdates updates )
+        public synchronized boolean visit( EntityUpdates updates )
         {
             add( updates );
             return populateFromQueueBatched( updates.getEntityId() );
@@ -707,5 +717,11 @@ public class MultipleIndexPopulator implements IndexPopulator
         {
             delegate.setPhaseTracker( phaseTracker );
         }
+
+        @Override
+        public void setParallelism( int threads )
+        {
+            delegate.setParallelism( threads );
+        }
     }
 }
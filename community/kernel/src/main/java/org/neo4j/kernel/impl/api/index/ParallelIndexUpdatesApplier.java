@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.helpers.Exceptions;
+import org.neo4j.internal.kernel.api.schema.SchemaDescriptor;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.util.concurrent.Futures;
+
+import static org.neo4j.helpers.NamedThreadFactory.daemon;
+
+/**
+ * Applies a batch of index updates, which may contain updates for several indexes, to the updaters of an {@link IndexUpdaterMap}.
+ * <p>
+ * An {@link IndexUpdater} is not thread safe, and the updates of an index must be processed in the order they appear in the batch,
+ * but the updaters of different indexes don't share any state. So the updates are grouped by index, and when more than one index
+ * is updated, the groups are processed in parallel, one thread per index, where the calling thread processes one of the groups itself.
+ * The updaters are looked up and closed by the calling thread, since the {@link IndexUpdaterMap} isn't thread safe either.
+ * <p>
+ * With a parallelism of {@code 1}, or when the batch only updates a single index, the updates are processed by the calling thread,
+ * as they stream by.
+ */
+class ParallelIndexUpdatesApplier implements AutoCloseable
+{
+    private static final String THREAD_NAME_PREFIX = "IndexUpdatesApplier";
+
+    private final int parallelism;
+    private ExecutorService executor;
+    private boolean closed;
+
+    ParallelIndexUpdatesApplier( int parallelism )
+    {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Processes the given updates with the updaters of the given {@link IndexUpdaterMap}. Updates for indexes that don't exist
+     * in the map are ignored. The updaters are left open, to be closed together with the map.
+     *
+     * @param updaterMap map of updaters to process the updates with.
+     * @param updates updates to process.
+     * @throws IndexEntryConflictException if any of the updaters found a conflict.
+     */
+    void apply( IndexUpdaterMap updaterMap, Iterable<IndexEntryUpdate<SchemaDescriptor>> updates ) throws IndexEntryConflictException
+    {
+        if ( parallelism <= 1 )
+        {
+            for ( IndexEntryUpdate<SchemaDescriptor> update : updates )
+            {
+                IndexUpdater updater = updaterMap.getUpdater( update.indexKey().schema() );
+                if ( updater != null )
+                {
+                    updater.process( update );
+                }
+            }
+            return;
+        }
+
+        List<UpdaterBatch> batches = groupByIndex( updaterMap, updates );
+        if ( batches.size() == 1 )
+        {
+            batches.get( 0 ).process();
+        }
+        else if ( batches.size() > 1 )
+        {
+            processInParallel( batches );
+        }
+    }
+
+    private static List<UpdaterBatch> groupByIndex( IndexUpdaterMap updaterMap, Iterable<IndexEntryUpdate<SchemaDescriptor>> updates )
+    {
+        Map<SchemaDescriptor,UpdaterBatch> batches = new LinkedHashMap<>();
+        for ( IndexEntryUpdate<SchemaDescriptor> update : updates )
+        {
+            SchemaDescriptor schema = update.indexKey().schema();
+            UpdaterBatch batch = batches.get( schema );
+            if ( batch == null )
+            {
+                IndexUpdater updater = updaterMap.getUpdater( schema );
+                if ( updater == null )
+                {
+                    continue;
+                }
+                batch = new UpdaterBatch( updater );
+                batches.put( schema, batch );
+            }
+            batch.updates.add( update );
+        }
+        return new ArrayList<>( batches.values() );
+    }
+
+    private void processInParallel( List<UpdaterBatch> batches ) throws IndexEntryConflictException
+    {
+        ExecutorService executor = executor();
+        List<Future<Void>> workers = new ArrayList<>( batches.size() - 1 );
+        for ( int i = 1; i < batches.size(); i++ )
+        {
+            UpdaterBatch batch = batches.get( i );
+            workers.add( executor.submit( () ->
+            {
+                batch.process();
+                return null;
+            } ) );
+        }
+
+        Throwable failure = null;
+        try
+        {
+            batches.get( 0 ).process();
+        }
+        catch ( Throwable t )
+        {
+            failure = t;
+        }
+        // Wait for all workers, also when one has failed, since the updaters are closed by the caller right after this
+        for ( Future<Void> worker : workers )
+        {
+            failure = Exceptions.chain( failure, Futures.awaitCompletion( worker ) );
+        }
+        if ( failure != null )
+        {
+            if ( failure instanceof IndexEntryConflictException )
+            {
+                throw (IndexEntryConflictException) failure;
+            }
+            Exceptions.throwIfUnchecked( failure );
+            throw new RuntimeException( failure );
+        }
+    }
+
+    private synchronized ExecutorService executor()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "Index updates applier has been closed" );
+        }
+        if ( executor == null )
+        {
+            executor = Executors.newFixedThreadPool( parallelism - 1, daemon( THREAD_NAME_PREFIX ) );
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+        if ( executor != null )
+        {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static class UpdaterBatch
+    {
+        private final IndexUpdater updater;
+        private final List<IndexEntryUpdate<SchemaDescriptor>> updates = new ArrayList<>();
+
+        UpdaterBatch( IndexUpdater updater )
+        {
+            this.updater = updater;
+        }
+
+        void process() throws IndexEntryConflictException
+        {
+            for ( IndexEntryUpdate<SchemaDescriptor> update : updates )
+            {
+                updater.process( update );
+            }
+        }
+    }
+}
@@ -25,6 +25,15 @@ public interface PhaseTracker
 
     void stop();
 
+    /**
+     * Start tracking the phases of the calling thread on its own, for when several threads work on the same phases at
+     * the same time, like the threads of a parallel store scan. Phases that the calling thread enters on this tracker
+     * are tracked by the returned tracker instead, until that is stopped by the same thread.
+     *
+     * @return a tracker for the phases of the calling thread only.
+     */
+    PhaseTracker startWorker();
+
     PhaseTracker nullInstance = new NullPhaseTracker();
 
     enum Phase
@@ -47,5 +56,11 @@ public interface PhaseTracker
         public void stop()
         {
         }
+
+        @Override
+        public PhaseTracker startWorker()
+        {
+            return this;
+        }
     }
 }
@@ -41,4 +41,14 @@ public interface StoreScan<FAILURE extends Exception>
     default void setPhaseTracker( PhaseTracker phaseTracker )
     {   // no-op
     }
+
+    /**
+     * Allow this {@link StoreScan} to divide the scan between the given number of threads, if it can.
+     * The visitors that this scan feeds must then be able to take concurrent visits.
+     * Must not be called once scan has already started.
+     * @param threads maximum number of threads to scan with.
+     */
+    default void setParallelism( int threads )
+    {   // no-op
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import java.io.IOException;
+
+import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.kernel.api.labelscan.LabelScanWriter;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+/**
+ * {@link FullStoreChangeStream} which scans all the relationships in a {@link RecordStore}, to rebuild a relationship
+ * type scan store. Each relationship is written as a {@link NodeLabelUpdate} where the node id is the relationship id,
+ * and the single label is the relationship type.
+ */
+public class FullRelationshipTypeStream implements FullStoreChangeStream, Visitor<RelationshipRecord,IOException>
+{
+    private final RecordStore<RelationshipRecord> relationshipStore;
+    private LabelScanWriter writer;
+    private long count;
+
+    public FullRelationshipTypeStream( RecordStore<RelationshipRecord> relationshipStore )
+    {
+        this.relationshipStore = relationshipStore;
+    }
+
+    @Override
+    public long applyTo( LabelScanWriter writer ) throws IOException
+    {
+        // Keep the write for using it in visit
+        this.writer = writer;
+        relationshipStore.scanAllRecords( this );
+        return count;
+    }
+
+    @Override
+    public boolean visit( RelationshipRecord record ) throws IOException
+    {
+        writer.write( NodeLabelUpdate.labelChanges( record.getId(), ArrayUtils.EMPTY_LONG_ARRAY, new long[]{record.getType()} ) );
+        count++;
+        return false;
+    }
+}
@@ -38,6 +38,8 @@ public class CommunityCommitProcessFactory implements CommitProcessFactory
         {
             return new ReadOnlyTransactionCommitProcess();
         }
-        return new TransactionRepresentationCommitProcess( appender, storageEngine );
+        return new TransactionRepresentationCommitProcess( appender, storageEngine,
+                config.get( GraphDatabaseSettings.group_commit_max_transactions ),
+                config.get( GraphDatabaseSettings.group_commit_max_wait ) );
     }
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.neo4j.index.internal.gbptree.BulkLoader;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.api.labelscan.LabelScanWriter;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.index.schema.BlockEntryReader;
+import org.neo4j.kernel.impl.index.schema.BlockReader;
+import org.neo4j.kernel.impl.index.schema.BlockStorage;
+import org.neo4j.util.FeatureToggles;
+
+import static java.lang.Math.toIntExact;
+import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RANGE_SIZE;
+import static org.neo4j.kernel.impl.index.labelscan.NativeLabelScanWriter.rangeOf;
+
+/**
+ * {@link LabelScanWriter} which builds the {@link GBPTree} of an empty {@link NativeLabelScanStore} bottom-up, using
+ * its {@link BulkLoader}. Used when rebuilding the store from scratch and when importing, where all updates are label
+ * additions given in ascending node id order.
+ * <p>
+ * The bits of the current node id range of each label are collected in memory. When a label moves on to a later range,
+ * the completed range is added to a {@link BlockStorage}, which sorts the ranges by label id, spilling sorted blocks
+ * to disk when they don't fit in memory. On {@link #close()} the blocks are merged and the ranges bulk loaded into
+ * the tree in sorted order. Nothing is visible to readers before the writer has been closed.
+ */
+class NativeLabelScanBulkWriter implements LabelScanWriter
+{
+    private static final int BLOCK_SIZE = FeatureToggles.getInteger( NativeLabelScanBulkWriter.class, "blockSize", (int) ByteUnit.mebiBytes( 1 ) );
+    private static final int MERGE_FACTOR = FeatureToggles.getInteger( NativeLabelScanBulkWriter.class, "mergeFactor", 8 );
+    private static final long NO_RANGE = -1;
+
+    private final GBPTree<LabelScanKey,LabelScanValue> index;
+    private final LabelScanLayout layout;
+    private final BlockStorage<LabelScanKey,LabelScanValue> blockStorage;
+
+    /**
+     * Current node id range of each label, indexed by label id.
+     */
+    private long[] ranges = new long[0];
+
+    /**
+     * Bits set so far in the current node id range of each label, indexed by label id.
+     */
+    private long[] bits = new long[0];
+
+    NativeLabelScanBulkWriter( GBPTree<LabelScanKey,LabelScanValue> index, FileSystemAbstraction fs, File blockFile ) throws IOException
+    {
+        this.index = index;
+        this.layout = new LabelScanLayout();
+        this.blockStorage = new BlockStorage<>( layout, ByteBuffer::allocate, fs, blockFile, BlockStorage.Monitor.NO_MONITOR, BLOCK_SIZE );
+    }
+
+    @Override
+    public void write( NodeLabelUpdate update ) throws IOException
+    {
+        long[] labelsBefore = update.getLabelsBefore();
+        if ( labelsBefore.length > 0 && labelsBefore[0] != -1 )
+        {
+            throw new IllegalArgumentException( "Bulk writer only supports label additions, but got " + update );
+        }
+
+        long nodeId = update.getNodeId();
+        long idRange = rangeOf( nodeId );
+        long bit = 1L << toIntExact( nodeId % RANGE_SIZE );
+        for ( long label : update.getLabelsAfter() )
+        {
+            if ( label == -1 )
+            {
+                break;
+            }
+            int labelId = toIntExact( label );
+            ensureCapacity( labelId );
+            if ( ranges[labelId] != idRange )
+            {
+                flushRange( labelId );
+                ranges[labelId] = idRange;
+            }
+            bits[labelId] |= bit;
+        }
+    }
+
+    private void ensureCapacity( int labelId )
+    {
+        if ( labelId >= ranges.length )
+        {
+            int oldLength = ranges.length;
+            int newLength = Math.max( labelId + 1, oldLength * 2 );
+            ranges = Arrays.copyOf( ranges, newLength );
+            bits = Arrays.copyOf( bits, newLength );
+            Arrays.fill( ranges, oldLength, newLength, NO_RANGE );
+        }
+    }
+
+    private void flushRange( int labelId ) throws IOException
+    {
+        if ( bits[labelId] != 0 )
+        {
+            LabelScanValue value = new LabelScanValue();
+            value.bits = bits[labelId];
+            blockStorage.add( new LabelScanKey( labelId, ranges[labelId] ), value );
+            bits[labelId] = 0;
+        }
+    }
+
+    /**
+     * Sorts all collected ranges and bulk loads them into the tree.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            for ( int labelId = 0; labelId < ranges.length; labelId++ )
+            {
+                flushRange( labelId );
+            }
+            blockStorage.doneAdding();
+            blockStorage.merge( MERGE_FACTOR );
+            try ( BlockReader<LabelScanKey,LabelScanValue> reader = blockStorage.reader();
+                  BulkLoader<LabelScanKey,LabelScanValue> bulkLoader = index.bulkLoader() )
+            {
+                BlockEntryReader<LabelScanKey,LabelScanValue> entries = reader.nextBlock();
+                if ( entries != null )
+                {
+                    try ( BlockEntryReader<LabelScanKey,LabelScanValue> sortedEntries = entries )
+                    {
+                        bulkLoad( sortedEntries, bulkLoader );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            blockStorage.close();
+        }
+    }
+
+    private void bulkLoad( BlockEntryReader<LabelScanKey,LabelScanValue> entries, BulkLoader<LabelScanKey,LabelScanValue> bulkLoader )
+            throws IOException
+    {
+        LabelScanKey key = new LabelScanKey();
+        LabelScanValue value = new LabelScanValue();
+        boolean hasKey = false;
+        while ( entries.next() )
+        {
+            if ( hasKey && layout.compare( key, entries.key() ) == 0 )
+            {
+                // Only happens if updates weren't ordered by node id, in which case a range can be completed more than once
+                value.add( entries.value() );
+                continue;
+            }
+            if ( hasKey )
+            {
+                bulkLoader.add( key, value );
+            }
+            key.set( entries.key().labelId, entries.key().idRange );
+            value.clear();
+            value.add( entries.value() );
+            hasKey = true;
+        }
+        if ( hasKey )
+        {
+            bulkLoader.add( key, value );
+        }
+    }
+}
@@ -24,9 +24,9 @@ import org.eclipse.collections.api.iterator.LongIterator;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.cursor.RawCursor;
@@ -55,14 +55,15 @@ class NativeLabelScanReader implements LabelScanReader
 
     /**
      * Currently open {@link RawCursor} from query methods below. Open cursors are closed when calling
-     * new query methods or when {@link #close() closing} this reader.
+     * new query methods or when {@link #close() closing} this reader. The set is concurrent, since ranged label scans
+     * may be set up, and closed, by multiple threads at the same time.
      */
     private final Set<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> openCursors;
 
     NativeLabelScanReader( GBPTree<LabelScanKey,LabelScanValue> index )
     {
         this.index = index;
-        this.openCursors = new HashSet<>();
+        this.openCursors = ConcurrentHashMap.newKeySet();
     }
 
     /**
@@ -129,6 +130,23 @@ class NativeLabelScanReader implements LabelScanReader
         client.scan( new LabelScanValueIndexProgressor( cursor, openCursors, client ), false, labelId );
     }
 
+    @Override
+    public void nodesWithLabel( IndexProgressor.NodeLabelClient client, int labelId, long fromId, long toId )
+    {
+        RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor;
+        try
+        {
+            cursor = index.seek( new LabelScanKey( labelId, rangeOf( fromId ) ), new LabelScanKey( labelId, rangeOf( toId ) ) );
+            openCursors.add( cursor );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+
+        client.scan( new LabelScanValueIndexProgressor( cursor, openCursors, client ), false, labelId );
+    }
+
     private List<PrimitiveLongResourceIterator> iteratorsForLabels( long fromId, int[] labelIds )
     {
         List<PrimitiveLongResourceIterator> iterators = new ArrayList<>();
@@ -188,13 +188,24 @@ public class NativeLabelScanStore implements LabelScanStore
     NativeLabelScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs,
                 FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors,
                 RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, int pageSize )
+    {
+        this( pageCache, directoryStructure, getLabelScanStoreFile( directoryStructure ), fs, fullStoreChangeStream, readOnly, monitors,
+                recoveryCleanupWorkCollector, pageSize );
+    }
+
+    /*
+     * For token scan stores that share the format of the label scan store, but are backed by a different store file.
+     */
+    protected NativeLabelScanStore( PageCache pageCache, DatabaseLayout directoryStructure, File storeFile, FileSystemAbstraction fs,
+            FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, int pageSize )
     {
         this.pageCache = pageCache;
         this.fs = fs;
         this.pageSize = pageSize;
         this.fullStoreChangeStream = fullStoreChangeStream;
         this.directoryStructure = directoryStructure;
-        this.storeFile = getLabelScanStoreFile( directoryStructure );
+        this.storeFile = storeFile;
         this.readOnly = readOnly;
         this.monitors = monitors;
         this.monitor = monitors.newMonitor( Monitor.class );
@@ -251,6 +262,32 @@ public class NativeLabelScanStore implements LabelScanStore
         }
     }
 
+    /**
+     * Returns {@link LabelScanWriter} which builds the {@link GBPTree} bottom-up if this {@link LabelScanStore} is empty,
+     * otherwise a regular {@link #newWriter() writer}.
+     *
+     * @return {@link LabelScanWriter} capable of populating this {@link LabelScanStore}.
+     * @throws IllegalStateException if someone else has already acquired a writer and hasn't yet
+     * called {@link LabelScanWriter#close()}.
+     */
+    @Override
+    public LabelScanWriter newBulkAppendWriter()
+    {
+        if ( readOnly )
+        {
+            throw new UnsupportedOperationException( "Can't create index writer in read only mode." );
+        }
+
+        try
+        {
+            return bulkAppendWriter();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     /**
      * Forces all changes to {@link PageCache} and creates a checkpoint so that the {@link LabelScanStore}
      * is recoverable from this point, given that the same transactions which will be applied after this point
@@ -336,7 +373,7 @@ public class NativeLabelScanStore implements LabelScanStore
             isDirty = true;
         }
 
-        writeMonitor = LabelScanWriteMonitor.ENABLED ? new LabelScanWriteMonitor( fs, directoryStructure ) : NativeLabelScanWriter.EMPTY;
+        writeMonitor = createWriteMonitor();
         singleWriter = new NativeLabelScanWriter( 1_000, writeMonitor );
 
         if ( isDirty )
@@ -351,6 +388,14 @@ public class NativeLabelScanStore implements LabelScanStore
         }
     }
 
+    /**
+     * @return the monitor which gets notified about the writes made to this store.
+     */
+    protected NativeLabelScanWriter.WriteMonitor createWriteMonitor()
+    {
+        return LabelScanWriteMonitor.ENABLED ? new LabelScanWriteMonitor( fs, directoryStructure ) : NativeLabelScanWriter.EMPTY;
+    }
+
     @Override
     public boolean hasStore()
     {
@@ -421,7 +466,7 @@ public class NativeLabelScanStore implements LabelScanStore
             long numberOfNodes;
 
             // Intentionally ignore read-only flag here when rebuilding.
-            try ( LabelScanWriter writer = writer() )
+            try ( LabelScanWriter writer = bulkAppendWriter() )
             {
                 numberOfNodes = fullStoreChangeStream.applyTo( writer );
             }
@@ -438,6 +483,15 @@ public class NativeLabelScanStore implements LabelScanStore
         return singleWriter.initialize( index.writer() );
     }
 
+    private LabelScanWriter bulkAppendWriter() throws IOException
+    {
+        if ( !isEmpty() )
+        {
+            return writer();
+        }
+        return new NativeLabelScanBulkWriter( index, fileSystem, new File( storeFile.getParentFile(), storeFile.getName() + ".bulk" ) );
+    }
+
     @Override
     public boolean isEmpty() throws IOException
     {
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import java.io.File;
+
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.labelscan.RelationshipTypeScanStore;
+import org.neo4j.kernel.impl.api.scan.FullStoreChangeStream;
+import org.neo4j.kernel.monitoring.Monitors;
+
+/**
+ * {@link RelationshipTypeScanStore} which uses the same {@link org.neo4j.index.internal.gbptree.GBPTree} format as the
+ * {@link NativeLabelScanStore}. Each key is a combination of {@code relationshipTypeId} and {@code relationshipIdRange},
+ * and each value is a bit set of the relationships of that type in that range.
+ * <p>
+ * This store is backed by a single store file "neostore.relationshiptypescanstore.db".
+ */
+public class NativeRelationshipTypeScanStore extends NativeLabelScanStore implements RelationshipTypeScanStore
+{
+    public NativeRelationshipTypeScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs,
+            FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+    {
+        super( pageCache, directoryStructure, getRelationshipTypeScanStoreFile( directoryStructure ), fs, fullStoreChangeStream, readOnly,
+                monitors, recoveryCleanupWorkCollector, /*means no opinion about page size*/ 0 );
+    }
+
+    /**
+     * Returns the file backing the relationship type scan store.
+     *
+     * @param directoryStructure The store directory to use.
+     * @return the file backing the relationship type scan store
+     */
+    public static File getRelationshipTypeScanStoreFile( DatabaseLayout directoryStructure )
+    {
+        return directoryStructure.relationshipTypeScanStore();
+    }
+
+    /**
+     * The write log of the {@link LabelScanWriteMonitor} is only kept for the label scan store.
+     */
+    @Override
+    protected NativeLabelScanWriter.WriteMonitor createWriteMonitor()
+    {
+        return NativeLabelScanWriter.EMPTY;
+    }
+}
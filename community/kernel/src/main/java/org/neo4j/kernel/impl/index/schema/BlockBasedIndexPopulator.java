@@ -35,6 +35,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.Hit;
 import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.io.ByteUnit;
@@ -342,17 +343,28 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft ) )
+            // The entries come in sorted order and the tree is still empty, so it can be built bottom-up
+            try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader() )
             {
+                KEY previousKey = layout.newKey();
+                boolean hasPreviousKey = false;
                 while ( allEntries.next() )
                 {
-                    conflictDetector.controlConflictDetection( allEntries.key() );
-                    writer.merge( allEntries.key(), allEntries.value(), conflictDetector );
-                    if ( conflictDetector.wasConflicting() )
+                    KEY key = allEntries.key();
+                    conflictDetector.controlConflictDetection( key );
+                    if ( hasPreviousKey && layout.compare( previousKey, key ) == 0 )
                     {
-                        conflictDetector.reportConflict( allEntries.key().asValues() );
+                        // A writer would have merged this entry into the previous one, so let the conflict detector decide
+                        conflictDetector.merge( previousKey, key, allEntries.value(), allEntries.value() );
+                        if ( conflictDetector.wasConflicting() )
+                        {
+                            conflictDetector.reportConflict( key.asValues() );
+                        }
+                        continue;
                     }
+                    bulkLoader.add( key, allEntries.value() );
+                    layout.copyKey( key, previousKey );
+                    hasPreviousKey = true;
                 }
             }
         }
@@ -45,7 +45,7 @@ import org.neo4j.util.Preconditions;
  * larger blocks of sorted entries. Those larger blocks are then merge joined back to the original file. Merging continues in this ping pong fashion until
  * there is only a single large block in the resulting file. The entries are now ready to be read in sorted order, call {@link #reader()}.
  */
-class BlockStorage<KEY, VALUE> implements Closeable
+public class BlockStorage<KEY, VALUE> implements Closeable
 {
     static final int BLOCK_HEADER_SIZE = Long.BYTES  // blockSize
                                        + Long.BYTES; // entryCount
@@ -64,7 +64,7 @@ class BlockStorage<KEY, VALUE> implements Closeable
     private int currentBufferSize;
     private boolean doneAdding;
 
-    BlockStorage( Layout<KEY,VALUE> layout, ByteBufferFactory bufferFactory, FileSystemAbstraction fs, File blockFile, Monitor monitor, int blockSize )
+    public BlockStorage( Layout<KEY,VALUE> layout, ByteBufferFactory bufferFactory, FileSystemAbstraction fs, File blockFile, Monitor monitor, int blockSize )
             throws IOException
     {
         this.layout = layout;
@@ -98,7 +98,7 @@ class BlockStorage<KEY, VALUE> implements Closeable
         monitor.entryAdded( entrySize );
     }
 
-    void doneAdding() throws IOException
+    public void doneAdding() throws IOException
     {
         if ( !bufferedEntries.isEmpty() )
         {
@@ -297,7 +297,7 @@ class BlockStorage<KEY, VALUE> implements Closeable
         fs.deleteFile( blockFile );
     }
 
-    BlockReader<KEY,VALUE> reader() throws IOException
+    public BlockReader<KEY,VALUE> reader() throws IOException
     {
         return reader( blockFile );
     }
@@ -22,7 +22,7 @@ package org.neo4j.kernel.impl.index.schema;
 import java.nio.ByteBuffer;
 
 @FunctionalInterface
-interface ByteBufferFactory
+public interface ByteBufferFactory
 {
     ByteBuffer newBuffer( int bufferSize );
 }
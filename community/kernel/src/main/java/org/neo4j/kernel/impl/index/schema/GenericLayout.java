@@ -21,9 +21,14 @@ package org.neo4j.kernel.impl.index.schema;
 
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.ENTITY_ID_SIZE;
 
 class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
 {
+    private static final boolean COMPRESS_KEY_PREFIXES = FeatureToggles.flag( GenericLayout.class, "compressKeyPrefixes", false );
+
     private final int numberOfSlots;
     private final IndexSpecificSpaceFillingCurveSettingsCache spatialSettings;
 
@@ -75,6 +80,13 @@ class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
         return false;
     }
 
+    @Override
+    public int keyPrefixCompressionOffset()
+    {
+        // The entity id is written first and differs between neighbouring keys, the value after it is what they have in common
+        return COMPRESS_KEY_PREFIXES ? ENTITY_ID_SIZE : NO_KEY_PREFIX_COMPRESSION;
+    }
+
     @Override
     public void minimalSplitter( GenericKey left, GenericKey right, GenericKey into )
     {
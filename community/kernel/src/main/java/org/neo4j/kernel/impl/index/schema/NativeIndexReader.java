@@ -69,10 +69,10 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         // the number of indexed values and create a sample for that count. The GBPTree doesn't have an O(1)
         // count mechanism, it will have to manually count the indexed values in it to get it.
         // For that reason this implementation opts for keeping complexity down by just using the existing
-        // non-unique sampler which scans the index and counts (potentially duplicates, of which there will
-        // be none in a unique index).
+        // non-unique sampler which counts (potentially duplicates, of which there will be none in a unique index).
+        // Large trees are only sampled in a selection of ranges, so that resampling doesn't read the whole index.
 
-        FullScanNonUniqueIndexSampler<KEY,VALUE> sampler = new FullScanNonUniqueIndexSampler<>( tree, layout );
+        PartitionedNonUniqueIndexSampler<KEY,VALUE> sampler = new PartitionedNonUniqueIndexSampler<>( tree, layout );
         return sampler::result;
     }
 
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Random;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.kernel.impl.api.index.sampling.NonUniqueIndexSampler;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * {@link NonUniqueIndexSampler} which only reads a random selection of ranges of a {@link GBPTree} in {@link #result()},
+ * instead of the whole tree, like the {@link FullScanNonUniqueIndexSampler} does.
+ * <p>
+ * The tree is split into ranges of roughly the same size using {@link GBPTree#partitionKeys(int) keys from its internal nodes}.
+ * Only {@link #SAMPLED_RANGES} of those ranges are read and the size of the index is estimated from the number of entries
+ * in them. The number of unique values is counted in the sampled entries, which means that the sample reflects the
+ * selectivity of the index, as long as the sampled ranges are representative of the whole index. Trees that are too small
+ * to be split into more ranges than that are fully scanned, since reading all of them is cheap anyway.
+ *
+ * @param <KEY> type of keys in tree.
+ * @param <VALUE> type of values in tree.
+ */
+class PartitionedNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
+        extends NonUniqueIndexSampler.Adapter
+{
+    static final int SAMPLED_RANGES = FeatureToggles.getInteger( PartitionedNonUniqueIndexSampler.class, "sampled_ranges", 100 );
+    /**
+     * Number of ranges to split the tree into for every sampled range.
+     */
+    static final int RANGES_PER_SAMPLED_RANGE = FeatureToggles.getInteger( PartitionedNonUniqueIndexSampler.class, "ranges_per_sampled_range", 10 );
+
+    private final GBPTree<KEY,VALUE> gbpTree;
+    private final IndexLayout<KEY,VALUE> layout;
+    private final int sampledRanges;
+    private final int rangesPerSampledRange;
+    private final Random random;
+
+    PartitionedNonUniqueIndexSampler( GBPTree<KEY,VALUE> gbpTree, IndexLayout<KEY,VALUE> layout )
+    {
+        this( gbpTree, layout, SAMPLED_RANGES, RANGES_PER_SAMPLED_RANGE, new Random() );
+    }
+
+    PartitionedNonUniqueIndexSampler( GBPTree<KEY,VALUE> gbpTree, IndexLayout<KEY,VALUE> layout, int sampledRanges,
+            int rangesPerSampledRange, Random random )
+    {
+        this.gbpTree = gbpTree;
+        this.layout = layout;
+        this.sampledRanges = sampledRanges;
+        this.rangesPerSampledRange = rangesPerSampledRange;
+        this.random = random;
+    }
+
+    @Override
+    public IndexSample result()
+    {
+        try
+        {
+            List<KEY> partitionKeys = gbpTree.partitionKeys( (int) Math.min( Integer.MAX_VALUE, (long) sampledRanges * rangesPerSampledRange ) );
+            int ranges = partitionKeys.size() + 1;
+            if ( ranges <= sampledRanges )
+            {
+                return new FullScanNonUniqueIndexSampler<>( gbpTree, layout ).result();
+            }
+
+            // Pick the ranges to sample evenly spread over the tree, with a random offset inside each stretch of ranges.
+            // The ranges are sampled in ascending order, so a value that spans ranges is only counted as unique once.
+            KEY prev = layout.newKey();
+            long[] counts = new long[2];
+            for ( int i = 0; i < sampledRanges; i++ )
+            {
+                int stretchStart = (int) ((long) ranges * i / sampledRanges);
+                int stretchEnd = (int) ((long) ranges * (i + 1) / sampledRanges);
+                int range = stretchStart + random.nextInt( stretchEnd - stretchStart );
+                KEY from = range == 0 ? lowest() : partitionKeys.get( range - 1 );
+                KEY to = range == ranges - 1 ? highest() : partitionKeys.get( range );
+                countValues( from, to, prev, counts );
+            }
+            long sampledValues = counts[0];
+            long uniqueValues = counts[1];
+            long indexSize = Math.round( (double) sampledValues * ranges / sampledRanges );
+            return new IndexSample( indexSize, uniqueValues, sampledValues );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Add the number of values in the given range, and the number of unique values among them, to the given counts.
+     *
+     * @param prev the last key of the previously counted range, which is updated to the last key of this range.
+     * The first key of this range is not a new unique value if it has the same value.
+     * @param counts the number of values, followed by the number of unique values, in the previously counted ranges.
+     */
+    private void countValues( KEY from, KEY to, KEY prev, long[] counts ) throws IOException
+    {
+        long values = counts[0];
+        long uniqueValues = counts[1];
+        try ( RawCursor<Hit<KEY,VALUE>,IOException> seek = gbpTree.seek( from, to ) )
+        {
+            while ( seek.next() )
+            {
+                Hit<KEY,VALUE> hit = seek.get();
+                if ( values == 0 || layout.compareValue( prev, hit.key() ) != 0 )
+                {
+                    uniqueValues++;
+                    layout.copyKey( hit.key(), prev );
+                }
+                values++;
+            }
+        }
+        counts[0] = values;
+        counts[1] = uniqueValues;
+    }
+
+    private KEY lowest()
+    {
+        KEY lowest = layout.newKey();
+        lowest.initialize( Long.MIN_VALUE );
+        lowest.initValuesAsLowest();
+        return lowest;
+    }
+
+    private KEY highest()
+    {
+        KEY highest = layout.newKey();
+        highest.initialize( Long.MAX_VALUE );
+        highest.initValuesAsHighest();
+        return highest;
+    }
+
+    @Override
+    public IndexSample result( int numDocs )
+    {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.index.schema;
 
 import org.neo4j.index.internal.gbptree.Layout;
 import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.util.FeatureToggles;
 
 import static java.lang.Math.min;
 import static java.lang.String.format;
@@ -31,6 +32,8 @@ import static org.neo4j.kernel.impl.index.schema.StringIndexKey.ENTITY_ID_SIZE;
  */
 class StringLayout extends IndexLayout<StringIndexKey,NativeIndexValue>
 {
+    private static final boolean COMPRESS_KEY_PREFIXES = FeatureToggles.flag( StringLayout.class, "compressKeyPrefixes", false );
+
     StringLayout()
     {
         super( "USI", 0, 1 );
@@ -84,6 +87,13 @@ class StringLayout extends IndexLayout<StringIndexKey,NativeIndexValue>
         return false;
     }
 
+    @Override
+    public int keyPrefixCompressionOffset()
+    {
+        // The entity id is written first and differs between neighbouring keys, the value after it is what they have in common
+        return COMPRESS_KEY_PREFIXES ? ENTITY_ID_SIZE : NO_KEY_PREFIX_COMPRESSION;
+    }
+
     @Override
     public void minimalSplitter( StringIndexKey left, StringIndexKey right, StringIndexKey into )
     {
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * The lock state of a single resource, as seen by all clients. Access to all of the state is guarded by the monitor
+ * of the {@link StripedLockManager.Stripe} that the resource maps to.
+ * <p>
+ * A client can hold the exclusive lock and the shared lock of a resource at the same time. The reference counting
+ * of reentrant acquisitions is done by each {@link StripedLockClient}, so a client is only ever registered once as a
+ * holder here.
+ */
+final class ResourceLock
+{
+    final ResourceType resourceType;
+    final long resourceId;
+
+    private StripedLockClient exclusiveHolder;
+    private final Set<StripedLockClient> sharedHolders = new HashSet<>();
+    private final List<StripedLockClient> waiters = new ArrayList<>( 2 );
+
+    ResourceLock( ResourceType resourceType, long resourceId )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+    }
+
+    boolean tryAcquire( StripedLockClient client, boolean exclusive )
+    {
+        if ( exclusiveHolder != null && exclusiveHolder != client )
+        {
+            return false;
+        }
+        if ( exclusive )
+        {
+            if ( !sharedHolders.isEmpty() && (sharedHolders.size() > 1 || !sharedHolders.contains( client )) )
+            {
+                return false;
+            }
+            exclusiveHolder = client;
+        }
+        else
+        {
+            sharedHolders.add( client );
+        }
+        return true;
+    }
+
+    /**
+     * Release the lock held by the given client, and wake up all of the clients waiting for this resource, so they
+     * can try to grab the lock again.
+     */
+    void release( StripedLockClient client, boolean exclusive )
+    {
+        if ( exclusive )
+        {
+            if ( exclusiveHolder != client )
+            {
+                throw new IllegalStateException( client + " does not hold " + this );
+            }
+            exclusiveHolder = null;
+        }
+        else if ( !sharedHolders.remove( client ) )
+        {
+            throw new IllegalStateException( client + " does not hold shared lock on " + this );
+        }
+        for ( StripedLockClient waiter : waiters )
+        {
+            LockSupport.unpark( waiter.waitingThread );
+        }
+    }
+
+    void addWaiter( StripedLockClient client )
+    {
+        waiters.add( client );
+    }
+
+    void removeWaiter( StripedLockClient client )
+    {
+        waiters.remove( client );
+    }
+
+    boolean isHeld()
+    {
+        return exclusiveHolder != null || !sharedHolders.isEmpty();
+    }
+
+    boolean isFree()
+    {
+        return !isHeld() && waiters.isEmpty();
+    }
+
+    void collectHolders( List<StripedLockClient> holders )
+    {
+        if ( exclusiveHolder != null )
+        {
+            holders.add( exclusiveHolder );
+        }
+        holders.addAll( sharedHolders );
+    }
+
+    String describe()
+    {
+        return this + " exclusiveHolder=" + exclusiveHolder + " sharedHolders=" + sharedHolders + " waiters=" + waiters;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ResourceLock{" + resourceType + "(" + resourceId + ")}";
+    }
+}
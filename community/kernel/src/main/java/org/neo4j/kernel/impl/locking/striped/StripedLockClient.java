@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.storageengine.api.lock.LockTracer;
+import org.neo4j.storageengine.api.lock.LockWaitEvent;
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+import static java.lang.String.format;
+
+/**
+ * A client of the {@link StripedLockManager}. Reentrant acquisitions are counted in the client local maps, and only
+ * the first acquisition and the last release of a lock touch the shared {@link ResourceLock}.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    private static final AtomicInteger IDS = new AtomicInteger();
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+
+    private final StripedLockManager manager;
+    private final int id = IDS.getAndIncrement();
+    private final MutableIntObjectMap<MutableLongIntMap> sharedLocks = new IntObjectHashMap<>();
+    private final MutableIntObjectMap<MutableLongIntMap> exclusiveLocks = new IntObjectHashMap<>();
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    /**
+     * The lock this client is blocked on, if any. Other clients read this when they look for deadlocks.
+     */
+    volatile ResourceLock waitingFor;
+    volatile Thread waitingThread;
+
+    StripedLockClient( StripedLockManager manager )
+    {
+        this.manager = manager;
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        acquire( tracer, resourceType, resourceIds, false );
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        acquire( tracer, resourceType, resourceIds, true );
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        return tryAcquire( resourceType, resourceId, true );
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        return tryAcquire( resourceType, resourceId, false );
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        return reEnter( resourceType, resourceId, false );
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        return reEnter( resourceType, resourceId, true );
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        release( resourceType, resourceIds, false );
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        release( resourceType, resourceIds, true );
+    }
+
+    private void acquire( LockTracer tracer, ResourceType resourceType, long[] resourceIds, boolean exclusive )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localLocks( resourceType, exclusive );
+            for ( long resourceId : resourceIds )
+            {
+                int count = localLocks.get( resourceId );
+                if ( count == 0 )
+                {
+                    acquireGlobal( tracer, resourceType, resourceId, exclusive );
+                }
+                localLocks.put( resourceId, count + 1 );
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private boolean tryAcquire( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localLocks( resourceType, exclusive );
+            int count = localLocks.get( resourceId );
+            if ( count == 0 )
+            {
+                StripedLockManager.Stripe stripe = manager.stripe( resourceType, resourceId );
+                synchronized ( stripe )
+                {
+                    ResourceLock lock = stripe.getOrCreate( resourceType, resourceId );
+                    if ( !lock.tryAcquire( this, exclusive ) )
+                    {
+                        stripe.removeIfFree( lock );
+                        return false;
+                    }
+                }
+            }
+            localLocks.put( resourceId, count + 1 );
+            return true;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private boolean reEnter( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localLocks( resourceType, exclusive );
+            int count = localLocks.get( resourceId );
+            if ( count == 0 )
+            {
+                return false;
+            }
+            localLocks.put( resourceId, count + 1 );
+            return true;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private void release( ResourceType resourceType, long[] resourceIds, boolean exclusive )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localLocks( resourceType, exclusive );
+            for ( long resourceId : resourceIds )
+            {
+                int count = localLocks.get( resourceId );
+                if ( count == 0 )
+                {
+                    throw new IllegalStateException( format( "%s cannot release %s lock on %s(%d) that it does not hold",
+                            this, exclusive ? "exclusive" : "shared", resourceType, resourceId ) );
+                }
+                if ( count == 1 )
+                {
+                    localLocks.remove( resourceId );
+                    releaseGlobal( resourceType, resourceId, exclusive );
+                }
+                else
+                {
+                    localLocks.put( resourceId, count - 1 );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private void acquireGlobal( LockTracer tracer, ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        StripedLockManager.Stripe stripe = manager.stripe( resourceType, resourceId );
+        ResourceLock lock;
+        synchronized ( stripe )
+        {
+            lock = stripe.getOrCreate( resourceType, resourceId );
+            if ( lock.tryAcquire( this, exclusive ) )
+            {
+                return;
+            }
+            waitingThread = Thread.currentThread();
+            lock.addWaiter( this );
+        }
+        waitForLock( tracer, stripe, lock, exclusive );
+    }
+
+    /**
+     * Block until the given lock has been granted to this client. The client must already have been added as a
+     * waiter of the lock. Looking for deadlocks is only done here, so clients that get their locks right away never
+     * pay for it.
+     */
+    private void waitForLock( LockTracer tracer, StripedLockManager.Stripe stripe, ResourceLock lock,
+            boolean exclusive )
+    {
+        LockWaitEvent waitEvent = tracer.waitForLock( exclusive, lock.resourceType, lock.resourceId );
+        long timeoutMillis = manager.lockAcquisitionTimeoutMillis();
+        long timeBoundary = manager.clock().millis() + timeoutMillis;
+        boolean acquired = false;
+        waitingFor = lock;
+        try
+        {
+            for ( ; ; )
+            {
+                if ( stateHolder.isStopped() )
+                {
+                    throw new LockClientStoppedException( this );
+                }
+                if ( timeoutMillis > 0 && timeBoundary < manager.clock().millis() )
+                {
+                    throw new LockAcquisitionTimeoutException( lock.resourceType, lock.resourceId, timeoutMillis );
+                }
+                detectDeadlock( lock, exclusive );
+
+                long parkNanos = MAX_PARK_NANOS;
+                if ( timeoutMillis > 0 )
+                {
+                    long remainingMillis = Math.abs( timeBoundary - manager.clock().millis() );
+                    parkNanos = Math.min( parkNanos, TimeUnit.MILLISECONDS.toNanos( remainingMillis ) + 1 );
+                }
+                LockSupport.parkNanos( lock, parkNanos );
+                // Like the community lock manager, waiting for a lock is not interruptible. Clear the flag, or we
+                // would not park again.
+                Thread.interrupted();
+
+                synchronized ( stripe )
+                {
+                    if ( lock.tryAcquire( this, exclusive ) )
+                    {
+                        // Stop looking like a waiter before other clients can see us as a holder of the lock.
+                        waitingFor = null;
+                        acquired = true;
+                        return;
+                    }
+                }
+            }
+        }
+        finally
+        {
+            waitingFor = null;
+            synchronized ( stripe )
+            {
+                lock.removeWaiter( this );
+                if ( !acquired )
+                {
+                    stripe.removeIfFree( lock );
+                }
+            }
+            waitingThread = null;
+            waitEvent.close();
+        }
+    }
+
+    /**
+     * Walk the wait graph, from the holders of the lock that this client is about to wait for, through the locks
+     * that those holders are waiting for in turn. If the walk leads back to this client, waiting would never end.
+     */
+    private void detectDeadlock( ResourceLock lock, boolean exclusive )
+    {
+        List<StripedLockClient> toVisit = new ArrayList<>();
+        manager.collectHolders( lock, toVisit );
+        // This client may hold the shared lock of a resource it wants to lock exclusively; it's not waiting for itself.
+        toVisit.removeIf( holder -> holder == this );
+        Set<StripedLockClient> visited = new HashSet<>();
+        while ( !toVisit.isEmpty() )
+        {
+            StripedLockClient client = toVisit.remove( toVisit.size() - 1 );
+            if ( client == this )
+            {
+                throw new DeadlockDetectedException( format(
+                        "%s can't acquire %s lock on %s(%d), because holders of that lock are waiting for %s.",
+                        this, exclusive ? "exclusive" : "shared", lock.resourceType, lock.resourceId, this ) );
+            }
+            ResourceLock blockedOn = client.waitingFor;
+            if ( blockedOn != null && visited.add( client ) )
+            {
+                manager.collectHolders( blockedOn, toVisit );
+            }
+        }
+    }
+
+    private void releaseGlobal( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        StripedLockManager.Stripe stripe = manager.stripe( resourceType, resourceId );
+        synchronized ( stripe )
+        {
+            ResourceLock lock = stripe.get( resourceType, resourceId );
+            if ( lock == null )
+            {
+                throw new IllegalStateException( format( "%s cannot release lock on %s(%d) that does not exist",
+                        this, resourceType, resourceId ) );
+            }
+            lock.release( this, exclusive );
+            stripe.removeIfFree( lock );
+        }
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        if ( stateHolder.stopClient() )
+        {
+            wakeUpAndWaitForClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        wakeUpAndWaitForClientsToLeave();
+        releaseLocks();
+    }
+
+    private void wakeUpAndWaitForClientsToLeave()
+    {
+        // A waiting thread will notice that the client is stopped when it wakes up, and leave with an exception.
+        LockSupport.unpark( waitingThread );
+        while ( stateHolder.hasActiveClients() )
+        {
+            LockSupport.unpark( waitingThread );
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        }
+    }
+
+    private void releaseLocks()
+    {
+        releaseAll( exclusiveLocks, true );
+        releaseAll( sharedLocks, false );
+    }
+
+    private void releaseAll( MutableIntObjectMap<MutableLongIntMap> locks, boolean exclusive )
+    {
+        locks.forEachKeyValue( ( typeId, typeLocks ) ->
+        {
+            ResourceType resourceType = ResourceTypes.fromId( typeId );
+            typeLocks.forEachKey( resourceId -> releaseGlobal( resourceType, resourceId, exclusive ) );
+        } );
+        locks.clear();
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return id;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        collectActiveLocks( exclusiveLocks, locks, ActiveLock.Factory.EXCLUSIVE_LOCK );
+        collectActiveLocks( sharedLocks, locks, ActiveLock.Factory.SHARED_LOCK );
+        return locks.stream();
+    }
+
+    private static void collectActiveLocks( MutableIntObjectMap<MutableLongIntMap> localLocks, List<ActiveLock> locks,
+            ActiveLock.Factory activeLock )
+    {
+        localLocks.forEachKeyValue( ( typeId, typeLocks ) ->
+        {
+            ResourceType resourceType = ResourceTypes.fromId( typeId );
+            typeLocks.forEachKey( resourceId -> locks.add( activeLock.create( resourceType, resourceId ) ) );
+        } );
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        long count = 0;
+        for ( MutableLongIntMap typeLocks : exclusiveLocks.values() )
+        {
+            count += typeLocks.size();
+        }
+        for ( MutableLongIntMap typeLocks : sharedLocks.values() )
+        {
+            count += typeLocks.size();
+        }
+        return count;
+    }
+
+    private MutableLongIntMap localLocks( ResourceType resourceType, boolean exclusive )
+    {
+        MutableIntObjectMap<MutableLongIntMap> locks = exclusive ? exclusiveLocks : sharedLocks;
+        return locks.getIfAbsentPut( resourceType.typeId(), LongIntHashMap::new );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), getLockSessionId() );
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.time.Clock;
+import java.util.List;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A {@link Locks} implementation that spreads the lock state of the resources over a number of stripes, each guarded
+ * by its own monitor, instead of keeping all locks in one map behind a single monitor like
+ * {@link org.neo4j.kernel.impl.locking.community.CommunityLockManger} does. Clients that lock unrelated resources
+ * therefore rarely contend with each other.
+ * <p>
+ * Deadlock detection is not serialised through a global wait graph either. A client only looks for a cycle in the
+ * wait graph when it is about to block on a lock, by following the resources that the holders of the lock are
+ * themselves waiting for. Each step of the walk only takes the monitor of one stripe.
+ */
+public class StripedLockManager implements Locks
+{
+    private static final int DEFAULT_STRIPES = getInteger( StripedLockManager.class, "stripes", 128 );
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final Clock clock;
+    private final long lockAcquisitionTimeoutMillis;
+    private volatile boolean closed;
+
+    public StripedLockManager( Config config, Clock clock )
+    {
+        this( config, clock, DEFAULT_STRIPES );
+    }
+
+    StripedLockManager( Config config, Clock clock, int stripeCount )
+    {
+        int stripes = stripeCount <= 1 ? 1 : Integer.highestOneBit( stripeCount - 1 ) << 1;
+        this.stripes = new Stripe[stripes];
+        for ( int i = 0; i < stripes; i++ )
+        {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripes - 1;
+        this.clock = clock;
+        this.lockAcquisitionTimeoutMillis = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toMillis();
+    }
+
+    @Override
+    public Client newClient()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( this );
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        for ( Stripe stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                stripe.locks.forEachValue( typeLocks -> typeLocks.forEachValue( lock ->
+                {
+                    if ( lock.isHeld() )
+                    {
+                        visitor.visit( lock.resourceType, lock.resourceId, lock.describe(), 0,
+                                System.identityHashCode( lock ) );
+                    }
+                } ) );
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+
+    Clock clock()
+    {
+        return clock;
+    }
+
+    long lockAcquisitionTimeoutMillis()
+    {
+        return lockAcquisitionTimeoutMillis;
+    }
+
+    Stripe stripe( ResourceType resourceType, long resourceId )
+    {
+        long hash = (resourceId ^ ((long) resourceType.typeId() << 58)) * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> 32) & stripeMask];
+    }
+
+    /**
+     * Add the current holders of the given lock to the given list.
+     */
+    void collectHolders( ResourceLock lock, List<StripedLockClient> holders )
+    {
+        Stripe stripe = stripe( lock.resourceType, lock.resourceId );
+        synchronized ( stripe )
+        {
+            lock.collectHolders( holders );
+        }
+    }
+
+    /**
+     * The locks of a subset of all resources. All access to a stripe, and to the {@link ResourceLock locks} in it,
+     * must synchronise on the stripe.
+     */
+    static final class Stripe
+    {
+        private final MutableIntObjectMap<MutableLongObjectMap<ResourceLock>> locks = new IntObjectHashMap<>();
+
+        ResourceLock getOrCreate( ResourceType resourceType, long resourceId )
+        {
+            MutableLongObjectMap<ResourceLock> typeLocks =
+                    locks.getIfAbsentPut( resourceType.typeId(), LongObjectHashMap::new );
+            ResourceLock lock = typeLocks.get( resourceId );
+            if ( lock == null )
+            {
+                lock = new ResourceLock( resourceType, resourceId );
+                typeLocks.put( resourceId, lock );
+            }
+            return lock;
+        }
+
+        ResourceLock get( ResourceType resourceType, long resourceId )
+        {
+            MutableLongObjectMap<ResourceLock> typeLocks = locks.get( resourceType.typeId() );
+            return typeLocks == null ? null : typeLocks.get( resourceId );
+        }
+
+        void removeIfFree( ResourceLock lock )
+        {
+            if ( lock.isFree() )
+            {
+                MutableLongObjectMap<ResourceLock> typeLocks = locks.get( lock.resourceType.typeId() );
+                if ( typeLocks != null )
+                {
+                    typeLocks.remove( lock.resourceId );
+                }
+            }
+        }
+    }
+}
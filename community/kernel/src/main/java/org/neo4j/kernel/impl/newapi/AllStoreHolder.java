@@ -256,6 +256,24 @@ public class AllStoreHolder extends Read
         return storageReader.getLabelScanReader();
     }
 
+    @Override
+    LabelScanReader relationshipTypeScanReader()
+    {
+        return storageReader.getRelationshipTypeScanReader();
+    }
+
+    @Override
+    long nodeHighMark()
+    {
+        return storageReader.nodesGetHighestPossibleIdInUse();
+    }
+
+    @Override
+    long relationshipHighMark()
+    {
+        return storageReader.relationshipsGetHighestPossibleIdInUse();
+    }
+
     @Override
     ExplicitIndex explicitNodeIndex( String indexName ) throws ExplicitIndexNotFoundKernelException
     {
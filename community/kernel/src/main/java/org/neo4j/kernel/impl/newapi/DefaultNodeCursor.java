@@ -43,6 +43,7 @@ class DefaultNodeCursor implements NodeCursor
     private LongIterator addedNodes;
     private StorageNodeCursor storeCursor;
     private long single;
+    private ScanPartitions partitions;
 
     private final DefaultCursors pool;
 
@@ -57,15 +58,45 @@ class DefaultNodeCursor implements NodeCursor
         storeCursor.scan();
         this.read = read;
         this.single = NO_ID;
+        this.partitions = null;
         this.hasChanges = HasChanges.MAYBE;
         this.addedNodes = ImmutableEmptyLongIterator.INSTANCE;
     }
 
+    /**
+     * Scan the partitions of a parallel scan, claiming one partition at a time, until there are no more partitions.
+     */
+    void scan( ScanPartitions partitions, Read read )
+    {
+        this.partitions = partitions;
+        if ( !scanNextPartition() )
+        {
+            // There is nothing left to scan, so leave the store cursor on an empty range.
+            storeCursor.scanRange( 0, 0 );
+        }
+        this.read = read;
+        this.single = NO_ID;
+        this.hasChanges = HasChanges.MAYBE;
+        this.addedNodes = ImmutableEmptyLongIterator.INSTANCE;
+    }
+
+    private boolean scanNextPartition()
+    {
+        long start = partitions == null ? NO_ID : partitions.claim();
+        if ( start == NO_ID )
+        {
+            return false;
+        }
+        storeCursor.scanRange( start, partitions.end( start ) );
+        return true;
+    }
+
     void single( long reference, Read read )
     {
         storeCursor.single( reference );
         this.read = read;
         this.single = reference;
+        this.partitions = null;
         this.hasChanges = HasChanges.MAYBE;
         this.addedNodes = ImmutableEmptyLongIterator.INSTANCE;
     }
@@ -183,13 +214,17 @@ class DefaultNodeCursor implements NodeCursor
             return true;
         }
 
-        while ( storeCursor.next() )
+        do
         {
-            if ( !hasChanges || !read.txState().nodeIsDeletedInThisTx( storeCursor.entityReference() ) )
+            while ( storeCursor.next() )
             {
-                return true;
+                if ( !hasChanges || !read.txState().nodeIsDeletedInThisTx( storeCursor.entityReference() ) )
+                {
+                    return true;
+                }
             }
         }
+        while ( scanNextPartition() );
         return false;
     }
 
@@ -199,6 +234,7 @@ class DefaultNodeCursor implements NodeCursor
         if ( !isClosed() )
         {
             read = null;
+            partitions = null;
             hasChanges = HasChanges.MAYBE;
             addedNodes = ImmutableEmptyLongIterator.INSTANCE;
             storeCursor.reset();
@@ -230,7 +266,7 @@ class DefaultNodeCursor implements NodeCursor
                     addedNodes = read.txState().nodeIsAddedInThisTx( single ) ?
                                  LongSets.immutable.of( single ).longIterator() : ImmutableEmptyLongIterator.INSTANCE;
                 }
-                else
+                else if ( partitions == null || partitions.claimTransactionState() )
                 {
                     addedNodes = read.txState().addedAndRemovedNodes().getAdded().freeze().longIterator();
                 }
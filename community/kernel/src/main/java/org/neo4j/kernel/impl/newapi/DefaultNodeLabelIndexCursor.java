@@ -29,6 +29,7 @@ import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
 import org.neo4j.kernel.impl.index.labelscan.LabelScanValueIndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexProgressor.NodeLabelClient;
+import org.neo4j.storageengine.api.schema.LabelScanReader;
 import org.neo4j.storageengine.api.txstate.LongDiffSets;
 
 import static org.neo4j.collection.PrimitiveLongCollections.mergeToSet;
@@ -42,6 +43,9 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
     private LabelSet labels;
     private LongIterator added;
     private LongSet removed;
+    private ScanPartitions partitions;
+    private LabelScanReader partitionReader;
+    private int partitionLabel;
 
     private final DefaultCursors pool;
 
@@ -51,10 +55,52 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
         node = NO_ID;
     }
 
+    /**
+     * Scan the partitions of a parallel label scan, claiming one partition at a time, until there are no more
+     * partitions.
+     */
+    void scan( ScanPartitions partitions, LabelScanReader reader, int label )
+    {
+        this.partitions = partitions;
+        this.partitionReader = reader;
+        this.partitionLabel = label;
+        added = null;
+        removed = null;
+        if ( read.hasTxStateWithChanges() )
+        {
+            final LongDiffSets changes = read.txState().nodesWithLabelChanged( label );
+            if ( partitions.claimTransactionState() )
+            {
+                added = changes.augment( ImmutableEmptyLongIterator.INSTANCE );
+            }
+            removed = mergeToSet( read.txState().addedAndRemovedNodes().getRemoved(), changes.getRemoved() );
+        }
+        if ( !scanNextPartition() )
+        {
+            super.initialize( IndexProgressor.EMPTY );
+        }
+    }
+
+    private boolean scanNextPartition()
+    {
+        long start = partitions == null ? NO_ID : partitions.claim();
+        if ( start == NO_ID )
+        {
+            return false;
+        }
+        partitionReader.nodesWithLabel( this, partitionLabel, start, partitions.end( start ) );
+        return true;
+    }
+
     @Override
     public void scan( IndexProgressor progressor, boolean providesLabels, int label )
     {
         super.initialize( progressor );
+        if ( partitions != null )
+        {
+            // The transaction state was set up when the partitioned scan started.
+            return;
+        }
         if ( read.hasTxStateWithChanges() )
         {
             final LongDiffSets changes = read.txState().nodesWithLabelChanged( label );
@@ -109,15 +155,21 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
             this.node = added.next();
             return true;
         }
-        else
+        do
         {
-            return innerNext();
+            if ( innerNext() )
+            {
+                return true;
+            }
         }
+        while ( scanNextPartition() );
+        return false;
     }
 
     public void setRead( Read read )
     {
         this.read = read;
+        this.partitions = null;
     }
 
     @Override
@@ -147,7 +199,10 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
             node = NO_ID;
             labels = null;
             read = null;
+            added = null;
             removed = null;
+            partitions = null;
+            partitionReader = null;
 
             pool.accept( this );
         }
@@ -23,8 +23,10 @@ import org.eclipse.collections.api.iterator.LongIterator;
 import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
+import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.internal.kernel.api.RelationshipScanCursor;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
+import org.neo4j.storageengine.api.schema.LabelScanReader;
 
 import static org.neo4j.kernel.impl.store.record.AbstractBaseRecord.NO_ID;
 
@@ -32,7 +34,9 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
 {
     private int type;
     private long single;
+    private ScanPartitions partitions;
     private LongIterator addedRelationships;
+    private PrimitiveLongResourceIterator typeIndexRelationships;
 
     DefaultRelationshipScanCursor( DefaultCursors pool, StorageRelationshipScanCursor storeCursor )
     {
@@ -41,18 +45,61 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
 
     void scan( int type, Read read )
     {
-        storeCursor.scan( type );
+        closeTypeIndexRelationships();
+        LabelScanReader typeScanReader = type == -1 ? null : read.relationshipTypeScanReader();
+        if ( typeScanReader != null )
+        {
+            // Only visit the relationships that the relationship type index has for this type,
+            // instead of scanning the whole relationship store.
+            typeIndexRelationships = typeScanReader.nodesWithLabel( type );
+        }
+        else
+        {
+            storeCursor.scan( type );
+        }
         this.type = type;
         this.single = NO_ID;
+        this.partitions = null;
         init( read );
         this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
     }
 
+    /**
+     * Scan the partitions of a parallel scan, claiming one partition at a time, until there are no more partitions.
+     */
+    void scan( int type, ScanPartitions partitions, Read read )
+    {
+        closeTypeIndexRelationships();
+        this.type = type;
+        this.partitions = partitions;
+        if ( !scanNextPartition() )
+        {
+            // There is nothing left to scan, so leave the store cursor on an empty range.
+            storeCursor.scanRange( type, 0, 0 );
+        }
+        this.single = NO_ID;
+        init( read );
+        this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
+    }
+
+    private boolean scanNextPartition()
+    {
+        long start = partitions == null ? NO_ID : partitions.claim();
+        if ( start == NO_ID )
+        {
+            return false;
+        }
+        storeCursor.scanRange( type, start, partitions.end( start ) );
+        return true;
+    }
+
     void single( long reference, Read read )
     {
+        closeTypeIndexRelationships();
         storeCursor.single( reference );
         type = -1;
         this.single = reference;
+        this.partitions = null;
         init( read );
         this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
     }
@@ -63,15 +110,45 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         // Check tx state
         boolean hasChanges = hasChanges();
 
-        if ( hasChanges && addedRelationships.hasNext() )
+        while ( hasChanges && addedRelationships.hasNext() )
         {
             read.txState().relationshipVisit( addedRelationships.next(), storeCursor );
-            return true;
+            if ( type == -1 || storeCursor.type() == type )
+            {
+                return true;
+            }
+        }
+
+        if ( typeIndexRelationships != null )
+        {
+            return nextFromTypeIndex( hasChanges );
+        }
+
+        do
+        {
+            while ( storeCursor.next() )
+            {
+                if ( !hasChanges || !read.txState().relationshipIsDeletedInThisTx( storeCursor.entityReference() ) )
+                {
+                    return true;
+                }
+            }
         }
+        while ( scanNextPartition() );
+        return false;
+    }
 
-        while ( storeCursor.next() )
+    private boolean nextFromTypeIndex( boolean hasChanges )
+    {
+        while ( typeIndexRelationships.hasNext() )
         {
-            if ( !hasChanges || !read.txState().relationshipIsDeletedInThisTx( storeCursor.entityReference() ) )
+            long reference = typeIndexRelationships.next();
+            if ( hasChanges && read.txState().relationshipIsDeletedInThisTx( reference ) )
+            {
+                continue;
+            }
+            storeCursor.single( reference );
+            if ( storeCursor.next() && storeCursor.type() == type )
             {
                 return true;
             }
@@ -79,12 +156,23 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         return false;
     }
 
+    private void closeTypeIndexRelationships()
+    {
+        if ( typeIndexRelationships != null )
+        {
+            typeIndexRelationships.close();
+            typeIndexRelationships = null;
+        }
+    }
+
     @Override
     public void close()
     {
         if ( !isClosed() )
         {
+            closeTypeIndexRelationships();
             read = null;
+            partitions = null;
             storeCursor.close();
 
             pool.accept( this );
@@ -122,7 +210,7 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
                                  ? LongHashSet.newSetWith( single ).longIterator()
                                  : ImmutableEmptyLongIterator.INSTANCE;
         }
-        else
+        else if ( partitions == null || partitions.claimTransactionState() )
         {
             addedRelationships = read.txState().addedAndRemovedRelationships().getAdded().longIterator();
         }
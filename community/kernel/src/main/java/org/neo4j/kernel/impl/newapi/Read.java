@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.newapi;
 
+import java.util.Arrays;
+
 import org.neo4j.internal.kernel.api.IndexOrder;
 import org.neo4j.internal.kernel.api.IndexQuery;
 import org.neo4j.internal.kernel.api.IndexReference;
@@ -255,7 +257,14 @@ abstract class Read implements TxStateHolder,
     public final Scan<NodeLabelIndexCursor> nodeLabelScan( int label )
     {
         ktx.assertOpen();
-        throw new UnsupportedOperationException( "not implemented" );
+        ScanPartitions partitions = new ScanPartitions( this::nodeHighMark );
+        LabelScanReader reader = labelScanReader();
+        return cursor ->
+        {
+            DefaultNodeLabelIndexCursor indexCursor = (DefaultNodeLabelIndexCursor) cursor;
+            indexCursor.setRead( this );
+            indexCursor.scan( partitions, reader, label );
+        };
     }
 
     @Override
@@ -269,7 +278,8 @@ abstract class Read implements TxStateHolder,
     public final Scan<NodeCursor> allNodesScan()
     {
         ktx.assertOpen();
-        throw new UnsupportedOperationException( "not implemented" );
+        ScanPartitions partitions = new ScanPartitions( this::nodeHighMark );
+        return cursor -> ((DefaultNodeCursor) cursor).scan( partitions, this );
     }
 
     @Override
@@ -296,8 +306,7 @@ abstract class Read implements TxStateHolder,
     @Override
     public final Scan<RelationshipScanCursor> allRelationshipsScan()
     {
-        ktx.assertOpen();
-        throw new UnsupportedOperationException( "not implemented" );
+        return relationshipTypeScan( -1/*include all types*/ );
     }
 
     @Override
@@ -311,7 +320,8 @@ abstract class Read implements TxStateHolder,
     public final Scan<RelationshipScanCursor> relationshipTypeScan( int type )
     {
         ktx.assertOpen();
-        throw new UnsupportedOperationException( "not implemented" );
+        ScanPartitions partitions = new ScanPartitions( this::relationshipHighMark );
+        return cursor -> ((DefaultRelationshipScanCursor) cursor).scan( type, partitions, this );
     }
 
     @Override
@@ -338,6 +348,87 @@ abstract class Read implements TxStateHolder,
         ((DefaultPropertyCursor) cursor).initRelationship( relationshipReference, reference, this, ktx );
     }
 
+    @Override
+    public void nodesProperties( long[] nodeReferences, int[] propertyKeys, NodeCursor nodeCursor, PropertyCursor propertyCursor,
+            Value[][] columns )
+    {
+        ktx.assertOpen();
+        int count = nodeReferences.length;
+        for ( Value[] column : columns )
+        {
+            Arrays.fill( column, 0, count, Values.NO_VALUE );
+        }
+
+        // Look up the nodes in the order of their ids, to find where their property chains start
+        boolean[] exists = new boolean[count];
+        long[] propertyReferences = new long[count];
+        for ( int position : positionsInReferenceOrder( nodeReferences ) )
+        {
+            singleNode( nodeReferences[position], nodeCursor );
+            if ( nodeCursor.next() )
+            {
+                exists[position] = true;
+                propertyReferences[position] = nodeCursor.propertiesReference();
+            }
+        }
+
+        // Then read the property chains in the order of their first property record
+        for ( int position : positionsInReferenceOrder( propertyReferences ) )
+        {
+            if ( !exists[position] )
+            {
+                continue;
+            }
+            nodeProperties( nodeReferences[position], propertyReferences[position], propertyCursor );
+            int remaining = propertyKeys.length;
+            while ( remaining > 0 && propertyCursor.next() )
+            {
+                int propertyKey = propertyCursor.propertyKey();
+                for ( int k = 0; k < propertyKeys.length; k++ )
+                {
+                    if ( propertyKeys[k] == propertyKey )
+                    {
+                        columns[k][position] = propertyCursor.propertyValue();
+                        remaining--;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the positions of the given references, ordered by reference, with negative references ordered as if they were
+     * zero, and equal references in their original order. The positions are returned in their original order if the references
+     * are too large to be packed together with a position.
+     */
+    static int[] positionsInReferenceOrder( long[] references )
+    {
+        int count = references.length;
+        int[] positions = new int[count];
+        int positionBits = Integer.SIZE - Integer.numberOfLeadingZeros( count );
+        long[] sortKeys = new long[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            long reference = Math.max( references[i], 0 );
+            if ( reference >>> (Long.SIZE - 1 - positionBits) != 0 )
+            {
+                for ( int j = 0; j < count; j++ )
+                {
+                    positions[j] = j;
+                }
+                return positions;
+            }
+            sortKeys[i] = (reference << positionBits) | i;
+        }
+        Arrays.sort( sortKeys );
+        long positionMask = (1L << positionBits) - 1;
+        for ( int i = 0; i < count; i++ )
+        {
+            positions[i] = (int) (sortKeys[i] & positionMask);
+        }
+        return positions;
+    }
+
     @Override
     public final void graphProperties( PropertyCursor cursor )
     {
@@ -462,6 +553,15 @@ abstract class Read implements TxStateHolder,
 
     abstract LabelScanReader labelScanReader();
 
+    /**
+     * @return the reader of the relationship type scan store, or {@code null} if there is none.
+     */
+    abstract LabelScanReader relationshipTypeScanReader();
+
+    abstract long nodeHighMark();
+
+    abstract long relationshipHighMark();
+
     abstract ExplicitIndex explicitNodeIndex( String indexName ) throws ExplicitIndexNotFoundKernelException;
 
     abstract ExplicitIndex explicitRelationshipIndex( String indexName ) throws ExplicitIndexNotFoundKernelException;
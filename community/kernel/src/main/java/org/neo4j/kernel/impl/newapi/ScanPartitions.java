@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.neo4j.internal.kernel.api.Scan;
+
+import static org.neo4j.kernel.impl.store.record.AbstractBaseRecord.NO_ID;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * The partitions of a {@link Scan}, which the cursors that the scan initializes claim one at a time, until the whole
+ * store has been scanned. Each partition is a range of entity ids. The cursors stop claiming partitions once the start
+ * of the next partition is beyond the highest entity id that may be in use.
+ * <p>
+ * The entities that have been added in the transaction state are returned by only one of the cursors, which is the
+ * first cursor to {@link #claimTransactionState() claim} them.
+ */
+final class ScanPartitions
+{
+    /**
+     * The number of entity ids in each partition. This is a multiple of the {@value Long#SIZE} nodes that the label
+     * scan store keeps together in one range, so that the partitions of label scans do not overlap.
+     */
+    static final long PARTITION_SIZE = Long.SIZE * (long) getInteger( ScanPartitions.class, "labelRangesPerPartition", 64 );
+
+    private final AtomicLong nextStart = new AtomicLong();
+    private final AtomicBoolean transactionStateClaimed = new AtomicBoolean();
+    private final LongSupplier highestPossibleIdInUse;
+    private final long partitionSize;
+
+    ScanPartitions( LongSupplier highestPossibleIdInUse )
+    {
+        this( highestPossibleIdInUse, PARTITION_SIZE );
+    }
+
+    ScanPartitions( LongSupplier highestPossibleIdInUse, long partitionSize )
+    {
+        this.highestPossibleIdInUse = highestPossibleIdInUse;
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * @return the id that the next partition starts at, or {@link org.neo4j.kernel.impl.store.record.AbstractBaseRecord#NO_ID}
+     * if there are no more partitions.
+     */
+    long claim()
+    {
+        if ( nextStart.get() > highestPossibleIdInUse.getAsLong() )
+        {
+            // Don't move the start any further, so it can't overflow however many times the cursors try to claim.
+            return NO_ID;
+        }
+        long start = nextStart.getAndAdd( partitionSize );
+        return start <= highestPossibleIdInUse.getAsLong() ? start : NO_ID;
+    }
+
+    /**
+     * @return the id that the partition which starts at the given id ends at, exclusive.
+     */
+    long end( long start )
+    {
+        return start + partitionSize;
+    }
+
+    /**
+     * @return {@code true} if the calling cursor is the first to claim the entities added in the transaction state,
+     * and should return them.
+     */
+    boolean claimTransactionState()
+    {
+        return !transactionStateClaimed.get() && transactionStateClaimed.compareAndSet( false, true );
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Periodically records which pages of the mapped store files are in memory, and loads those pages back into the page
+ * cache when the database starts.
+ * <p>
+ * The profile of each mapped file is a compressed bitmap, with one bit for every page in the file, and is kept in the
+ * {@value #PROFILES_DIRECTORY_NAME} directory of the database. The warmup runs in the background, so starting the
+ * database does not wait for it. The profiled pages of each file are loaded in file order, and the warmup stops as
+ * soon as it has loaded as many pages as the page cache can hold. Profiling starts once the warmup has completed, so
+ * the profiles from the previous run are not overwritten by a profile of a cold page cache.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String PROFILES_DIRECTORY_NAME = "profiles";
+    static final String SUFFIX_CACHEPROF = ".cacheprof";
+    private static final String SUFFIX_TMP = ".tmp";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final File databaseDirectory;
+    private final Config config;
+    private final PageCacheWarmerMonitor monitor;
+    private final Log log;
+    private Path databasePath;
+    private File profilesDirectory;
+    private volatile boolean stopped;
+    private JobHandle warmupJob;
+    private JobHandle profileJob;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory,
+            Config config, PageCacheWarmerMonitor monitor, Log log )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.config = config;
+        this.monitor = monitor;
+        this.log = log;
+    }
+
+    @Override
+    public synchronized void start() throws IOException
+    {
+        if ( !config.get( GraphDatabaseSettings.pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        File canonicalDatabaseDirectory = databaseDirectory.getCanonicalFile();
+        databasePath = canonicalDatabaseDirectory.toPath();
+        profilesDirectory = new File( canonicalDatabaseDirectory, PROFILES_DIRECTORY_NAME );
+        stopped = false;
+        warmupJob = scheduler.schedule( Group.FILE_IO_HELPER, this::warmupAndStartProfiling );
+    }
+
+    @Override
+    public void stop() throws Exception
+    {
+        // Set the flag before synchronising, so a running warmup or profiling will notice it and release the monitor.
+        stopped = true;
+        JobHandle warmup;
+        JobHandle profile;
+        synchronized ( this )
+        {
+            warmup = warmupJob;
+            profile = profileJob;
+            warmupJob = null;
+            profileJob = null;
+        }
+        // The warmup and profiling both check the stopped flag as they go, so waiting for them is quick. We must wait,
+        // because they are not allowed to touch the paged files after the store files have been unmapped.
+        waitForTermination( warmup );
+        if ( profile != null )
+        {
+            profile.cancel( false );
+            waitForTermination( profile );
+        }
+    }
+
+    private static void waitForTermination( JobHandle job ) throws InterruptedException
+    {
+        if ( job != null )
+        {
+            try
+            {
+                job.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                throw e;
+            }
+            catch ( Exception ignore )
+            {
+                // Cancellation, or a failure that the job has already reported.
+            }
+        }
+    }
+
+    private void warmupAndStartProfiling()
+    {
+        try
+        {
+            reheat();
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache warmup failed.", e );
+        }
+
+        synchronized ( this )
+        {
+            if ( !stopped && !config.get( GraphDatabaseSettings.read_only ) )
+            {
+                long interval = config.get( GraphDatabaseSettings.pagecache_warmup_profiling_interval ).toMillis();
+                profileJob = scheduler.scheduleRecurring( Group.FILE_IO_HELPER, this::profileSafely, interval, interval,
+                        TimeUnit.MILLISECONDS );
+            }
+        }
+    }
+
+    private void profileSafely()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( Exception e )
+        {
+            log.debug( "Page cache profiling failed.", e );
+        }
+    }
+
+    /**
+     * Load the pages of all the mapped files, that have profiles, into the page cache.
+     *
+     * @return the number of pages that were loaded.
+     * @throws IOException if the mapped files could not be listed.
+     */
+    synchronized long reheat() throws IOException
+    {
+        long startNanos = System.nanoTime();
+        monitor.warmupStarted();
+        long pageBudget = pageCache.maxCachedPages();
+        long pagesLoaded = 0;
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            if ( stopped || pagesLoaded >= pageBudget )
+            {
+                break;
+            }
+            File profileFile = profileFile( pagedFile );
+            if ( profileFile == null || !fs.fileExists( profileFile ) )
+            {
+                continue;
+            }
+            try
+            {
+                pagesLoaded += reheat( pagedFile, profileFile, pageBudget - pagesLoaded );
+            }
+            catch ( IOException | IllegalStateException e )
+            {
+                // The profile may be corrupt, or the file may have been unmapped concurrently. Move on to the next file.
+                log.debug( "Could not warm up " + pagedFile.file() + " from " + profileFile, e );
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startNanos );
+        monitor.warmupCompleted( elapsedMillis, pagesLoaded );
+        log.info( "Page cache warmup completed. %d pages loaded. Duration: %d ms.", pagesLoaded, elapsedMillis );
+        return pagesLoaded;
+    }
+
+    private long reheat( PagedFile pagedFile, File profileFile, long pageBudget ) throws IOException
+    {
+        long pagesLoaded = 0;
+        long lastPageId = pagedFile.getLastPageId();
+        try ( InputStream input = new BufferedInputStream( new GZIPInputStream( fs.openAsInputStream( profileFile ) ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            long pageId = 0;
+            int bits;
+            while ( (bits = input.read()) != -1 )
+            {
+                for ( int i = 0; i < Byte.SIZE; i++, pageId++ )
+                {
+                    if ( (bits & (1 << i)) == 0 )
+                    {
+                        continue;
+                    }
+                    if ( stopped || pagesLoaded >= pageBudget || pageId > lastPageId )
+                    {
+                        return pagesLoaded;
+                    }
+                    if ( cursor.next( pageId ) )
+                    {
+                        pagesLoaded++;
+                    }
+                }
+            }
+        }
+        return pagesLoaded;
+    }
+
+    /**
+     * Write a profile of the pages in memory, for all of the mapped files.
+     *
+     * @return the number of profiled pages that were in memory.
+     * @throws IOException if the mapped files could not be listed.
+     */
+    synchronized long profile() throws IOException
+    {
+        long startNanos = System.nanoTime();
+        long pagesInMemory = 0;
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            if ( stopped )
+            {
+                return pagesInMemory;
+            }
+            File profileFile = profileFile( pagedFile );
+            if ( profileFile == null )
+            {
+                continue;
+            }
+            try
+            {
+                pagesInMemory += profile( pagedFile, profileFile );
+            }
+            catch ( IOException | IllegalStateException e )
+            {
+                // The file may have been unmapped concurrently. It will be profiled again next time, if it is remapped.
+                log.debug( "Could not profile " + pagedFile.file(), e );
+            }
+        }
+        monitor.profileCompleted( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startNanos ), pagesInMemory );
+        return pagesInMemory;
+    }
+
+    private long profile( PagedFile pagedFile, File profileFile ) throws IOException
+    {
+        long pagesInMemory = 0;
+        fs.mkdirs( profileFile.getParentFile() );
+        File tmpFile = new File( profileFile.getParentFile(), profileFile.getName() + SUFFIX_TMP );
+        try ( OutputStream output = new BufferedOutputStream( new GZIPOutputStream( fs.openAsOutputStream( tmpFile, false ) ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        {
+            int bits = 0;
+            int bitCount = 0;
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    bits |= 1 << bitCount;
+                    pagesInMemory++;
+                }
+                if ( ++bitCount == Byte.SIZE )
+                {
+                    output.write( bits );
+                    bits = 0;
+                    bitCount = 0;
+                }
+            }
+            if ( bitCount > 0 )
+            {
+                output.write( bits );
+            }
+        }
+        fs.renameFile( tmpFile, profileFile, REPLACE_EXISTING, ATOMIC_MOVE );
+        return pagesInMemory;
+    }
+
+    /**
+     * @return the profile file of the given paged file, or {@code null} if the paged file is not part of this database.
+     */
+    private File profileFile( PagedFile pagedFile )
+    {
+        Path filePath = pagedFile.file().toPath();
+        if ( !filePath.startsWith( databasePath ) )
+        {
+            return null;
+        }
+        Path relativePath = databasePath.relativize( filePath );
+        return new File( profilesDirectory, relativePath + SUFFIX_CACHEPROF );
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+/**
+ * Monitor for the {@link PageCacheWarmer}, reporting on the progress of page cache warmup and profiling.
+ */
+public interface PageCacheWarmerMonitor
+{
+    PageCacheWarmerMonitor EMPTY = new PageCacheWarmerMonitor.Adaptor();
+
+    class Adaptor implements PageCacheWarmerMonitor
+    {
+        @Override
+        public void warmupStarted()
+        {   // empty
+        }
+
+        @Override
+        public void warmupCompleted( long elapsedMillis, long pagesLoaded )
+        {   // empty
+        }
+
+        @Override
+        public void profileCompleted( long elapsedMillis, long pagesInMemory )
+        {   // empty
+        }
+    }
+
+    /**
+     * Loading the pages from the existing profiles back into the page cache has started.
+     */
+    void warmupStarted();
+
+    /**
+     * Loading the pages from the existing profiles has completed, either because all profiled pages have been loaded,
+     * or because the page cache was full.
+     *
+     * @param elapsedMillis how long the warmup took.
+     * @param pagesLoaded the number of pages that were loaded into the page cache.
+     */
+    void warmupCompleted( long elapsedMillis, long pagesLoaded );
+
+    /**
+     * A new profile of the pages in memory has been written for all mapped files.
+     *
+     * @param elapsedMillis how long the profiling took.
+     * @param pagesInMemory the number of profiled pages that were in memory.
+     */
+    void profileCompleted( long elapsedMillis, long pagesInMemory );
+}
@@ -31,8 +31,10 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
 {
     private NodeStore read;
     private PageCursor pageCursor;
+    private boolean scanPageCursor;
     private long next;
     private long highMark;
+    private long rangeEnd;
     private long nextStoreReference;
     private boolean open;
 
@@ -49,30 +51,41 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         {
             resetState();
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = nodePage( 0 );
-        }
+        openPageCursor( 0, true );
         this.next = 0;
+        this.rangeEnd = NO_ID;
         this.highMark = nodeHighMark();
         this.nextStoreReference = NO_ID;
         this.open = true;
     }
 
     @Override
-    public void single( long reference )
+    public void scanRange( long start, long end )
     {
         if ( getId() != NO_ID )
         {
             resetState();
         }
-        if ( pageCursor == null )
+        openPageCursor( start, true );
+        this.next = start < end ? start : NO_ID;
+        this.rangeEnd = end;
+        this.highMark = nodeHighMark();
+        this.nextStoreReference = NO_ID;
+        this.open = true;
+    }
+
+    @Override
+    public void single( long reference )
+    {
+        if ( getId() != NO_ID )
         {
-            pageCursor = nodePage( reference );
+            resetState();
         }
+        openPageCursor( reference, false );
         this.next = reference >= 0 ? reference : NO_ID;
         //This marks the cursor as a "single cursor"
         this.highMark = NO_ID;
+        this.rangeEnd = NO_ID;
         this.nextStoreReference = NO_ID;
         this.open = true;
     }
@@ -232,14 +245,28 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         }
     }
 
-    private PageCursor nodePage( long reference )
+    /**
+     * Scans get their own kind of page cursor, that reads ahead and does not push frequently used pages out of the
+     * page cache, so we reopen the page cursor if this cursor switches between scanning and single reads.
+     */
+    private void openPageCursor( long reference, boolean scan )
     {
-        return read.openPageCursorForReading( reference );
+        if ( pageCursor != null && scanPageCursor != scan )
+        {
+            pageCursor.close();
+            pageCursor = null;
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = scan ? read.openPageCursorForScanning( reference ) : read.openPageCursorForReading( reference );
+            scanPageCursor = scan;
+        }
     }
 
     private long nodeHighMark()
     {
-        return read.getHighestPossibleIdInUse();
+        long highestPossibleIdInUse = read.getHighestPossibleIdInUse();
+        return rangeEnd == NO_ID ? highestPossibleIdInUse : Math.min( highestPossibleIdInUse, rangeEnd - 1 );
     }
 
     private void node( NodeRecord record, long reference, PageCursor pageCursor )
@@ -30,8 +30,10 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
     private int filterType;
     private long next;
     private long highMark;
+    private long rangeEnd;
     private long nextStoreReference;
     private PageCursor pageCursor;
+    private boolean scanPageCursor;
     private boolean open;
 
     RecordRelationshipScanCursor( RelationshipStore relationshipStore )
@@ -52,31 +54,49 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         {
             resetState();
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = relationshipPage( 0 );
-        }
+        openPageCursor( 0, true );
         this.next = 0;
         this.filterType = type;
-        this.highMark = relationshipHighMark();
+        this.rangeEnd = NO_ID;
+        this.highMark = scanHighMark();
         this.nextStoreReference = NO_ID;
         this.open = true;
     }
 
     @Override
-    public void single( long reference )
+    public void scanRange( long start, long end )
+    {
+        scanRange( -1, start, end );
+    }
+
+    @Override
+    public void scanRange( int type, long start, long end )
     {
         if ( getId() != NO_ID )
         {
             resetState();
         }
-        if ( pageCursor == null )
+        openPageCursor( start, true );
+        this.next = start < end ? start : NO_ID;
+        this.filterType = type;
+        this.rangeEnd = end;
+        this.highMark = scanHighMark();
+        this.nextStoreReference = NO_ID;
+        this.open = true;
+    }
+
+    @Override
+    public void single( long reference )
+    {
+        if ( getId() != NO_ID )
         {
-            pageCursor = relationshipPage( reference );
+            resetState();
         }
+        openPageCursor( reference, false );
         this.next = reference >= 0 ? reference : NO_ID;
         this.filterType = -1;
         this.highMark = NO_ID;
+        this.rangeEnd = NO_ID;
         this.nextStoreReference = NO_ID;
         this.open = true;
     }
@@ -116,7 +136,7 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
                 {
                     //we are a "scan cursor"
                     //Check if there is a new high mark
-                    highMark = relationshipHighMark();
+                    highMark = scanHighMark();
                     if ( next > highMark )
                     {
                         next = NO_ID;
@@ -168,6 +188,12 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         return highMark == NO_ID;
     }
 
+    private long scanHighMark()
+    {
+        long highestPossibleIdInUse = relationshipHighMark();
+        return rangeEnd == NO_ID ? highestPossibleIdInUse : Math.min( highestPossibleIdInUse, rangeEnd - 1 );
+    }
+
     @Override
     public void close()
     {
@@ -178,6 +204,24 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         }
     }
 
+    /**
+     * Scans get their own kind of page cursor, that reads ahead and does not push frequently used pages out of the
+     * page cache, so we reopen the page cursor if this cursor switches between scanning and single reads.
+     */
+    private void openPageCursor( long reference, boolean scan )
+    {
+        if ( pageCursor != null && scanPageCursor != scan )
+        {
+            pageCursor.close();
+            pageCursor = null;
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = scan ? relationshipStore.openPageCursorForScanning( reference ) : relationshipPage( reference );
+            scanPageCursor = scan;
+        }
+    }
+
     private void relationshipAdvance( RelationshipRecord record, PageCursor pageCursor )
     {
         // When scanning, we inspect RelationshipRecord.inUse(), so using RecordLoad.CHECK is fine
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
@@ -43,6 +44,7 @@ import org.neo4j.kernel.api.exceptions.TransactionApplyKernelException;
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.api.labelscan.LabelScanWriter;
 import org.neo4j.kernel.api.labelscan.LoggingMonitor;
+import org.neo4j.kernel.api.labelscan.RelationshipTypeScanStore;
 import org.neo4j.kernel.api.txstate.TransactionCountingStateVisitor;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.BatchTransactionApplier;
@@ -63,6 +65,7 @@ import org.neo4j.kernel.impl.api.index.IndexingServiceFactory;
 import org.neo4j.kernel.impl.api.index.IndexingUpdateService;
 import org.neo4j.kernel.impl.api.index.PropertyPhysicalToLogicalConverter;
 import org.neo4j.kernel.impl.api.scan.FullLabelStream;
+import org.neo4j.kernel.impl.api.scan.FullRelationshipTypeStream;
 import org.neo4j.kernel.impl.api.store.SchemaCache;
 import org.neo4j.kernel.impl.cache.BridgingCacheAccess;
 import org.neo4j.kernel.impl.constraints.ConstraintSemantics;
@@ -71,6 +74,7 @@ import org.neo4j.kernel.impl.core.TokenHolders;
 import org.neo4j.kernel.impl.factory.OperationalMode;
 import org.neo4j.kernel.impl.index.IndexConfigStore;
 import org.neo4j.kernel.impl.index.labelscan.NativeLabelScanStore;
+import org.neo4j.kernel.impl.index.labelscan.NativeRelationshipTypeScanStore;
 import org.neo4j.kernel.impl.locking.LockGroup;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.id.IdController;
@@ -89,6 +93,7 @@ import org.neo4j.kernel.impl.transaction.command.IndexBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.command.IndexUpdatesWork;
 import org.neo4j.kernel.impl.transaction.command.LabelUpdateWork;
 import org.neo4j.kernel.impl.transaction.command.NeoStoreBatchTransactionApplier;
+import org.neo4j.kernel.impl.transaction.command.ParallelNeoStoreBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.state.IntegrityValidator;
 import org.neo4j.kernel.impl.transaction.state.storeview.DynamicIndexStoreView;
 import org.neo4j.kernel.impl.transaction.state.storeview.NeoStoreIndexStoreView;
@@ -100,6 +105,7 @@ import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.kernel.spi.explicitindex.IndexImplementation;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandReaderFactory;
 import org.neo4j.storageengine.api.CommandsToApply;
@@ -110,6 +116,7 @@ import org.neo4j.storageengine.api.StoreFileMetadata;
 import org.neo4j.storageengine.api.StoreId;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 import org.neo4j.storageengine.api.lock.ResourceLocker;
+import org.neo4j.storageengine.api.schema.LabelScanReader;
 import org.neo4j.storageengine.api.schema.SchemaRule;
 import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
 import org.neo4j.storageengine.api.txstate.TxStateVisitor;
@@ -131,6 +138,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final IntegrityValidator integrityValidator;
     private final CacheAccessBackDoor cacheAccess;
     private final LabelScanStore labelScanStore;
+    private final RelationshipTypeScanStore relationshipTypeScanStore;
     private final IndexProviderMap indexProviderMap;
     private final ExplicitIndexApplierLookup explicitIndexApplierLookup;
     private final SchemaState schemaState;
@@ -139,6 +147,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final IdOrderingQueue explicitIndexTransactionOrdering;
     private final LockService lockService;
     private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync;
+    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSync;
     private final CommandReaderFactory commandReaderFactory;
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync;
     private final IndexStoreView indexStoreView;
@@ -147,6 +156,8 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final IdController idController;
     private final int denseNodeThreshold;
     private final int recordIdBatchSize;
+    private final int recoveryParallelism;
+    private final Executor recoveryExecutor;
 
     public RecordStorageEngine(
             DatabaseLayout databaseLayout,
@@ -199,6 +210,8 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             monitors.addMonitorListener( new LoggingMonitor( logProvider.getLog( NativeLabelScanStore.class ) ) );
             labelScanStore = new NativeLabelScanStore( pageCache, databaseLayout, fs, new FullLabelStream( neoStoreIndexStoreView ),
                     readOnly, monitors, recoveryCleanupWorkCollector );
+            relationshipTypeScanStore = createRelationshipTypeScanStore( databaseLayout, pageCache, fs, logProvider, readOnly,
+                    recoveryCleanupWorkCollector );
 
             indexStoreView = new DynamicIndexStoreView( neoStoreIndexStoreView, labelScanStore, lockService, neoStores, logProvider );
             this.indexProviderMap = indexProviderMap;
@@ -213,12 +226,15 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             explicitIndexApplierLookup = new ExplicitIndexApplierLookup.Direct( explicitIndexProvider );
 
             labelScanStoreSync = new WorkSync<>( labelScanStore::newWriter );
+            relationshipTypeScanStoreSync = relationshipTypeScanStore != null ? new WorkSync<>( relationshipTypeScanStore::newWriter ) : null;
 
             commandReaderFactory = new RecordStorageCommandReaderFactory();
             indexUpdatesSync = new WorkSync<>( indexingService );
 
             denseNodeThreshold = config.get( GraphDatabaseSettings.dense_node_threshold );
             recordIdBatchSize = config.get( GraphDatabaseSettings.record_id_batch_size );
+            recoveryParallelism = config.get( GraphDatabaseSettings.recovery_parallelism );
+            recoveryExecutor = scheduler.executor( Group.RECOVERY );
         }
         catch ( Throwable failure )
         {
@@ -227,12 +243,34 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         }
     }
 
+    /**
+     * The relationship type scan store gets its own {@link Monitors}, so that its events are not mistaken for those of
+     * the label scan store. In read only mode, it is only opened if it already exists, because it cannot be rebuilt.
+     *
+     * @return the relationship type scan store, or {@code null} if there is none.
+     */
+    private RelationshipTypeScanStore createRelationshipTypeScanStore( DatabaseLayout databaseLayout, PageCache pageCache,
+            FileSystemAbstraction fs, LogProvider logProvider, boolean readOnly, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+    {
+        if ( readOnly && !fs.fileExists( NativeRelationshipTypeScanStore.getRelationshipTypeScanStoreFile( databaseLayout ) ) )
+        {
+            return null;
+        }
+        Monitors relationshipTypeScanStoreMonitors = new Monitors();
+        relationshipTypeScanStoreMonitors.addMonitorListener(
+                new LoggingMonitor( logProvider.getLog( NativeRelationshipTypeScanStore.class ), "relationship type index" ) );
+        return new NativeRelationshipTypeScanStore( pageCache, databaseLayout, fs,
+                new FullRelationshipTypeStream( neoStores.getRelationshipStore() ), readOnly, relationshipTypeScanStoreMonitors,
+                recoveryCleanupWorkCollector );
+    }
+
     @Override
     public StorageReader newReader()
     {
         Supplier<IndexReaderFactory> indexReaderFactory = () -> new IndexReaderFactory.Caching( indexingService );
+        Supplier<LabelScanReader> relationshipTypeScanReader = relationshipTypeScanStore != null ? relationshipTypeScanStore::newReader : null;
         return new RecordStorageReader( tokenHolders, schemaStorage, neoStores, indexingService,
-                schemaCache, indexReaderFactory, labelScanStore::newReader, allocateCommandCreationContext() );
+                schemaCache, indexReaderFactory, labelScanStore::newReader, relationshipTypeScanReader, allocateCommandCreationContext() );
     }
 
     @Override
@@ -319,7 +357,17 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         ArrayList<BatchTransactionApplier> appliers = new ArrayList<>();
         // Graph store application. The order of the decorated store appliers is irrelevant
-        appliers.add( new NeoStoreBatchTransactionApplier( mode.version(), neoStores, cacheAccess, lockService( mode ) ) );
+        ParallelNeoStoreBatchTransactionApplier parallelApplier = null;
+        if ( recoveryParallelism > 1 && (mode == RECOVERY || mode == REVERSE_RECOVERY) )
+        {
+            parallelApplier = new ParallelNeoStoreBatchTransactionApplier( mode.version(), neoStores, cacheAccess,
+                    recoveryExecutor, recoveryParallelism );
+            appliers.add( parallelApplier );
+        }
+        else
+        {
+            appliers.add( new NeoStoreBatchTransactionApplier( mode.version(), neoStores, cacheAccess, lockService( mode ) ) );
+        }
         if ( mode.needsHighIdTracking() )
         {
             appliers.add( new HighIdBatchTransactionApplier( neoStores ) );
@@ -334,7 +382,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             appliers.add( new CountsStoreBatchTransactionApplier( neoStores.getCounts(), mode ) );
 
             // Schema index application
-            appliers.add( new IndexBatchTransactionApplier( indexingService, labelScanStoreSync, indexUpdatesSync,
+            appliers.add( new IndexBatchTransactionApplier( indexingService, labelScanStoreSync, relationshipTypeScanStoreSync, indexUpdatesSync,
                     neoStores.getNodeStore(), neoStores.getRelationshipStore(),
                     indexUpdatesConverter, indexActivator ) );
 
@@ -345,6 +393,13 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
                             mode ) );
         }
 
+        if ( parallelApplier != null )
+        {
+            // Appliers are closed in reverse order, so this writes the records of each transaction before the other
+            // appliers close the transaction, and possibly read those records
+            appliers.add( parallelApplier.recordWritesBarrier() );
+        }
+
         // Perform the application
         return new BatchTransactionApplierFacade(
                 appliers.toArray( new BatchTransactionApplier[appliers.size()] ) );
@@ -371,6 +426,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     public void init() throws Throwable
     {
         labelScanStore.init();
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.init();
+        }
     }
 
     @Override
@@ -380,6 +439,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         neoStores.startCountStore(); // TODO: move this to counts store lifecycle
         indexingService.start();
         labelScanStore.start();
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.start();
+        }
         idController.start();
     }
 
@@ -401,6 +464,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         indexingService.stop();
         labelScanStore.stop();
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.stop();
+        }
         idController.stop();
     }
 
@@ -409,6 +476,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         indexingService.shutdown();
         labelScanStore.shutdown();
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.shutdown();
+        }
         neoStores.close();
     }
 
@@ -417,6 +488,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         indexingService.forceAll( limiter );
         labelScanStore.force( limiter );
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.force( limiter );
+        }
         for ( IndexImplementation index : explicitIndexProviderLookup.allIndexProviders() )
         {
             index.force();
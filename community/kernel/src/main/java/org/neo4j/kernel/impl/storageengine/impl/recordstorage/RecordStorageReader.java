@@ -83,10 +83,12 @@ public class RecordStorageReader implements StorageReader
 
     private final Supplier<IndexReaderFactory> indexReaderFactorySupplier;
     private final Supplier<LabelScanReader> labelScanReaderSupplier;
+    private final Supplier<LabelScanReader> relationshipTypeScanReaderSupplier;
     private final RecordStorageCommandCreationContext commandCreationContext;
 
     private IndexReaderFactory indexReaderFactory;
     private LabelScanReader labelScanReader;
+    private LabelScanReader relationshipTypeScanReader;
 
     private boolean acquired;
     private boolean closed;
@@ -96,6 +98,7 @@ public class RecordStorageReader implements StorageReader
             IndexingService indexService, SchemaCache schemaCache,
             Supplier<IndexReaderFactory> indexReaderFactory,
             Supplier<LabelScanReader> labelScanReaderSupplier,
+            Supplier<LabelScanReader> relationshipTypeScanReaderSupplier,
             RecordStorageCommandCreationContext commandCreationContext )
     {
         this.tokenHolders = tokenHolders;
@@ -110,6 +113,7 @@ public class RecordStorageReader implements StorageReader
         this.schemaCache = schemaCache;
         this.indexReaderFactorySupplier = indexReaderFactory;
         this.labelScanReaderSupplier = labelScanReaderSupplier;
+        this.relationshipTypeScanReaderSupplier = relationshipTypeScanReaderSupplier;
         this.commandCreationContext = commandCreationContext;
     }
 
@@ -119,7 +123,7 @@ public class RecordStorageReader implements StorageReader
      */
     public RecordStorageReader( NeoStores stores )
     {
-        this( null, null, stores, null, null, null, null, null );
+        this( null, null, stores, null, null, null, null, null, null );
     }
 
     @Override
@@ -293,6 +297,18 @@ public class RecordStorageReader implements StorageReader
         return relationshipStore.getNumberOfIdsInUse();
     }
 
+    @Override
+    public long nodesGetHighestPossibleIdInUse()
+    {
+        return nodeStore.getHighestPossibleIdInUse();
+    }
+
+    @Override
+    public long relationshipsGetHighestPossibleIdInUse()
+    {
+        return relationshipStore.getHighestPossibleIdInUse();
+    }
+
     @Override
     public int labelCount()
     {
@@ -402,6 +418,11 @@ public class RecordStorageReader implements StorageReader
             labelScanReader.close();
             labelScanReader = null;
         }
+        if ( relationshipTypeScanReader != null )
+        {
+            relationshipTypeScanReader.close();
+            relationshipTypeScanReader = null;
+        }
     }
 
     @Override
@@ -411,6 +432,17 @@ public class RecordStorageReader implements StorageReader
                labelScanReader : (labelScanReader = labelScanReaderSupplier.get());
     }
 
+    @Override
+    public LabelScanReader getRelationshipTypeScanReader()
+    {
+        if ( relationshipTypeScanReaderSupplier == null )
+        {
+            return null;
+        }
+        return relationshipTypeScanReader != null ?
+               relationshipTypeScanReader : (relationshipTypeScanReader = relationshipTypeScanReaderSupplier.get());
+    }
+
     private IndexReaderFactory indexReaderFactory()
     {
         return indexReaderFactory != null ?
@@ -124,6 +124,17 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
      */
     PageCursor openPageCursorForReading( long id );
 
+    /**
+     * Opens a {@link PageCursor} on this store, like {@link #openPageCursorForReading(long)}, but meant for reading
+     * through many records in a single sequential pass. The pages ahead of such a cursor are read in the background,
+     * and the pages it visits will not push frequently used pages out of the page cache.
+     * The caller is responsible for closing it when done with it.
+     *
+     * @param id cursor will initially be placed at the page containing this record id.
+     * @return PageCursor for scanning records.
+     */
+    PageCursor openPageCursorForScanning( long id );
+
     /**
      * Reads a record from the store into {@code target}, see
      * {@link RecordStore#getRecord(long, AbstractBaseRecord, RecordLoad)}.
@@ -309,6 +320,12 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
             return actual.openPageCursorForReading( id );
         }
 
+        @Override
+        public PageCursor openPageCursorForScanning( long id )
+        {
+            return actual.openPageCursorForScanning( id );
+        }
+
         @Override
         public void getRecordByCursor( long id, R target, RecordLoad mode, PageCursor cursor ) throws InvalidRecordException
         {
@@ -42,6 +42,7 @@ import org.neo4j.kernel.impl.store.kvstore.ReadableBuffer;
 import org.neo4j.kernel.impl.store.kvstore.Rotation;
 import org.neo4j.kernel.impl.store.kvstore.RotationMonitor;
 import org.neo4j.kernel.impl.store.kvstore.RotationTimerFactory;
+import org.neo4j.kernel.impl.store.kvstore.State;
 import org.neo4j.kernel.impl.store.kvstore.UnknownKey;
 import org.neo4j.kernel.impl.store.kvstore.WritableBuffer;
 import org.neo4j.logging.Log;
@@ -74,6 +75,7 @@ import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.relations
  * {@code kvstore}-package, see {@link org.neo4j.kernel.impl.store.kvstore.KeyValueStoreFile} for a good entry point.
  */
 @Rotation( value = Rotation.Strategy.LEFT_RIGHT )
+@State( State.Strategy.PRIMITIVE_HASH_MAP )
 public class CountsTracker extends AbstractKeyValueStore<CountsKey>
         implements CountsVisitor.Visitable, CountsAccessor
 {
@@ -146,6 +146,15 @@ public class FreeIdKeeper implements Closeable
         return result;
     }
 
+    /**
+     * @return whether {@link #getId()} may return a free id. In non-aggressive mode the ids that were freed during this
+     * lifecycle are not reusable, so it is enough to look at what is left of the ids from previous lifecycles.
+     */
+    public boolean hasReusableId()
+    {
+        return aggressiveMode ? freeIdCount > 0 : !readFromDisk.isEmpty() || stackPosition > 0;
+    }
+
     public long[] getIds( int numberOfIds )
     {
         if ( freeIdCount == 0 )
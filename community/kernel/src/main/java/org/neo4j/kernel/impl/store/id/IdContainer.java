@@ -53,7 +53,7 @@ public class IdContainer
     private final File file;
     private final FileSystemAbstraction fs;
     private StoreChannel fileChannel;
-    private boolean closed = true;
+    private volatile boolean closed = true;
 
     private final int grabSize;
     private final boolean aggressiveReuse;
@@ -245,6 +245,14 @@ public class IdContainer
         return freeIdKeeper.getId();
     }
 
+    /**
+     * @return whether {@link #getReusableId()} may return a free id.
+     */
+    public boolean hasReusableId()
+    {
+        return freeIdKeeper.hasReusableId();
+    }
+
     public long[] getReusableIds( int numberOfIds )
     {
         return freeIdKeeper.getIds( numberOfIds );
@@ -21,12 +21,18 @@ package org.neo4j.kernel.impl.store.id;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongSupplier;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
 import org.neo4j.kernel.impl.store.id.validation.IdValidator;
 
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
+
 /**
  * This class generates unique ids for a resource type. For example, nodes in a
  * nodes space are connected to each other via relationships. On nodes and
@@ -56,6 +62,13 @@ import org.neo4j.kernel.impl.store.id.validation.IdValidator;
  * same file. There can only be one id generator instance per id generator file.
  * <p>
  * In case of disk/file I/O failure an <CODE>IOException</CODE> is thrown.
+ * <p>
+ * New ids are handed out from an atomic high id, without taking the monitor of the generator. The monitor is
+ * taken to free ids to, and to get reusable ids from, the {@link IdContainer}. Threads that free ids also move up to
+ * {@code grabSize} reusable ids into a lock-free hand-over queue, which {@link #nextId()} and
+ * {@link #nextIdBatch(int)} take from without the monitor. Allocation only takes the monitor when the hand-over queue
+ * is empty while the container still has reusable ids, and then refills the queue, so it is taken at most once per
+ * {@code grabSize} reused ids.
  */
 public class IdGeneratorImpl implements IdGenerator
 {
@@ -67,8 +80,22 @@ public class IdGeneratorImpl implements IdGenerator
 
     private final long max;
     private final IdContainer idContainer;
-    private long highId;
+    private final AtomicLong highId = new AtomicLong();
     private final IdType idType;
+    private final int grabSize;
+
+    /**
+     * Reusable ids taken out of the {@link IdContainer} for {@link #nextId()} and {@link #nextIdBatch(int)}. Only added
+     * to while holding the monitor, but polled without it.
+     */
+    private final Deque<long[]> handedOverIds = new ConcurrentLinkedDeque<>();
+    private final AtomicLong handedOverIdCount = new AtomicLong();
+
+    /**
+     * Whether {@link IdContainer#getReusableId()} may return an id that has not been handed over yet. Only updated
+     * while holding the monitor.
+     */
+    private volatile boolean reusableIdAvailable;
 
     /**
      * Opens the id generator represented by <CODE>fileName</CODE>. The
@@ -101,6 +128,7 @@ public class IdGeneratorImpl implements IdGenerator
     {
         this.max = max;
         this.idType = idType;
+        this.grabSize = grabSize;
         this.idContainer = new IdContainer( fs, file, grabSize, aggressiveReuse );
 
         /*
@@ -110,12 +138,13 @@ public class IdGeneratorImpl implements IdGenerator
          */
         if ( this.idContainer.init() )
         {
-            this.highId = idContainer.getInitialHighId();
+            this.highId.set( idContainer.getInitialHighId() );
         }
         else
         {
-            this.highId = highId.getAsLong();
+            this.highId.set( highId.getAsLong() );
         }
+        reusableIdAvailable = idContainer.hasReusableId();
     }
 
     /**
@@ -130,34 +159,99 @@ public class IdGeneratorImpl implements IdGenerator
      * @throws IllegalStateException if this id generator has been closed
      */
     @Override
-    public synchronized long nextId()
+    public long nextId()
     {
         assertStillOpen();
-        long nextDefragId = idContainer.getReusableId();
-        if ( nextDefragId != IdContainer.NO_RESULT )
+        long[] reusableIds = takeReusableIds( 1 );
+        if ( reusableIds.length > 0 )
         {
-            return nextDefragId;
+            return reusableIds[0];
         }
 
-        if ( IdValidator.isReservedId( highId ) )
+        long id;
+        long nextHighId;
+        do
         {
-            highId++;
+            id = highId.get();
+            nextHighId = IdValidator.isReservedId( id ) ? id + 1 : id;
+            IdValidator.assertValidId( idType, nextHighId, max );
         }
-        IdValidator.assertValidId( idType, highId, max );
-        return highId++;
+        while ( !highId.compareAndSet( id, nextHighId + 1 ) );
+        return nextHighId;
     }
 
     @Override
-    public synchronized IdRange nextIdBatch( int size )
+    public IdRange nextIdBatch( int size )
     {
         assertStillOpen();
-        long[] reusableIds = idContainer.getReusableIds( size );
+        long[] reusableIds = takeReusableIds( size );
         int sizeLeftForRange = size - reusableIds.length;
-        long start = highId;
-        setHighId( start + sizeLeftForRange );
+        long start;
+        do
+        {
+            start = highId.get();
+            IdValidator.assertIdWithinCapacity( idType, start + sizeLeftForRange, max );
+        }
+        while ( !highId.compareAndSet( start, start + sizeLeftForRange ) );
         return new IdRange( reusableIds, start, sizeLeftForRange );
     }
 
+    /**
+     * Takes up to {@code size} reusable ids. The monitor is only taken if none have been handed over, while the
+     * {@link IdContainer} still has some.
+     */
+    private long[] takeReusableIds( int size )
+    {
+        long[] reusableIds = takeHandedOverIds( size );
+        if ( reusableIds.length == 0 && reusableIdAvailable )
+        {
+            synchronized ( this )
+            {
+                handOverReusableIds();
+            }
+            reusableIds = takeHandedOverIds( size );
+        }
+        return reusableIds;
+    }
+
+    /**
+     * Takes up to {@code size} of the handed over ids, without taking the monitor.
+     */
+    private long[] takeHandedOverIds( int size )
+    {
+        long[] ids = handedOverIds.pollFirst();
+        if ( ids == null )
+        {
+            return EMPTY_LONG_ARRAY;
+        }
+        if ( ids.length > size )
+        {
+            handedOverIds.offerFirst( Arrays.copyOfRange( ids, size, ids.length ) );
+            ids = Arrays.copyOf( ids, size );
+        }
+        handedOverIdCount.addAndGet( -ids.length );
+        return ids;
+    }
+
+    /**
+     * Moves reusable ids from the {@link IdContainer} to the hand-over queue, until it holds {@code grabSize} ids.
+     * Must be called while holding the monitor.
+     */
+    private void handOverReusableIds()
+    {
+        long wanted = Math.min( grabSize - handedOverIdCount.get(), idContainer.getFreeIdCount() );
+        if ( wanted > 0 && idContainer.hasReusableId() )
+        {
+            long[] ids = idContainer.getReusableIdBatch( (int) wanted ).getDefragIds();
+            if ( ids.length > 0 )
+            {
+                handedOverIdCount.addAndGet( ids.length );
+                handedOverIds.offerLast( ids );
+            }
+        }
+        reusableIdAvailable = idContainer.hasReusableId();
+    }
+
     /**
      * Sets the next free "high" id. This method should be called when an id
      * generator has been rebuilt. {@code id} must not be higher than {@code max}.
@@ -165,10 +259,10 @@ public class IdGeneratorImpl implements IdGenerator
      * @param id The next free id returned from {@link #nextId()} if there are no existing free ids.
      */
     @Override
-    public synchronized void setHighId( long id )
+    public void setHighId( long id )
     {
         IdValidator.assertIdWithinCapacity( idType, id, max );
-        highId = id;
+        highId.set( id );
     }
 
     /**
@@ -178,15 +272,15 @@ public class IdGeneratorImpl implements IdGenerator
      * @return The next free "high" id
      */
     @Override
-    public synchronized long getHighId()
+    public long getHighId()
     {
-        return highId;
+        return highId.get();
     }
 
     @Override
-    public synchronized long getHighestPossibleIdInUse()
+    public long getHighestPossibleIdInUse()
     {
-        return highId - 1;
+        return highId.get() - 1;
     }
 
     /**
@@ -212,11 +306,13 @@ public class IdGeneratorImpl implements IdGenerator
             return;
         }
 
-        if ( id < 0 || id >= highId )
+        long currentHighId = highId.get();
+        if ( id < 0 || id >= currentHighId )
         {
-            throw new IllegalArgumentException( "Illegal id[" + id + "], highId is " + highId );
+            throw new IllegalArgumentException( "Illegal id[" + id + "], highId is " + currentHighId );
         }
         idContainer.freeId( id );
+        handOverReusableIds();
     }
 
     /**
@@ -231,7 +327,15 @@ public class IdGeneratorImpl implements IdGenerator
     @Override
     public synchronized void close()
     {
-        idContainer.close( highId );
+        for ( long[] ids = handedOverIds.pollFirst(); ids != null; ids = handedOverIds.pollFirst() )
+        {
+            for ( long id : ids )
+            {
+                idContainer.freeId( id );
+            }
+        }
+        handedOverIdCount.set( 0 );
+        idContainer.close( highId.get() );
     }
 
     /**
@@ -282,18 +386,20 @@ public class IdGeneratorImpl implements IdGenerator
     @Override
     public synchronized long getNumberOfIdsInUse()
     {
-        return highId - getDefragCount();
+        return highId.get() - getDefragCount();
     }
 
     @Override
     public synchronized long getDefragCount()
     {
-        return idContainer.getFreeIdCount();
+        return idContainer.getFreeIdCount() + handedOverIdCount.get();
     }
 
     @Override
     public synchronized void delete()
     {
+        handedOverIds.clear();
+        handedOverIdCount.set( 0 );
         idContainer.delete();
     }
 
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.kvstore;
+
+import java.util.Arrays;
+
+/**
+ * A concurrent hash table of the changed entries of a key/value store. The keys and values are of fixed width, and
+ * are kept in flat byte arrays with open addressing, rather than as objects per entry. Applying a change to an entry
+ * that is already in the table, and reading an entry, does not allocate.
+ * <p>
+ * The table is split into segments, each guarded by its own monitor. The {@link ValueUpdate updates} are applied while
+ * holding the monitor of the segment, so they must not call back into the table.
+ */
+final class ChangeTable
+{
+    /** Returned from {@link #read(byte[], byte[])} when the key is not in the table. */
+    static final long ABSENT = Long.MIN_VALUE;
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final int keySize;
+    private final int valueSize;
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final ThreadLocal<Scratch> scratch;
+
+    ChangeTable( int keySize, int valueSize )
+    {
+        this.keySize = keySize;
+        this.valueSize = valueSize;
+        for ( int i = 0; i < segments.length; i++ )
+        {
+            segments[i] = new Segment( keySize, valueSize, INITIAL_SEGMENT_CAPACITY );
+        }
+        this.scratch = ThreadLocal.withInitial( () -> new Scratch( keySize, valueSize ) );
+    }
+
+    /**
+     * @return buffers that the current thread can encode keys and decode values in, without allocating.
+     */
+    Scratch scratch()
+    {
+        return scratch.get();
+    }
+
+    /**
+     * Copy the value of the given key into the given target.
+     *
+     * @return the version of the last change to the entry, or {@link #ABSENT} if the key is not in the table.
+     */
+    long read( byte[] key, byte[] target )
+    {
+        int hash = hash( key );
+        Segment segment = segment( hash );
+        synchronized ( segment )
+        {
+            int slot = segment.find( key, hash );
+            if ( slot < 0 )
+            {
+                return ABSENT;
+            }
+            System.arraycopy( segment.values, slot * valueSize, target, 0, valueSize );
+            return segment.versions[slot];
+        }
+    }
+
+    /**
+     * Apply the update to the entry of the given key. If the key is not in the table, the entry is added with the given
+     * initial value before the update is applied. If no initial value is given, the table is left unchanged.
+     *
+     * @return {@code true} if the update was applied, or {@code false} if the key is not in the table and no initial
+     * value was given.
+     */
+    boolean apply( byte[] key, byte[] initialValue, ValueUpdate update, boolean reset, long version, Scratch scratch )
+    {
+        int hash = hash( key );
+        Segment segment = segment( hash );
+        byte[] value = scratch.value;
+        synchronized ( segment )
+        {
+            int slot = segment.find( key, hash );
+            if ( slot < 0 )
+            {
+                if ( initialValue == null )
+                {
+                    return false;
+                }
+                slot = segment.insert( key, hash, ~slot );
+                System.arraycopy( initialValue, 0, value, 0, valueSize );
+            }
+            else
+            {
+                System.arraycopy( segment.values, slot * valueSize, value, 0, valueSize );
+            }
+            if ( reset )
+            {
+                Arrays.fill( value, (byte) 0 );
+            }
+            update.update( scratch.valueBuffer );
+            System.arraycopy( value, 0, segment.values, slot * valueSize, valueSize );
+            segment.versions[slot] = version;
+            return true;
+        }
+    }
+
+    boolean isEmpty()
+    {
+        for ( Segment segment : segments )
+        {
+            if ( segment.size > 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy all entries out of the table, sorted by key.
+     *
+     * @return keys and values interleaved, as {@code [key0, value0, key1, value1, ...]}.
+     */
+    byte[][] sortedEntries()
+    {
+        ConcurrentMapState.Entry[] entries = new ConcurrentMapState.Entry[0];
+        int count = 0;
+        for ( Segment segment : segments )
+        {
+            synchronized ( segment )
+            {
+                entries = Arrays.copyOf( entries, count + segment.size );
+                for ( int slot = 0; slot < segment.used.length; slot++ )
+                {
+                    if ( segment.used[slot] )
+                    {
+                        byte[] key = Arrays.copyOfRange( segment.keys, slot * keySize, (slot + 1) * keySize );
+                        byte[] value = Arrays.copyOfRange( segment.values, slot * valueSize, (slot + 1) * valueSize );
+                        entries[count++] = new ConcurrentMapState.Entry( key, value );
+                    }
+                }
+            }
+        }
+        Arrays.sort( entries, 0, count );
+        byte[][] result = new byte[count * 2][];
+        for ( int i = 0; i < count; i++ )
+        {
+            result[i * 2] = entries[i].key;
+            result[i * 2 + 1] = entries[i].value;
+        }
+        return result;
+    }
+
+    private Segment segment( int hash )
+    {
+        return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    private static int hash( byte[] key )
+    {
+        int hash = 1;
+        for ( byte b : key )
+        {
+            hash = 31 * hash + b;
+        }
+        // Spread the bits, since the segment is picked by the high bits and the slot by the low bits.
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Buffers that belong to a single thread.
+     */
+    static final class Scratch
+    {
+        final byte[] key;
+        final BigEndianByteArrayBuffer keyBuffer;
+        final byte[] initialValue;
+        final BigEndianByteArrayBuffer initialValueBuffer;
+        final ValueSink initialValueSink;
+        final byte[] value;
+        final BigEndianByteArrayBuffer valueBuffer;
+
+        Scratch( int keySize, int valueSize )
+        {
+            key = new byte[keySize];
+            keyBuffer = new BigEndianByteArrayBuffer( key );
+            initialValue = new byte[valueSize];
+            initialValueBuffer = new BigEndianByteArrayBuffer( initialValue );
+            initialValueSink = new ValueSink()
+            {
+                @Override
+                protected void value( ReadableBuffer value )
+                {
+                    value.get( 0, initialValue );
+                }
+            };
+            value = new byte[valueSize];
+            valueBuffer = new BigEndianByteArrayBuffer( value );
+        }
+    }
+
+    private static final class Segment
+    {
+        private final int keySize;
+        private final int valueSize;
+        private byte[] keys;
+        private byte[] values;
+        private long[] versions;
+        private boolean[] used;
+        private volatile int size;
+
+        Segment( int keySize, int valueSize, int capacity )
+        {
+            this.keySize = keySize;
+            this.valueSize = valueSize;
+            allocate( capacity );
+        }
+
+        private void allocate( int capacity )
+        {
+            keys = new byte[capacity * keySize];
+            values = new byte[capacity * valueSize];
+            versions = new long[capacity];
+            used = new boolean[capacity];
+        }
+
+        /**
+         * @return the slot of the given key, or the one's complement of the free slot where it can be inserted.
+         */
+        int find( byte[] key, int hash )
+        {
+            int mask = used.length - 1;
+            for ( int slot = hash & mask; ; slot = (slot + 1) & mask )
+            {
+                if ( !used[slot] )
+                {
+                    return ~slot;
+                }
+                if ( keyEquals( slot, key ) )
+                {
+                    return slot;
+                }
+            }
+        }
+
+        int insert( byte[] key, int hash, int freeSlot )
+        {
+            if ( (size + 1) * 4L > used.length * 3L )
+            {
+                grow();
+                freeSlot = ~find( key, hash );
+            }
+            System.arraycopy( key, 0, keys, freeSlot * keySize, keySize );
+            used[freeSlot] = true;
+            size++;
+            return freeSlot;
+        }
+
+        private boolean keyEquals( int slot, byte[] key )
+        {
+            int offset = slot * keySize;
+            for ( int i = 0; i < keySize; i++ )
+            {
+                if ( keys[offset + i] != key[i] )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void grow()
+        {
+            byte[] oldKeys = keys;
+            byte[] oldValues = values;
+            long[] oldVersions = versions;
+            boolean[] oldUsed = used;
+            allocate( oldUsed.length * 2 );
+            byte[] key = new byte[keySize];
+            for ( int oldSlot = 0; oldSlot < oldUsed.length; oldSlot++ )
+            {
+                if ( oldUsed[oldSlot] )
+                {
+                    System.arraycopy( oldKeys, oldSlot * keySize, key, 0, keySize );
+                    int slot = ~find( key, hash( key ) );
+                    System.arraycopy( key, 0, keys, slot * keySize, keySize );
+                    System.arraycopy( oldValues, oldSlot * valueSize, values, slot * valueSize, valueSize );
+                    versions[slot] = oldVersions[oldSlot];
+                    used[slot] = true;
+                }
+            }
+        }
+    }
+}
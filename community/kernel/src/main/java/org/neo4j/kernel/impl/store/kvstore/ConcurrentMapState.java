@@ -418,12 +418,12 @@ class ConcurrentMapState<Key> extends ActiveState<Key>
         return result;
     }
 
-    private static class Entry implements Comparable<Entry>
+    static class Entry implements Comparable<Entry>
     {
         final byte[] key;
         final byte[] value;
 
-        private Entry( byte[] key, byte[] value )
+        Entry( byte[] key, byte[] value )
         {
             this.key = key;
             this.value = value;
@@ -436,7 +436,7 @@ class ConcurrentMapState<Key> extends ActiveState<Key>
         }
     }
 
-    private static class UpdateProvider implements DataProvider
+    static class UpdateProvider implements DataProvider
     {
         private final byte[][] data;
         private int i;
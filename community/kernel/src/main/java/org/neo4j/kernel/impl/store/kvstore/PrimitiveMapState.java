@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.kvstore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+
+/**
+ * An {@link ActiveState} that keeps the changed entries in a {@link ChangeTable}, keyed by the encoded bytes of the
+ * keys, rather than in a map of key objects. Applying a delta to an entry that has already been changed, and looking up
+ * an entry, does not allocate.
+ */
+class PrimitiveMapState<Key> extends ActiveState<Key>
+{
+    private final ChangeTable changes;
+    private final VersionContextSupplier versionContextSupplier;
+    private final File file;
+    private final AtomicLong highestAppliedVersion;
+    private final AtomicLong appliedChanges;
+    private final AtomicBoolean hasTrackedChanges;
+    private final long previousVersion;
+
+    PrimitiveMapState( ReadableState<Key> store, File file, VersionContextSupplier versionContextSupplier )
+    {
+        super( store, versionContextSupplier );
+        this.previousVersion = store.version();
+        this.file = file;
+        this.versionContextSupplier = versionContextSupplier;
+        this.highestAppliedVersion = new AtomicLong( previousVersion );
+        this.changes = changeTable( store.keyFormat() );
+        this.appliedChanges = new AtomicLong();
+        hasTrackedChanges = new AtomicBoolean();
+    }
+
+    private PrimitiveMapState( Prototype<Key> prototype, ReadableState<Key> store, File file,
+            VersionContextSupplier versionContextSupplier )
+    {
+        super( store, versionContextSupplier );
+        this.previousVersion = store.version();
+        this.versionContextSupplier = versionContextSupplier;
+        this.file = file;
+        this.hasTrackedChanges = prototype.hasTrackedChanges;
+        this.changes = prototype.changes;
+        this.highestAppliedVersion = prototype.highestAppliedVersion;
+        this.appliedChanges = prototype.appliedChanges;
+    }
+
+    private static ChangeTable changeTable( KeyFormat<?> keys )
+    {
+        return new ChangeTable( keys.keySize(), keys.valueSize() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return super.toString() + "[" + file + "]";
+    }
+
+    @Override
+    public EntryUpdater<Key> updater( long version, Lock lock )
+    {
+        if ( version <= previousVersion )
+        {
+            return EntryUpdater.noUpdates();
+        }
+        update( highestAppliedVersion, version );
+        hasTrackedChanges.set( true );
+        return new Updater<>( lock, store, changes, appliedChanges, version );
+    }
+
+    @Override
+    public EntryUpdater<Key> unsafeUpdater( Lock lock )
+    {
+        hasTrackedChanges.set( true );
+        return new Updater<>( lock, store, changes, null, TransactionIdStore.BASE_TX_ID );
+    }
+
+    private static class Updater<Key> extends EntryUpdater<Key>
+    {
+        private AtomicLong changeCounter;
+        private final ReadableState<Key> store;
+        private final ChangeTable changes;
+        private final long version;
+
+        Updater( Lock lock, ReadableState<Key> store, ChangeTable changes, AtomicLong changeCounter, long version )
+        {
+            super( lock );
+            this.changeCounter = changeCounter;
+            this.store = store;
+            this.changes = changes;
+            this.version = version;
+        }
+
+        @Override
+        public void apply( Key key, ValueUpdate update ) throws IOException
+        {
+            ensureOpenOnSameThread();
+            applyUpdate( store, changes, key, update, false, version );
+        }
+
+        @Override
+        public void close()
+        {
+            if ( changeCounter != null )
+            {
+                changeCounter.incrementAndGet();
+                changeCounter = null;
+            }
+            super.close();
+        }
+    }
+
+    @Override
+    protected long storedVersion()
+    {
+        return previousVersion;
+    }
+
+    @Override
+    protected EntryUpdater<Key> resettingUpdater( Lock lock, final Runnable closeAction )
+    {
+        if ( hasChanges() )
+        {
+            throw new IllegalStateException( "Cannot reset when there are changes!" );
+        }
+        return new EntryUpdater<Key>( lock )
+        {
+            @Override
+            public void apply( Key key, ValueUpdate update ) throws IOException
+            {
+                ensureOpen();
+                applyUpdate( store, changes, key, update, true, highestAppliedVersion.get() );
+            }
+
+            @Override
+            public void close()
+            {
+                try
+                {
+                    closeAction.run();
+                }
+                finally
+                {
+                    super.close();
+                }
+            }
+        };
+    }
+
+    @Override
+    protected PrototypeState<Key> prototype( long version )
+    {
+        return new Prototype<>( this, version );
+    }
+
+    static <Key> void applyUpdate( ReadableState<Key> store, ChangeTable changes, Key key, ValueUpdate update,
+            boolean reset, long version ) throws IOException
+    {
+        ChangeTable.Scratch scratch = encodeKey( store.keyFormat(), changes, key );
+        if ( changes.apply( scratch.key, null, update, reset, version, scratch ) )
+        {
+            return;
+        }
+        // This is the first change to the entry. Read its stored value without holding the lock of the table, and add
+        // it. Should another thread add the entry in the mean time, the value it added is used instead.
+        if ( reset || !store.lookup( key, scratch.initialValueSink ) )
+        {
+            scratch.initialValueBuffer.clear();
+        }
+        changes.apply( scratch.key, scratch.initialValue, update, reset, version, scratch );
+    }
+
+    private static <Key> ChangeTable.Scratch encodeKey( KeyFormat<Key> keys, ChangeTable changes, Key key )
+    {
+        ChangeTable.Scratch scratch = changes.scratch();
+        scratch.keyBuffer.clear();
+        keys.writeKey( key, scratch.keyBuffer );
+        return scratch;
+    }
+
+    private static void update( AtomicLong highestAppliedVersion, long version )
+    {
+        for ( long high; ; )
+        {
+            high = highestAppliedVersion.get();
+            if ( version <= high )
+            {
+                return;
+            }
+            if ( highestAppliedVersion.compareAndSet( high, version ) )
+            {
+                return;
+            }
+        }
+    }
+
+    private static class Prototype<Key> extends PrototypeState<Key>
+    {
+        final ChangeTable changes;
+        final AtomicLong highestAppliedVersion;
+        final AtomicLong appliedChanges = new AtomicLong();
+        final VersionContextSupplier versionContextSupplier;
+        final AtomicBoolean hasTrackedChanges;
+        private final long threshold;
+
+        Prototype( PrimitiveMapState<Key> state, long version )
+        {
+            super( state );
+            this.versionContextSupplier = state.versionContextSupplier;
+            this.changes = changeTable( state.keyFormat() );
+            threshold = version;
+            hasTrackedChanges = new AtomicBoolean();
+            this.highestAppliedVersion = new AtomicLong( version );
+        }
+
+        @Override
+        protected ActiveState<Key> create( ReadableState<Key> sub, File file, VersionContextSupplier versionContextSupplier )
+        {
+            return new PrimitiveMapState<>( this, sub, file, versionContextSupplier );
+        }
+
+        @Override
+        protected EntryUpdater<Key> updater( long version, Lock lock )
+        {
+            update( highestAppliedVersion, version );
+            if ( version > threshold )
+            {
+                hasTrackedChanges.set( true );
+                return new Updater<>( lock, store, changes, appliedChanges, version );
+            }
+            else
+            {
+                return new Updater<>( lock, store, changes, null, version );
+            }
+        }
+
+        @Override
+        protected EntryUpdater<Key> unsafeUpdater( Lock lock )
+        {
+            hasTrackedChanges.set( true );
+            return new Updater<>( lock, store, changes, null, highestAppliedVersion.get() );
+        }
+
+        @Override
+        protected boolean hasChanges()
+        {
+            return hasTrackedChanges.get() && !changes.isEmpty();
+        }
+
+        @Override
+        protected long version()
+        {
+            return highestAppliedVersion.get();
+        }
+
+        @Override
+        protected boolean lookup( Key key, ValueSink sink ) throws IOException
+        {
+            return performLookup( store, versionContextSupplier.getVersionContext(), changes, key, sink );
+        }
+
+        @Override
+        protected DataProvider dataProvider() throws IOException
+        {
+            return PrimitiveMapState.dataProvider( store, changes );
+        }
+    }
+
+    @Override
+    protected long version()
+    {
+        return highestAppliedVersion.get();
+    }
+
+    @Override
+    protected long applied()
+    {
+        return appliedChanges.get();
+    }
+
+    @Override
+    protected boolean hasChanges()
+    {
+        return hasTrackedChanges.get() && !changes.isEmpty();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        store.close();
+    }
+
+    @Override
+    protected File file()
+    {
+        return file;
+    }
+
+    @Override
+    protected Factory factory()
+    {
+        return State.Strategy.PRIMITIVE_HASH_MAP;
+    }
+
+    @Override
+    protected boolean lookup( Key key, ValueSink sink ) throws IOException
+    {
+        return performLookup( store, versionContextSupplier.getVersionContext(), changes, key, sink );
+    }
+
+    private static <Key> boolean performLookup( ReadableState<Key> store, VersionContext versionContext,
+            ChangeTable changes, Key key, ValueSink sink ) throws IOException
+    {
+        ChangeTable.Scratch scratch = encodeKey( store.keyFormat(), changes, key );
+        long version = changes.read( scratch.key, scratch.value );
+        if ( version != ChangeTable.ABSENT )
+        {
+            if ( version > versionContext.lastClosedTransactionId() )
+            {
+                versionContext.markAsDirty();
+            }
+            sink.value( scratch.valueBuffer );
+            return true;
+        }
+        return store.lookup( key, sink );
+    }
+
+    /**
+     * This method is expected to be called under a lock preventing modification to the state.
+     */
+    @Override
+    public DataProvider dataProvider() throws IOException
+    {
+        return dataProvider( store, changes );
+    }
+
+    private static <Key> DataProvider dataProvider( ReadableState<Key> store, ChangeTable changes ) throws IOException
+    {
+        if ( changes.isEmpty() )
+        {
+            return store.dataProvider();
+        }
+        else
+        {
+            KeyFormat<Key> keys = store.keyFormat();
+            return new KeyValueMerger( store.dataProvider(), new ConcurrentMapState.UpdateProvider(
+                    changes.sortedEntries() ), keys.keySize(), keys.valueSize() );
+        }
+    }
+}
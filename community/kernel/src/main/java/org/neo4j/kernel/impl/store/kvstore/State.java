@@ -46,6 +46,14 @@ public @interface State
                 return new ConcurrentMapState<>( store, file, versionContextSupplier );
             }
         },
+        PRIMITIVE_HASH_MAP
+        {
+            @Override
+            public <Key> ActiveState<Key> open( ReadableState<Key> store, File file, VersionContextSupplier versionContextSupplier )
+            {
+                return new PrimitiveMapState<>( store, file, versionContextSupplier );
+            }
+        },
         READ_ONLY_CONCURRENT_HASH_MAP
         {
             @Override
@@ -37,6 +37,7 @@ import org.neo4j.kernel.impl.store.NodeLabels;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.kernel.impl.transaction.command.Command.PropertyCommand;
 import org.neo4j.kernel.impl.transaction.state.IndexUpdates;
 import org.neo4j.kernel.impl.transaction.state.OnlineIndexUpdates;
@@ -45,31 +46,49 @@ import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.util.concurrent.AsyncApply;
 import org.neo4j.util.concurrent.WorkSync;
 
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
 import static org.neo4j.kernel.impl.store.NodeLabelsField.parseLabelsField;
 
 /**
  * Gather node and property changes, converting them into logical updates to the indexes. {@link #close()} will actually
- * apply the indexes.
+ * apply the indexes. Created and deleted relationships are also gathered for the relationship type scan store, if there
+ * is one.
  */
 public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapter
 {
     private final IndexingService indexingService;
     private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync;
+    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSync;
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync;
     private final SingleTransactionApplier transactionApplier;
     private final IndexActivator indexActivator;
     private final PropertyPhysicalToLogicalConverter indexUpdateConverter;
 
     private List<NodeLabelUpdate> labelUpdates;
+    private List<NodeLabelUpdate> relationshipTypeUpdates;
     private IndexUpdates indexUpdates;
     private long txId;
 
     public IndexBatchTransactionApplier( IndexingService indexingService, WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync,
             WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, RelationshipStore relationshipStore,
             PropertyPhysicalToLogicalConverter indexUpdateConverter, IndexActivator indexActivator )
+    {
+        this( indexingService, labelScanStoreSync, null, indexUpdatesSync, nodeStore, relationshipStore, indexUpdateConverter,
+                indexActivator );
+    }
+
+    /**
+     * @param relationshipTypeScanStoreSync the work sync of the relationship type scan store, or {@code null} if there is
+     * no relationship type scan store to maintain.
+     */
+    public IndexBatchTransactionApplier( IndexingService indexingService, WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync,
+            WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSync,
+            WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, RelationshipStore relationshipStore,
+            PropertyPhysicalToLogicalConverter indexUpdateConverter, IndexActivator indexActivator )
     {
         this.indexingService = indexingService;
         this.labelScanStoreSync = labelScanStoreSync;
+        this.relationshipTypeScanStoreSync = relationshipTypeScanStoreSync;
         this.indexUpdatesSync = indexUpdatesSync;
         this.indexUpdateConverter = indexUpdateConverter;
         this.transactionApplier = new SingleTransactionApplier( nodeStore, relationshipStore );
@@ -93,6 +112,12 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
             labelUpdatesApply = labelScanStoreSync.applyAsync( new LabelUpdateWork( labelUpdates ) );
             labelUpdates = null;
         }
+        AsyncApply relationshipTypeUpdatesApply = null;
+        if ( relationshipTypeUpdates != null )
+        {
+            relationshipTypeUpdatesApply = relationshipTypeScanStoreSync.applyAsync( new LabelUpdateWork( relationshipTypeUpdates ) );
+            relationshipTypeUpdates = null;
+        }
         if ( indexUpdates != null && indexUpdates.hasUpdates() )
         {
             try
@@ -117,6 +142,17 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
                 throw new IOException( "Failed to flush label updates", e );
             }
         }
+        if ( relationshipTypeUpdatesApply != null )
+        {
+            try
+            {
+                relationshipTypeUpdatesApply.await();
+            }
+            catch ( ExecutionException e )
+            {
+                throw new IOException( "Failed to flush relationship type updates", e );
+            }
+        }
     }
 
     @Override
@@ -203,9 +239,36 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
         @Override
         public boolean visitRelationshipCommand( Command.RelationshipCommand command )
         {
+            // for relationship type store updates
+            if ( relationshipTypeScanStoreSync != null )
+            {
+                RelationshipRecord before = command.getBefore();
+                RelationshipRecord after = command.getAfter();
+                if ( !before.inUse() && after.inUse() )
+                {
+                    addRelationshipTypeUpdate( NodeLabelUpdate.labelChanges( command.getKey(), EMPTY_LONG_ARRAY,
+                            new long[]{after.getType()}, txId ) );
+                }
+                else if ( before.inUse() && !after.inUse() )
+                {
+                    addRelationshipTypeUpdate( NodeLabelUpdate.labelChanges( command.getKey(), new long[]{before.getType()},
+                            EMPTY_LONG_ARRAY, txId ) );
+                }
+            }
+
+            // for indexes
             return indexUpdatesExtractor.visitRelationshipCommand( command );
         }
 
+        private void addRelationshipTypeUpdate( NodeLabelUpdate update )
+        {
+            if ( relationshipTypeUpdates == null )
+            {
+                relationshipTypeUpdates = new ArrayList<>();
+            }
+            relationshipTypeUpdates.add( update );
+        }
+
         @Override
         public boolean visitPropertyCommand( PropertyCommand command )
         {
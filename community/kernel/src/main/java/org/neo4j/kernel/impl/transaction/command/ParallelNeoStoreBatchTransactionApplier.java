@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.neo4j.kernel.impl.api.BatchTransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.transaction.command.Command.BaseCommand;
+import org.neo4j.storageengine.api.CommandVersion;
+import org.neo4j.storageengine.api.CommandsToApply;
+
+import static org.neo4j.helpers.Exceptions.chain;
+import static org.neo4j.kernel.impl.locking.LockService.NO_LOCK_SERVICE;
+
+/**
+ * A {@link NeoStoreBatchTransactionApplier} for recovery, that writes the node, relationship, property and relationship
+ * group records of each transaction from several threads at once. All other commands, like token and schema commands,
+ * are applied by the applying thread, like the {@link NeoStoreBatchTransactionApplier} does.
+ * <p>
+ * The records are partitioned over the threads by store and record id, and every thread writes its records in command
+ * order. A transaction never has more than one command for the same record, so the store ends up with exactly the same
+ * contents as when the records are written one at a time. Recovery takes no locks. The threads do share the id
+ * generators, though: {@code CommonAbstractStore.updateRecord} frees the id of every record that is no longer in use,
+ * and the ids of secondary units that are no longer needed. So writing records in parallel relies on
+ * {@link org.neo4j.kernel.impl.store.id.IdGenerator#freeId(long)} being safe to call from several threads, which it is
+ * for all id generators, since they synchronize it.
+ * <p>
+ * The end of each transaction is a barrier. The records of a transaction are written once all of its commands have been
+ * visited, and they must have been written before the other appliers close the transaction, since those appliers may
+ * read the records back from the store. The appliers of a transaction are closed in reverse order, so the applier
+ * returned by {@link #recordWritesBarrier()} must be the last applier of the batch, where it is closed first.
+ * The barrier can't be moved to the end of the batch, since the index applier reads the node records of a transaction
+ * when the transaction is closed. Transactions with only a handful of records, or with all of their records in the same
+ * partition, are written by the applying thread, since handing them to other threads would cost more than it saves.
+ */
+public class ParallelNeoStoreBatchTransactionApplier extends BatchTransactionApplier.Adapter
+{
+    // A hand-off to another thread costs about as much as writing a few records that are in memory, and far less than
+    // writing one that has to be faulted in, as is common during recovery
+    private static final int MIN_PARALLEL_RECORD_WRITES = 8;
+    // Neighbouring records usually share a page, so each run of 64 record ids is written by the same thread
+    private static final int RECORD_ID_RUN_SHIFT = 6;
+
+    private final NeoStoreBatchTransactionApplier neoStoreApplier;
+    private final CommandVersion version;
+    private final NeoStores neoStores;
+    private final Executor executor;
+    private final List<List<Runnable>> partitions;
+    private int pendingRecordWrites;
+
+    public ParallelNeoStoreBatchTransactionApplier( CommandVersion version, NeoStores neoStores, CacheAccessBackDoor cacheAccess,
+            Executor executor, int parallelism )
+    {
+        this.neoStoreApplier = new NeoStoreBatchTransactionApplier( version, neoStores, cacheAccess, NO_LOCK_SERVICE );
+        this.version = version;
+        this.neoStores = neoStores;
+        this.executor = executor;
+        this.partitions = new ArrayList<>( parallelism );
+        for ( int i = 0; i < parallelism; i++ )
+        {
+            partitions.add( new ArrayList<>() );
+        }
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction )
+    {
+        throw new RuntimeException( "NeoStoreTransactionApplier requires a LockGroup" );
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction, LockGroup lockGroup )
+    {
+        return new PartitioningTransactionApplier( neoStoreApplier.startTx( transaction, lockGroup ) );
+    }
+
+    /**
+     * @return an applier that writes the records of each transaction when the transaction is closed. It must be the
+     * last applier of the batch.
+     */
+    public BatchTransactionApplier recordWritesBarrier()
+    {
+        return new BatchTransactionApplier.Adapter()
+        {
+            @Override
+            public TransactionApplier startTx( CommandsToApply transaction )
+            {
+                return new TransactionApplier.Adapter()
+                {
+                    @Override
+                    public void close() throws Exception
+                    {
+                        writePendingRecords();
+                    }
+                };
+            }
+        };
+    }
+
+    private <RECORD extends AbstractBaseRecord> boolean queue( int storeIndex, RecordStore<RECORD> store, BaseCommand<RECORD> command )
+    {
+        RECORD record = version == CommandVersion.BEFORE ? command.getBefore() : command.getAfter();
+        int partition = (int) (((record.getId() >>> RECORD_ID_RUN_SHIFT) + storeIndex) % partitions.size());
+        partitions.get( partition ).add( () -> store.updateRecord( record ) );
+        pendingRecordWrites++;
+        return false;
+    }
+
+    private void writePendingRecords() throws IOException
+    {
+        if ( pendingRecordWrites == 0 )
+        {
+            return;
+        }
+        try
+        {
+            List<List<Runnable>> nonEmptyPartitions = new ArrayList<>( partitions.size() );
+            for ( List<Runnable> partition : partitions )
+            {
+                if ( !partition.isEmpty() )
+                {
+                    nonEmptyPartitions.add( partition );
+                }
+            }
+            if ( pendingRecordWrites < MIN_PARALLEL_RECORD_WRITES || nonEmptyPartitions.size() == 1 )
+            {
+                nonEmptyPartitions.forEach( ParallelNeoStoreBatchTransactionApplier::writeRecords );
+                return;
+            }
+
+            List<CompletableFuture<Void>> writes = new ArrayList<>( nonEmptyPartitions.size() - 1 );
+            for ( List<Runnable> partition : nonEmptyPartitions.subList( 1, nonEmptyPartitions.size() ) )
+            {
+                writes.add( CompletableFuture.runAsync( () -> writeRecords( partition ), executor ) );
+            }
+            Throwable failure = null;
+            try
+            {
+                writeRecords( nonEmptyPartitions.get( 0 ) );
+            }
+            catch ( Throwable t )
+            {
+                failure = t;
+            }
+            // Wait for all of the threads, even if one of them failed, so that no records are written after we return
+            for ( CompletableFuture<Void> write : writes )
+            {
+                try
+                {
+                    write.join();
+                }
+                catch ( CompletionException e )
+                {
+                    failure = chain( failure, e.getCause() );
+                }
+            }
+            if ( failure != null )
+            {
+                throw new IOException( "Failed to write the records of a recovered transaction", failure );
+            }
+        }
+        finally
+        {
+            partitions.forEach( List::clear );
+            pendingRecordWrites = 0;
+        }
+    }
+
+    private static void writeRecords( List<Runnable> recordWrites )
+    {
+        for ( Runnable recordWrite : recordWrites )
+        {
+            recordWrite.run();
+        }
+    }
+
+    private class PartitioningTransactionApplier extends TransactionApplier.Adapter
+    {
+        private final TransactionApplier neoStoreTransactionApplier;
+
+        PartitioningTransactionApplier( TransactionApplier neoStoreTransactionApplier )
+        {
+            this.neoStoreTransactionApplier = neoStoreTransactionApplier;
+        }
+
+        @Override
+        public boolean visitNodeCommand( Command.NodeCommand command )
+        {
+            return queue( 0, neoStores.getNodeStore(), command );
+        }
+
+        @Override
+        public boolean visitRelationshipCommand( Command.RelationshipCommand command )
+        {
+            return queue( 1, neoStores.getRelationshipStore(), command );
+        }
+
+        @Override
+        public boolean visitPropertyCommand( Command.PropertyCommand command )
+        {
+            return queue( 2, neoStores.getPropertyStore(), command );
+        }
+
+        @Override
+        public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command )
+        {
+            return queue( 3, neoStores.getRelationshipGroupStore(), command );
+        }
+
+        @Override
+        public boolean visitRelationshipTypeTokenCommand( Command.RelationshipTypeTokenCommand command ) throws IOException
+        {
+            return neoStoreTransactionApplier.visitRelationshipTypeTokenCommand( command );
+        }
+
+        @Override
+        public boolean visitLabelTokenCommand( Command.LabelTokenCommand command ) throws IOException
+        {
+            return neoStoreTransactionApplier.visitLabelTokenCommand( command );
+        }
+
+        @Override
+        public boolean visitPropertyKeyTokenCommand( Command.PropertyKeyTokenCommand command ) throws IOException
+        {
+            return neoStoreTransactionApplier.visitPropertyKeyTokenCommand( command );
+        }
+
+        @Override
+        public boolean visitSchemaRuleCommand( Command.SchemaRuleCommand command ) throws IOException
+        {
+            return neoStoreTransactionApplier.visitSchemaRuleCommand( command );
+        }
+
+        @Override
+        public boolean visitNeoStoreCommand( Command.NeoStoreCommand command ) throws IOException
+        {
+            return neoStoreTransactionApplier.visitNeoStoreCommand( command );
+        }
+
+        @Override
+        public void close() throws Exception
+        {
+            // The barrier normally writes the records before we get here, but make sure no records are left behind
+            writePendingRecords();
+            neoStoreTransactionApplier.close();
+        }
+    }
+}
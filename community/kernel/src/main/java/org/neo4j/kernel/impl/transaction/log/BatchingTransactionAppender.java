@@ -67,6 +67,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final DatabaseHealth databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final ThreadLocal<TransactionSerializationBuffer> serializationBuffers =
+            ThreadLocal.withInitial( TransactionSerializationBuffer::new );
 
     private FlushablePositionAwareChannel writer;
     private TransactionLogWriter transactionLogWriter;
@@ -97,33 +99,51 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     {
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
-        // Synchronized with logFile to get absolute control over concurrent rotations happening
-        synchronized ( logFile )
+        // Serialize a lone transaction before we take the logFile monitor, so that concurrent committers can do
+        // this work in parallel, unless its committer has already done so. Transactions in other batches that
+        // were not serialized up front, and transactions that are too big for the buffer, are serialized directly
+        // into the log while holding the monitor.
+        TransactionSerializationBuffer serializedTransaction =
+                batch.next() == null && batch.serializedTransaction() == null ? serialize( batch ) : null;
+        try
         {
-            // Assert that kernel is healthy before making any changes
-            databaseHealth.assertHealthy( IOException.class );
-            try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+            // Synchronized with logFile to get absolute control over concurrent rotations happening
+            synchronized ( logFile )
             {
-                // Append all transactions in this batch to the log under the same logFile monitor
-                TransactionToApply tx = batch;
-                while ( tx != null )
+                // Assert that kernel is healthy before making any changes
+                databaseHealth.assertHealthy( IOException.class );
+                try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
                 {
-                    long transactionId = transactionIdStore.nextCommittingTransactionId();
+                    // Append all transactions in this batch to the log under the same logFile monitor
+                    TransactionToApply tx = batch;
+                    while ( tx != null )
+                    {
+                        long transactionId = transactionIdStore.nextCommittingTransactionId();
 
-                    // If we're in a scenario where we're merely replicating transactions, i.e. transaction
-                    // id have already been generated by another entity we simply check that our id
-                    // that we generated match that id. If it doesn't we've run into a problem we can't ´
-                    // really recover from and would point to a bug somewhere.
-                    matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+                        // If we're in a scenario where we're merely replicating transactions, i.e. transaction
+                        // id have already been generated by another entity we simply check that our id
+                        // that we generated match that id. If it doesn't we've run into a problem we can't ´
+                        // really recover from and would point to a bug somewhere.
+                        matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
 
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId );
-                    tx.commitment( commitment, transactionId );
-                    tx.logPosition( commitment.logPosition() );
-                    tx = tx.next();
-                    lastTransactionId = transactionId;
+                        TransactionCommitment commitment = appendToLog(
+                                tx.transactionRepresentation(), transactionId, tx.serializedTransaction() );
+                        tx.commitment( commitment, transactionId );
+                        tx.logPosition( commitment.logPosition() );
+                        tx = tx.next();
+                        lastTransactionId = transactionId;
+                    }
                 }
             }
         }
+        finally
+        {
+            if ( serializedTransaction != null )
+            {
+                batch.serializedTransaction( null );
+                serializedTransaction.clear();
+            }
+        }
 
         // At this point we've appended all transactions in this batch, but we can't mark any of them
         // as committed since they haven't been forced to disk yet. So here we force, or potentially
@@ -143,6 +163,24 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         return lastTransactionId;
     }
 
+    /**
+     * Serialize the given transaction into the buffer of this thread, and attach the buffer to the transaction.
+     *
+     * @return a buffer with the serialized start entry and commands of the given transaction, or {@code null} if the
+     * transaction is too big to be buffered.
+     */
+    private TransactionSerializationBuffer serialize( TransactionToApply tx ) throws IOException
+    {
+        TransactionSerializationBuffer buffer = serializationBuffers.get();
+        if ( buffer.serialize( tx.transactionRepresentation() ) )
+        {
+            tx.serializedTransaction( buffer );
+            return buffer;
+        }
+        buffer.clear();
+        return null;
+    }
+
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
     {
         long expectedTransactionId = tx.transactionId();
@@ -193,8 +231,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any explicit index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId,
+            TransactionSerializationBuffer serializedTransaction ) throws IOException
     {
         // Reset command writer so that we, after we've written the transaction, can ask it whether or
         // not any explicit index command was written. If so then there's additional ordering to care about below.
@@ -209,7 +247,14 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             LogPosition logPositionBeforeCommit = writer.getCurrentPosition( positionMarker ).newPosition();
-            transactionLogWriter.append( transaction, transactionId );
+            if ( serializedTransaction != null )
+            {
+                transactionLogWriter.append( serializedTransaction, transaction, transactionId );
+            }
+            else
+            {
+                transactionLogWriter.append( transaction, transactionId );
+            }
             LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
 
             long transactionChecksum =
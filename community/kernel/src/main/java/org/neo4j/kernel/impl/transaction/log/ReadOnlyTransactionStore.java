@@ -27,7 +27,7 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache.TransactionMetadata;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
-import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilePreallocation;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
 import org.neo4j.kernel.lifecycle.LifeSupport;
@@ -46,7 +46,7 @@ public class ReadOnlyTransactionStore implements Lifecycle, LogicalTransactionSt
             Monitors monitors ) throws IOException
     {
         TransactionMetadataCache transactionMetadataCache = new TransactionMetadataCache();
-        LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = new VersionAwareLogEntryReader<>();
+        LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = LogFilePreallocation.logEntryReader( config );
         LogFiles logFiles = LogFilesBuilder
                 .activeFilesBuilder( fromDatabaseLayout, fs, pageCache ).withLogEntryReader( logEntryReader )
                 .withConfig( config )
@@ -46,6 +46,17 @@ public class TransactionLogWriter
         writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
     }
 
+    /**
+     * Append a transaction, whose start entry and commands have already been serialized into the given buffer.
+     * Only the commit entry, which holds the transaction id, is left to be serialized.
+     */
+    public void append( TransactionSerializationBuffer serializedTransaction, TransactionRepresentation transaction,
+            long transactionId ) throws IOException
+    {
+        writer.writeSerialized( serializedTransaction );
+        writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
+    }
+
     public void checkPoint( LogPosition logPosition ) throws IOException
     {
         writer.writeCheckPointEntry( logPosition );
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.storageengine.api.WritableChannel;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A heap buffer that the start entry and the commands of a transaction are serialized into, before the transaction is
+ * appended to the log. This way, committing threads can do the bulk of the serialization work concurrently, and only
+ * copy the serialized bytes into the log, followed by the commit entry, while holding the log file monitor.
+ * <p>
+ * Transactions that serialize to more than {@code maxBytes} are not buffered, since they would take up too much memory.
+ * Those transactions must be serialized directly into the log instead. The buffer shrinks back to
+ * {@code retainedBytes} after every transaction, so the threads that keep a buffer around don't hold on to much memory.
+ */
+public class TransactionSerializationBuffer implements WritableChannel
+{
+    private static final int MAX_BYTES = getInteger( TransactionSerializationBuffer.class, "maxBytes", 4 * 1024 * 1024 );
+    private static final int RETAINED_BYTES = getInteger( TransactionSerializationBuffer.class, "retainedBytes", 64 * 1024 );
+
+    private final int maxBytes;
+    private final int retainedBytes;
+    private final LogEntryWriter writer;
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private boolean overflowed;
+
+    public TransactionSerializationBuffer()
+    {
+        this( MAX_BYTES, RETAINED_BYTES );
+    }
+
+    TransactionSerializationBuffer( int maxBytes, int retainedBytes )
+    {
+        this.maxBytes = maxBytes;
+        this.retainedBytes = Math.min( retainedBytes, maxBytes );
+        this.writer = new LogEntryWriter( this );
+        allocate( Math.min( 1024, this.retainedBytes ) );
+    }
+
+    /**
+     * Serialize the start entry and the commands of the given transaction into this buffer, replacing whatever was
+     * serialized into it before.
+     *
+     * @param transaction the transaction to serialize.
+     * @return {@code true} if the transaction was serialized, or {@code false} if it was too big for this buffer.
+     * @throws IOException if the commands of the transaction could not be serialized.
+     */
+    public boolean serialize( TransactionRepresentation transaction ) throws IOException
+    {
+        clear();
+        writer.writeStartEntry( transaction.getMasterId(), transaction.getAuthorId(), transaction.getTimeStarted(),
+                transaction.getLatestCommittedTxWhenStarted(), transaction.additionalHeader() );
+        writer.serialize( transaction );
+        return !overflowed;
+    }
+
+    /**
+     * Write the serialized bytes to the given channel.
+     *
+     * @param channel the channel to write to.
+     * @throws IOException if the channel could not be written to.
+     */
+    public void writeTo( WritableChannel channel ) throws IOException
+    {
+        channel.put( bytes, buffer.position() );
+    }
+
+    /**
+     * Forget the serialized bytes, and shrink the buffer if it has grown beyond the size it is allowed to retain.
+     */
+    public void clear()
+    {
+        if ( bytes.length > retainedBytes )
+        {
+            allocate( retainedBytes );
+        }
+        buffer.clear();
+        overflowed = false;
+    }
+
+    int size()
+    {
+        return buffer.position();
+    }
+
+    private void allocate( int size )
+    {
+        bytes = new byte[size];
+        buffer = ByteBuffer.wrap( bytes );
+    }
+
+    /**
+     * @return {@code true} if there is room for the given number of bytes, growing the buffer if needed.
+     */
+    private boolean ensureCapacity( int size )
+    {
+        if ( overflowed )
+        {
+            return false;
+        }
+        if ( buffer.remaining() >= size )
+        {
+            return true;
+        }
+        long required = (long) buffer.position() + size;
+        if ( required > maxBytes )
+        {
+            // Don't bother serializing the rest of the transaction. It will be serialized directly into the log.
+            overflowed = true;
+            return false;
+        }
+        int position = buffer.position();
+        int newSize = (int) Math.min( maxBytes, Math.max( required, (long) bytes.length * 2 ) );
+        bytes = Arrays.copyOf( bytes, newSize );
+        buffer = ByteBuffer.wrap( bytes );
+        buffer.position( position );
+        return true;
+    }
+
+    @Override
+    public WritableChannel put( byte value )
+    {
+        if ( ensureCapacity( Byte.BYTES ) )
+        {
+            buffer.put( value );
+        }
+        return this;
+    }
+
+    @Override
+    public WritableChannel putShort( short value )
+    {
+        if ( ensureCapacity( Short.BYTES ) )
+        {
+            buffer.putShort( value );
+        }
+        return this;
+    }
+
+    @Override
+    public WritableChannel putInt( int value )
+    {
+        if ( ensureCapacity( Integer.BYTES ) )
+        {
+            buffer.putInt( value );
+        }
+        return this;
+    }
+
+    @Override
+    public WritableChannel putLong( long value )
+    {
+        if ( ensureCapacity( Long.BYTES ) )
+        {
+            buffer.putLong( value );
+        }
+        return this;
+    }
+
+    @Override
+    public WritableChannel putFloat( float value )
+    {
+        if ( ensureCapacity( Float.BYTES ) )
+        {
+            buffer.putFloat( value );
+        }
+        return this;
+    }
+
+    @Override
+    public WritableChannel putDouble( double value )
+    {
+        if ( ensureCapacity( Double.BYTES ) )
+        {
+            buffer.putDouble( value );
+        }
+        return this;
+    }
+
+    @Override
+    public WritableChannel put( byte[] value, int length )
+    {
+        if ( ensureCapacity( length ) )
+        {
+            buffer.put( value, 0, length );
+        }
+        return this;
+    }
+}
@@ -26,6 +26,7 @@ import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionSerializationBuffer;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.WritableChannel;
 
@@ -84,6 +85,14 @@ public class LogEntryWriter
         tx.accept( serializer );
     }
 
+    /**
+     * Write the entries that have already been serialized into the given buffer.
+     */
+    public void writeSerialized( TransactionSerializationBuffer serializedEntries ) throws IOException
+    {
+        serializedEntries.writeTo( channel );
+    }
+
     public void serialize( CommittedTransactionRepresentation tx ) throws IOException
     {
         writeStartEntry( tx.getStartEntry() );
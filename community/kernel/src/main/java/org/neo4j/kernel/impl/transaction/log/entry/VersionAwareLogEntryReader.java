@@ -45,6 +45,7 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
 {
     private final CommandReaderFactory commandReaderFactory;
     private final InvalidLogEntryHandler invalidLogEntryHandler;
+    private final boolean preallocatedOrRecycled;
 
     public VersionAwareLogEntryReader()
     {
@@ -53,9 +54,20 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
 
     public VersionAwareLogEntryReader( CommandReaderFactory commandReaderFactory,
             InvalidLogEntryHandler invalidLogEntryHandler )
+    {
+        this( commandReaderFactory, invalidLogEntryHandler, false );
+    }
+
+    /**
+     * @param preallocatedOrRecycled whether the log files that are read may be pre-allocated or recycled, in which
+     * case a zero where the next entry would start marks the end of the entries, rather than a corrupted entry.
+     */
+    public VersionAwareLogEntryReader( CommandReaderFactory commandReaderFactory,
+            InvalidLogEntryHandler invalidLogEntryHandler, boolean preallocatedOrRecycled )
     {
         this.commandReaderFactory = commandReaderFactory;
         this.invalidLogEntryHandler = invalidLogEntryHandler;
+        this.preallocatedOrRecycled = preallocatedOrRecycled;
     }
 
     @Override
@@ -70,6 +82,16 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
                 channel.getCurrentPosition( positionMarker );
 
                 byte versionCode = channel.get();
+                if ( versionCode == 0 && preallocatedOrRecycled )
+                {
+                    // Log entry versions are negative, so this is where the zero-filled part of a pre-allocated
+                    // log file begins, and there are no more entries to read.
+                    if ( channelSupportsPositioning( channel ) )
+                    {
+                        ((PositionableChannel) channel).setCurrentPosition( positionMarker.getByteOffset() );
+                    }
+                    return null;
+                }
                 byte typeCode = channel.get();
 
                 LogEntryVersion version = null;
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.InvalidLogEntryHandler;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.preallocate_logical_logs;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.recycle_logical_logs;
+
+/**
+ * Utilities for transaction log files that are pre-allocated, or recycled, by filling them with zeros.
+ * <p>
+ * Log entries always start with a negative version byte, so a zero where the next log entry would start marks the end
+ * of the entries in a log file. The zeros beyond that point are not part of the log, and are not a sign of corruption.
+ * This only holds when pre-allocation or recycling is enabled. Otherwise zeros in a log file are read as corruption,
+ * like any other byte that does not start a log entry.
+ */
+public final class LogFilePreallocation
+{
+    private static final int BUFFER_SIZE = (int) ByteUnit.mebiBytes( 1 );
+
+    private LogFilePreallocation()
+    {
+    }
+
+    /**
+     * @param config the database configuration.
+     * @return {@code true} if transaction log files are pre-allocated or recycled with the given configuration, in
+     * which case they may be zero-filled beyond their last entry.
+     */
+    public static boolean isEnabled( Config config )
+    {
+        return config.get( preallocate_logical_logs ) || config.get( recycle_logical_logs );
+    }
+
+    /**
+     * @param config the database configuration.
+     * @return a reader of log entries, that reads a zero where the next entry would start as the end of the entries if
+     * log files are pre-allocated or recycled with the given configuration. Every reader of the log files of a database,
+     * including those of recovery, must know this, or it will fail on the zero-filled tail of the log.
+     */
+    public static <SOURCE extends ReadableClosablePositionAwareChannel> LogEntryReader<SOURCE> logEntryReader( Config config )
+    {
+        return new VersionAwareLogEntryReader<>( new RecordStorageCommandReaderFactory(), InvalidLogEntryHandler.STRICT, isEnabled( config ) );
+    }
+
+    /**
+     * Overwrite the given range of the channel with zeros, growing the file if necessary. The position of the channel
+     * is not changed.
+     *
+     * @param channel the channel to write zeros to.
+     * @param from the first byte offset to zero, inclusive.
+     * @param to the last byte offset to zero, exclusive.
+     * @throws IOException if the zeros could not be written.
+     */
+    public static void zeroFill( StoreChannel channel, long from, long to ) throws IOException
+    {
+        ByteBuffer zeros = ByteBuffer.allocate( (int) Math.min( BUFFER_SIZE, Math.max( to - from, 0 ) ) );
+        for ( long position = from; position < to; position += zeros.capacity() )
+        {
+            zeros.clear();
+            zeros.limit( (int) Math.min( zeros.capacity(), to - position ) );
+            channel.writeAll( zeros, position );
+        }
+    }
+
+    /**
+     * @param channel the channel to check.
+     * @param from the first byte offset to check, inclusive.
+     * @param to the last byte offset to check, exclusive.
+     * @return {@code true} if every byte in the given range of the channel is zero. Bytes beyond the end of the file
+     * count as zeros. The position of the channel is not changed.
+     * @throws IOException if the channel could not be read.
+     */
+    public static boolean isZeroFilled( StoreChannel channel, long from, long to ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( (int) Math.min( BUFFER_SIZE, Math.max( to - from, 0 ) ) );
+        long position = from;
+        while ( position < to )
+        {
+            buffer.clear();
+            buffer.limit( (int) Math.min( buffer.capacity(), to - position ) );
+            int read = channel.read( buffer, position );
+            if ( read <= 0 )
+            {
+                return true;
+            }
+            for ( int i = 0; i < read; i++ )
+            {
+                if ( buffer.get( i ) != 0 )
+                {
+                    return false;
+                }
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * @param channel the channel to check.
+     * @return {@code true} if the last byte of the file is a zero, which means that the file may be pre-allocated
+     * beyond the entries that have been written to it. The position of the channel is not changed.
+     * @throws IOException if the channel could not be read.
+     */
+    static boolean endsWithZero( StoreChannel channel ) throws IOException
+    {
+        long size = channel.size();
+        return size > 0 && isZeroFilled( channel, size - 1, size );
+    }
+}
@@ -59,6 +59,14 @@ public interface LogFiles extends Lifecycle
 
     boolean hasAnyEntries( long version );
 
+    boolean recycle( long version ) throws IOException;
+
+    /**
+     * @return {@code true} if log files may be zero-filled beyond their last entry, because they are pre-allocated
+     * or recycled.
+     */
+    boolean isPreallocatedOrRecycled();
+
     void accept( LogVersionVisitor visitor );
 
     void accept( LogHeaderVisitor visitor ) throws IOException;
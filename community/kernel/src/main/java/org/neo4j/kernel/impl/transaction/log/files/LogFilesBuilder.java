@@ -42,6 +42,8 @@ import org.neo4j.kernel.impl.util.Dependencies;
 import static java.util.Objects.requireNonNull;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.database_path;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.logical_log_rotation_threshold;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.preallocate_logical_logs;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.recycle_logical_logs;
 
 /**
  * Transactional log files facade class builder.
@@ -224,7 +226,7 @@ public class LogFilesBuilder
     {
         if ( logEntryReader == null )
         {
-            logEntryReader = new VersionAwareLogEntryReader();
+            logEntryReader = config != null ? LogFilePreallocation.logEntryReader( config ) : new VersionAwareLogEntryReader();
         }
         if ( logFileCreationMonitor == null )
         {
@@ -238,8 +240,14 @@ public class LogFilesBuilder
         // Register listener for rotation threshold
         AtomicLong rotationThreshold = getRotationThresholdAndRegisterForUpdates();
 
+        boolean preallocateLogFiles = !readOnly && config != null && config.get( preallocate_logical_logs );
+        boolean recycleLogFiles = !readOnly && config != null && config.get( recycle_logical_logs );
+        // Read only log files may still have been pre-allocated or recycled by an earlier writer
+        boolean preallocatedOrRecycled = config != null && LogFilePreallocation.isEnabled( config );
+
         return new TransactionLogFilesContext( rotationThreshold, logEntryReader,
-                lastCommittedIdSupplier, committingTransactionIdSupplier, logFileCreationMonitor, logVersionRepositorySupplier, fileSystem );
+                lastCommittedIdSupplier, committingTransactionIdSupplier, logFileCreationMonitor, logVersionRepositorySupplier, fileSystem,
+                preallocateLogFiles, recycleLogFiles, preallocatedOrRecycled );
     }
 
     private AtomicLong getRotationThresholdAndRegisterForUpdates()
@@ -19,24 +19,31 @@
  */
 package org.neo4j.kernel.impl.transaction.log.files;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.transaction.log.FlushablePositionAwareChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
 import org.neo4j.kernel.impl.transaction.log.LogVersionBridge;
 import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
 import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PositionAwarePhysicalFlushableChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReaderLogVersionBridge;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+
 /**
  * {@link LogFile} backed by one or more files in a {@link FileSystemAbstraction}.
  */
@@ -76,9 +83,53 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
         // Just read header and move to the end
         long lastLogVersionUsed = logVersionRepository.getCurrentLogVersion();
         channel = logFiles.createLogChannelForVersion( lastLogVersionUsed, OpenMode.READ_WRITE, context::getLastCommittedTransactionId );
-        // Move to the end
-        channel.position( channel.size() );
+        // Move to the end of the entries, which is not the end of the file, if the file has been pre-allocated
+        channel.position( endOfEntries( lastLogVersionUsed, channel ) );
         writer = new PositionAwarePhysicalFlushableChannel( channel );
+        if ( context.isPreallocatedOrRecycled() && logFiles.versionExists( lastLogVersionUsed - 1 ) )
+        {
+            // We may have crashed while rotating away from a pre-allocated log file, before it was truncated
+            truncateAfterEntries( lastLogVersionUsed - 1 );
+        }
+    }
+
+    /**
+     * @return the byte offset just after the last entry in the given log file. This is the size of the file, unless
+     * the file is zero-filled beyond its entries, because it has been pre-allocated or recycled.
+     */
+    private long endOfEntries( long version, StoreChannel logChannel ) throws IOException
+    {
+        long size = logChannel.size();
+        if ( !context.isPreallocatedOrRecycled() || size <= LOG_HEADER_SIZE || !LogFilePreallocation.endsWithZero( logChannel ) )
+        {
+            return size;
+        }
+        LogEntryReader<ReadableClosablePositionAwareChannel> entryReader = context.getLogEntryReader();
+        LogPositionMarker positionMarker = new LogPositionMarker();
+        long endOfEntries = LOG_HEADER_SIZE;
+        try ( ReadAheadLogChannel reader = new ReadAheadLogChannel(
+                logFiles.openForVersion( version ), LogVersionBridge.NO_MORE_CHANNELS ) )
+        {
+            while ( entryReader.readLogEntry( reader ) != null )
+            {
+                endOfEntries = reader.getCurrentPosition( positionMarker ).getByteOffset();
+            }
+        }
+        return endOfEntries;
+    }
+
+    private void truncateAfterEntries( long version ) throws IOException
+    {
+        File file = logFiles.getLogFileForVersion( version );
+        try ( StoreChannel logChannel = context.getFileSystem().open( file, OpenMode.READ_WRITE ) )
+        {
+            long endOfEntries = endOfEntries( version, logChannel );
+            if ( endOfEntries < logChannel.size() )
+            {
+                logChannel.truncate( endOfEntries );
+                logChannel.force( true );
+            }
+        }
     }
 
     // In order to be able to write into a logfile after life.stop during shutdown sequence
@@ -170,6 +221,16 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
          * transaction complete in the log we're rotating away. Awesome.
          */
         writer.prepareForFlush().flush();
+        /*
+         * A pre-allocated log file may have zeros left beyond its last entry. Those must be cut off, before we
+         * move on to the next log file, so that readers that reach them go on to read the next log file.
+         */
+        long endOfEntries = currentLog.position();
+        if ( endOfEntries < currentLog.size() )
+        {
+            currentLog.truncate( endOfEntries );
+            currentLog.force( true );
+        }
         /*
          * The log version is now in the store, flushed and persistent. If we crash
          * now, on recovery we'll attempt to open the version we're about to create
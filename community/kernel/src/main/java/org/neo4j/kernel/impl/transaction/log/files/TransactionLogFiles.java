@@ -23,7 +23,12 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.LongSupplier;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -38,6 +43,7 @@ import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
+import static org.neo4j.helpers.NamedThreadFactory.daemon;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter.writeLogHeader;
@@ -52,6 +58,9 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     public static final String DEFAULT_NAME = "neostore.transaction.db";
     public static final FilenameFilter DEFAULT_FILENAME_FILTER = TransactionLogFilesHelper.DEFAULT_FILENAME_FILTER;
     private static final File[] EMPTY_FILES_ARRAY = {};
+    private static final String RECYCLED_PREFIX = "recycled.";
+    private static final String RECYCLING_PREFIX = "recycling.";
+    private static final int MAX_RECYCLED_LOG_FILES = 2;
 
     private final TransactionLogFilesContext logFilesContext;
     private final TransactionLogFileInformation logFileInformation;
@@ -60,14 +69,20 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     private final FileSystemAbstraction fileSystem;
     private final LogFileCreationMonitor monitor;
     private final TransactionLogFilesHelper fileHelper;
+    private final TransactionLogFilesHelper recycledFileHelper;
+    private final TransactionLogFilesHelper recyclingFileHelper;
     private final TransactionLogFile logFile;
     private final File logsDirectory;
+    private ExecutorService preallocator;
+    private volatile Future<?> preallocation;
 
     TransactionLogFiles( File logsDirectory, String name, TransactionLogFilesContext context )
     {
         this.logFilesContext = context;
         this.logsDirectory = logsDirectory;
         this.fileHelper = new TransactionLogFilesHelper( logsDirectory, name );
+        this.recycledFileHelper = new TransactionLogFilesHelper( logsDirectory, RECYCLED_PREFIX + name );
+        this.recyclingFileHelper = new TransactionLogFilesHelper( logsDirectory, RECYCLING_PREFIX + name );
         this.fileSystem = context.getFileSystem();
         this.monitor = context.getLogFileCreationMonitor();
         this.logHeaderCache = new LogHeaderCache( 1000 );
@@ -78,6 +93,18 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     @Override
     public void init() throws IOException
     {
+        for ( File leftover : listFiles( recyclingFileHelper ) )
+        {
+            // Left behind by a crash in the middle of recycling or pre-allocating a log file
+            fileSystem.deleteFile( leftover );
+        }
+        if ( logFilesContext.isPreallocateLogFiles() )
+        {
+            // Rotation only picks up log files that have been pre-allocated in the background, so the first one has to
+            // be ready before the log is opened
+            preallocator = Executors.newSingleThreadExecutor( daemon( "TransactionLogPreallocation" ) );
+            preallocateSpareLogFile( getHighestLogVersion() + 1 );
+        }
         logFile.init();
     }
 
@@ -91,6 +118,20 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     public void shutdown() throws IOException
     {
         logFile.shutdown();
+        if ( preallocator != null )
+        {
+            // Any pre-allocation in flight is abandoned, and its file deleted on the next start
+            preallocator.shutdownNow();
+            try
+            {
+                preallocator.awaitTermination( 1, TimeUnit.MINUTES );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            preallocator = null;
+        }
     }
 
     @Override
@@ -155,7 +196,24 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     @Override
     public boolean hasAnyEntries( long version )
     {
-        return fileSystem.getFileSize( getLogFileForVersion( version ) ) > LOG_HEADER_SIZE;
+        File logFile = getLogFileForVersion( version );
+        if ( fileSystem.getFileSize( logFile ) <= LOG_HEADER_SIZE )
+        {
+            return false;
+        }
+        if ( !logFilesContext.isPreallocatedOrRecycled() )
+        {
+            return true;
+        }
+        // A pre-allocated log file is zero-filled beyond its entries, so it has entries if the first one is there
+        try ( StoreChannel channel = fileSystem.open( logFile, OpenMode.READ ) )
+        {
+            return !LogFilePreallocation.isZeroFilled( channel, LOG_HEADER_SIZE, LOG_HEADER_SIZE + 1 );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
     }
 
     @Override
@@ -246,22 +304,155 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
             LongSupplier lastTransactionIdSupplier ) throws IOException
     {
         File toOpen = getLogFileForVersion( forVersion );
+        if ( mode == OpenMode.READ_WRITE && (logFilesContext.isRecycleLogFiles() || logFilesContext.isPreallocateLogFiles()) &&
+             !fileSystem.fileExists( toOpen ) )
+        {
+            reuseSpareLogFile( toOpen );
+        }
         StoreChannel storeChannel = fileSystem.open( toOpen, mode );
         ByteBuffer headerBuffer = ByteBuffer.allocate( LOG_HEADER_SIZE );
         LogHeader header = readLogHeader( headerBuffer, storeChannel, false, toOpen );
+        if ( header != null && header.logFormatVersion == 0 && logFilesContext.isPreallocatedOrRecycled() )
+        {
+            // A recycled log file is zero-filled, including the header, until we write the header below
+            header = null;
+        }
         if ( header == null )
         {
             // Either the header is not there in full or the file was new. Don't care
             long lastTxId = lastTransactionIdSupplier.getAsLong();
             writeLogHeader( headerBuffer, forVersion, lastTxId );
             logHeaderCache.putHeader( forVersion, lastTxId );
-            storeChannel.writeAll( headerBuffer );
+            storeChannel.writeAll( headerBuffer, 0 );
+            storeChannel.position( LOG_HEADER_SIZE );
+            if ( logFilesContext.isPreallocateLogFiles() )
+            {
+                schedulePreallocation( forVersion + 1 );
+            }
             monitor.created( toOpen, forVersion, lastTxId );
         }
         byte formatVersion = header == null ? CURRENT_LOG_VERSION : header.logFormatVersion;
         return new PhysicalLogVersionedStoreChannel( storeChannel, forVersion, formatVersion );
     }
 
+    /**
+     * Pre-allocate a log file for a coming rotation in the background, unless one is already being pre-allocated.
+     * This is called during rotation, while appending transactions waits, so it must not do any I/O itself. If the
+     * pre-allocation has not finished by the time of the next rotation, that rotation creates a log file that is not
+     * pre-allocated, rather than waiting for it.
+     */
+    private void schedulePreallocation( long forVersion )
+    {
+        Future<?> previous = preallocation;
+        if ( preallocator == null || (previous != null && !previous.isDone()) )
+        {
+            return;
+        }
+        preallocation = preallocator.submit( () ->
+        {
+            try
+            {
+                preallocateSpareLogFile( forVersion );
+            }
+            catch ( IOException e )
+            {
+                // The next log file will just not be pre-allocated, and the file is deleted on the next start
+            }
+        } );
+    }
+
+    /**
+     * Create a log file that is filled with zeros up to the rotation threshold, and forced, so that the growth of the
+     * file is durable before any transactions are appended to it. It is kept aside with the recycled log files, and
+     * taken by the next log version that is created. Nothing is done if there already is such a file.
+     */
+    private void preallocateSpareLogFile( long forVersion ) throws IOException
+    {
+        synchronized ( recycledFileHelper )
+        {
+            if ( listFiles( recycledFileHelper ).length > 0 )
+            {
+                return;
+            }
+        }
+        File preallocatingFile = recyclingFileHelper.getLogFileForVersion( forVersion );
+        try ( StoreChannel channel = fileSystem.open( preallocatingFile, OpenMode.READ_WRITE ) )
+        {
+            LogFilePreallocation.zeroFill( channel, 0, logFilesContext.getRotationThreshold().get() );
+            channel.force( true );
+        }
+        addSpareLogFile( preallocatingFile, forVersion );
+    }
+
+    /**
+     * Recycle the log file of the given version, instead of deleting it. The file is filled with zeros, and kept
+     * aside until it is reused as the file of a new log version.
+     *
+     * @param version the version of the log file to recycle.
+     * @return {@code true} if the log file was recycled, or {@code false} if recycling is disabled, or enough log
+     * files have already been recycled, in which case the caller should delete the file instead.
+     * @throws IOException if the log file could not be recycled.
+     */
+    @Override
+    public boolean recycle( long version ) throws IOException
+    {
+        if ( !logFilesContext.isRecycleLogFiles() )
+        {
+            return false;
+        }
+        // Move the file out of the way before we wipe it, so that no log version is ever seen with its contents
+        // partially wiped, and only make it available for reuse once it has been fully wiped. The wiping is done
+        // without holding the lock, which rotation takes to reuse a wiped file.
+        File recyclingFile = recyclingFileHelper.getLogFileForVersion( version );
+        synchronized ( recycledFileHelper )
+        {
+            if ( listFiles( recycledFileHelper ).length >= MAX_RECYCLED_LOG_FILES )
+            {
+                return false;
+            }
+            fileSystem.renameFile( getLogFileForVersion( version ), recyclingFile );
+        }
+        try ( StoreChannel channel = fileSystem.open( recyclingFile, OpenMode.READ_WRITE ) )
+        {
+            LogFilePreallocation.zeroFill( channel, 0, channel.size() );
+            channel.force( false );
+        }
+        addSpareLogFile( recyclingFile, version );
+        return true;
+    }
+
+    private void addSpareLogFile( File zeroFilledFile, long version ) throws IOException
+    {
+        synchronized ( recycledFileHelper )
+        {
+            fileSystem.renameFile( zeroFilledFile, recycledFileHelper.getLogFileForVersion( version ) );
+        }
+    }
+
+    private void reuseSpareLogFile( File toOpen ) throws IOException
+    {
+        synchronized ( recycledFileHelper )
+        {
+            File[] recycledFiles = listFiles( recycledFileHelper );
+            if ( recycledFiles.length > 0 )
+            {
+                fileSystem.renameFile( recycledFiles[0], toOpen );
+            }
+        }
+    }
+
+    private File[] listFiles( TransactionLogFilesHelper helper )
+    {
+        File[] files = fileSystem.listFiles( helper.getParentDirectory(), helper.getLogFilenameFilter() );
+        return files == null ? EMPTY_FILES_ARRAY : files;
+    }
+
+    @Override
+    public boolean isPreallocatedOrRecycled()
+    {
+        return logFilesContext.isPreallocatedOrRecycled();
+    }
+
     @Override
     public void accept( LogHeaderVisitor visitor ) throws IOException
     {
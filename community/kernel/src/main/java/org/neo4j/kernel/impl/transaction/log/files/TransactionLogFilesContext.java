@@ -36,11 +36,15 @@ class TransactionLogFilesContext
     private final Supplier<LogVersionRepository> logVersionRepositorySupplier;
     private final LogFileCreationMonitor logFileCreationMonitor;
     private final FileSystemAbstraction fileSystem;
+    private final boolean preallocateLogFiles;
+    private final boolean recycleLogFiles;
+    private final boolean preallocatedOrRecycled;
 
     TransactionLogFilesContext( AtomicLong rotationThreshold, LogEntryReader logEntryReader,
             LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier,
             LogFileCreationMonitor logFileCreationMonitor, Supplier<LogVersionRepository> logVersionRepositorySupplier,
-            FileSystemAbstraction fileSystem )
+            FileSystemAbstraction fileSystem, boolean preallocateLogFiles, boolean recycleLogFiles,
+            boolean preallocatedOrRecycled )
     {
         this.rotationThreshold = rotationThreshold;
         this.logEntryReader = logEntryReader;
@@ -49,6 +53,9 @@ class TransactionLogFilesContext
         this.logVersionRepositorySupplier = logVersionRepositorySupplier;
         this.logFileCreationMonitor = logFileCreationMonitor;
         this.fileSystem = fileSystem;
+        this.preallocateLogFiles = preallocateLogFiles;
+        this.recycleLogFiles = recycleLogFiles;
+        this.preallocatedOrRecycled = preallocatedOrRecycled;
     }
 
     AtomicLong getRotationThreshold()
@@ -85,4 +92,19 @@ class TransactionLogFilesContext
     {
         return fileSystem;
     }
+
+    boolean isPreallocateLogFiles()
+    {
+        return preallocateLogFiles;
+    }
+
+    boolean isRecycleLogFiles()
+    {
+        return recycleLogFiles;
+    }
+
+    boolean isPreallocatedOrRecycled()
+    {
+        return preallocatedOrRecycled;
+    }
 }
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.log.pruning;
 
 import java.io.File;
+import java.io.IOException;
 import java.time.Clock;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -87,8 +88,24 @@ public class LogPruningImpl implements LogPruning
         {
             fromVersion = fromVersion == NO_VERSION ? version : Math.min( fromVersion, version );
             toVersion = toVersion == NO_VERSION ? version : Math.max( toVersion, version );
-            File logFile = logFiles.getLogFileForVersion( version );
-            fs.deleteFile( logFile );
+            if ( !recycle( version ) )
+            {
+                File logFile = logFiles.getLogFileForVersion( version );
+                fs.deleteFile( logFile );
+            }
+        }
+
+        private boolean recycle( long version )
+        {
+            try
+            {
+                return logFiles.recycle( version );
+            }
+            catch ( IOException e )
+            {
+                // The log file will be deleted instead, and a new log file will be created when it is needed.
+                return false;
+            }
         }
 
         public String describeResult()
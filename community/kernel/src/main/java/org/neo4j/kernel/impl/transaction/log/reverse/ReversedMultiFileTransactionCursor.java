@@ -30,7 +30,6 @@ import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChanne
 import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
-import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 
@@ -63,6 +62,7 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
      * {@link TransactionCursor} for each log version.
      *
      * @param logFile {@link LogFile} to supply log entries forming transactions.
+     * @param logEntryReader {@link LogEntryReader} to read the log entries with.
      * @param backToPosition {@link LogPosition} to read backwards to.
      * @param failOnCorruptedLogFiles fail reading from log files as soon as first error is encountered
      * @param monitor reverse transaction cursor monitor
@@ -70,11 +70,11 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
      * and including transaction starting at {@link LogPosition}.
      * @throws IOException on I/O error.
      */
-    public static TransactionCursor fromLogFile( LogFiles logFiles, LogFile logFile, LogPosition backToPosition,
+    public static TransactionCursor fromLogFile( LogFiles logFiles, LogFile logFile,
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, LogPosition backToPosition,
             boolean failOnCorruptedLogFiles, ReversedTransactionCursorMonitor monitor )
     {
         long highestVersion = logFiles.getHighestLogVersion();
-        LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = new VersionAwareLogEntryReader<>();
         ThrowingFunction<LogPosition,TransactionCursor,IOException> factory = position ->
         {
             ReadableLogChannel channel = logFile.getReader( position, NO_MORE_CHANNELS );
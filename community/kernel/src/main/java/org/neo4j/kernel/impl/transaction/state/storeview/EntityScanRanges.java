@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.state.storeview;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out consecutive ranges of entity ids to the workers of a parallel store scan, and keeps track of how far each
+ * worker has come in the range it is currently scanning.
+ * <p>
+ * A single scan thread can tell whether an external update is for an entity that the scan has already visited, by
+ * comparing the entity id to the id of the entity it is at. That doesn't work when several threads scan different
+ * ranges at the same time, so {@link #hasScanned(long)} looks at the claimed ranges and the position of each worker
+ * instead. Ranges are claimed once per {@code rangeSize} ids, so claiming and checking synchronize on this instance,
+ * while the workers publish their positions without locking.
+ */
+class EntityScanRanges
+{
+    private static final long NO_RANGE = -1;
+
+    private final long rangeSize;
+    private final LongSupplier highestPossibleIdInUse;
+    private final long[] rangeStarts;
+    private final long[] rangeEnds;
+    private final AtomicLongArray positions;
+    private long nextRangeStart;
+    private boolean exhausted;
+
+    /**
+     * @param workers the number of workers that will claim ranges.
+     * @param rangeSize the maximum number of ids in a range.
+     * @param highestPossibleIdInUse the highest entity id that could be in use right now. It is asked again for every
+     * claimed range, so entities that are created while the scan is running will be scanned too.
+     */
+    EntityScanRanges( int workers, long rangeSize, LongSupplier highestPossibleIdInUse )
+    {
+        this.rangeSize = rangeSize;
+        this.highestPossibleIdInUse = highestPossibleIdInUse;
+        this.rangeStarts = new long[workers];
+        this.rangeEnds = new long[workers];
+        this.positions = new AtomicLongArray( workers );
+        Arrays.fill( rangeStarts, NO_RANGE );
+        Arrays.fill( rangeEnds, NO_RANGE );
+    }
+
+    /**
+     * Claim the next range of ids for the given worker, giving up the range it had before.
+     *
+     * @param worker the worker claiming a range.
+     * @return {@code true} if a range was claimed, in which case {@link #start(int)} and {@link #end(int)} tell which,
+     * or {@code false} if all ids have been handed out.
+     */
+    synchronized boolean claim( int worker )
+    {
+        long highId = highestPossibleIdInUse.getAsLong() + 1;
+        if ( exhausted || nextRangeStart >= highId )
+        {
+            // Once one worker has run out of ids no more ranges are handed out, so that the entities which are
+            // created after this point can safely be treated as scanned.
+            exhausted = true;
+            rangeStarts[worker] = NO_RANGE;
+            rangeEnds[worker] = NO_RANGE;
+            return false;
+        }
+        long start = nextRangeStart;
+        long end = Math.min( start + rangeSize, highId );
+        nextRangeStart = end;
+        rangeStarts[worker] = start;
+        rangeEnds[worker] = end;
+        positions.set( worker, start - 1 );
+        return true;
+    }
+
+    /**
+     * @return the first id of the range that the given worker has claimed.
+     */
+    synchronized long start( int worker )
+    {
+        return rangeStarts[worker];
+    }
+
+    /**
+     * @return the id after the last id of the range that the given worker has claimed.
+     */
+    synchronized long end( int worker )
+    {
+        return rangeEnds[worker];
+    }
+
+    /**
+     * Note that the given worker is done with the entity with the given id. Must be called while the worker still
+     * holds the lock on that entity, so that any change made to it afterwards is seen as a change to a scanned entity.
+     */
+    void scanned( int worker, long entityId )
+    {
+        positions.set( worker, entityId );
+    }
+
+    /**
+     * @param entityId the id of an entity that an external update is for.
+     * @return {@code true} if the scan has already visited the entity, or will never visit it, such that the update
+     * must be applied. {@code false} if the scan will visit the entity later, and see the change then.
+     */
+    synchronized boolean hasScanned( long entityId )
+    {
+        if ( entityId >= nextRangeStart )
+        {
+            return exhausted;
+        }
+        for ( int worker = 0; worker < rangeStarts.length; worker++ )
+        {
+            if ( rangeStarts[worker] <= entityId && entityId < rangeEnds[worker] )
+            {
+                return entityId <= positions.get( worker );
+            }
+        }
+        return true;
+    }
+}
@@ -47,6 +47,13 @@ public class LabelScanViewNodeStoreScan<FAILURE extends Exception> extends Store
         this.labelScanStore = labelScanStore;
     }
 
+    @Override
+    protected boolean canScanInParallel()
+    {
+        // The nodes to visit come from the label scan store, and not from ranges of the node store
+        return false;
+    }
+
     @Override
     public EntityIdIterator getEntityIdIterator()
     {
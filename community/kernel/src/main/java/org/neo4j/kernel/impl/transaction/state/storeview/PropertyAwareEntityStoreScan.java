@@ -21,9 +21,16 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntPredicate;
 import java.util.function.LongFunction;
 
+import org.neo4j.helpers.Exceptions;
 import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.impl.api.index.EntityUpdates;
@@ -35,19 +42,37 @@ import org.neo4j.storageengine.api.StorageEntityScanCursor;
 import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
+import org.neo4j.util.FeatureToggles;
+import org.neo4j.util.VisibleForTesting;
+import org.neo4j.util.concurrent.Futures;
 import org.neo4j.values.storable.Value;
 
+import static org.neo4j.helpers.NamedThreadFactory.daemon;
+
+/**
+ * Scans all entities of a store, and visits the ones that have properties of interest.
+ * <p>
+ * If given a parallelism greater than one, and the scan {@link #canScanInParallel() can be divided}, the store is split
+ * into ranges of entity ids that the scan threads claim one after the other. Each thread has its own cursors and feeds
+ * the visitors directly, so the visitors must then be able to take concurrent visits.
+ */
 public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityScanCursor, FAILURE extends Exception> implements StoreScan<FAILURE>
 {
+    private static final String SCAN_THREAD_NAME_PREFIX = "Index Population Scan Thread";
+    static final int RANGE_SIZE = FeatureToggles.getInteger( PropertyAwareEntityStoreScan.class, "range_size", 100_000 );
+
     final CURSOR entityCursor;
     private final StoragePropertyCursor propertyCursor;
     private final StorageReader storageReader;
     private volatile boolean continueScanning;
-    private long count;
+    private final AtomicLong count = new AtomicLong();
     private long totalCount;
     private final IntPredicate propertyKeyIdFilter;
     private final LongFunction<Lock> lockFunction;
     private PhaseTracker phaseTracker;
+    private int parallelism = 1;
+    private int rangeSize = RANGE_SIZE;
+    private volatile EntityScanRanges parallelScanRanges;
 
     protected PropertyAwareEntityStoreScan( StorageReader storageReader, long totalEntityCount, IntPredicate propertyKeyIdFilter,
             LongFunction<Lock> lockFunction )
@@ -63,6 +88,20 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
 
     protected abstract CURSOR allocateCursor( StorageReader storageReader );
 
+    /**
+     * @return the highest id of the scanned type of entity that could be in use right now.
+     */
+    protected abstract long highestPossibleIdInUse( StorageReader storageReader );
+
+    /**
+     * @return {@code true} if the entities can be visited by several threads in any order, or {@code false} if they have
+     * to be visited in order, by a single thread.
+     */
+    protected boolean canScanInParallel()
+    {
+        return true;
+    }
+
     static boolean containsAnyEntityToken( int[] entityTokenFilter, long... entityTokens )
     {
         for ( long candidate : entityTokens )
@@ -75,7 +114,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         return false;
     }
 
-    boolean hasRelevantProperty( CURSOR cursor, EntityUpdates.Builder updates )
+    boolean hasRelevantProperty( CURSOR cursor, StoragePropertyCursor propertyCursor, EntityUpdates.Builder updates )
     {
         if ( !cursor.hasProperties() )
         {
@@ -103,17 +142,24 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     @Override
     public void run() throws FAILURE
     {
+        if ( parallelism > 1 && canScanInParallel() )
+        {
+            scanInParallel();
+            return;
+        }
+
         entityCursor.scan();
+        PhaseTracker scanPhases = phaseTracker.startWorker();
         try ( EntityIdIterator entityIdIterator = getEntityIdIterator() )
         {
             continueScanning = true;
             while ( continueScanning && entityIdIterator.hasNext() )
             {
-                phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
+                scanPhases.enterPhase( PhaseTracker.Phase.SCAN );
                 long id = entityIdIterator.next();
                 try ( Lock ignored = lockFunction.apply( id ) )
                 {
-                    count++;
+                    count.incrementAndGet();
                     if ( process( entityCursor ) )
                     {
                         entityIdIterator.invalidateCache();
@@ -123,15 +169,123 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         }
         finally
         {
+            scanPhases.stop();
             IOUtils.closeAllUnchecked( propertyCursor, entityCursor, storageReader );
         }
     }
 
+    private void scanInParallel() throws FAILURE
+    {
+        // All cursors are allocated up front by this thread, since the storage reader is not meant to be shared between threads
+        EntityScanRanges ranges = new EntityScanRanges( parallelism, rangeSize, () -> highestPossibleIdInUse( storageReader ) );
+        List<CURSOR> cursors = new ArrayList<>( parallelism );
+        List<StoragePropertyCursor> propertyCursors = new ArrayList<>( parallelism );
+        cursors.add( entityCursor );
+        propertyCursors.add( propertyCursor );
+        ExecutorService executor = null;
+        try
+        {
+            for ( int worker = 1; worker < parallelism; worker++ )
+            {
+                cursors.add( allocateCursor( storageReader ) );
+                propertyCursors.add( storageReader.allocatePropertyCursor() );
+            }
+
+            parallelScanRanges = ranges;
+            continueScanning = true;
+            executor = Executors.newFixedThreadPool( parallelism - 1, daemon( SCAN_THREAD_NAME_PREFIX ) );
+            List<Future<Void>> workers = new ArrayList<>( parallelism - 1 );
+            for ( int worker = 1; worker < parallelism; worker++ )
+            {
+                int workerId = worker;
+                workers.add( executor.submit( () ->
+                {
+                    scanRanges( workerId, cursors.get( workerId ), propertyCursors.get( workerId ), ranges );
+                    return null;
+                } ) );
+            }
+
+            Throwable failure = null;
+            try
+            {
+                scanRanges( 0, entityCursor, propertyCursor, ranges );
+            }
+            catch ( Throwable t )
+            {
+                stop();
+                failure = t;
+            }
+            for ( Future<Void> worker : workers )
+            {
+                // The cursors of the workers are closed afterwards, so wait for them to finish also when interrupted
+                Throwable workerFailure = Futures.awaitCompletion( worker, this::stop );
+                if ( workerFailure != null )
+                {
+                    stop();
+                }
+                failure = Exceptions.chain( failure, workerFailure );
+            }
+            if ( failure != null )
+            {
+                throwFailure( failure );
+            }
+        }
+        finally
+        {
+            if ( executor != null )
+            {
+                executor.shutdown();
+            }
+            IOUtils.closeAllUnchecked( propertyCursors );
+            IOUtils.closeAllUnchecked( cursors );
+            IOUtils.closeAllUnchecked( storageReader );
+        }
+    }
+
+    private void scanRanges( int worker, CURSOR cursor, StoragePropertyCursor properties, EntityScanRanges ranges ) throws FAILURE
+    {
+        // Each thread tracks its own phases, which are added up when it is done
+        PhaseTracker workerPhases = phaseTracker.startWorker();
+        try
+        {
+            while ( continueScanning && ranges.claim( worker ) )
+            {
+                cursor.scanRange( ranges.start( worker ), ranges.end( worker ) );
+                while ( continueScanning && cursor.next() )
+                {
+                    workerPhases.enterPhase( PhaseTracker.Phase.SCAN );
+                    long id = cursor.entityReference();
+                    try ( Lock ignored = lockFunction.apply( id ) )
+                    {
+                        count.incrementAndGet();
+                        process( cursor, properties );
+                        ranges.scanned( worker, id );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            workerPhases.stop();
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void throwFailure( Throwable failure ) throws FAILURE
+    {
+        Exceptions.throwIfUnchecked( failure );
+        throw (FAILURE) failure;
+    }
+
     @Override
     public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate<?> update,
             long currentlyIndexedNodeId )
     {
-        if ( update.getEntityId() <= currentlyIndexedNodeId )
+        EntityScanRanges ranges = parallelScanRanges;
+        boolean scanned = ranges == null || currentlyIndexedNodeId == Long.MAX_VALUE
+                          ? update.getEntityId() <= currentlyIndexedNodeId
+                          : ranges.hasScanned( update.getEntityId() );
+        if ( scanned )
         {
             updater.process( update );
         }
@@ -145,7 +299,21 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
      * i.e. invalidate any caches if it has any.
      * @throws FAILURE on failure.
      */
-    protected abstract boolean process( CURSOR cursor ) throws FAILURE;
+    protected boolean process( CURSOR cursor ) throws FAILURE
+    {
+        return process( cursor, propertyCursor );
+    }
+
+    /**
+     * Process the given {@code record}, reading its properties with the given property cursor.
+     *
+     * @param cursor CURSOR with information to process.
+     * @param propertyCursor {@link StoragePropertyCursor} of the thread that processes the record.
+     * @return {@code true} if external updates have been applied such that the scan iterator needs to be 100% up to date with store,
+     * i.e. invalidate any caches if it has any.
+     * @throws FAILURE on failure.
+     */
+    protected abstract boolean process( CURSOR cursor, StoragePropertyCursor propertyCursor ) throws FAILURE;
 
     @Override
     public void stop()
@@ -158,7 +326,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     {
         if ( totalCount > 0 )
         {
-            return new PopulationProgress( count, totalCount );
+            return new PopulationProgress( count.get(), totalCount );
         }
 
         // nothing to do 100% completed
@@ -171,6 +339,21 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         this.phaseTracker = phaseTracker;
     }
 
+    @Override
+    public void setParallelism( int threads )
+    {
+        this.parallelism = threads;
+    }
+
+    /**
+     * @param rangeSize number of entity ids in each range that the threads of a parallel scan claim.
+     */
+    @VisibleForTesting
+    void setRangeSize( int rangeSize )
+    {
+        this.rangeSize = rangeSize;
+    }
+
     protected EntityIdIterator getEntityIdIterator()
     {
         return new EntityIdIterator()
@@ -24,6 +24,7 @@ import java.util.function.IntPredicate;
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.impl.api.index.EntityUpdates;
 import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 
@@ -48,7 +49,13 @@ public class RelationshipStoreScan<FAILURE extends Exception> extends PropertyAw
     }
 
     @Override
-    protected boolean process( StorageRelationshipScanCursor cursor ) throws FAILURE
+    protected long highestPossibleIdInUse( StorageReader storageReader )
+    {
+        return storageReader.relationshipsGetHighestPossibleIdInUse();
+    }
+
+    @Override
+    protected boolean process( StorageRelationshipScanCursor cursor, StoragePropertyCursor propertyCursor ) throws FAILURE
     {
         int reltype = cursor.type();
 
@@ -57,7 +64,7 @@ public class RelationshipStoreScan<FAILURE extends Exception> extends PropertyAw
             // Notify the property update visitor
             EntityUpdates.Builder updates = EntityUpdates.forEntity( cursor.entityReference() ).withTokens( reltype );
 
-            if ( hasRelevantProperty( cursor, updates ) )
+            if ( hasRelevantProperty( cursor, propertyCursor, updates ) )
             {
                 return propertyUpdatesVisitor.visit( updates.build() );
             }
@@ -26,6 +26,7 @@ import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.impl.api.index.EntityUpdates;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 
 import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
@@ -55,7 +56,20 @@ public class StoreViewNodeStoreScan<FAILURE extends Exception> extends PropertyA
     }
 
     @Override
-    public boolean process( StorageNodeCursor cursor ) throws FAILURE
+    protected long highestPossibleIdInUse( StorageReader storageReader )
+    {
+        return storageReader.nodesGetHighestPossibleIdInUse();
+    }
+
+    @Override
+    protected boolean canScanInParallel()
+    {
+        // Label updates are used to rebuild the label scan store, which wants them in node id order
+        return labelUpdateVisitor == null;
+    }
+
+    @Override
+    public boolean process( StorageNodeCursor cursor, StoragePropertyCursor propertyCursor ) throws FAILURE
     {
         long[] labels = cursor.labels();
         if ( labels.length == 0 && labelIds.length != 0 )
@@ -75,7 +89,7 @@ public class StoreViewNodeStoreScan<FAILURE extends Exception> extends PropertyA
             // Notify the property update visitor
             EntityUpdates.Builder updates = EntityUpdates.forEntity( cursor.entityReference() ).withTokens( labels );
 
-            if ( hasRelevantProperty( cursor, updates ) )
+            if ( hasRelevantProperty( cursor, propertyCursor, updates ) )
             {
                 return propertyUpdatesVisitor.visit( updates.build() );
             }
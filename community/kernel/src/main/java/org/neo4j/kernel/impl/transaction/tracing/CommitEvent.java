@@ -42,6 +42,11 @@ public interface CommitEvent extends AutoCloseable
         {
             return StoreApplyEvent.NULL;
         }
+
+        @Override
+        public void setGroupCommitSize( int transactionCount )
+        {
+        }
     };
 
     /**
@@ -59,4 +64,10 @@ public interface CommitEvent extends AutoCloseable
      * Begin applying the commands of the committed transaction to the stores.
      */
     StoreApplyEvent beginStoreApply();
+
+    /**
+     * Note that this commit led a group commit, where the given number of concurrently committing transactions were
+     * appended to the transaction log, and applied to the stores, together.
+     */
+    void setGroupCommitSize( int transactionCount );
 }
@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.util.collection;
 import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -39,13 +40,29 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
 {
     private final MemoryAllocationTracker memoryTracker = new LocalMemoryTracker();
     private final MemoryAllocator allocator;
+    private final long valuesSpillThreshold;
+    private final File spillDirectory;
 
     private final Collection<Resource> resources = new ArrayList<>();
     private ValuesContainer valuesContainer;
+    private SpillingMemoryAllocator valuesAllocator;
 
     public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator )
+    {
+        this( blockAllocator, 0, null );
+    }
+
+    /**
+     * @param blockAllocator allocator of the off-heap memory blocks.
+     * @param valuesSpillThreshold number of bytes of property values to keep in off-heap memory, before spilling
+     * more values to a temporary file, or {@code 0} to never spill.
+     * @param spillDirectory directory to create the temporary files in, only used if {@code valuesSpillThreshold} is positive.
+     */
+    public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator, long valuesSpillThreshold, File spillDirectory )
     {
         this.allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator );
+        this.valuesSpillThreshold = valuesSpillThreshold;
+        this.spillDirectory = spillDirectory;
     }
 
     @Override
@@ -67,7 +84,15 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
     {
         if ( valuesContainer == null )
         {
-            valuesContainer = new AppendOnlyValuesContainer( allocator );
+            if ( valuesSpillThreshold > 0 )
+            {
+                valuesAllocator = new SpillingMemoryAllocator( allocator, valuesSpillThreshold, spillDirectory );
+                valuesContainer = new AppendOnlyValuesContainer( valuesAllocator );
+            }
+            else
+            {
+                valuesContainer = new AppendOnlyValuesContainer( allocator );
+            }
         }
         final LinearProbeLongLongHashMap refs = new LinearProbeLongLongHashMap( allocator );
         resources.add( refs );
@@ -90,5 +115,10 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
             valuesContainer.close();
             valuesContainer = null;
         }
+        if ( valuesAllocator != null )
+        {
+            valuesAllocator.close();
+            valuesAllocator = null;
+        }
     }
 }
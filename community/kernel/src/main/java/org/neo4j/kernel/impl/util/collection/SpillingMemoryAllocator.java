@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static java.lang.Math.toIntExact;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static org.neo4j.util.Preconditions.checkState;
+import static org.neo4j.util.Preconditions.requirePositive;
+
+/**
+ * {@link MemoryAllocator} which allocates memory from another allocator until a threshold of allocated bytes has been reached,
+ * after which it allocates memory from regions of a temporary file in the given directory instead. The file regions are memory
+ * mapped, which means that they are backed by the page cache of the operating system, that can write them out to disk when memory
+ * is needed elsewhere.
+ * <p>
+ * This is meant for data of a single transaction that can grow really large, like the values of its property changes, which
+ * would otherwise make a transaction that changes many or large properties fail, or exhaust the memory of the process.
+ * A region is unmapped when its memory is {@link Memory#free() freed}, and the temporary file is deleted when this allocator
+ * is {@link #close() closed}. Files left behind by a process that did not close its allocators can be removed with
+ * {@link #deleteSpillFiles(File)}.
+ * <p>
+ * The disk space of the file is not given back until this allocator is closed, and is at most {@link Integer#MAX_VALUE}
+ * bytes per allocation. This is not thread safe.
+ */
+public class SpillingMemoryAllocator implements MemoryAllocator, Resource
+{
+    private static final String FILE_PREFIX = "neo4j-tx-state-";
+
+    private final MemoryAllocator allocator;
+    private final long threshold;
+    private final File directory;
+    private final Set<FileRegionMemory> mappedRegions = Collections.newSetFromMap( new IdentityHashMap<>() );
+    private long allocatedBytes;
+    private FileChannel channel;
+    private long fileSize;
+
+    /**
+     * @param allocator allocator to use until the threshold is reached.
+     * @param threshold number of bytes to allocate from {@code allocator}, before allocating from a temporary file.
+     * @param directory directory to create the temporary file in, created if it does not exist.
+     */
+    public SpillingMemoryAllocator( MemoryAllocator allocator, long threshold, File directory )
+    {
+        this.allocator = requireNonNull( allocator );
+        this.threshold = requirePositive( threshold );
+        this.directory = requireNonNull( directory );
+    }
+
+    @Override
+    public Memory allocate( long size, boolean zeroed )
+    {
+        if ( allocatedBytes + size <= threshold )
+        {
+            allocatedBytes += size;
+            return allocator.allocate( size, zeroed );
+        }
+        // Regions that have never been written to are always zeroed
+        return newRegion( size );
+    }
+
+    /**
+     * @return {@code true} if any memory has been allocated from the temporary file.
+     */
+    public boolean hasSpilled()
+    {
+        return channel != null;
+    }
+
+    /**
+     * Delete the temporary files that allocators have left in the given directory. Must not be called while any allocator
+     * spills to that directory.
+     *
+     * @param directory the directory that allocators spill to.
+     */
+    public static void deleteSpillFiles( File directory )
+    {
+        if ( !directory.isDirectory() )
+        {
+            return;
+        }
+        try ( DirectoryStream<Path> files = Files.newDirectoryStream( directory.toPath(), FILE_PREFIX + "*" ) )
+        {
+            for ( Path file : files )
+            {
+                Files.deleteIfExists( file );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to delete temporary transaction state files in " + directory, e );
+        }
+    }
+
+    private FileRegionMemory newRegion( long size )
+    {
+        final FileRegionMemory memory = new FileRegionMemory( mapRegion( size ) );
+        mappedRegions.add( memory );
+        return memory;
+    }
+
+    private MappedByteBuffer mapRegion( long size )
+    {
+        try
+        {
+            if ( channel == null )
+            {
+                Path file = Files.createTempFile( Files.createDirectories( directory.toPath() ), FILE_PREFIX, null );
+                channel = FileChannel.open( file, READ, WRITE, DELETE_ON_CLOSE );
+            }
+            MappedByteBuffer region = channel.map( FileChannel.MapMode.READ_WRITE, fileSize, toIntExact( size ) );
+            fileSize += size;
+            return region;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to spill transaction state to a temporary file in " + directory, e );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        // Copy, since unmapping removes the region from the set
+        for ( FileRegionMemory region : mappedRegions.toArray( new FileRegionMemory[0] ) )
+        {
+            region.free();
+        }
+        if ( channel != null )
+        {
+            try
+            {
+                channel.close();
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+            finally
+            {
+                channel = null;
+                fileSize = 0;
+            }
+        }
+    }
+
+    private class FileRegionMemory implements Memory
+    {
+        private MappedByteBuffer region;
+
+        FileRegionMemory( MappedByteBuffer region )
+        {
+            this.region = region;
+        }
+
+        @Override
+        public long readLong( long offset )
+        {
+            return region().getLong( toIntExact( offset ) );
+        }
+
+        @Override
+        public void writeLong( long offset, long value )
+        {
+            region().putLong( toIntExact( offset ), value );
+        }
+
+        @Override
+        public void clear()
+        {
+            final ByteBuffer buffer = region();
+            for ( int i = 0; i < buffer.capacity(); i++ )
+            {
+                buffer.put( i, (byte) 0 );
+            }
+        }
+
+        @Override
+        public long size()
+        {
+            return region().capacity();
+        }
+
+        @Override
+        public void free()
+        {
+            // Unmap right away, since the garbage collector may not get around to it before the file is deleted,
+            // and until then the mapping keeps both the memory and the disk space of the file in use
+            final ByteBuffer buffer = region();
+            region = null;
+            mappedRegions.remove( this );
+            UnsafeUtil.invokeCleaner( buffer );
+        }
+
+        @Override
+        public Memory copy()
+        {
+            final ByteBuffer source = region().duplicate();
+            final FileRegionMemory copy = newRegion( source.capacity() );
+            source.clear();
+            copy.region.put( source );
+            copy.region.clear();
+            return copy;
+        }
+
+        @Override
+        public ByteBuffer asByteBuffer()
+        {
+            return region().duplicate();
+        }
+
+        private MappedByteBuffer region()
+        {
+            checkState( region != null, "Memory has been freed" );
+            return region;
+        }
+    }
+}
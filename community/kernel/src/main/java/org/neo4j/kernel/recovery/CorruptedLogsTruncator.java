@@ -33,6 +33,7 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilePreallocation;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
 
@@ -163,7 +164,22 @@ public class CorruptedLogsTruncator
     }
 
     private boolean isRecoveredLogCorrupted( long recoveredTransactionLogVersion, long recoveredTransactionOffset )
+            throws IOException
     {
-        return logFiles.getLogFileForVersion( recoveredTransactionLogVersion ).length() > recoveredTransactionOffset;
+        File logFile = logFiles.getLogFileForVersion( recoveredTransactionLogVersion );
+        long length = fs.getFileSize( logFile );
+        if ( length <= recoveredTransactionOffset )
+        {
+            return false;
+        }
+        if ( !logFiles.isPreallocatedOrRecycled() )
+        {
+            return true;
+        }
+        // A pre-allocated or recycled log file is filled with zeros after its last entry, which is not a corruption.
+        try ( StoreChannel channel = fs.open( logFile, OpenMode.READ ) )
+        {
+            return !LogFilePreallocation.isZeroFilled( channel, recoveredTransactionOffset, length );
+        }
     }
 }
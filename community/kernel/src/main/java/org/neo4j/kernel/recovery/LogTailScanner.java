@@ -35,10 +35,12 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilePreallocation;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.monitoring.Monitors;
 
 import static org.neo4j.kernel.impl.transaction.log.LogVersionRepository.INITIAL_LOG_VERSION;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
 import static org.neo4j.kernel.recovery.Recovery.throwUnableToCleanRecover;
 
 /**
@@ -170,7 +172,17 @@ public class LogTailScanner
 
     private boolean hasUnreadableBytes( LogVersionedStoreChannel channel, long maxEntryReadEndPosition ) throws IOException
     {
-        return channel.position() > maxEntryReadEndPosition;
+        long position = channel.position();
+        if ( position <= maxEntryReadEndPosition )
+        {
+            return false;
+        }
+        if ( !logFiles.isPreallocatedOrRecycled() )
+        {
+            return true;
+        }
+        // The zeros after the last entry of a pre-allocated or recycled log file are not part of the log.
+        return !LogFilePreallocation.isZeroFilled( channel, Math.max( maxEntryReadEndPosition, LOG_HEADER_SIZE ), position );
     }
 
     protected LogTailInformation checkpointTailInformation( long highestLogVersion, LogEntryStart latestStartEntry,
@@ -76,6 +76,29 @@ public class DefaultTransactionTracerTest
         verifyZeroInteractions( monitor );
     }
 
+    @Test
+    public void shouldCountGroupCommitsBySize()
+    {
+        DefaultTransactionTracer tracer = new DefaultTransactionTracer( clock, monitor, jobScheduler );
+
+        for ( int groupSize : new int[]{1, 2, 3, 64} )
+        {
+            try ( TransactionEvent txEvent = tracer.beginTransaction();
+                  CommitEvent commitEvent = txEvent.beginCommitEvent() )
+            {
+                commitEvent.setGroupCommitSize( groupSize );
+            }
+        }
+
+        assertEquals( 4, tracer.numberOfGroupCommits() );
+        assertEquals( 70, tracer.numberOfGroupCommittedTransactions() );
+        long[] distribution = tracer.groupCommitSizeDistribution();
+        assertEquals( 1, distribution[0] );
+        assertEquals( 2, distribution[1] );
+        assertEquals( 0, distribution[2] );
+        assertEquals( 1, distribution[6] );
+    }
+
     private void triggerEvent( DefaultTransactionTracer tracer, int eventDuration )
     {
         try ( TransactionEvent txEvent = tracer.beginTransaction() )
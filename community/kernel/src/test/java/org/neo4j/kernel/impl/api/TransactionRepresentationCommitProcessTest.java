@@ -22,7 +22,14 @@ package org.neo4j.kernel.impl.api;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
@@ -36,7 +43,9 @@ import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -49,6 +58,8 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.helpers.Exceptions.contains;
+import static org.neo4j.test.ThreadTestUtils.awaitThreadState;
+import static org.neo4j.test.ThreadTestUtils.fork;
 import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
 
 public class TransactionRepresentationCommitProcessTest
@@ -138,6 +149,89 @@ public class TransactionRepresentationCommitProcessTest
         verify( transactionIdStore ).transactionCommitted( txId, FakeCommitment.CHECKSUM, FakeCommitment.TIMESTAMP );
     }
 
+    @Test
+    public void shouldAppendAndApplyConcurrentlyCommittingTransactionsAsOneGroup() throws Exception
+    {
+        // GIVEN
+        TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+        AtomicLong lastTxId = new AtomicLong( TransactionIdStore.BASE_TX_ID );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenAnswer( invocation -> lastTxId.incrementAndGet() );
+        CountDownLatch releaseFirstAppend = new CountDownLatch( 1 );
+        List<Integer> appendedBatchSizes = new CopyOnWriteArrayList<>();
+        TransactionAppender appender = new TestableTransactionAppender( transactionIdStore )
+        {
+            @Override
+            public long append( TransactionToApply batch, LogAppendEvent logAppendEvent )
+            {
+                appendedBatchSizes.add( batchSize( batch ) );
+                if ( appendedBatchSizes.size() == 1 )
+                {
+                    awaitUninterruptibly( releaseFirstAppend );
+                }
+                return super.append( batch, logAppendEvent );
+            }
+        };
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        TransactionCommitProcess commitProcess =
+                new TransactionRepresentationCommitProcess( appender, storageEngine, 64, Duration.ZERO );
+        Set<Long> committedTxIds = ConcurrentHashMap.newKeySet();
+        Runnable committer = () ->
+        {
+            try
+            {
+                committedTxIds.add( commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) );
+            }
+            catch ( TransactionFailureException e )
+            {
+                throw new RuntimeException( e );
+            }
+        };
+
+        // WHEN the first committer is appending, while four more committers queue up behind it
+        Thread[] threads = new Thread[5];
+        threads[0] = fork( committer );
+        awaitThreadState( threads[0], 10_000, Thread.State.WAITING );
+        for ( int i = 1; i < threads.length; i++ )
+        {
+            threads[i] = fork( committer );
+            awaitThreadState( threads[i], 10_000, Thread.State.WAITING );
+        }
+        releaseFirstAppend.countDown();
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        // THEN the queued committers are appended, and applied, as one group
+        assertEquals( asList( 1, 4 ), appendedBatchSizes );
+        verify( storageEngine, times( 2 ) ).apply( any( TransactionToApply.class ), eq( INTERNAL ) );
+        assertEquals( 5, committedTxIds.size() );
+        verify( transactionIdStore, times( 5 ) ).transactionClosed( anyLong(), anyLong(), anyLong() );
+    }
+
+    private static int batchSize( TransactionToApply batch )
+    {
+        int size = 0;
+        while ( batch != null )
+        {
+            size++;
+            batch = batch.next();
+        }
+        return size;
+    }
+
+    private static void awaitUninterruptibly( CountDownLatch latch )
+    {
+        try
+        {
+            latch.await();
+        }
+        catch ( InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
     private TransactionToApply mockedTransaction()
     {
         TransactionRepresentation transaction = mock( TransactionRepresentation.class );
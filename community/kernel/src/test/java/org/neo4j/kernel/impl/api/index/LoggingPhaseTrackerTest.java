@@ -190,6 +190,60 @@ public class LoggingPhaseTrackerTest
         logProvider.assertAtLeastOnce( logMatcher );
     }
 
+    @Test
+    public void shouldAddUpTheTimesOfWorkers() throws Exception
+    {
+        LoggingPhaseTracker phaseTracker = getPhaseTracker();
+
+        PhaseTracker worker = phaseTracker.startWorker();
+        worker.enterPhase( PhaseTracker.Phase.SCAN );
+        sleep( 100 );
+        // Phases that the thread enters on the shared tracker are tracked by its worker
+        phaseTracker.enterPhase( PhaseTracker.Phase.WRITE );
+        sleep( 50 );
+        worker.stop();
+
+        Thread otherThread = new Thread( () ->
+        {
+            PhaseTracker otherWorker = phaseTracker.startWorker();
+            otherWorker.enterPhase( PhaseTracker.Phase.SCAN );
+            sleep( 200 );
+            otherWorker.stop();
+        } );
+        otherThread.start();
+        otherThread.join();
+
+        phaseTracker.enterPhase( PhaseTracker.Phase.FLIP );
+        sleep( 10 );
+        phaseTracker.stop();
+
+        EnumMap<PhaseTracker.Phase,LoggingPhaseTracker.Logger> times = phaseTracker.times();
+        assertEquals( 300, times.get( PhaseTracker.Phase.SCAN ).totalTime );
+        assertEquals( 2, times.get( PhaseTracker.Phase.SCAN ).nbrOfReports );
+        assertEquals( 200, times.get( PhaseTracker.Phase.SCAN ).maxTime );
+        assertEquals( 50, times.get( PhaseTracker.Phase.WRITE ).totalTime );
+        assertEquals( 10, times.get( PhaseTracker.Phase.FLIP ).totalTime );
+    }
+
+    @Test
+    public void throwIfWorkerEntersAfterStop()
+    {
+        LoggingPhaseTracker phaseTracker = getPhaseTracker();
+        PhaseTracker worker = phaseTracker.startWorker();
+        worker.enterPhase( PhaseTracker.Phase.SCAN );
+        worker.stop();
+
+        try
+        {
+            worker.enterPhase( PhaseTracker.Phase.WRITE );
+            fail( "Should have failed" );
+        }
+        catch ( IllegalStateException e )
+        {
+            assertThat( e.getMessage(), containsString( "Trying to report a new phase after phase tracker has been stopped." ) );
+        }
+    }
+
     private LoggingPhaseTracker getPhaseTracker()
     {
         return getPhaseTracker( NullLog.getInstance() );
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.neo4j.internal.kernel.api.schema.SchemaDescriptor;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.add;
+
+public class ParallelIndexUpdatesApplierTest
+{
+    private final SchemaDescriptor first = SchemaDescriptorFactory.forLabel( 0, 1 );
+    private final SchemaDescriptor second = SchemaDescriptorFactory.forLabel( 0, 2 );
+    private final SchemaDescriptor missing = SchemaDescriptorFactory.forLabel( 0, 3 );
+    private final IndexUpdater firstUpdater = mock( IndexUpdater.class );
+    private final IndexUpdater secondUpdater = mock( IndexUpdater.class );
+    private final IndexUpdaterMap updaterMap = mock( IndexUpdaterMap.class );
+    private ParallelIndexUpdatesApplier applier;
+
+    @After
+    public void close()
+    {
+        if ( applier != null )
+        {
+            applier.close();
+        }
+    }
+
+    @Test
+    public void shouldProcessUpdatesOfEachIndexInOrder() throws Exception
+    {
+        // given
+        applier = new ParallelIndexUpdatesApplier( 2 );
+        givenUpdaters();
+        List<IndexEntryUpdate<SchemaDescriptor>> updates = new ArrayList<>();
+        updates.add( add( 1, first, Values.of( "a" ) ) );
+        updates.add( add( 1, second, Values.of( 1 ) ) );
+        updates.add( add( 2, missing, Values.of( "b" ) ) );
+        updates.add( add( 2, first, Values.of( "b" ) ) );
+        updates.add( add( 2, second, Values.of( 2 ) ) );
+
+        // when
+        applier.apply( updaterMap, updates );
+
+        // then
+        InOrder firstOrder = inOrder( firstUpdater );
+        firstOrder.verify( firstUpdater ).process( updates.get( 0 ) );
+        firstOrder.verify( firstUpdater ).process( updates.get( 3 ) );
+        InOrder secondOrder = inOrder( secondUpdater );
+        secondOrder.verify( secondUpdater ).process( updates.get( 1 ) );
+        secondOrder.verify( secondUpdater ).process( updates.get( 4 ) );
+        verify( firstUpdater, never() ).close();
+        verify( secondUpdater, never() ).close();
+    }
+
+    @Test( timeout = 60_000 )
+    public void shouldProcessDifferentIndexesInDifferentThreads() throws Exception
+    {
+        // given
+        applier = new ParallelIndexUpdatesApplier( 2 );
+        givenUpdaters();
+        // Both updaters wait for each other, so this only completes if they are processed concurrently
+        CountDownLatch bothProcessing = new CountDownLatch( 2 );
+        Thread[] threads = new Thread[2];
+        doAnswer( invocation ->
+        {
+            threads[0] = Thread.currentThread();
+            bothProcessing.countDown();
+            bothProcessing.await();
+            return null;
+        } ).when( firstUpdater ).process( any() );
+        doAnswer( invocation ->
+        {
+            threads[1] = Thread.currentThread();
+            bothProcessing.countDown();
+            bothProcessing.await();
+            return null;
+        } ).when( secondUpdater ).process( any() );
+
+        // when
+        List<IndexEntryUpdate<SchemaDescriptor>> updates = new ArrayList<>();
+        updates.add( add( 1, first, Values.of( "a" ) ) );
+        updates.add( add( 1, second, Values.of( 1 ) ) );
+        applier.apply( updaterMap, updates );
+
+        // then
+        assertNotEquals( threads[0], threads[1] );
+        assertSame( Thread.currentThread(), threads[0] );
+    }
+
+    @Test
+    public void shouldProcessAllUpdatesInCallingThreadWithoutParallelism() throws Exception
+    {
+        // given
+        applier = new ParallelIndexUpdatesApplier( 1 );
+        givenUpdaters();
+        List<Thread> threads = new ArrayList<>();
+        doAnswer( invocation -> threads.add( Thread.currentThread() ) ).when( firstUpdater ).process( any() );
+        doAnswer( invocation -> threads.add( Thread.currentThread() ) ).when( secondUpdater ).process( any() );
+
+        // when
+        List<IndexEntryUpdate<SchemaDescriptor>> updates = new ArrayList<>();
+        updates.add( add( 1, first, Values.of( "a" ) ) );
+        updates.add( add( 1, second, Values.of( 1 ) ) );
+        applier.apply( updaterMap, updates );
+
+        // then
+        assertEquals( 2, threads.size() );
+        for ( Thread thread : threads )
+        {
+            assertSame( Thread.currentThread(), thread );
+        }
+    }
+
+    @Test
+    public void shouldThrowConflictFromAnyIndexAfterAllIndexesAreProcessed() throws Exception
+    {
+        // given
+        applier = new ParallelIndexUpdatesApplier( 2 );
+        givenUpdaters();
+        IndexEntryConflictException conflict = new IndexEntryConflictException( 1, 2, Values.of( 1 ) );
+        doThrow( conflict ).when( secondUpdater ).process( any() );
+        List<IndexEntryUpdate<SchemaDescriptor>> updates = new ArrayList<>();
+        updates.add( add( 1, first, Values.of( "a" ) ) );
+        updates.add( add( 1, second, Values.of( 1 ) ) );
+        updates.add( add( 2, first, Values.of( "b" ) ) );
+
+        // when
+        try
+        {
+            applier.apply( updaterMap, updates );
+            fail( "Should have failed" );
+        }
+        catch ( IndexEntryConflictException e )
+        {
+            // then
+            assertSame( conflict, e );
+        }
+        verify( firstUpdater ).process( updates.get( 0 ) );
+        verify( firstUpdater ).process( updates.get( 2 ) );
+    }
+
+    private void givenUpdaters()
+    {
+        when( updaterMap.getUpdater( first ) ).thenReturn( firstUpdater );
+        when( updaterMap.getUpdater( second ) ).thenReturn( secondUpdater );
+    }
+}
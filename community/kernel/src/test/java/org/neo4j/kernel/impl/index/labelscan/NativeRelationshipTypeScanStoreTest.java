@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.impl.labelscan.LabelScanStoreTest;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.impl.api.scan.FullStoreChangeStream;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.test.rule.PageCacheRule;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.impl.api.scan.FullStoreChangeStream.EMPTY;
+
+public class NativeRelationshipTypeScanStoreTest extends LabelScanStoreTest
+{
+    @Rule
+    public PageCacheRule pageCacheRule = new PageCacheRule();
+
+    @Override
+    protected LabelScanStore createLabelScanStore( FileSystemAbstraction fileSystemAbstraction, DatabaseLayout databaseLayout,
+            FullStoreChangeStream fullStoreChangeStream, boolean usePersistentStore, boolean readOnly,
+            LabelScanStore.Monitor monitor )
+    {
+        Monitors monitors = new Monitors();
+        monitors.addMonitorListener( monitor );
+        PageCache pageCache = pageCacheRule.getPageCache( fileSystemAbstraction );
+        return new NativeRelationshipTypeScanStore( pageCache, databaseLayout, fileSystemAbstraction,
+                fullStoreChangeStream, readOnly, monitors, RecoveryCleanupWorkCollector.immediate() );
+    }
+
+    @Override
+    protected Matcher<Iterable<? super File>> hasLabelScanStore()
+    {
+        return Matchers.hasItem( Matchers.equalTo( testDirectory.databaseLayout().relationshipTypeScanStore() ) );
+    }
+
+    @Override
+    protected void corruptIndex( FileSystemAbstraction fileSystem, DatabaseLayout databaseLayout ) throws IOException
+    {
+        scrambleFile( databaseLayout.relationshipTypeScanStore() );
+    }
+
+    @Test
+    public void shouldNotTouchTheLabelScanStoreFile()
+    {
+        // given
+        DatabaseLayout databaseLayout = testDirectory.databaseLayout();
+        LifeSupport life = new LifeSupport();
+        life.add( createLabelScanStore( fileSystemRule.get(), databaseLayout, EMPTY, true, false, LabelScanStore.Monitor.EMPTY ) );
+
+        // when
+        life.start();
+        life.shutdown();
+
+        // then
+        assertTrue( fileSystemRule.get().fileExists( databaseLayout.relationshipTypeScanStore() ) );
+        assertFalse( fileSystemRule.get().fileExists( databaseLayout.labelScanStore() ) );
+        assertFalse( fileSystemRule.get().fileExists( new File( databaseLayout.labelScanStore() + ".writelog" ) ) );
+    }
+}
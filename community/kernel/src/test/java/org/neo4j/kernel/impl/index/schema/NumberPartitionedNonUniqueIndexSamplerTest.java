@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory.forLabel;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
+import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.FRACTION_DUPLICATE_NON_UNIQUE;
+import static org.neo4j.values.storable.RandomValues.typesOfGroup;
+import static org.neo4j.values.storable.ValueGroup.NUMBER;
+
+public class NumberPartitionedNonUniqueIndexSamplerTest extends NativeIndexTestUtil<NumberIndexKey,NativeIndexValue>
+{
+    @Test
+    public void shouldScanWholeTreeIfTooSmallToPartition() throws Exception
+    {
+        // GIVEN
+        Value[] values = generateNumberValues( 1_000 );
+        buildTree( values );
+
+        // WHEN
+        IndexSample sample;
+        IndexSample fullScanSample;
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            sample = new PartitionedNonUniqueIndexSampler<>( gbpTree, layout, 100, 10, random.random() ).result();
+            fullScanSample = new FullScanNonUniqueIndexSampler<>( gbpTree, layout ).result();
+        }
+
+        // THEN
+        assertEquals( fullScanSample, sample );
+        assertEquals( values.length, sample.indexSize() );
+    }
+
+    @Test
+    public void shouldOnlySampleSelectedRangesOfLargeTree() throws Exception
+    {
+        // GIVEN
+        Value[] values = generateNumberValues( 50_000 );
+        buildTree( values );
+
+        // WHEN
+        IndexSample sample;
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            sample = new PartitionedNonUniqueIndexSampler<>( gbpTree, layout, 4, 2, random.random() ).result();
+        }
+
+        // THEN
+        assertTrue( sample.toString(), sample.sampleSize() > 0 );
+        assertTrue( sample.toString(), sample.sampleSize() < values.length / 2 );
+        assertTrue( sample.toString(), sample.indexSize() > values.length / 2 );
+        assertTrue( sample.toString(), sample.indexSize() < values.length * 2 );
+        // Every value is indexed twice, except where a pair is split between two sampled ranges
+        double uniqueRatio = (double) sample.uniqueValues() / sample.sampleSize();
+        assertTrue( sample.toString(), uniqueRatio >= 0.5 && uniqueRatio < 0.55 );
+    }
+
+    @Test
+    public void shouldNotCountValueSpanningSampledRangesMoreThanOnce() throws Exception
+    {
+        // GIVEN
+        int distinctValues = 3;
+        Value[] values = new Value[50_000];
+        for ( int i = 0; i < values.length; i++ )
+        {
+            values[i] = Values.longValue( (long) i * distinctValues / values.length );
+        }
+        buildTree( values );
+
+        // WHEN
+        IndexSample sample;
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            sample = new PartitionedNonUniqueIndexSampler<>( gbpTree, layout, 4, 2, random.random() ).result();
+        }
+
+        // THEN
+        assertTrue( sample.toString(), sample.sampleSize() < values.length / 2 );
+        assertTrue( sample.toString(), sample.uniqueValues() >= 1 );
+        assertTrue( sample.toString(), sample.uniqueValues() <= distinctValues );
+    }
+
+    private Value[] generateNumberValues( int size )
+    {
+        Value[] result = new Value[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            result[i] = Values.longValue( i / 2 );
+        }
+        return result;
+    }
+
+    private void buildTree( Value[] values ) throws IOException
+    {
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            try ( Writer<NumberIndexKey,NativeIndexValue> writer = gbpTree.writer() )
+            {
+                NumberIndexKey key = layout.newKey();
+                NativeIndexValue value = layout.newValue();
+                long nodeId = 0;
+                for ( Value number : values )
+                {
+                    key.initialize( nodeId );
+                    key.initFromValue( 0, number, NEUTRAL );
+                    value.from( number );
+                    writer.put( key, value );
+                    nodeId++;
+                }
+            }
+            gbpTree.checkpoint( IOLimiter.UNLIMITED );
+        }
+    }
+
+    @Override
+    protected ValueCreatorUtil<NumberIndexKey,NativeIndexValue> createValueCreatorUtil()
+    {
+        return new ValueCreatorUtil<>( forLabel( 42, 666 ).withId( 0 ), typesOfGroup( NUMBER ), FRACTION_DUPLICATE_NON_UNIQUE );
+    }
+
+    @Override
+    IndexLayout<NumberIndexKey,NativeIndexValue> createLayout()
+    {
+        return new NumberLayoutNonUnique();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.helpers.Args;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.community.CommunityLockManger;
+import org.neo4j.storageengine.api.lock.LockTracer;
+import org.neo4j.time.Clocks;
+
+import static org.neo4j.kernel.impl.locking.ResourceTypes.NODE;
+
+/**
+ * Measures how many lock transactions per second the {@link CommunityLockManger} and the {@link StripedLockManager}
+ * can push through, when many threads lock and release random nodes concurrently. Each transaction takes a number
+ * of shared and exclusive node locks, in id order, and then releases them all by closing its client.
+ * <p>
+ * Not run as part of the build. Run it from the IDE, with for example:
+ * <pre>
+ * --threads 16 --resources 100000 --locks 10 --writes 0.2 --duration 10s
+ * </pre>
+ * Fewer resources means more contention on each resource. Lock managers with a single monitor suffer from contention
+ * between threads regardless of which resources they lock.
+ */
+public class LockManagerContentionBenchmark
+{
+    private LockManagerContentionBenchmark()
+    {
+    }
+
+    public static void main( String[] arguments ) throws Exception
+    {
+        Args args = Args.parse( arguments );
+        int threads = args.getNumber( "threads", Runtime.getRuntime().availableProcessors() ).intValue();
+        long resources = args.getNumber( "resources", 100_000 ).longValue();
+        int locksPerTransaction = args.getNumber( "locks", 10 ).intValue();
+        double writeRatio = args.getNumber( "writes", 0.2 ).doubleValue();
+        long durationMillis = args.getDuration( "duration", TimeUnit.SECONDS.toMillis( 10 ) );
+
+        Config config = Config.defaults();
+        Locks[] lockManagers = {
+                new CommunityLockManger( config, Clocks.systemClock() ),
+                new StripedLockManager( config, Clocks.systemClock() )};
+        for ( Locks locks : lockManagers )
+        {
+            // The first run warms up the JIT compiler.
+            run( locks, threads, resources, locksPerTransaction, writeRatio, durationMillis / 2 );
+            long transactions = run( locks, threads, resources, locksPerTransaction, writeRatio, durationMillis );
+            System.out.printf( "%s: %d transactions/s with %d threads%n", locks.getClass().getSimpleName(),
+                    transactions * 1000 / durationMillis, threads );
+            locks.close();
+        }
+    }
+
+    private static long run( Locks locks, int threadCount, long resources, int locksPerTransaction, double writeRatio,
+            long durationMillis ) throws InterruptedException
+    {
+        AtomicBoolean end = new AtomicBoolean();
+        LongAdder transactions = new LongAdder();
+        LongAdder deadlocks = new LongAdder();
+        CountDownLatch start = new CountDownLatch( 1 );
+        Thread[] threads = new Thread[threadCount];
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            threads[i] = new Thread( () ->
+            {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] resourceIds = new long[locksPerTransaction];
+                awaitUninterruptibly( start );
+                while ( !end.get() )
+                {
+                    for ( int j = 0; j < locksPerTransaction; j++ )
+                    {
+                        resourceIds[j] = random.nextLong( resources );
+                    }
+                    Arrays.sort( resourceIds );
+                    try ( Locks.Client client = locks.newClient() )
+                    {
+                        for ( long resourceId : resourceIds )
+                        {
+                            if ( random.nextDouble() < writeRatio )
+                            {
+                                client.acquireExclusive( LockTracer.NONE, NODE, resourceId );
+                            }
+                            else
+                            {
+                                client.acquireShared( LockTracer.NONE, NODE, resourceId );
+                            }
+                        }
+                        transactions.increment();
+                    }
+                    catch ( DeadlockDetectedException e )
+                    {
+                        // Upgrading a shared lock of a duplicate id may deadlock with another upgrade. Just retry.
+                        deadlocks.increment();
+                    }
+                }
+            } );
+            threads[i].start();
+        }
+        start.countDown();
+        Thread.sleep( durationMillis );
+        end.set( true );
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        if ( deadlocks.sum() > 0 )
+        {
+            System.out.printf( "%s: %d deadlocks%n", locks.getClass().getSimpleName(), deadlocks.sum() );
+        }
+        return transactions.sum();
+    }
+
+    private static void awaitUninterruptibly( CountDownLatch latch )
+    {
+        try
+        {
+            latch.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
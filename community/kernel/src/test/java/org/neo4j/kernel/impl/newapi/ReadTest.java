@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.neo4j.kernel.impl.newapi.Read.positionsInReferenceOrder;
+
+class ReadTest
+{
+    @Test
+    void orderPositionsByReference()
+    {
+        assertArrayEquals( new int[0], positionsInReferenceOrder( new long[0] ) );
+        assertArrayEquals( new int[]{0}, positionsInReferenceOrder( new long[]{42} ) );
+        assertArrayEquals( new int[]{1, 3, 2, 0}, positionsInReferenceOrder( new long[]{30, 10, 20, 11} ) );
+    }
+
+    @Test
+    void keepEqualReferencesInBatchOrder()
+    {
+        assertArrayEquals( new int[]{1, 3, 4, 2, 0}, positionsInReferenceOrder( new long[]{30, 10, 20, 10, 10} ) );
+    }
+
+    @Test
+    void orderNegativeReferencesAsZero()
+    {
+        assertArrayEquals( new int[]{1, 2, 3, 0}, positionsInReferenceOrder( new long[]{7, -1, 0, Long.MIN_VALUE} ) );
+    }
+
+    @Test
+    void orderLargestReferencesThatCanBePacked()
+    {
+        // Three positions take two bits, which leaves 61 bits for the reference
+        long largest = (1L << 61) - 1;
+        assertArrayEquals( new int[]{2, 1, 0}, positionsInReferenceOrder( new long[]{largest, 5, 0} ) );
+    }
+
+    @Test
+    void keepBatchOrderIfReferencesAreTooLargeToPack()
+    {
+        assertArrayEquals( new int[]{0, 1, 2}, positionsInReferenceOrder( new long[]{3, 1L << 61, 2} ) );
+        assertArrayEquals( new int[]{0, 1, 2}, positionsInReferenceOrder( new long[]{3, 2, Long.MAX_VALUE} ) );
+    }
+
+    @Test
+    void orderRandomReferences()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] references = new long[10_000];
+        for ( int i = 0; i < references.length; i++ )
+        {
+            references[i] = random.nextLong( -10, 1_000 );
+        }
+
+        int[] expected = IntStream.range( 0, references.length ).boxed()
+                .sorted( Comparator.comparingLong( i -> Math.max( references[i], 0 ) ) )
+                .mapToInt( Integer::intValue )
+                .toArray();
+        assertArrayEquals( expected, positionsInReferenceOrder( references ) );
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.logging.NullLog;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+public class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 8192;
+
+    @Rule
+    public TestDirectory testDirectory = TestDirectory.testDirectory();
+
+    private FileSystemAbstraction fs;
+    private JobScheduler scheduler;
+    private File databaseDirectory;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        scheduler = new ThreadPoolJobScheduler();
+        databaseDirectory = testDirectory.databaseDir();
+        file = new File( databaseDirectory, "a" );
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        scheduler.close();
+        fs.close();
+    }
+
+    @Test
+    public void mustReloadProfiledPages() throws Exception
+    {
+        try ( PageCache pageCache = createPageCache( "1M" );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, CREATE ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int i = 0; i < 20; i++ )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+            PageCacheWarmer warmer = createWarmer( pageCache, PageCacheWarmerMonitor.EMPTY );
+            warmer.start();
+            assertEquals( 20, warmer.profile() );
+            warmer.stop();
+        }
+
+        AtomicLong pagesLoaded = new AtomicLong( -1 );
+        PageCacheWarmerMonitor monitor = new PageCacheWarmerMonitor.Adaptor()
+        {
+            @Override
+            public void warmupCompleted( long elapsedMillis, long pageCount )
+            {
+                pagesLoaded.set( pageCount );
+            }
+        };
+        try ( PageCache pageCache = createPageCache( "1M" );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = createWarmer( pageCache, monitor );
+            warmer.start();
+            assertEquals( 20, warmer.reheat() );
+            warmer.stop();
+            assertEquals( 20, pagesLoaded.get() );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                for ( int i = 0; i < 20; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertEquals( i, cursor.getCurrentPageId() );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mustStopReloadingWhenPageCacheIsFull() throws Exception
+    {
+        try ( PageCache pageCache = createPageCache( "2M" );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, CREATE ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int i = 0; i < 200; i++ )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+            PageCacheWarmer warmer = createWarmer( pageCache, PageCacheWarmerMonitor.EMPTY );
+            warmer.start();
+            assertEquals( 200, warmer.profile() );
+            warmer.stop();
+        }
+
+        try ( PageCache pageCache = createPageCache( "1M" );
+              PagedFile ignore = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = createWarmer( pageCache, PageCacheWarmerMonitor.EMPTY );
+            warmer.start();
+            assertEquals( pageCache.maxCachedPages(), warmer.reheat() );
+            warmer.stop();
+        }
+    }
+
+    @Test
+    public void mustNotWriteProfilesWhenDisabled() throws Exception
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.pagecache_warmup_enabled, "false" );
+        try ( PageCache pageCache = createPageCache( "1M" );
+              PagedFile ignore = pageCache.map( file, PAGE_SIZE, CREATE ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, databaseDirectory, config,
+                    PageCacheWarmerMonitor.EMPTY, NullLog.getInstance() );
+            warmer.start();
+            warmer.stop();
+        }
+        assertFalse( fs.fileExists( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY_NAME ) ) );
+    }
+
+    private PageCache createPageCache( String memory )
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.pagecache_memory, memory );
+        return ConfigurableStandalonePageCacheFactory.createPageCache( fs, config, scheduler );
+    }
+
+    private PageCacheWarmer createWarmer( PageCache pageCache, PageCacheWarmerMonitor monitor )
+    {
+        Config config = Config.builder()
+                .withSetting( GraphDatabaseSettings.pagecache_warmup_enabled, "true" )
+                .withSetting( GraphDatabaseSettings.pagecache_warmup_profiling_interval, "1h" )
+                .build();
+        return new PageCacheWarmer( fs, pageCache, scheduler, databaseDirectory, config, monitor, NullLog.getInstance() );
+    }
+}
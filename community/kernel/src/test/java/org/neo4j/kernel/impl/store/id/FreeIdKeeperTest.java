@@ -570,6 +570,51 @@ public class FreeIdKeeperTest
         assertEquals( 0, freeIdKeeper.getCount() );
     }
 
+    @Test
+    public void shouldOnlyReportReusableIdsFromPreviousLifecyclesInRegularMode() throws Exception
+    {
+        // Given
+        StoreChannel channel = getStoreChannel();
+        int batchSize = 4;
+        FreeIdKeeper keeper = getFreeIdKeeper( channel, batchSize );
+        for ( long id = 0; id < batchSize; id++ )
+        {
+            keeper.freeId( id );
+        }
+
+        // then
+        assertFalse( keeper.hasReusableId() );
+
+        // when
+        keeper.close();
+        keeper = getFreeIdKeeper( channel, batchSize );
+
+        // then
+        assertTrue( keeper.hasReusableId() );
+        for ( long id = 0; id < batchSize; id++ )
+        {
+            assertTrue( keeper.hasReusableId() );
+            assertTrue( keeper.getId() != NO_RESULT );
+        }
+        assertFalse( keeper.hasReusableId() );
+    }
+
+    @Test
+    public void shouldReportFreedIdsAsReusableInAggressiveMode() throws Exception
+    {
+        // Given
+        FreeIdKeeper keeper = getFreeIdKeeperAggressive();
+        assertFalse( keeper.hasReusableId() );
+
+        // when
+        keeper.freeId( 13 );
+
+        // then
+        assertTrue( keeper.hasReusableId() );
+        assertEquals( 13, keeper.getId() );
+        assertFalse( keeper.hasReusableId() );
+    }
+
     private FreeIdKeeper getFreeIdKeeperAggressive() throws IOException
     {
         return getFreeIdKeeperAggressive( getStoreChannel(), 10 );
@@ -19,11 +19,20 @@
  */
 package org.neo4j.kernel.impl.store.id;
 
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.LongSupplier;
 
 import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
@@ -33,6 +42,7 @@ import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -210,4 +220,140 @@ public class IdGeneratorImplTest
         // The supplier must have remained untouched
         verifyZeroInteractions( highId );
     }
+
+    @Test
+    public void shouldHandOutUniqueIdsToConcurrentThreads() throws Exception
+    {
+        // Given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new IdGeneratorImpl( fsr.get(), file, 100, 1L << 35, false, IdType.NODE, () -> 0L );
+        int threads = 8;
+        int rounds = 1_000;
+        int batchSize = 7;
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            // When
+            List<Future<long[]>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    long[] ids = new long[rounds * (batchSize + 1)];
+                    int cursor = 0;
+                    for ( int i = 0; i < rounds; i++ )
+                    {
+                        ids[cursor++] = idGenerator.nextId();
+                        IdRange range = idGenerator.nextIdBatch( batchSize );
+                        for ( int j = 0; j < batchSize; j++ )
+                        {
+                            ids[cursor++] = range.getRangeStart() + j;
+                        }
+                    }
+                    return ids;
+                } ) );
+            }
+
+            // Then
+            MutableLongSet seen = new LongHashSet();
+            for ( Future<long[]> future : futures )
+            {
+                for ( long id : future.get() )
+                {
+                    assertTrue( "Id " + id + " was handed out twice", seen.add( id ) );
+                }
+            }
+            assertEquals( threads * rounds * (batchSize + 1), idGenerator.getHighId() );
+        }
+        finally
+        {
+            executor.shutdown();
+            idGenerator.close();
+        }
+    }
+
+    @Test
+    public void shouldHandOutUniqueBatchesToConcurrentThreadsWhileIdsAreFreed() throws Exception
+    {
+        // Given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new IdGeneratorImpl( fsr.get(), file, 100, 1L << 35, true, IdType.NODE, () -> 0L );
+        Set<Long> idsInUse = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int rounds = 1_000;
+        int batchSize = 7;
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            // When every thread allocates batches and frees the ids of every other batch
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    for ( int i = 0; i < rounds; i++ )
+                    {
+                        IdRange range = idGenerator.nextIdBatch( batchSize );
+                        assertEquals( batchSize, range.totalSize() );
+                        IdRangeIterator ids = range.iterator();
+                        for ( long id = ids.nextId(); id != IdRangeIterator.VALUE_REPRESENTING_NULL; id = ids.nextId() )
+                        {
+                            assertTrue( "Id " + id + " was handed out while in use", idsInUse.add( id ) );
+                            if ( i % 2 == 0 )
+                            {
+                                idsInUse.remove( id );
+                                idGenerator.freeId( id );
+                            }
+                        }
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+
+            // Then freed ids were handed out again, instead of new ones
+            long allocated = (long) threads * rounds * batchSize;
+            assertEquals( allocated / 2, idsInUse.size() );
+            assertTrue( "High id " + idGenerator.getHighId() + " shows that freed ids were not reused",
+                    idGenerator.getHighId() < allocated );
+            assertEquals( idGenerator.getHighId() - idsInUse.size(), idGenerator.getDefragCount() );
+        }
+        finally
+        {
+            executor.shutdown();
+            idGenerator.close();
+        }
+    }
+
+    @Test
+    public void shouldReuseFreedIdsFromPreviousSessionBeforeHandingOutNewIds()
+    {
+        // Given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new IdGeneratorImpl( fsr.get(), file, 100, 100, false, IdType.NODE, () -> 0L );
+        for ( int i = 0; i < 10; i++ )
+        {
+            idGenerator.nextId();
+        }
+        idGenerator.freeId( 3 );
+        idGenerator.freeId( 5 );
+
+        // then ids freed in this session are not reused in non-aggressive mode
+        assertEquals( 10, idGenerator.nextId() );
+        idGenerator.close();
+
+        // When
+        idGenerator = new IdGeneratorImpl( fsr.get(), file, 100, 100, false, IdType.NODE, () -> 0L );
+
+        // Then
+        MutableLongSet reused = new LongHashSet();
+        reused.add( idGenerator.nextId() );
+        reused.add( idGenerator.nextId() );
+        assertEquals( LongHashSet.newSetWith( 3, 5 ), reused );
+        assertEquals( 11, idGenerator.nextId() );
+        idGenerator.close();
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.kvstore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeTableTest
+{
+    private final ChangeTable table = new ChangeTable( Integer.BYTES, Long.BYTES );
+
+    @Test
+    public void shouldNotApplyUpdateToAbsentKeyWithoutInitialValue()
+    {
+        // when
+        boolean applied = table.apply( key( 1 ), null, add( 1 ), false, 2, table.scratch() );
+
+        // then
+        assertFalse( applied );
+        assertTrue( table.isEmpty() );
+        assertEquals( ChangeTable.ABSENT, table.read( key( 1 ), new byte[Long.BYTES] ) );
+    }
+
+    @Test
+    public void shouldKeepAllEntriesWhenGrowing()
+    {
+        // when
+        int count = 10_000;
+        for ( int i = 0; i < count; i++ )
+        {
+            table.apply( key( i ), value( i ), add( 1 ), false, i, table.scratch() );
+        }
+
+        // then
+        byte[] target = new byte[Long.BYTES];
+        for ( int i = 0; i < count; i++ )
+        {
+            assertEquals( i, table.read( key( i ), target ) );
+            assertEquals( i + 1, new BigEndianByteArrayBuffer( target ).getLong( 0 ) );
+        }
+    }
+
+    @Test
+    public void shouldProvideEntriesSortedByKey()
+    {
+        // given
+        int count = 1_000;
+        for ( int i = count - 1; i >= 0; i-- )
+        {
+            table.apply( key( i ), value( i ), add( 0 ), false, 1, table.scratch() );
+        }
+
+        // when
+        byte[][] entries = table.sortedEntries();
+
+        // then
+        assertEquals( count * 2, entries.length );
+        for ( int i = 0; i < count; i++ )
+        {
+            assertEquals( i, new BigEndianByteArrayBuffer( entries[i * 2] ).getInt( 0 ) );
+            assertEquals( i, new BigEndianByteArrayBuffer( entries[i * 2 + 1] ).getLong( 0 ) );
+        }
+    }
+
+    private static byte[] key( int key )
+    {
+        byte[] bytes = new byte[Integer.BYTES];
+        new BigEndianByteArrayBuffer( bytes ).putInt( 0, key );
+        return bytes;
+    }
+
+    private static byte[] value( long value )
+    {
+        byte[] bytes = new byte[Long.BYTES];
+        new BigEndianByteArrayBuffer( bytes ).putLong( 0, value );
+        return bytes;
+    }
+
+    private static ValueUpdate add( long delta )
+    {
+        return target -> target.putLong( 0, target.getLong( 0 ) + delta );
+    }
+}
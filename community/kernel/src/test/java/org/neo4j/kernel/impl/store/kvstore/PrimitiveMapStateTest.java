@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.kvstore;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.Lock;
+
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
+import org.neo4j.kernel.impl.context.TransactionVersionContextSupplier;
+import org.neo4j.util.concurrent.Runnables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PrimitiveMapStateTest
+{
+    private final ReadableState<String> store = mock( ReadableState.class );
+    private final File file = mock( File.class );
+    private final Lock lock = mock( Lock.class );
+
+    @Before
+    public void setUp() throws Exception
+    {
+        KeyFormat<String> keyFormat = mock( KeyFormat.class );
+        when( keyFormat.keySize() ).thenReturn( 1 );
+        when( keyFormat.valueSize() ).thenReturn( Long.BYTES );
+        doAnswer( invocation ->
+        {
+            String key = invocation.getArgument( 0 );
+            WritableBuffer buffer = invocation.getArgument( 1 );
+            buffer.putByte( 0, (byte) key.charAt( 0 ) );
+            return null;
+        } ).when( keyFormat ).writeKey( any(), any() );
+        when( store.keyFormat() ).thenReturn( keyFormat );
+    }
+
+    @Test
+    public void shouldApplyDeltasOnTopOfTheStoredValue() throws IOException
+    {
+        // given
+        when( store.version() ).thenReturn( 42L );
+        storedValue( "a", 10 );
+        PrimitiveMapState<String> state = createMapState();
+
+        // when
+        try ( EntryUpdater<String> updater = state.updater( 43, lock ) )
+        {
+            updater.apply( "a", new IncrementValueUpdate( 5 ) );
+            updater.apply( "b", new IncrementValueUpdate( 7 ) );
+        }
+        try ( EntryUpdater<String> updater = state.updater( 44, lock ) )
+        {
+            updater.apply( "a", new IncrementValueUpdate( 5 ) );
+        }
+
+        // then
+        assertEquals( 20, lookup( state, "a" ) );
+        assertEquals( 7, lookup( state, "b" ) );
+        assertEquals( 2, state.applied() );
+        assertTrue( state.hasChanges() );
+    }
+
+    @Test
+    public void shouldIgnoreTheStoredValueWhenResetting() throws IOException
+    {
+        // given
+        when( store.version() ).thenReturn( 42L );
+        storedValue( "a", 10 );
+        PrimitiveMapState<String> state = createMapState();
+
+        // when
+        try ( EntryUpdater<String> updater = state.resettingUpdater( lock, Runnables.EMPTY_RUNNABLE ) )
+        {
+            updater.apply( "a", new IncrementValueUpdate( 3 ) );
+        }
+
+        // then
+        assertEquals( 3, lookup( state, "a" ) );
+    }
+
+    @Test
+    public void markDirtyVersionLookupOnKeyUpdate() throws IOException
+    {
+        long updaterVersionTxId = 25;
+        long lastClosedTxId = 20;
+        TransactionVersionContextSupplier versionContextSupplier = new TransactionVersionContextSupplier();
+        versionContextSupplier.init( () -> lastClosedTxId );
+        PrimitiveMapState<String> mapState = createMapState( versionContextSupplier );
+        VersionContext versionContext = versionContextSupplier.getVersionContext();
+        try ( EntryUpdater<String> updater = mapState.updater( updaterVersionTxId, lock ) )
+        {
+            updater.apply( "a", new IncrementValueUpdate( 1 ) );
+            updater.apply( "b", new IncrementValueUpdate( 2 ) );
+        }
+
+        assertEquals( updaterVersionTxId, mapState.version() );
+        versionContext.initRead();
+        mapState.lookup( "a", new EmptyValueSink() );
+        assertTrue( versionContext.isDirty() );
+    }
+
+    @Test
+    public void doNotMarkVersionAsDirtyOnAnotherKeyUpdate() throws IOException
+    {
+        long updaterVersionTxId = 25;
+        long lastClosedTxId = 20;
+        TransactionVersionContextSupplier versionContextSupplier = new TransactionVersionContextSupplier();
+        versionContextSupplier.init( () -> lastClosedTxId );
+        PrimitiveMapState<String> mapState = createMapState( versionContextSupplier );
+        VersionContext versionContext = versionContextSupplier.getVersionContext();
+        try ( EntryUpdater<String> updater = mapState.updater( updaterVersionTxId, lock ) )
+        {
+            updater.apply( "b", new IncrementValueUpdate( 2 ) );
+        }
+
+        assertEquals( updaterVersionTxId, mapState.version() );
+        versionContext.initRead();
+        mapState.lookup( "a", new EmptyValueSink() );
+        assertFalse( versionContext.isDirty() );
+    }
+
+    private void storedValue( String key, long value ) throws IOException
+    {
+        doAnswer( invocation ->
+        {
+            ValueSink sink = invocation.getArgument( 1 );
+            sink.value( new BigEndianByteArrayBuffer( Long.BYTES ).putLong( 0, value ) );
+            return true;
+        } ).when( store ).lookup( eq( key ), any() );
+    }
+
+    private static long lookup( PrimitiveMapState<String> state, String key ) throws IOException
+    {
+        long[] result = new long[1];
+        assertTrue( state.lookup( key, new ValueSink()
+        {
+            @Override
+            protected void value( ReadableBuffer value )
+            {
+                result[0] = value.getLong( 0 );
+            }
+        } ) );
+        return result[0];
+    }
+
+    private PrimitiveMapState<String> createMapState()
+    {
+        return createMapState( EmptyVersionContextSupplier.EMPTY );
+    }
+
+    private PrimitiveMapState<String> createMapState( VersionContextSupplier versionContextSupplier )
+    {
+        return new PrimitiveMapState<>( store, file, versionContextSupplier );
+    }
+
+    private static class IncrementValueUpdate implements ValueUpdate
+    {
+        private final long delta;
+
+        IncrementValueUpdate( long delta )
+        {
+            this.delta = delta;
+        }
+
+        @Override
+        public void update( WritableBuffer target )
+        {
+            target.putLong( 0, target.getLong( 0 ) + delta );
+        }
+    }
+
+    private static class EmptyValueSink extends ValueSink
+    {
+        @Override
+        protected void value( ReadableBuffer value )
+        {
+        }
+    }
+}
@@ -42,16 +42,20 @@ import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.DynamicRecord;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.RelationshipCommand;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.SchemaRule;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.util.concurrent.WorkSync;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -90,6 +94,47 @@ public class IndexBatchTransactionApplierTest
         verify( labelScanSync ).applyAsync( any() );
     }
 
+    @Test
+    public void shouldProvideRelationshipTypeScanStoreUpdatesForCreatedAndDeletedRelationships() throws Exception
+    {
+        // GIVEN
+        IndexingService indexing = mock( IndexingService.class );
+        when( indexing.convertToIndexUpdates( any(), eq( EntityType.RELATIONSHIP ) ) ).thenAnswer( o -> Iterables.empty() );
+        WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanSync =
+                spy( new WorkSync<>( singletonProvider( new OrderVerifyingLabelScanWriter() ) ) );
+        RecordingLabelScanWriter relationshipTypeWriter = new RecordingLabelScanWriter();
+        WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanSync =
+                spy( new WorkSync<>( singletonProvider( relationshipTypeWriter ) ) );
+        WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexing );
+        TransactionToApply tx = mock( TransactionToApply.class );
+        PropertyStore propertyStore = mock( PropertyStore.class );
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync, relationshipTypeScanSync,
+                indexUpdatesSync, mock( NodeStore.class ), mock( RelationshipStore.class ), new PropertyPhysicalToLogicalConverter( propertyStore ),
+                new IndexActivator( indexing ) ) )
+        {
+            try ( TransactionApplier txApplier = applier.startTx( tx ) )
+            {
+                // WHEN
+                txApplier.visitRelationshipCommand( relationship( 20, false, true, 3 ) );
+                txApplier.visitRelationshipCommand( relationship( 10, true, false, 4 ) );
+                txApplier.visitRelationshipCommand( relationship( 15, true, true, 5 ) );
+            }
+        }
+
+        // THEN
+        verify( relationshipTypeScanSync ).applyAsync( any() );
+        verify( labelScanSync, never() ).applyAsync( any() );
+        assertEquals( 2, relationshipTypeWriter.updates.size() );
+        NodeLabelUpdate deleted = relationshipTypeWriter.updates.get( 0 );
+        assertEquals( 10, deleted.getNodeId() );
+        assertArrayEquals( new long[]{4}, deleted.getLabelsBefore() );
+        assertArrayEquals( new long[0], deleted.getLabelsAfter() );
+        NodeLabelUpdate created = relationshipTypeWriter.updates.get( 1 );
+        assertEquals( 20, created.getNodeId() );
+        assertArrayEquals( new long[0], created.getLabelsBefore() );
+        assertArrayEquals( new long[]{3}, created.getLabelsAfter() );
+    }
+
     @Test
     public void shouldRegisterIndexesToActivateIntoTheActivator() throws Exception
     {
@@ -164,6 +209,32 @@ public class IndexBatchTransactionApplierTest
         return new NodeCommand( new NodeRecord( nodeId ), after );
     }
 
+    private RelationshipCommand relationship( long relationshipId, boolean inUseBefore, boolean inUseAfter, int type )
+    {
+        RelationshipRecord before = new RelationshipRecord( relationshipId, 1, 2, type );
+        before.setInUse( inUseBefore );
+        RelationshipRecord after = new RelationshipRecord( relationshipId, 1, 2, type );
+        after.setInUse( inUseAfter );
+        return new RelationshipCommand( before, after );
+    }
+
+    private static class RecordingLabelScanWriter implements LabelScanWriter
+    {
+        private final List<NodeLabelUpdate> updates = new ArrayList<>();
+
+        @Override
+        public void write( NodeLabelUpdate update )
+        {
+            updates.add( update );
+        }
+
+        @Override
+        public void close()
+        {
+            // nothing to close
+        }
+    }
+
     private static class OrderVerifyingLabelScanWriter implements LabelScanWriter
     {
         private final long[] expectedNodeIds;
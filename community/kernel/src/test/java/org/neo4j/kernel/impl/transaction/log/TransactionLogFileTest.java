@@ -26,24 +26,36 @@ import org.junit.rules.RuleChain;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.neo4j.function.Predicates;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageCommandReaderFactory;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.entry.IncompleteLogHeaderException;
+import org.neo4j.kernel.impl.transaction.log.entry.InvalidLogEntryHandler;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
 import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.test.rule.TestDirectory;
 import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -282,6 +294,124 @@ public class TransactionLogFileTest
         }
     }
 
+    @Test
+    public void shouldPreallocateLogFileAndAppendAfterLastEntryOnRestart() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fileSystemRule.get();
+        Config config = Config.defaults( GraphDatabaseSettings.preallocate_logical_logs, "true" );
+        long rotationThreshold = ByteUnit.kibiBytes( 256 );
+        LogFiles logFiles = LogFilesBuilder.builder( directory.databaseLayout(), fs )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withRotationThreshold( rotationThreshold )
+                .withConfig( config ).build();
+        life.start();
+        life.add( logFiles );
+        File file = logFiles.getLogFileForVersion( 1L );
+        assertEquals( rotationThreshold, fs.getFileSize( file ) );
+        assertFalse( logFiles.hasAnyEntries( 1L ) );
+
+        // WHEN
+        FlushablePositionAwareChannel writer = logFiles.getLogFile().getWriter();
+        new LogEntryWriter( writer ).writeCheckPointEntry( new LogPosition( 1L, LogHeader.LOG_HEADER_SIZE ) );
+        writer.prepareForFlush().flush();
+        LogPositionMarker endOfEntries = new LogPositionMarker();
+        writer.getCurrentPosition( endOfEntries );
+        life.shutdown();
+
+        // THEN
+        assertEquals( rotationThreshold, fs.getFileSize( file ) );
+        LogFiles restartedLogFiles = LogFilesBuilder.builder( directory.databaseLayout(), fs )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withRotationThreshold( rotationThreshold )
+                .withConfig( config ).build();
+        LifeSupport restartedLife = new LifeSupport();
+        restartedLife.add( restartedLogFiles );
+        restartedLife.start();
+        try
+        {
+            LogPositionMarker position = new LogPositionMarker();
+            restartedLogFiles.getLogFile().getWriter().getCurrentPosition( position );
+            assertEquals( endOfEntries.newPosition(), position.newPosition() );
+            assertTrue( restartedLogFiles.hasAnyEntries( 1L ) );
+        }
+        finally
+        {
+            restartedLife.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRotateToLogFilePreallocatedInTheBackground() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fileSystemRule.get();
+        Config config = Config.defaults( GraphDatabaseSettings.preallocate_logical_logs, "true" );
+        long rotationThreshold = ByteUnit.kibiBytes( 256 );
+        LogFiles logFiles = LogFilesBuilder.builder( directory.databaseLayout(), fs )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withRotationThreshold( rotationThreshold )
+                .withConfig( config ).build();
+        life.start();
+        life.add( logFiles );
+        LogFile logFile = logFiles.getLogFile();
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        new LogEntryWriter( writer ).writeCheckPointEntry( new LogPosition( 1L, LogHeader.LOG_HEADER_SIZE ) );
+        writer.prepareForFlush().flush();
+
+        // WHEN
+        File logsDirectory = logFiles.logFilesDirectory();
+        Predicates.await( () -> fs.listFiles( logsDirectory, ( dir, name ) -> name.startsWith( "recycled." ) ).length == 1,
+                1, TimeUnit.MINUTES );
+        logFile.rotate();
+
+        // THEN
+        File file = logFiles.getLogFileForVersion( 2L );
+        assertEquals( rotationThreshold, fs.getFileSize( file ) );
+        assertEquals( 2L, readLogHeader( fs, file ).logVersion );
+        assertFalse( logFiles.hasAnyEntries( 2L ) );
+        assertTrue( logFiles.hasAnyEntries( 1L ) );
+    }
+
+    @Test
+    public void shouldReuseRecycledLogFileForNewLogVersion() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fileSystemRule.get();
+        Config config = Config.defaults( GraphDatabaseSettings.recycle_logical_logs, "true" );
+        LogFiles logFiles = LogFilesBuilder.builder( directory.databaseLayout(), fs )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withConfig( config ).build();
+        life.start();
+        life.add( logFiles );
+        LogFile logFile = logFiles.getLogFile();
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        new LogEntryWriter( writer ).writeCheckPointEntry( new LogPosition( 1L, LogHeader.LOG_HEADER_SIZE ) );
+        writer.prepareForFlush().flush();
+        logFile.rotate();
+        long recycledSize = fs.getFileSize( logFiles.getLogFileForVersion( 1L ) );
+
+        // WHEN
+        assertTrue( logFiles.recycle( 1L ) );
+        assertFalse( logFiles.versionExists( 1L ) );
+        logFile.rotate();
+
+        // THEN
+        File file = logFiles.getLogFileForVersion( 3L );
+        assertEquals( recycledSize, fs.getFileSize( file ) );
+        assertEquals( 3L, readLogHeader( fs, file ).logVersion );
+        assertFalse( logFiles.hasAnyEntries( 3L ) );
+        try ( ReadAheadLogChannel reader = new ReadAheadLogChannel( logFiles.openForVersion( 3L ), LogVersionBridge.NO_MORE_CHANNELS ) )
+        {
+            assertNull( new VersionAwareLogEntryReader<>( new RecordStorageCommandReaderFactory(), InvalidLogEntryHandler.STRICT, true )
+                    .readLogEntry( reader ) );
+        }
+    }
+
     private static byte[] readBytes( ReadableClosableChannel reader, int length ) throws IOException
     {
         byte[] result = new byte[length];
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionSerializationBufferTest
+{
+    @Test
+    public void shouldSerializeTransactionLikeLogEntryWriter() throws Exception
+    {
+        // GIVEN
+        PhysicalTransactionRepresentation transaction = transaction( 10 );
+        InMemoryClosableChannel expectedChannel = new InMemoryClosableChannel();
+        TransactionLogWriter expectedWriter = new TransactionLogWriter( new LogEntryWriter( expectedChannel ) );
+        expectedWriter.append( transaction, 42 );
+
+        // WHEN
+        TransactionSerializationBuffer buffer = new TransactionSerializationBuffer( 1024 * 1024, 16 );
+        assertTrue( buffer.serialize( transaction ) );
+        InMemoryClosableChannel actualChannel = new InMemoryClosableChannel();
+        new TransactionLogWriter( new LogEntryWriter( actualChannel ) ).append( buffer, transaction, 42 );
+
+        // THEN
+        assertArrayEquals( bytesOf( expectedChannel ), bytesOf( actualChannel ) );
+    }
+
+    @Test
+    public void shouldNotSerializeTransactionsBiggerThanMaxBytes() throws Exception
+    {
+        // GIVEN
+        TransactionSerializationBuffer buffer = new TransactionSerializationBuffer( 256, 64 );
+
+        // WHEN/THEN
+        assertFalse( buffer.serialize( transaction( 100 ) ) );
+        buffer.clear();
+        assertTrue( buffer.serialize( transaction( 1 ) ) );
+    }
+
+    @Test
+    public void shouldReplacePreviouslySerializedTransaction() throws Exception
+    {
+        // GIVEN
+        TransactionSerializationBuffer buffer = new TransactionSerializationBuffer( 1024 * 1024, 16 );
+        assertTrue( buffer.serialize( transaction( 1 ) ) );
+        int sizeOfOne = buffer.size();
+
+        // WHEN
+        assertTrue( buffer.serialize( transaction( 100 ) ) );
+        buffer.clear();
+        assertTrue( buffer.serialize( transaction( 1 ) ) );
+
+        // THEN
+        assertEquals( sizeOfOne, buffer.size() );
+    }
+
+    private static byte[] bytesOf( InMemoryClosableChannel channel ) throws Exception
+    {
+        byte[] bytes = new byte[channel.writerPosition()];
+        channel.get( bytes, bytes.length );
+        return bytes;
+    }
+
+    private static PhysicalTransactionRepresentation transaction( int nodeCount )
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            NodeRecord before = new NodeRecord( i );
+            NodeRecord after = new NodeRecord( i );
+            after.setInUse( true );
+            commands.add( new NodeCommand( before, after ) );
+        }
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+        transaction.setHeader( new byte[]{1, 2, 3}, 1, 2, 3, 4, 5, 6 );
+        return transaction;
+    }
+}
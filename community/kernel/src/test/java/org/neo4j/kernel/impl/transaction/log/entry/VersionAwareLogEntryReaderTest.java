@@ -35,6 +35,7 @@ import static java.lang.System.currentTimeMillis;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 public class VersionAwareLogEntryReaderTest
 {
@@ -246,6 +247,75 @@ public class VersionAwareLogEntryReaderTest
         assertEquals( secondStartTime, readSecondStartEntry.getTimeWritten() );
     }
 
+    @Test
+    public void shouldTreatZerosBeforeLogEntriesAsCorruptionWhenLogFilesAreNotPreallocated() throws Exception
+    {
+        // GIVEN
+        InMemoryClosableChannel channel = channelWithZerosBetweenEntries( 16 );
+        logEntryReader.readLogEntry( channel.reader() );
+
+        // WHEN
+        try
+        {
+            logEntryReader.readLogEntry( channel.reader() );
+            fail( "Should have failed on the zeros" );
+        }
+        catch ( UnsupportedLogVersionException e )
+        {
+            // THEN good
+        }
+    }
+
+    @Test
+    public void shouldSkipZerosBeforeLogEntriesWhenLogFilesAreNotPreallocatedAndInvalidEntriesAreAccepted() throws Exception
+    {
+        // GIVEN
+        AcceptingInvalidLogEntryHandler invalidLogEntryHandler = new AcceptingInvalidLogEntryHandler();
+        VersionAwareLogEntryReader<ReadableClosablePositionAwareChannel> reader = new VersionAwareLogEntryReader<>(
+                new RecordStorageCommandReaderFactory(), invalidLogEntryHandler );
+        InMemoryClosableChannel channel = channelWithZerosBetweenEntries( 16 );
+
+        // WHEN
+        LogEntryStart readStartEntry = reader.readLogEntry( channel.reader() ).as();
+        LogEntryCommit readCommitEntry = reader.readLogEntry( channel.reader() ).as();
+
+        // THEN
+        assertEquals( 3, readStartEntry.getLastCommittedTxWhenTransactionStarted() );
+        assertEquals( 4, readCommitEntry.getTxId() );
+        assertEquals( 16, invalidLogEntryHandler.bytesSkipped );
+    }
+
+    @Test
+    public void shouldStopAtZerosBeforeLogEntriesWhenLogFilesArePreallocatedOrRecycled() throws Exception
+    {
+        // GIVEN
+        VersionAwareLogEntryReader<ReadableClosablePositionAwareChannel> reader = new VersionAwareLogEntryReader<>(
+                new RecordStorageCommandReaderFactory(), InvalidLogEntryHandler.STRICT, true );
+        InMemoryClosableChannel channel = channelWithZerosBetweenEntries( 16 );
+        reader.readLogEntry( channel.reader() );
+        int endOfEntries = channel.readerPosition();
+
+        // WHEN
+        LogEntry logEntry = reader.readLogEntry( channel.reader() );
+
+        // THEN
+        assertNull( logEntry );
+        assertEquals( endOfEntries, channel.readerPosition() );
+    }
+
+    private static InMemoryClosableChannel channelWithZerosBetweenEntries( int zeros ) throws IOException
+    {
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 1_000 );
+        LogEntryWriter writer = new LogEntryWriter( channel.writer() );
+        writer.writeStartEntry( 1, 2, currentTimeMillis(), 3, new byte[0] );
+        for ( int i = 0; i < zeros; i++ )
+        {
+            channel.put( (byte) 0 );
+        }
+        writer.writeCommitEntry( 4, currentTimeMillis() );
+        return channel;
+    }
+
     static class AcceptingInvalidLogEntryHandler extends InvalidLogEntryHandler
     {
         long bytesSkipped;
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.state.storeview;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EntityScanRangesTest
+{
+    private final AtomicLong highestIdInUse = new AtomicLong( 249 );
+    private final EntityScanRanges ranges = new EntityScanRanges( 2, 100, highestIdInUse::get );
+
+    @Test
+    public void shouldHandOutConsecutiveRangesUpToHighId()
+    {
+        assertTrue( ranges.claim( 0 ) );
+        assertRange( 0, 0, 100 );
+        assertTrue( ranges.claim( 1 ) );
+        assertRange( 1, 100, 200 );
+        assertTrue( ranges.claim( 0 ) );
+        assertRange( 0, 200, 250 );
+        assertFalse( ranges.claim( 1 ) );
+    }
+
+    @Test
+    public void shouldIncludeEntitiesCreatedDuringScan()
+    {
+        assertTrue( ranges.claim( 0 ) );
+        assertTrue( ranges.claim( 1 ) );
+        assertTrue( ranges.claim( 0 ) );
+        highestIdInUse.set( 299 );
+
+        assertTrue( ranges.claim( 1 ) );
+        assertRange( 1, 250, 300 );
+    }
+
+    @Test
+    public void shouldNotHandOutMoreRangesOnceExhausted()
+    {
+        assertTrue( ranges.claim( 0 ) );
+        assertTrue( ranges.claim( 1 ) );
+        assertTrue( ranges.claim( 0 ) );
+        assertFalse( ranges.claim( 1 ) );
+        highestIdInUse.set( 299 );
+
+        assertFalse( ranges.claim( 0 ) );
+    }
+
+    @Test
+    public void shouldOnlyConsiderScannedEntitiesThatWorkersHaveProcessed()
+    {
+        // given
+        assertTrue( ranges.claim( 0 ) );
+        assertTrue( ranges.claim( 1 ) );
+
+        // when
+        ranges.scanned( 0, 10 );
+        ranges.scanned( 1, 150 );
+
+        // then
+        assertTrue( ranges.hasScanned( 0 ) );
+        assertTrue( ranges.hasScanned( 10 ) );
+        assertFalse( ranges.hasScanned( 11 ) );
+        assertFalse( ranges.hasScanned( 99 ) );
+        assertTrue( ranges.hasScanned( 100 ) );
+        assertTrue( ranges.hasScanned( 150 ) );
+        assertFalse( ranges.hasScanned( 151 ) );
+        assertFalse( ranges.hasScanned( 200 ) );
+    }
+
+    @Test
+    public void shouldConsiderEntitiesOfCompletedRangesScanned()
+    {
+        // given
+        assertTrue( ranges.claim( 0 ) );
+        assertTrue( ranges.claim( 1 ) );
+        ranges.scanned( 0, 99 );
+
+        // when
+        assertTrue( ranges.claim( 0 ) );
+
+        // then
+        assertTrue( ranges.hasScanned( 50 ) );
+        assertFalse( ranges.hasScanned( 150 ) );
+        assertFalse( ranges.hasScanned( 200 ) );
+    }
+
+    @Test
+    public void shouldConsiderEntitiesBeyondExhaustedScanScanned()
+    {
+        // given
+        assertTrue( ranges.claim( 0 ) );
+        assertTrue( ranges.claim( 1 ) );
+        assertTrue( ranges.claim( 0 ) );
+        assertFalse( ranges.hasScanned( 300 ) );
+
+        // when
+        assertFalse( ranges.claim( 1 ) );
+
+        // then
+        assertTrue( ranges.hasScanned( 300 ) );
+    }
+
+    private void assertRange( int worker, long start, long end )
+    {
+        assertEquals( start, ranges.start( worker ) );
+        assertEquals( end, ranges.end( worker ) );
+    }
+}
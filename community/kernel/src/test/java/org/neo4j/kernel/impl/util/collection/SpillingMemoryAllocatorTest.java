@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.api.state.AppendOnlyValuesContainer;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryAllocationTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.values.storable.Value;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.values.storable.Values.stringValue;
+
+@ExtendWith( TestDirectoryExtension.class )
+class SpillingMemoryAllocatorTest
+{
+    @Inject
+    private TestDirectory testDirectory;
+
+    private final CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+    private final MemoryAllocationTracker memoryTracker = new LocalMemoryTracker();
+    private File spillDirectory;
+    private SpillingMemoryAllocator allocator;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        spillDirectory = new File( testDirectory.directory(), "temp" );
+        allocator = new SpillingMemoryAllocator( new OffHeapMemoryAllocator( memoryTracker, blockAllocator ), 1024, spillDirectory );
+    }
+
+    @AfterEach
+    void afterEach()
+    {
+        allocator.close();
+        blockAllocator.release();
+    }
+
+    @Test
+    void allocateFromDelegateUntilThresholdIsReached()
+    {
+        final Memory first = allocator.allocate( 512, false );
+        final Memory second = allocator.allocate( 512, false );
+        assertFalse( allocator.hasSpilled() );
+        final long usedDirectMemory = memoryTracker.usedDirectMemory();
+        assertTrue( usedDirectMemory >= 1024 );
+
+        final Memory spilled = allocator.allocate( 512, false );
+        assertTrue( allocator.hasSpilled() );
+        assertEquals( usedDirectMemory, memoryTracker.usedDirectMemory() );
+        assertEquals( 512, spilled.size() );
+
+        first.free();
+        second.free();
+        spilled.free();
+        assertEquals( 0, memoryTracker.usedDirectMemory() );
+    }
+
+    @Test
+    void spilledMemoryIsZeroedReadableAndWritable()
+    {
+        allocator.allocate( 1024, false ).free();
+        final Memory memory = allocator.allocate( 256, true );
+        for ( int offset = 0; offset < 256; offset += Long.BYTES )
+        {
+            assertEquals( 0, memory.readLong( offset ) );
+            memory.writeLong( offset, offset * 31L );
+        }
+
+        final Memory copy = memory.copy();
+        memory.clear();
+        final ByteBuffer buffer = copy.asByteBuffer();
+        for ( int offset = 0; offset < 256; offset += Long.BYTES )
+        {
+            assertEquals( 0, memory.readLong( offset ) );
+            assertEquals( offset * 31L, copy.readLong( offset ) );
+            assertEquals( offset * 31L, buffer.getLong( offset ) );
+        }
+    }
+
+    @Test
+    void valuesContainerReadsBackSpilledValues()
+    {
+        final SpillingMemoryAllocator valuesAllocator =
+                new SpillingMemoryAllocator( new OffHeapMemoryAllocator( memoryTracker, blockAllocator ), 512 * 1024, spillDirectory );
+        final AppendOnlyValuesContainer container = new AppendOnlyValuesContainer( valuesAllocator );
+        try
+        {
+            final List<Value> values = new ArrayList<>();
+            final List<Long> refs = new ArrayList<>();
+            final String padding = new String( new char[1000] ).replace( '\0', 'x' );
+            for ( int i = 0; i < 2_000; i++ )
+            {
+                final Value value = stringValue( i + padding );
+                values.add( value );
+                refs.add( container.add( value ) );
+            }
+            assertTrue( valuesAllocator.hasSpilled() );
+
+            for ( int i = 0; i < values.size(); i++ )
+            {
+                assertEquals( values.get( i ), container.get( refs.get( i ) ) );
+            }
+        }
+        finally
+        {
+            container.close();
+            valuesAllocator.close();
+        }
+        assertEquals( 0, memoryTracker.usedDirectMemory() );
+    }
+
+    @Test
+    void spillToFileInGivenDirectoryAndDeleteItOnClose()
+    {
+        assertFalse( spillDirectory.exists() );
+        allocator.allocate( 1024, false );
+        assertFalse( spillDirectory.exists() );
+
+        allocator.allocate( 512, false );
+        assertEquals( 1, spillFiles().length );
+
+        allocator.close();
+        assertArrayEquals( new File[0], spillFiles() );
+    }
+
+    @Test
+    void freedOrClosedRegionsCanNotBeUsed()
+    {
+        allocator.allocate( 1024, false );
+        final Memory freed = allocator.allocate( 256, true );
+        final Memory closed = allocator.allocate( 256, true );
+        freed.writeLong( 0, 42 );
+        closed.writeLong( 0, 4711 );
+
+        freed.free();
+        assertThrows( IllegalStateException.class, () -> freed.readLong( 0 ) );
+        assertThrows( IllegalStateException.class, freed::free );
+        assertEquals( 4711, closed.readLong( 0 ) );
+
+        allocator.close();
+        assertThrows( IllegalStateException.class, () -> closed.readLong( 0 ) );
+        assertThrows( IllegalStateException.class, closed::asByteBuffer );
+    }
+
+    @Test
+    void deleteLeftoverSpillFiles() throws IOException
+    {
+        assertTrue( spillDirectory.mkdirs() );
+        // Like after a crash, where the allocator was never closed
+        assertTrue( new File( spillDirectory, "neo4j-tx-state-1.tmp" ).createNewFile() );
+        final File other = new File( spillDirectory, "other" );
+        assertTrue( other.createNewFile() );
+
+        SpillingMemoryAllocator.deleteSpillFiles( spillDirectory );
+        assertArrayEquals( new File[]{other}, spillDirectory.listFiles() );
+    }
+
+    @Test
+    void deleteSpillFilesIgnoresMissingDirectory()
+    {
+        SpillingMemoryAllocator.deleteSpillFiles( spillDirectory );
+        assertFalse( spillDirectory.exists() );
+    }
+
+    private File[] spillFiles()
+    {
+        return spillDirectory.listFiles();
+    }
+}
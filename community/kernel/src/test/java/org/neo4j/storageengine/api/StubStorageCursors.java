@@ -132,6 +132,12 @@ public class StubStorageCursors implements StorageReader
         throw new UnsupportedOperationException( "Not implemented yet" );
     }
 
+    @Override
+    public LabelScanReader getRelationshipTypeScanReader()
+    {
+        throw new UnsupportedOperationException( "Not implemented yet" );
+    }
+
     @Override
     public IndexReader getIndexReader( IndexDescriptor index )
     {
@@ -336,6 +342,18 @@ public class StubStorageCursors implements StorageReader
         throw new UnsupportedOperationException( "Not implemented yet" );
     }
 
+    @Override
+    public long nodesGetHighestPossibleIdInUse()
+    {
+        throw new UnsupportedOperationException( "Not implemented yet" );
+    }
+
+    @Override
+    public long relationshipsGetHighestPossibleIdInUse()
+    {
+        throw new UnsupportedOperationException( "Not implemented yet" );
+    }
+
     @Override
     public int labelCount()
     {
@@ -470,6 +488,12 @@ public class StubStorageCursors implements StorageReader
             this.iterator = nodeData.keySet().iterator();
         }
 
+        @Override
+        public void scanRange( long start, long end )
+        {
+            throw new UnsupportedOperationException( "Not implemented yet" );
+        }
+
         @Override
         public void single( long reference )
         {
@@ -585,6 +609,18 @@ public class StubStorageCursors implements StorageReader
             next = NO_ID;
         }
 
+        @Override
+        public void scanRange( long start, long end )
+        {
+            scanRange( -1, start, end );
+        }
+
+        @Override
+        public void scanRange( int type, long start, long end )
+        {
+            throw new UnsupportedOperationException( "Not implemented yet" );
+        }
+
         @Override
         public void single( long reference )
         {
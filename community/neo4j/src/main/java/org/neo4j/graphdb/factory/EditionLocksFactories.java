@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.LocksFactory;
 import org.neo4j.kernel.impl.locking.ResourceTypes;
 import org.neo4j.kernel.impl.locking.community.CommunityLocksFactory;
+import org.neo4j.kernel.impl.locking.striped.StripedLocksFactory;
 import org.neo4j.logging.internal.LogService;
 
 public final class EditionLocksFactories
@@ -62,6 +63,10 @@ public final class EditionLocksFactories
         {
             return new CommunityLocksFactory();
         }
+        else if ( "striped".equals( key ) )
+        {
+            return new StripedLocksFactory();
+        }
         else if ( StringUtils.isEmpty( key ) )
         {
             logging.getInternalLog( CommunityEditionModule.class )
@@ -42,6 +42,7 @@ import org.neo4j.kernel.configuration.ConnectorPortRegister;
 import org.neo4j.kernel.extension.GlobalKernelExtensions;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.extension.KernelExtensionFailureStrategies;
+import org.neo4j.kernel.impl.api.GroupCommitMonitor;
 import org.neo4j.kernel.impl.api.LogRotationMonitor;
 import org.neo4j.kernel.impl.context.TransactionVersionContextSupplier;
 import org.neo4j.kernel.impl.core.DatabasePanicEventGenerator;
@@ -60,6 +61,7 @@ import org.neo4j.kernel.impl.util.collection.CapacityLimitingBlockAllocatorDecor
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.SpillingMemoryAllocator;
 import org.neo4j.kernel.info.JvmChecker;
 import org.neo4j.kernel.info.JvmMetadataRepository;
 import org.neo4j.kernel.info.SystemDiagnostics;
@@ -194,12 +196,14 @@ public class PlatformModule
         dependencies.satisfyDependency( tracers.pageCacheTracer );
         dependencies.satisfyDependency( firstImplementor(
                 LogRotationMonitor.class, tracers.transactionTracer, LogRotationMonitor.NULL ) );
+        dependencies.satisfyDependency( firstImplementor(
+                GroupCommitMonitor.class, tracers.transactionTracer, GroupCommitMonitor.NULL ) );
         dependencies.satisfyDependency( firstImplementor(
                 CheckPointerMonitor.class, tracers.checkPointTracer, CheckPointerMonitor.NULL ) );
 
         versionContextSupplier = createCursorContextSupplier( config );
 
-        collectionsFactorySupplier = createCollectionsFactorySupplier( config, life );
+        collectionsFactorySupplier = createCollectionsFactorySupplier( config, storeLayout, life );
 
         dependencies.satisfyDependency( versionContextSupplier );
         pageCache = dependencies.satisfyDependency( createPageCache( fileSystem, config, logging, tracers, versionContextSupplier, jobScheduler ) );
@@ -347,7 +351,7 @@ public class PlatformModule
         return pageCache;
     }
 
-    private static CollectionsFactorySupplier createCollectionsFactorySupplier( Config config, LifeSupport life )
+    private static CollectionsFactorySupplier createCollectionsFactorySupplier( Config config, StoreLayout storeLayout, LifeSupport life )
     {
         final GraphDatabaseSettings.TransactionStateMemoryAllocation allocation = config.get( GraphDatabaseSettings.tx_state_memory_allocation );
         switch ( allocation )
@@ -369,7 +373,14 @@ public class PlatformModule
                 sharedBlockAllocator = allocator;
             }
             life.add( onShutdown( sharedBlockAllocator::release ) );
-            return () -> new OffHeapCollectionsFactory( sharedBlockAllocator );
+            final long valuesSpillThreshold = config.get( GraphDatabaseSettings.tx_state_off_heap_values_spill_threshold );
+            final File spillDirectory = storeLayout.databaseLayout( config.get( GraphDatabaseSettings.active_database ) ).temporaryDirectory();
+            if ( valuesSpillThreshold > 0 )
+            {
+                // Transactions that are still open at shutdown, or were open when the process died, leave their files behind
+                life.add( onShutdown( () -> SpillingMemoryAllocator.deleteSpillFiles( spillDirectory ) ) );
+            }
+            return () -> new OffHeapCollectionsFactory( sharedBlockAllocator, valuesSpillThreshold, spillDirectory );
         default:
             throw new IllegalArgumentException( "Unknown transaction state memory allocation value: " + allocation );
         }
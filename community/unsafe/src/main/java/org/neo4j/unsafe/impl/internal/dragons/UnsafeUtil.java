@@ -23,6 +23,7 @@ import sun.misc.Unsafe;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
@@ -69,6 +70,7 @@ public final class UnsafeUtil
 
     private static final Unsafe unsafe;
     private static final MethodHandle sharedStringConstructor;
+    private static final MethodHandle bufferCleaner;
     private static final String allowUnalignedMemoryAccessProperty =
             "org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.allowUnalignedMemoryAccess";
 
@@ -96,6 +98,7 @@ public final class UnsafeUtil
 
         MethodHandles.Lookup lookup = MethodHandles.lookup();
         sharedStringConstructor = getSharedStringConstructorMethodHandle( lookup );
+        bufferCleaner = getBufferCleanerMethodHandle( lookup );
 
         Class<?> dbbClass = null;
         Constructor<?> ctor = null;
@@ -239,6 +242,33 @@ public final class UnsafeUtil
         }
     }
 
+    private static MethodHandle getBufferCleanerMethodHandle( MethodHandles.Lookup lookup )
+    {
+        try
+        {
+            // Java 9 and later
+            return lookup.findVirtual( Unsafe.class, "invokeCleaner", MethodType.methodType( void.class, ByteBuffer.class ) )
+                    .bindTo( unsafe );
+        }
+        catch ( Exception e )
+        {
+            try
+            {
+                // Java 8
+                Class<?> directBuffer = Class.forName( "sun.nio.ch.DirectBuffer" );
+                Class<?> cleaner = Class.forName( "sun.misc.Cleaner" );
+                MethodHandle getCleaner = lookup.findVirtual( directBuffer, "cleaner", MethodType.methodType( cleaner ) );
+                MethodHandle clean = lookup.findVirtual( cleaner, "clean", MethodType.methodType( void.class ) );
+                return MethodHandles.filterReturnValue( getCleaner, clean )
+                        .asType( MethodType.methodType( void.class, ByteBuffer.class ) );
+            }
+            catch ( Exception e1 )
+            {
+                return null;
+            }
+        }
+    }
+
     /**
      * Get the object-relative field offset.
      */
@@ -967,6 +997,45 @@ public final class UnsafeUtil
      * <p>
      * The ByteBuffer does NOT create a Cleaner, or otherwise register the pointer for freeing.
      */
+    /**
+     * Release the native memory of the given direct or memory mapped buffer right away, instead of when it is garbage
+     * collected. The memory is left to the garbage collector if the JVM offers no way of doing this.
+     * <p>
+     * The buffer must be the one that was originally allocated or mapped, not a duplicate or a slice of it, and neither it
+     * nor any buffer sharing its memory may be accessed afterwards; doing so can crash the JVM.
+     *
+     * @param buffer the buffer to release.
+     * @throws IllegalArgumentException if the buffer is not a direct buffer, or is a duplicate or a slice.
+     */
+    public static void invokeCleaner( ByteBuffer buffer )
+    {
+        if ( !buffer.isDirect() )
+        {
+            throw new IllegalArgumentException( "Not a direct buffer: " + buffer );
+        }
+        if ( bufferCleaner == null )
+        {
+            return;
+        }
+        try
+        {
+            bufferCleaner.invokeExact( buffer );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw e;
+        }
+        catch ( NullPointerException e )
+        {
+            // On Java 8, duplicates and slices have no cleaner
+            throw new IllegalArgumentException( "Buffer is a duplicate or a slice: " + buffer, e );
+        }
+        catch ( Throwable e )
+        {
+            throw new LinkageError( "Unable to release the memory of " + buffer, e );
+        }
+    }
+
     public static ByteBuffer newDirectByteBuffer( long addr, int cap ) throws Exception
     {
         if ( directByteBufferCtor == null )
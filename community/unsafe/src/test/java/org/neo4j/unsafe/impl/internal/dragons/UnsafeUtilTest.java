@@ -37,6 +37,7 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.allocateMemory;
 import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.arrayBaseOffset;
@@ -650,4 +651,14 @@ class UnsafeUtilTest
         free( p, sizeInBytes, tracker );
         assertEquals( value, readValue );
     }
+
+    @Test
+    void invokeCleanerOnlyAcceptsOriginalDirectBuffers()
+    {
+        assertThrows( IllegalArgumentException.class, () -> UnsafeUtil.invokeCleaner( ByteBuffer.allocate( 16 ) ) );
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect( 16 );
+        assertThrows( IllegalArgumentException.class, () -> UnsafeUtil.invokeCleaner( buffer.duplicate() ) );
+        UnsafeUtil.invokeCleaner( buffer );
+    }
 }